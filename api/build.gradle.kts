@@ -2,6 +2,7 @@ plugins {
     id("java")
     alias(libs.plugins.spring.boot)
     alias(libs.plugins.spring.dependency.management)
+    alias(libs.plugins.jmh)
 }
 
 group = "com.medhir"
@@ -43,6 +44,9 @@ dependencies {
     implementation(libs.springboot.starter.webflux)
     implementation(libs.springboot.starter.outh.server)
     implementation(libs.springboot.starter.outh.client)
+    implementation(libs.springboot.starter.actuator)
+    implementation(libs.springboot.starter.aop)
+    implementation(libs.micrometer.registry.prometheus)
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
 
 
@@ -51,6 +55,9 @@ dependencies {
     implementation(libs.jwt.impl)
     implementation(libs.jwt.jackson)
 
+    // Payslip PDFs
+    implementation(libs.pdfbox)
+
     // Lombok
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
@@ -66,3 +73,11 @@ dependencies {
 tasks.named<Test>("test") {
     useJUnitPlatform()
 }
+
+// Microbenchmarks live in src/jmh/java; run with ./gradlew :api:jmh
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
@@ -0,0 +1,101 @@
+package com.medhir.rest.benchmark;
+
+import com.medhir.rest.config.JwtTokenVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request authentication cost of JwtAuthenticationFilter: the previous implementation
+ * (key + parser rebuilt on every request) against {@link JwtTokenVerifier} with a warm cache
+ * and with the cache bypassed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "YOUR_SECRET_KEY_IS_YOUR_KEY_TO_AUTHENTICATE_YOU_IF_YOUR_LOGGED_IN_OR_NOT";
+
+    private JwtTokenVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        verifier = new JwtTokenVerifier(SECRET, 10_000);
+        token = Jwts.builder()
+                .claim("companyId", "CID101")
+                .claim("companyName", "Medhir")
+                .claim("name", "Benchmark User")
+                .claim("employeeId", "EMP101")
+                .claim("roles", Set.of("EMPLOYEE", "MANAGER"))
+                .setSubject("bench@medhir.in")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public UsernamePasswordAuthenticationToken rebuildParserPerRequest() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+
+        List<String> roleStrings = claims.get("roles", List.class);
+        List<GrantedAuthority> authorities = roleStrings.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("employeeId", claims.get("employeeId", String.class));
+        details.put("name", claims.get("name", String.class));
+        details.put("companyId", claims.get("companyId", String.class));
+        details.put("companyName", claims.get("companyName", String.class));
+
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(claims.getSubject(), null, authorities);
+        authToken.setDetails(details);
+        return authToken;
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken sharedParserNoCache() {
+        verifier.clear();
+        return toAuthentication(verifier.verify(token));
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken cachedVerification() {
+        return toAuthentication(verifier.verify(token));
+    }
+
+    private static UsernamePasswordAuthenticationToken toAuthentication(JwtTokenVerifier.VerifiedToken verified) {
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(verified.username(), null, verified.authorities());
+        authToken.setDetails(verified.details());
+        return authToken;
+    }
+}
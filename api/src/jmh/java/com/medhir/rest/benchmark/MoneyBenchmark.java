@@ -0,0 +1,100 @@
+package com.medhir.rest.benchmark;
+
+import com.medhir.rest.utils.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of a payslip (five prorated components, totals, a TDS percentage) and of bill
+ * payment totals over 1,000 amounts, on {@link Money} paise against the {@link BigDecimal} code
+ * it replaced. Run with {@code -prof gc} to compare allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private static final int AMOUNTS = 1_000;
+
+    private long[] paise;
+    private BigDecimal[] decimals;
+
+    private final double[] salary = {50_000, 20_000, 10_000, 1_800, 1_800};
+    private long[] salaryPaise;
+    private BigDecimal[] salaryDecimals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        paise = new long[AMOUNTS];
+        decimals = new BigDecimal[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            paise[i] = random.nextInt(10_000_000);
+            decimals[i] = BigDecimal.valueOf(paise[i], 2);
+        }
+        salaryPaise = new long[salary.length];
+        salaryDecimals = new BigDecimal[salary.length];
+        for (int i = 0; i < salary.length; i++) {
+            salaryPaise[i] = Money.fromRupees(salary[i]);
+            salaryDecimals[i] = BigDecimal.valueOf(salary[i]);
+        }
+    }
+
+    @Benchmark
+    public long sumPaise() {
+        long total = Money.ZERO;
+        for (long amount : paise) {
+            total = Money.add(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long payslipPaise() {
+        long gross = Money.ZERO;
+        for (int i = 0; i < 3; i++) {
+            gross = Money.add(gross, Money.prorate(salaryPaise[i], 26, 28));
+        }
+        long pf = Money.prorate(salaryPaise[3], 26, 28);
+        long employerPf = Money.prorate(salaryPaise[4], 26, 28);
+        long tds = Money.percent(gross, 10);
+        return Money.subtract(gross, Money.add(pf, tds, 20_000)) + employerPf;
+    }
+
+    @Benchmark
+    public BigDecimal payslipBigDecimal() {
+        BigDecimal days = BigDecimal.valueOf(26);
+        BigDecimal daysInMonth = BigDecimal.valueOf(28);
+        BigDecimal gross = BigDecimal.ZERO;
+        for (int i = 0; i < 3; i++) {
+            gross = gross.add(prorate(salaryDecimals[i], days, daysInMonth));
+        }
+        BigDecimal pf = prorate(salaryDecimals[3], days, daysInMonth);
+        BigDecimal employerPf = prorate(salaryDecimals[4], days, daysInMonth);
+        BigDecimal tds = gross.multiply(BigDecimal.TEN).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_EVEN);
+        return gross.subtract(pf.add(tds).add(BigDecimal.valueOf(200))).add(employerPf);
+    }
+
+    private static BigDecimal prorate(BigDecimal amount, BigDecimal days, BigDecimal daysInMonth) {
+        return amount.multiply(days).divide(daysInMonth, 2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,87 @@
+package com.medhir.rest.benchmark;
+
+import com.medhir.rest.model.PayslipModel;
+import com.medhir.rest.service.payroll.PayslipPdfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Payslip export throughput in pages per second: rendering alone, rendering on four threads (the
+ * default export pool), and rendering plus writing the page into a ZIP as the export does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PayslipPdfBenchmark {
+
+    private PayslipPdfRenderer renderer;
+    private PayslipModel payslip;
+
+    @Setup
+    public void setUp() {
+        renderer = new PayslipPdfRenderer();
+        payslip = new PayslipModel();
+        payslip.setEmployeeId("EMP101");
+        payslip.setEmployeeName("Benchmark Employee");
+        payslip.setDesignation("Software Engineer");
+        payslip.setDateOfJoining(LocalDate.of(2023, 4, 1));
+        payslip.setPan("ABCDE1234F");
+        payslip.setUanNumber("100200300400");
+        payslip.setMonth("February");
+        payslip.setYear(2025);
+        payslip.setMonthYearDisplay("Feb-2025");
+        payslip.setDaysInMonth(28);
+        payslip.setSalaryPaidForDays(26);
+        payslip.setLossOfPayDays(2);
+        payslip.setBasicSalaryPerMonth(50000);
+        payslip.setBasicSalaryThisMonth(46428.57);
+        payslip.setHraPerMonth(20000);
+        payslip.setHraThisMonth(18571.43);
+        payslip.setOtherAllowancesPerMonth(10000);
+        payslip.setOtherAllowancesThisMonth(9285.71);
+        payslip.setTotalEarningsPerMonth(80000);
+        payslip.setTotalEarningsThisMonth(74285.71);
+        payslip.setPfEmployeeDeduction(1800);
+        payslip.setProfessionalTax(200);
+        payslip.setTds(7428.57);
+        payslip.setTotalDeductions(9428.57);
+        payslip.setNetPay(64857.14);
+    }
+
+    @Benchmark
+    public byte[] renderPage() {
+        return renderer.render(payslip);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] renderPageOnExportPool() {
+        return renderer.render(payslip);
+    }
+
+    @Benchmark
+    public int renderPageIntoZip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setLevel(Deflater.BEST_SPEED);
+            zip.putNextEntry(new ZipEntry(PayslipPdfRenderer.fileName(payslip)));
+            zip.write(renderer.render(payslip));
+            zip.closeEntry();
+        }
+        return out.size();
+    }
+}
@@ -2,14 +2,19 @@ package com.medhir.rest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableMongoAuditing
+@EnableScheduling
 public class NayatiRestApplication {
 
     public static void main(String[] args) {
         SpringApplication app = new SpringApplication(NayatiRestApplication.class);
+        // Startup steps are reported by /actuator/startup
+        app.setApplicationStartup(new BufferingApplicationStartup(4096));
         app.run(args);
     }
 }
@@ -1,37 +1,31 @@
 package com.medhir.rest.config;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.Key;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    public JwtAuthenticationFilter(JwtTokenVerifier jwtTokenVerifier) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+    }
+
+    // Clients call these with an access token that has usually just expired; the body carries the credential
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.equals("/api/auth/refresh") || path.equals("/api/auth/logout");
     }
 
     @Override
@@ -46,42 +40,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        Claims claims;
+        JwtTokenVerifier.VerifiedToken verified;
 
         try {
-            claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            verified = jwtTokenVerifier.verify(token);
         } catch (JwtException e) {
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
             return;
         }
 
-        // Extract username (email) and roles
-        String username = claims.getSubject();
-        List<String> roleStrings = claims.get("roles", List.class);
-        String employeeId = claims.get("employeeId", String.class);
-        String name = claims.get("name", String.class);
-        String companyId = claims.get("companyId", String.class);
-        String companyName = claims.get("companyName", String.class);
-
-        // Convert roles to authorities
-        List<GrantedAuthority> authorities = roleStrings.stream()
-                .map(SimpleGrantedAuthority::new)  // No need to add "ROLE_" prefix
-                .collect(Collectors.toList());
-
-        if (username != null && !authorities.isEmpty()) {
-            Map<String, Object> details = new HashMap<>();
-            details.put("employeeId", employeeId);
-            details.put("name", name);
-            details.put("companyId", companyId);
-            details.put("companyName", companyName);
-
+        // Principal, authorities and details are cached and immutable; only the token object is per request
+        if (verified.username() != null && !verified.authorities().isEmpty()) {
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    username, null, authorities);
-            authToken.setDetails(details);
+                    verified.username(), null, verified.authorities());
+            authToken.setDetails(verified.details());
             SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
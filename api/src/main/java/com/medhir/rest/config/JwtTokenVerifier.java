@@ -0,0 +1,130 @@
+package com.medhir.rest.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies bearer tokens with a signing key and parser built once at startup, and remembers
+ * tokens it has already verified. Cache entries are keyed by the SHA-256 of the token (the
+ * token itself is never kept), hold only immutable objects, and are dropped once the token expires.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final Map<String, VerifiedToken> cache;
+
+    public JwtTokenVerifier(@Value("${jwt.secret}") String secretKey,
+                            @Value("${jwt.verified-cache-size:10000}") int cacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Full signature and expiry check, bypassing the cache.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = cache.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return cached;
+            }
+            cache.remove(key);
+        }
+
+        VerifiedToken verified = VerifiedToken.from(parseClaims(token));
+        if (verified.expiresAtMillis() != Long.MAX_VALUE) {
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Immutable result of a successful verification, safe to share between requests.
+     */
+    public record VerifiedToken(String username,
+                                List<GrantedAuthority> authorities,
+                                Map<String, Object> details,
+                                long expiresAtMillis) {
+
+        @SuppressWarnings("unchecked")
+        static VerifiedToken from(Claims claims) {
+            List<String> roleStrings = claims.get("roles", List.class);
+            List<GrantedAuthority> authorities = roleStrings == null
+                    ? List.of()
+                    : roleStrings.stream()
+                            .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role)) // No need to add "ROLE_" prefix
+                            .toList();
+
+            // HashMap because any of these claims may be missing (null) on older tokens
+            Map<String, Object> details = new HashMap<>();
+            details.put("employeeId", claims.get("employeeId", String.class));
+            details.put("name", claims.get("name", String.class));
+            details.put("companyId", claims.get("companyId", String.class));
+            details.put("companyName", claims.get("companyName", String.class));
+
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    authorities,
+                    Collections.unmodifiableMap(details),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.medhir.rest.config;
 import com.medhir.rest.model.Role;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,14 +14,17 @@ import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secretKey;
-
     @Value("${jwt.expiration}")
     private long expirationTime;
 
+    private final JwtTokenVerifier jwtTokenVerifier;
+
+    public JwtUtil(JwtTokenVerifier jwtTokenVerifier) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+    }
+
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+        return jwtTokenVerifier.getSigningKey();
     }
 
     public String generateToken(String email, Set<Role> roles) {
@@ -46,13 +48,11 @@ public class JwtUtil {
     }
 
     public String extractEmail(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return jwtTokenVerifier.parseClaims(token).getSubject();
     }
 
     public Set<Role> extractRoles(String token) {
-        List<String> roleStrings = Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody().get("roles", List.class);
+        List<String> roleStrings = jwtTokenVerifier.parseClaims(token).get("roles", List.class);
         return roleStrings.stream().map(Role::valueOf).collect(Collectors.toSet()); // Convert String back to Enum
     }
 
@@ -61,7 +61,6 @@ public class JwtUtil {
     }
 
     public boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody().getExpiration().before(new Date());
+        return jwtTokenVerifier.parseClaims(token).getExpiration().before(new Date());
     }
 }
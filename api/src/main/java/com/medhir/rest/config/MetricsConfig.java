@@ -0,0 +1,21 @@
+package com.medhir.rest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics Spring Boot does not record on its own. Endpoints ({@code http.server.requests}), Mongo
+ * command latency and pools ({@code mongodb.driver.*}), RestTemplates built from the
+ * {@code RestTemplateBuilder} ({@code http.client.requests}) and {@code @Timed} services are
+ * instrumented by Boot; everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentMetricsCustomizer(MeterRegistry meterRegistry) {
+        return builder -> builder.addCommandListener(new MongoDocumentMetrics(meterRegistry));
+    }
+}
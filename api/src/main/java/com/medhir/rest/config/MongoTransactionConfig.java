@@ -0,0 +1,22 @@
+package com.medhir.rest.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Multi-document transactions need a replica set. They are off by default so the api keeps working
+ * against a standalone mongod; without this bean {@code @Transactional} methods simply run their
+ * writes one after another.
+ */
+@Configuration
+@ConditionalOnProperty(name = "mongodb.transactions.enabled", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
@@ -0,0 +1,31 @@
+package com.medhir.rest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class OutboxConfig {
+
+    @Value("${outbox.http.connect-timeout-ms:5000}")
+    private int connectTimeout;
+
+    @Value("${outbox.http.read-timeout-ms:30000}")
+    private int readTimeout;
+
+    /**
+     * Used by the outbox handlers only. Timeouts keep one unresponsive service from stalling
+     * delivery for every other target. Built from the Boot builder so calls are timed as
+     * {@code http.client.requests}.
+     */
+    @Bean
+    public RestTemplate outboxRestTemplate(RestTemplateBuilder restTemplateBuilder) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return restTemplateBuilder.requestFactory(() -> requestFactory).build();
+    }
+}
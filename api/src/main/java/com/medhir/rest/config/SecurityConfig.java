@@ -2,6 +2,7 @@ package com.medhir.rest.config;
 
 import com.medhir.rest.exception.CustomAccessDeniedHandler;
 import com.medhir.rest.exception.CustomAuthenticationEntryPoint;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,11 +14,14 @@ import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import jakarta.servlet.DispatcherType;
 
 import java.util.Arrays;
 import java.util.List;
@@ -28,10 +32,28 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:${server.port:8080}}")
+    private int managementPort;
+
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
+    /**
+     * Matches {@code /actuator/prometheus} on {@code management.server.port}. When the management
+     * port is the public server port, nothing matches and the scrape needs a token like any other
+     * admin route.
+     */
+    private RequestMatcher prometheusScrape() {
+        AntPathRequestMatcher path = new AntPathRequestMatcher("/actuator/prometheus");
+        return request -> managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && path.matches(request);
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -39,6 +61,14 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (notification streams, streamed exports) continue a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                        // Liveness and readiness probes
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // The Prometheus scrape, only on the internal management port
+                        .requestMatchers(prometheusScrape()).permitAll()
+
                         // Publicly accessible endpoints
                         .requestMatchers(
                                 "/auth/**",
@@ -70,7 +100,7 @@ public class SecurityConfig {
                         .requestMatchers("/public-holidays/**").authenticated()
 
                         // Leave update status can be accessed by MANAGER or HRADMIN
-                        .requestMatchers("/leave/update-status").hasAnyAuthority("MANAGER", "HRADMIN")
+                        .requestMatchers("/leave/update-status", "/leave/update-status/bulk").hasAnyAuthority("MANAGER", "HRADMIN")
 
                         // Leave apply can be accessed by EMPLOYEE, MANAGER, or HRADMIN
                         .requestMatchers("/leave/apply").hasAnyAuthority("EMPLOYEE", "MANAGER", "HRADMIN")
@@ -88,6 +118,10 @@ public class SecurityConfig {
                         .requestMatchers("/income/manager/**").hasAuthority("MANAGER")
                         .requestMatchers("/income/**").hasAuthority("HRADMIN")
                         .requestMatchers("/expenses/**","/vendors/**","/payments/**","/bills/**").hasAuthority("ACCOUNTANT")
+                        .requestMatchers("/ap-aging/**").hasAnyAuthority("ACCOUNTANT", "HRADMIN", "SUPERADMIN")
+                        .requestMatchers("/finance-rollups/**").hasAnyAuthority("ACCOUNTANT", "HRADMIN", "SUPERADMIN")
+                        // Typeahead search; which types a role may search is checked in SearchController
+                        .requestMatchers("/search").hasAnyAuthority("HRADMIN", "SUPERADMIN", "MANAGER", "ACCOUNTANT", "SALES")
                         // All other routes can be accessed by HR or Super Admin
                         .anyRequest().hasAnyAuthority("HRADMIN", "SUPERADMIN")
                 )
@@ -108,7 +142,8 @@ public class SecurityConfig {
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
         config.setAllowCredentials(true); // Allow cookies
-        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Content-Disposition", "X-Export-Id", "ETag",
+                "X-Next-Cursor", "Link", "Deprecation"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
@@ -12,8 +12,8 @@ import com.medhir.rest.dto.EmployeeWithLeaveDetailsDTO;
 import com.medhir.rest.dto.EmployeeLeavePolicyWeeklyOffsDTO;
 import com.medhir.rest.exception.ResourceNotFoundException;
 import com.medhir.rest.model.EmployeeModel;
-import com.medhir.rest.repository.ModuleRepository;
 import com.medhir.rest.service.EmployeeService;
+import com.medhir.rest.service.ModuleMembershipIndex;
 import com.medhir.rest.utils.GeneratedId;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
@@ -42,7 +42,7 @@ public class EmployeeController {
     private GeneratedId generatedId;
 
     @Autowired
-    private ModuleRepository moduleRepository;
+    private ModuleMembershipIndex moduleIndex;
 
     // Generate Employee ID
     @GetMapping("/hradmin/generate-employee-id/{companyId}")
@@ -240,11 +240,11 @@ public class EmployeeController {
         
         if (moduleIds != null) {
             for (String moduleId : moduleIds) {
-                moduleRepository.findByModuleId(moduleId).ifPresent(module -> {
+                moduleIndex.module(moduleId).ifPresent(module -> {
                     Map<String, String> moduleInfo = new HashMap<>();
-                    moduleInfo.put("moduleId", module.getModuleId());
-                    moduleInfo.put("moduleName", module.getModuleName());
-                    moduleInfo.put("description", module.getDescription());
+                    moduleInfo.put("moduleId", module.moduleId());
+                    moduleInfo.put("moduleName", module.moduleName());
+                    moduleInfo.put("description", module.description());
                     moduleDetails.add(moduleInfo);
                 });
             }
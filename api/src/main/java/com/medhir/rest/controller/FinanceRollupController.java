@@ -0,0 +1,80 @@
+package com.medhir.rest.controller;
+
+import com.medhir.rest.dto.FinanceSummaryDTO;
+import com.medhir.rest.exception.BadRequestException;
+import com.medhir.rest.model.FinanceRollup;
+import com.medhir.rest.service.FinanceRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/finance-rollups")
+public class FinanceRollupController {
+
+    @Autowired
+    private FinanceRollupService financeRollupService;
+
+    @GetMapping("/expenses/company/{companyId}")
+    public ResponseEntity<List<FinanceSummaryDTO>> getExpenseSummary(
+            @PathVariable String companyId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month,status,project") List<String> groupBy) {
+        return ResponseEntity.ok(financeRollupService.getSummary(FinanceRollup.EXPENSE, companyId,
+                month(from), month(to), dimensions(groupBy)));
+    }
+
+    @GetMapping("/income/company/{companyId}")
+    public ResponseEntity<List<FinanceSummaryDTO>> getIncomeSummary(
+            @PathVariable String companyId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month,status,project") List<String> groupBy) {
+        return ResponseEntity.ok(financeRollupService.getSummary(FinanceRollup.INCOME, companyId,
+                month(from), month(to), dimensions(groupBy)));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<?> backfill() {
+        try {
+            return ResponseEntity.ok(financeRollupService.backfill());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static YearMonth month(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Month must be in yyyy-MM format: " + value);
+        }
+    }
+
+    private static Set<String> dimensions(List<String> groupBy) {
+        Set<String> dimensions = new LinkedHashSet<>();
+        for (String dimension : groupBy) {
+            String name = dimension.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!FinanceRollupService.DIMENSIONS.contains(name)) {
+                throw new BadRequestException("Cannot group by " + name + "; use month, status or project");
+            }
+            dimensions.add(name);
+        }
+        return dimensions;
+    }
+}
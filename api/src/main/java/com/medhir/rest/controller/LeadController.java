@@ -1,6 +1,9 @@
 package com.medhir.rest.controller;
 
+import com.medhir.rest.dto.filter.LeadFilterDTO;
+import com.medhir.rest.dto.lead.LeadPage;
 import com.medhir.rest.model.LeadModel;
+import com.medhir.rest.service.LeadQueryService;
 import com.medhir.rest.service.LeadService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +20,9 @@ public class LeadController {
     @Autowired
     private LeadService leadService;
 
+    @Autowired
+    private LeadQueryService leadQueryService;
+
     @PostMapping
     public ResponseEntity<LeadModel> createLead(@RequestBody LeadModel lead) {
         try {
@@ -33,6 +39,17 @@ public class LeadController {
         return ResponseEntity.ok(leadService.getAllLeads());
     }
 
+    /**
+     * Filtered, paginated pipeline view; filters are the {@link LeadFilterDTO} fields as query
+     * parameters, e.g. {@code ?status=Qualified&salesRepresentative=EMP1&salesRepresentative=EMP2}.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<LeadPage> queryLeads(@ModelAttribute LeadFilterDTO filter,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(leadQueryService.findLeads(filter, limit, after));
+    }
+
     @GetMapping("/{leadId}")
     public ResponseEntity<LeadModel> getLeadById(@PathVariable String leadId) {
         Optional<LeadModel> lead = leadService.getLeadById(leadId);
@@ -0,0 +1,55 @@
+package com.medhir.rest.controller;
+
+import com.medhir.rest.dto.search.SearchHit;
+import com.medhir.rest.service.search.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+public class SearchController {
+
+    // Who may search each type, on top of the roles allowed into /search at all
+    private static final Map<SearchIndex.Type, Set<String>> ALLOWED_ROLES = Map.of(
+            SearchIndex.Type.EMPLOYEE, Set.of("HRADMIN", "SUPERADMIN", "MANAGER", "ACCOUNTANT", "SALES"),
+            SearchIndex.Type.VENDOR, Set.of("HRADMIN", "SUPERADMIN", "ACCOUNTANT"),
+            SearchIndex.Type.LEAD, Set.of("HRADMIN", "SUPERADMIN", "SALES"));
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    // Typeahead for the employee, vendor and lead pickers, e.g. /search?q=ram&type=employee&companyId=CID101
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam String type,
+                                    @RequestParam(required = false) String companyId,
+                                    @RequestParam(defaultValue = "10") int limit,
+                                    Authentication authentication) {
+        SearchIndex.Type searchType;
+        try {
+            searchType = SearchIndex.Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid type. Must be one of employee, vendor, lead"));
+        }
+        if (searchType != SearchIndex.Type.LEAD && (companyId == null || companyId.isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "companyId is required"));
+        }
+        boolean allowed = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(ALLOWED_ROLES.get(searchType)::contains);
+        if (!allowed) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to search " + type));
+        }
+        List<SearchHit> hits = searchIndex.search(searchType, companyId, q, limit);
+        return ResponseEntity.ok(hits);
+    }
+}
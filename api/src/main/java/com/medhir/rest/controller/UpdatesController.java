@@ -1,23 +1,74 @@
 package com.medhir.rest.controller;
 
+import com.medhir.rest.dto.updates.NotificationPage;
+import com.medhir.rest.service.NotificationPushService;
 import com.medhir.rest.service.UpdatesService;
 import com.medhir.rest.model.updates.UpdateRequest;
 import com.medhir.rest.model.updates.UpdatesModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/updates")
 public class UpdatesController {
     private final UpdatesService updatesService;
+    private final NotificationPushService notificationPushService;
+
+    /**
+     * Deprecated in favour of /feed. Returns the newest page only, as the bare list older clients
+     * expect; when there is more, the X-Next-Cursor header and a rel="next" Link point at the next
+     * /feed page.
+     */
+    @Deprecated
     @GetMapping("/{employeeId}")
-    public ResponseEntity<List<UpdatesModel>> getNotification(@PathVariable String employeeId){
-        List<UpdatesModel> notifications = updatesService.getNotifications(employeeId);
-        return ResponseEntity.ok(notifications);
+    public ResponseEntity<List<UpdatesModel>> getNotification(@PathVariable String employeeId,
+                                                              @RequestParam(required = false) Integer limit){
+        NotificationPage page = updatesService.getNotifications(employeeId, limit, null);
+        String feed = "/updates/" + employeeId + "/feed";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "<" + feed + ">; rel=\"successor-version\"");
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor())
+                    .header(HttpHeaders.LINK, "<" + feed + "?before=" + page.getNextCursor() + ">; rel=\"next\"");
+        }
+        return response.body(page.getNotifications());
+    }
+
+    @GetMapping("/{employeeId}/feed")
+    public ResponseEntity<NotificationPage> getFeed(@PathVariable String employeeId,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) String before){
+        return ResponseEntity.ok(updatesService.getNotifications(employeeId, limit, before));
+    }
+
+    @GetMapping("/{employeeId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable String employeeId){
+        return ResponseEntity.ok(Map.of("unread", updatesService.getUnreadCount(employeeId)));
+    }
+
+    @PostMapping("/{employeeId}/read")
+    public ResponseEntity<Map<String, Long>> markRead(@PathVariable String employeeId, @RequestBody List<String> notificationIds){
+        return ResponseEntity.ok(Map.of("unread", updatesService.markRead(employeeId, notificationIds)));
+    }
+
+    @PostMapping("/{employeeId}/read-all")
+    public ResponseEntity<Map<String, Long>> markAllRead(@PathVariable String employeeId){
+        updatesService.markAllRead(employeeId);
+        return ResponseEntity.ok(Map.of("unread", 0L));
+    }
+
+    @GetMapping(value = "/{employeeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String employeeId){
+        return notificationPushService.subscribe(employeeId);
     }
 
     @PostMapping("/register")
@@ -25,4 +76,16 @@ public class UpdatesController {
         UpdatesModel savedNotification = updatesService.registerNotification(updateRequest.getEmployeeId(),updateRequest.getMessage(),updateRequest.getFlag());
         return ResponseEntity.ok(savedNotification);
     }
+
+    @PostMapping("/register/team/{managerId}")
+    public ResponseEntity<Map<String, Integer>> notifyTeam(@PathVariable String managerId, @RequestBody UpdateRequest updateRequest){
+        int notified = updatesService.notifyTeam(managerId, updateRequest.getMessage(), updateRequest.getFlag());
+        return ResponseEntity.ok(Map.of("notified", notified));
+    }
+
+    @PostMapping("/register/company/{companyId}")
+    public ResponseEntity<Map<String, Integer>> notifyCompany(@PathVariable String companyId, @RequestBody UpdateRequest updateRequest){
+        int notified = updatesService.notifyCompany(companyId, updateRequest.getMessage(), updateRequest.getFlag());
+        return ResponseEntity.ok(Map.of("notified", notified));
+    }
 }
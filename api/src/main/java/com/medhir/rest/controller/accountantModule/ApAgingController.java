@@ -0,0 +1,43 @@
+package com.medhir.rest.controller.accountantModule;
+
+import com.medhir.rest.dto.ApAgingDTO;
+import com.medhir.rest.service.accountantModule.ApAgingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/ap-aging")
+public class ApAgingController {
+
+    @Autowired
+    private ApAgingService apAgingService;
+
+    @GetMapping("/company/{companyId}")
+    public ResponseEntity<ApAgingDTO> getCompanyAging(@PathVariable String companyId) {
+        return ResponseEntity.ok(apAgingService.getCompanyAging(companyId));
+    }
+
+    @GetMapping("/company/{companyId}/vendors")
+    public ResponseEntity<List<ApAgingDTO>> getVendorBalances(@PathVariable String companyId) {
+        return ResponseEntity.ok(apAgingService.getVendorBalances(companyId));
+    }
+
+    @GetMapping("/company/{companyId}/vendors/{vendorId}")
+    public ResponseEntity<ApAgingDTO> getVendorAging(@PathVariable String companyId, @PathVariable String vendorId) {
+        return ResponseEntity.ok(apAgingService.getVendorAging(companyId, vendorId));
+    }
+
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile() {
+        try {
+            return ResponseEntity.ok(apAgingService.reconcile());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.medhir.rest.controller.auth;
 import com.medhir.rest.dto.auth.LoginRequest;
 import com.medhir.rest.dto.auth.LoginResponse;
 import com.medhir.rest.dto.auth.PasswordChangeRequest;
+import com.medhir.rest.dto.auth.RefreshTokenRequest;
 import com.medhir.rest.service.auth.EmployeeAuthService;
 import com.medhir.rest.service.auth.PasswordService;
 import jakarta.validation.Valid;
@@ -27,6 +28,18 @@ public class EmployeeAuthController {
         LoginResponse response = employeeAuthService.authenticate(request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(employeeAuthService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        employeeAuthService.logout(request.getRefreshToken());
+        return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
+    }
+
     @PostMapping("password/change")
     public ResponseEntity<Map<String, String>> changePassword(
             Authentication authentication,
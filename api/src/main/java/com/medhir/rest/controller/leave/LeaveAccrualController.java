@@ -0,0 +1,45 @@
+package com.medhir.rest.controller.leave;
+
+import com.medhir.rest.dto.leave.LeaveAccrualResult;
+import com.medhir.rest.service.leave.LeaveAccrualService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/hradmin/leave-accrual")
+public class LeaveAccrualController {
+
+    @Autowired
+    private LeaveAccrualService leaveAccrualService;
+
+    /**
+     * Recomputes balances from {@code from} to {@code to} (both yyyy-MM, default: current month).
+     */
+    @PostMapping("/run")
+    public ResponseEntity<?> run(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end;
+        try {
+            List<LeaveAccrualResult> results = leaveAccrualService.runRange(start, end);
+            return ResponseEntity.ok(results);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<List<LeaveAccrualResult>> getLastRun() {
+        return ResponseEntity.ok(leaveAccrualService.getLastRun());
+    }
+}
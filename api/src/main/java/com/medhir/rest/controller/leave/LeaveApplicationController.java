@@ -1,15 +1,21 @@
 package com.medhir.rest.controller.leave;
 
 import com.medhir.rest.exception.ResourceNotFoundException;
-import com.medhir.rest.dto.leave.LeaveWithEmployeeDetails;
+import com.medhir.rest.dto.leave.BulkLeaveStatusResult;
+import com.medhir.rest.dto.leave.BulkUpdateLeaveStatusRequest;
+import com.medhir.rest.dto.leave.LeaveListingFilter;
+import com.medhir.rest.dto.leave.LeavePage;
 import com.medhir.rest.dto.leave.UpdateLeaveStatusRequest;
 import com.medhir.rest.model.leave.LeaveModel;
 import com.medhir.rest.service.leave.LeaveApplicationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +59,19 @@ public class LeaveApplicationController {
         }
     }
 
+    @PutMapping("/update-status/bulk")
+    public ResponseEntity<?> updateLeaveStatuses(@RequestBody BulkUpdateLeaveStatusRequest request) {
+        try {
+            BulkLeaveStatusResult result = leaveApplicationService.updateLeaveStatuses(request);
+            return ResponseEntity.ok(Map.of(
+                    "message", result.getUpdated().size() + " leave(s) updated successfully",
+                    "updated", result.getUpdated(),
+                    "skipped", result.getSkipped()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{leaveId}")
     public ResponseEntity<?> getLeaveById(@PathVariable String leaveId) {
         try {
@@ -64,12 +83,34 @@ public class LeaveApplicationController {
     }
 
     @GetMapping("/status/{companyId}/{status}")
-    public ResponseEntity<?> getLeavesByStatus(@PathVariable String companyId, @PathVariable String status) {
+    public ResponseEntity<?> getLeavesByStatus(
+            @PathVariable String companyId,
+            @PathVariable String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         try {
-            List<LeaveWithEmployeeDetails> leaves = leaveApplicationService.getLeavesByStatus(companyId, status);
-            return ResponseEntity.ok(Map.of(
-                    "count", leaves.size(),
-                    "leaves", leaves));
+            LeavePage page = leaveApplicationService.getLeavesByStatus(
+                    companyId, status, new LeaveListingFilter(from, to, limit, after));
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("count", page.getLeaves().size());
+            body.put("leaves", page.getLeaves());
+            body.put("nextCursor", page.getNextCursor());
+            return ResponseEntity.ok(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/calendar/department/{companyId}/{departmentId}")
+    public ResponseEntity<?> getDepartmentCalendar(
+            @PathVariable String companyId,
+            @PathVariable String departmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(leaveApplicationService.getDepartmentCalendar(companyId, departmentId, from, to));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -1,13 +1,16 @@
 package com.medhir.rest.controller.leave;
 
-import com.medhir.rest.dto.leave.LeaveWithEmployeeDetails;
+import com.medhir.rest.dto.leave.LeaveListingFilter;
+import com.medhir.rest.dto.leave.LeavePage;
 import com.medhir.rest.service.leave.LeaveApplicationService;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -20,14 +23,33 @@ public class ManagerLeaveController {
     @GetMapping("/status/{status}/{managerId}")
     public ResponseEntity<?> getTeamMembersLeavesByStatus(
             @PathVariable @NotBlank(message = "Status is required") String status,
-            @PathVariable @NotBlank(message = "Manager ID is required") String managerId) {
+            @PathVariable @NotBlank(message = "Manager ID is required") String managerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         try {
-            List<LeaveWithEmployeeDetails> leaves = leaveApplicationService.getLeavesByManagerIdAndStatus(managerId, status);
-            return ResponseEntity.ok(Map.of(
-                    "count", leaves.size(),
-                    "leaves", leaves));
+            LeavePage page = leaveApplicationService.getLeavesByManagerIdAndStatus(
+                    managerId, status, new LeaveListingFilter(from, to, limit, after));
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("count", page.getLeaves().size());
+            body.put("leaves", page.getLeaves());
+            body.put("nextCursor", page.getNextCursor());
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/calendar/{managerId}")
+    public ResponseEntity<?> getTeamCalendar(
+            @PathVariable @NotBlank(message = "Manager ID is required") String managerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(leaveApplicationService.getTeamCalendar(managerId, from, to));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.medhir.rest.controller.org;
+
+import com.medhir.rest.service.org.OrgGraph;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/hradmin/org-graph")
+@RequiredArgsConstructor
+public class OrgGraphController {
+
+    private final OrgGraph orgGraph;
+
+    @PostMapping("/repair")
+    public ResponseEntity<?> repair() {
+        try {
+            return ResponseEntity.ok(orgGraph.repair());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
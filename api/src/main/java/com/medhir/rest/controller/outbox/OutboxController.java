@@ -0,0 +1,36 @@
+package com.medhir.rest.controller.outbox;
+
+import com.medhir.rest.model.outbox.OutboxEvent;
+import com.medhir.rest.service.outbox.OutboxDispatcher;
+import com.medhir.rest.service.outbox.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/hradmin/outbox")
+@RequiredArgsConstructor
+public class OutboxController {
+
+    private final OutboxService outboxService;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(outboxDispatcher.getStatus());
+    }
+
+    @GetMapping("/failed")
+    public ResponseEntity<List<OutboxEvent>> getFailedEvents() {
+        return ResponseEntity.ok(outboxService.getFailedEvents());
+    }
+
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<Map<String, String>> retry(@PathVariable String id) {
+        outboxService.retry(id);
+        return ResponseEntity.ok(Map.of("message", "Outbox event queued for retry"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.medhir.rest.controller.payroll;
+
+import com.medhir.rest.dto.payroll.PayslipExportStatus;
+import com.medhir.rest.model.payroll.PayrollRun;
+import com.medhir.rest.service.PayslipService;
+import com.medhir.rest.service.payroll.PayrollRunService;
+import com.medhir.rest.service.payroll.PayslipExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/hradmin/payroll")
+public class PayrollRunController {
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayslipService payslipService;
+
+    @Autowired
+    private PayslipExportService payslipExportService;
+
+    /**
+     * Starts a payroll run for the company-month; the response is the run to poll for progress.
+     */
+    @PostMapping("/runs/{companyId}/{month}/{year}")
+    public ResponseEntity<?> startRun(@PathVariable String companyId, @PathVariable String month, @PathVariable int year) {
+        try {
+            PayrollRun run = payrollRunService.start(companyId, yearMonth(month, year));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<PayrollRun> getRun(@PathVariable String runId) {
+        return ResponseEntity.ok(payrollRunService.getRun(runId));
+    }
+
+    @GetMapping("/runs/{companyId}/{month}/{year}")
+    public ResponseEntity<?> getRuns(@PathVariable String companyId, @PathVariable String month, @PathVariable int year) {
+        try {
+            return ResponseEntity.ok(payrollRunService.getRuns(companyId, yearMonth(month, year)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/payslips/{companyId}/{month}/{year}")
+    public ResponseEntity<?> getPayslips(@PathVariable String companyId, @PathVariable String month, @PathVariable int year) {
+        try {
+            return ResponseEntity.ok(payrollRunService.getPayslips(companyId, yearMonth(month, year)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Every payslip of the month as a ZIP of PDFs, streamed while it is being rendered and cut off
+     * after {@code payroll.export.timeout-ms}. The X-Export-Id response header identifies the
+     * export for {@code /exports/{exportId}}.
+     */
+    @GetMapping("/payslips/{companyId}/{month}/{year}/export")
+    public ResponseEntity<?> exportPayslips(@PathVariable String companyId, @PathVariable String month, @PathVariable int year) {
+        try {
+            PayslipExportStatus export = payslipExportService.prepare(companyId, yearMonth(month, year));
+            ResponseBodyEmitter body = payslipExportService.stream(export.getExportId());
+            String fileName = "payslips_" + companyId + "_" + export.getMonth() + ".zip";
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                    .header("X-Export-Id", export.getExportId())
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/exports/{exportId}")
+    public ResponseEntity<PayslipExportStatus> getExport(@PathVariable String exportId) {
+        return ResponseEntity.ok(payslipExportService.getStatus(exportId));
+    }
+
+    private YearMonth yearMonth(String month, int year) {
+        return YearMonth.of(year, payslipService.getMonthNumber(month));
+    }
+}
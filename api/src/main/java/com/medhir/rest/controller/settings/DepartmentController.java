@@ -2,10 +2,12 @@ package com.medhir.rest.controller.settings;
 
 import com.medhir.rest.model.settings.DepartmentModel;
 import com.medhir.rest.service.settings.DepartmentService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,6 +20,9 @@ public class DepartmentController {
     @Autowired
     private DepartmentService departmentService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @PostMapping
     public ResponseEntity<Map<String, String>> createDepartment(@Valid @RequestBody DepartmentModel department) {
         department.setDepartmentId(null); // Clear any existing departmentId
@@ -34,8 +39,9 @@ public class DepartmentController {
     }
 
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<List<DepartmentModel>> getDepartmentsByCompanyId(@PathVariable String companyId) {
-        return ResponseEntity.ok(departmentService.getDepartmentsByCompanyId(companyId));
+    public ResponseEntity<byte[]> getDepartmentsByCompanyId(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.DEPARTMENTS, companyId, request,
+                () -> departmentService.getDepartmentsByCompanyId(companyId));
     }
 
     @GetMapping("/{id}")
@@ -1,12 +1,13 @@
 package com.medhir.rest.controller.settings;
 
-import com.medhir.rest.dto.CompanyDesignationDTO;
 import com.medhir.rest.model.settings.DesignationModel;
 import com.medhir.rest.service.settings.DesignationService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,6 +18,9 @@ public class DesignationController {
     @Autowired
     private DesignationService designationService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @PostMapping
     public ResponseEntity<DesignationModel> createDesignation(@Valid @RequestBody DesignationModel designation) {
         designation.setDesignationId(null);
@@ -54,8 +58,8 @@ public class DesignationController {
     }
 
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<List<CompanyDesignationDTO>> getAllDesignationsByCompanyId(@PathVariable String companyId) {
-        List<CompanyDesignationDTO> designations = designationService.getAllDesignationsByCompanyId(companyId);
-        return ResponseEntity.ok(designations);
+    public ResponseEntity<byte[]> getAllDesignationsByCompanyId(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.DESIGNATIONS, companyId, request,
+                () -> designationService.getAllDesignationsByCompanyId(companyId));
     }
 }
\ No newline at end of file
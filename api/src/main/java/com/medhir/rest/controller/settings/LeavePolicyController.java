@@ -1,11 +1,13 @@
 package com.medhir.rest.controller.settings;
 
 import com.medhir.rest.service.settings.LeavePolicyService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import com.medhir.rest.model.settings.LeavePolicyModel;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,6 +20,9 @@ public class LeavePolicyController {
     @Autowired
     private LeavePolicyService leavePolicyService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @PostMapping
     public ResponseEntity<Map<String, String>> createLeavePolicy(@Valid @RequestBody LeavePolicyModel leavePolicy) {
         leavePolicy.setLeavePolicyId(null); // Clear any existing leavePolicyId
@@ -34,8 +39,9 @@ public class LeavePolicyController {
     }
 
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<List<LeavePolicyModel>> getLeavePoliciesByCompanyId(@PathVariable String companyId) {
-        return ResponseEntity.ok(leavePolicyService.getLeavePoliciesByCompanyId(companyId));
+    public ResponseEntity<byte[]> getLeavePoliciesByCompanyId(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.LEAVE_POLICIES, companyId, request,
+                () -> leavePolicyService.getLeavePoliciesByCompanyId(companyId));
     }
 
     @GetMapping("/{id}")
@@ -1,12 +1,14 @@
 package com.medhir.rest.controller.settings;
 
 import com.medhir.rest.service.settings.LeaveTypeService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import com.medhir.rest.model.settings.LeaveTypeModel;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +22,9 @@ public class LeaveTypeController {
     @Autowired
     private LeaveTypeService leaveTypeService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @PostMapping
     public ResponseEntity<Map<String, String>> createLeaveType(@Valid @RequestBody LeaveTypeModel leaveType) {
         leaveType.setLeaveTypeId(null); // Clear any existing leaveTypeId
@@ -36,8 +41,9 @@ public class LeaveTypeController {
     }
 
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<List<LeaveTypeModel>> getLeaveTypesByCompanyId(@PathVariable String companyId) {
-        return ResponseEntity.ok(leaveTypeService.getLeaveTypesByCompanyId(companyId));
+    public ResponseEntity<byte[]> getLeaveTypesByCompanyId(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.LEAVE_TYPES, companyId, request,
+                () -> leaveTypeService.getLeaveTypesByCompanyId(companyId));
     }
 
     @GetMapping("/{id}")
@@ -2,10 +2,12 @@ package com.medhir.rest.controller.settings;
 
 import com.medhir.rest.model.settings.ProfessionalTaxSettingsModel;
 import com.medhir.rest.service.settings.ProfessionalTaxSettingsService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/professional-tax-settings")
@@ -14,9 +16,13 @@ public class ProfessionalTaxSettingsController {
     @Autowired
     private ProfessionalTaxSettingsService professionalTaxSettingsService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<ProfessionalTaxSettingsModel> getProfessionalTaxSettingsByCompany(@PathVariable String companyId) {
-        return ResponseEntity.ok(professionalTaxSettingsService.getProfessionalTaxSettingsByCompany(companyId));
+    public ResponseEntity<byte[]> getProfessionalTaxSettingsByCompany(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.PROFESSIONAL_TAX_SETTINGS, companyId, request,
+                () -> professionalTaxSettingsService.getProfessionalTaxSettingsByCompany(companyId));
     }
 
     @PostMapping
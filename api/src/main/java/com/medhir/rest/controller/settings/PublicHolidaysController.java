@@ -1,12 +1,14 @@
 package com.medhir.rest.controller.settings;
 
 import com.medhir.rest.service.settings.PublicHolidayService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import com.medhir.rest.model.settings.PublicHolidayModel;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,10 +20,12 @@ import java.util.Map;
 public class PublicHolidaysController {
 
     private final PublicHolidayService publicHolidayService;
+    private final SettingsResponseCache settingsResponseCache;
 
     @Autowired
-    public PublicHolidaysController(PublicHolidayService publicHolidayService) {
+    public PublicHolidaysController(PublicHolidayService publicHolidayService, SettingsResponseCache settingsResponseCache) {
         this.publicHolidayService = publicHolidayService;
+        this.settingsResponseCache = settingsResponseCache;
     }
 
     @PostMapping
@@ -40,8 +44,9 @@ public class PublicHolidaysController {
     }
 
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<List<PublicHolidayModel>> getPublicHolidaysByCompanyId(@PathVariable String companyId) {
-        return ResponseEntity.ok(publicHolidayService.getPublicHolidaysByCompanyId(companyId));
+    public ResponseEntity<byte[]> getPublicHolidaysByCompanyId(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.PUBLIC_HOLIDAYS, companyId, request,
+                () -> publicHolidayService.getPublicHolidaysByCompanyId(companyId));
     }
 
     @GetMapping("/{id}")
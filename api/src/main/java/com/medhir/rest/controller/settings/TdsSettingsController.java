@@ -2,10 +2,12 @@ package com.medhir.rest.controller.settings;
 
 import com.medhir.rest.model.settings.TdsSettingsModel;
 import com.medhir.rest.service.settings.TdsSettingsService;
+import com.medhir.rest.service.settings.SettingsResponseCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/tds-settings")
@@ -14,9 +16,13 @@ public class TdsSettingsController {
     @Autowired
     private TdsSettingsService tdsSettingsService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<TdsSettingsModel> getTdsSettingsByCompany(@PathVariable String companyId) {
-        return ResponseEntity.ok(tdsSettingsService.getTdsSettingsByCompany(companyId));
+    public ResponseEntity<byte[]> getTdsSettingsByCompany(@PathVariable String companyId, WebRequest request) {
+        return settingsResponseCache.respond(SettingsResponseCache.TDS_SETTINGS, companyId, request,
+                () -> tdsSettingsService.getTdsSettingsByCompany(companyId));
     }
 
     @PostMapping
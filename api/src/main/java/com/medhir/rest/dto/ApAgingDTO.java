@@ -0,0 +1,26 @@
+package com.medhir.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApAgingDTO {
+    private String companyId;
+    private String vendorId; // null for the company total
+    private String vendorName;
+    private BigDecimal outstanding;
+    private long openBills;
+    private BigDecimal current; // not yet due
+    private BigDecimal days1To30; // days past the due date
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal days90Plus;
+    private String asOf;
+}
@@ -0,0 +1,24 @@
+package com.medhir.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of an expense or income summary. Dimensions that were not grouped by are null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FinanceSummaryDTO {
+    private String month;
+    private String status;
+    private String project;
+    private long count;
+    private BigDecimal amount;
+    private BigDecimal reimbursement; // expenses only
+}
@@ -13,6 +13,8 @@ import java.util.List;
 @AllArgsConstructor
 public class LoginResponse {
     private String token;
+    private String refreshToken;
+    private long expiresIn;
     private List<String> roles;
     private String employeeId;
     private boolean isPasswordChanged;
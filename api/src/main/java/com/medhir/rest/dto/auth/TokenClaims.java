@@ -0,0 +1,27 @@
+package com.medhir.rest.dto.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything that goes into an access token, resolved once at login and carried along
+ * with the refresh token so that a refresh never has to read employees or companies again.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenClaims {
+    private String email;
+    private String employeeId;
+    private String companyId;
+    private String companyName;
+    private String name;
+    private List<String> roles;
+    private String departmentName;
+    private boolean passwordChanged;
+}
@@ -4,6 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 import java.util.List;
 
+/**
+ * Lead pipeline filters. Lists match any of their values; {@code minBudget}/{@code maxBudget} and
+ * {@code followUpFrom}/{@code followUpTo} are inclusive ranges on the expected budget and the next
+ * follow-up, and {@code nextFollowUp} matches every follow-up on that day.
+ */
 @Getter
 @Setter
 public class LeadFilterDTO {
@@ -15,6 +20,8 @@ public class LeadFilterDTO {
     private String projectType;
     private String projectAddress;
     private Double budget;
+    private Double minBudget;
+    private Double maxBudget;
     private Double initialQuote;
     private Double finalQuote;
     private Double signUpAmount;
@@ -29,6 +36,8 @@ public class LeadFilterDTO {
     private String bookingForm;
     private List<String> latestCallDescription;
     private String nextFollowUp;
+    private String followUpFrom;
+    private String followUpTo;
     private Boolean isLost;
     private String lostReason;
     private Boolean isJunk;
@@ -0,0 +1,19 @@
+package com.medhir.rest.dto.lead;
+
+import com.medhir.rest.model.LeadModel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeadPage {
+    private List<LeadModel> leads;
+    private Map<String, Long> statusCounts; // only on the first page
+    private Long total; // leads matching the filter across all statuses; only on the first page
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,16 @@
+package com.medhir.rest.dto.leave;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLeaveStatusResult {
+    private List<String> updated;
+    private Map<String, String> skipped; // leaveId -> reason
+}
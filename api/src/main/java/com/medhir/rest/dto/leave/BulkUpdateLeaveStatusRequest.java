@@ -0,0 +1,12 @@
+package com.medhir.rest.dto.leave;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkUpdateLeaveStatusRequest {
+    private List<String> leaveIds;
+    private String status; // "Approved" or "Rejected"
+    private String remarks;
+}
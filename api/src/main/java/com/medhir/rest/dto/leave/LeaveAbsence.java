@@ -0,0 +1,16 @@
+package com.medhir.rest.dto.leave;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveAbsence {
+    private String leaveId;
+    private String employeeId;
+    private String leaveName;
+    private String shiftType; // FULL_DAY, FIRST_HALF or SECOND_HALF
+    private String status; // Pending or Approved
+}
@@ -0,0 +1,16 @@
+package com.medhir.rest.dto.leave;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class LeaveAccrualResult {
+    private String month; // yyyy-MM
+    private int employees;
+    private int written;
+    private int skipped; // no department or leave policy
+    private int failed;
+    private Instant startedAt;
+    private long durationMs;
+}
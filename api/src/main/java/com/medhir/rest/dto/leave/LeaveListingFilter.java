@@ -0,0 +1,21 @@
+package com.medhir.rest.dto.leave;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Optional narrowing for leave listings. {@code after} is the {@code nextCursor} returned by the
+ * previous page; without {@code limit} the whole matching list is returned in one page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveListingFilter {
+    private LocalDate from;
+    private LocalDate to;
+    private Integer limit;
+    private String after;
+}
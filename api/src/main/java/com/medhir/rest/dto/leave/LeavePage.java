@@ -0,0 +1,15 @@
+package com.medhir.rest.dto.leave;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeavePage {
+    private List<LeaveWithEmployeeDetails> leaves;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,22 @@
+package com.medhir.rest.dto.payroll;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayslipExportStatus {
+    private String exportId;
+    private String companyId;
+    private String month; // yyyy-MM
+    private String status; // RUNNING, COMPLETED, COMPLETED_WITH_ERRORS, FAILED, TIMED_OUT, EXPIRED
+    private long total;
+    private int written;
+    private int failed;
+    private Instant startedAt;
+    private Instant completedAt;
+}
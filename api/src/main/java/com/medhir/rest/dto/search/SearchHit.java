@@ -0,0 +1,15 @@
+package com.medhir.rest.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+    private String type; // EMPLOYEE, VENDOR or LEAD
+    private String id;
+    private String title; // employee, vendor or lead name
+    private String subtitle; // employeeId, GSTIN, or the lead's email / contact number
+}
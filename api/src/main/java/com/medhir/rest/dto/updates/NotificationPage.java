@@ -0,0 +1,17 @@
+package com.medhir.rest.dto.updates;
+
+import com.medhir.rest.model.updates.UpdatesModel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPage {
+    private List<UpdatesModel> notifications; // newest first
+    private long unread;
+    private String nextCursor; // null on the last page
+}
@@ -3,6 +3,8 @@ package com.medhir.rest.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.medhir.rest.dto.employeeUpdateRequest.EmployeeUpdateRequest;
+import com.medhir.rest.model.outbox.OutboxEvent;
+import com.medhir.rest.model.outbox.OutboxSource;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -24,7 +26,7 @@ import java.util.Set;
 @Setter
 @Document(collection = "employees")
 @JsonInclude(JsonInclude.Include.NON_NULL) // Exclude null fields from JSON response
-public class EmployeeModel {
+public class EmployeeModel implements OutboxSource {
 
     @Id
     @JsonIgnore
@@ -101,6 +103,9 @@ public class EmployeeModel {
     private EmployeeUpdateRequest pendingUpdateRequest; // Reference to EmployeeUpdateRequest which stores the pending
                                                         // updates
 
+    @JsonIgnore
+    private List<OutboxEvent> outboxEvents; // Side effects of the last write not yet moved to outbox_events
+
     @Getter
     @Setter
     public static class IdProofs {
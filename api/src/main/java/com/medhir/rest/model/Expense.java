@@ -1,9 +1,11 @@
 package com.medhir.rest.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -23,6 +25,11 @@ public class Expense {
     @Indexed(unique = true)
     private String expenseId;
 
+    // Bumped by every save, so two concurrent edits of the same expense cannot both be applied
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @NotBlank(message = "company Id cannot be empty")
     private String companyId;
 
@@ -0,0 +1,44 @@
+package com.medhir.rest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Count and totals of a company's expenses or incomes for one month, status and project. Amounts
+ * are in paise; {@code reimbursement} is only used for expenses.
+ */
+@Document(collection = "finance_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FinanceRollup {
+
+    public static final String EXPENSE = "EXPENSE";
+    public static final String INCOME = "INCOME";
+
+    @Id
+    private String id; // kind|companyId|month|status|project
+
+    private String kind;
+    private String companyId;
+    private String month; // yyyy-MM, empty when the record has no readable date
+    private String status;
+    private String project;
+
+    private long count;
+    private long amount;
+    private long reimbursement;
+
+    private Instant updatedAt;
+
+    public static String idOf(String kind, String companyId, String month, String status, String project) {
+        return String.join("|", kind, companyId, month, status, project);
+    }
+}
@@ -11,6 +11,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.PostConstruct;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -64,6 +65,11 @@ public class IncomeModel {
     @Indexed
     private String companyId = "";
 
+    // Bumped by every save, so two concurrent edits of the same income cannot both be applied
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @JsonIgnore
     @Transient
     private GeneratedId generatedId;
@@ -7,6 +7,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
+import java.util.Set;
 
 @Document(collection = "modules")
 @Getter
@@ -31,4 +32,7 @@ public class ModuleModel {
     private List<String> employeeIds;
 
     private String companyId;
+
+    // Roles granted to the module's employees, derived from moduleName whenever the module is saved
+    private Set<String> roles;
 }
\ No newline at end of file
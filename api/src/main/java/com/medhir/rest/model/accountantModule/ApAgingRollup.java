@@ -0,0 +1,52 @@
+package com.medhir.rest.model.accountantModule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Outstanding accounts payable of one vendor of a company, or of the whole company when
+ * {@code vendorId} is {@link #ALL_VENDORS}. Amounts are in paise.
+ * <p>
+ * {@code byDueDate} is the outstanding amount per bill due date and is what bill and payment
+ * writes increment; the aging buckets are derived from it as of {@code asOf}.
+ */
+@Document(collection = "ap_aging_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApAgingRollup {
+
+    public static final String ALL_VENDORS = "*";
+
+    @Id
+    private String id; // companyId + ":" + vendorId
+
+    private String companyId;
+    private String vendorId;
+
+    private long outstanding;
+    private long openBills;
+
+    private long current;
+    private long days1To30;
+    private long days31To60;
+    private long days61To90;
+    private long days90Plus;
+
+    private Map<String, Long> byDueDate;
+
+    private String asOf; // yyyy-MM-dd the buckets were computed for
+    private Instant updatedAt;
+
+    public static String idOf(String companyId, String vendorId) {
+        return companyId + ":" + vendorId;
+    }
+}
@@ -2,6 +2,7 @@ package com.medhir.rest.model.accountantModule;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.medhir.rest.utils.Money;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -140,13 +141,23 @@ public class BillModel {
 
     public BigDecimal getDueAmount() {
         if (finalAmount == null) return null;
-        return finalAmount.subtract(totalPaid);
+        return Money.toBigDecimal(Money.subtract(Money.fromBigDecimal(finalAmount), Money.fromBigDecimal(totalPaid)));
     }
 
     public static enum PaymentStatus {
         PAID,
         UN_PAID,
-        PARTIALLY_PAID
+        PARTIALLY_PAID;
+
+        /**
+         * Status of a bill of {@code finalAmount} paise once {@code paid} paise have been paid.
+         */
+        public static PaymentStatus of(long paid, long finalAmount) {
+            if (paid >= finalAmount) {
+                return PAID;
+            }
+            return paid > Money.ZERO ? PARTIALLY_PAID : UN_PAID;
+        }
     }
 
     public static enum Status {
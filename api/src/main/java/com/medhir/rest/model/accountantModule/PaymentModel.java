@@ -1,11 +1,13 @@
 package com.medhir.rest.model.accountantModule;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "payments")
@@ -39,6 +41,13 @@ public class PaymentModel {
 
     private List<BillPaymentDetail> billPayments;
 
+    // Null on payments saved before allocation tracked it; those were all applied
+    private Status status;
+
+    // When the allocation started; only kept while the payment is PENDING
+    @JsonIgnore
+    private Instant pendingSince;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -46,4 +55,9 @@ public class PaymentModel {
         private String billId;
         private BigDecimal paidAmount;
     }
+
+    public static enum Status {
+        PENDING,
+        COMPLETED
+    }
 }
@@ -0,0 +1,44 @@
+package com.medhir.rest.model.auth;
+
+import com.medhir.rest.dto.auth.TokenClaims;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A refresh token is only ever stored as its SHA-256; the raw value is handed to the client once.
+ * Every refresh consumes the token and issues a new one in the same family, so a token that shows
+ * up again after it was rotated means it was copied, and the whole family is revoked.
+ * familyExpiresAt is fixed when the family starts and caps every expiresAt in it.
+ * Indexes (including the TTL on expiresAt) are created by RefreshTokenService.
+ */
+@Document(collection = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+    @Id
+    private String id;
+
+    private String tokenHash;
+
+    private String familyId;
+
+    private TokenClaims claims;
+
+    private Instant issuedAt;
+
+    private Instant expiresAt;
+
+    private Instant familyExpiresAt;
+
+    private Instant rotatedAt;
+
+    private Instant revokedAt;
+}
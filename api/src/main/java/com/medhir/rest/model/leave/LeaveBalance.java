@@ -6,9 +6,11 @@ import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @Document(collection = "LeaveBalances")
@@ -38,6 +40,15 @@ public class LeaveBalance {
     private double leavesTakenThisYear;
     private double leavesCarriedFromPreviousYear;
 
+    // Leaves already counted in this balance, so an approval that is retried is only applied once
+    @JsonIgnore
+    private Set<String> appliedLeaveIds;
+
+    // Bumped by every write, including the $inc updates applied on leave approval
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @CreatedDate
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Kolkata")
     private LocalDateTime createdAt;
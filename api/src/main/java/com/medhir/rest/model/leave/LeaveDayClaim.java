@@ -0,0 +1,28 @@
+package com.medhir.rest.model.leave;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One half of a day taken by a pending or approved leave. The unique index on
+ * (employeeId, date, half) is what stops two overlapping leaves from both being saved.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "LeaveDayClaims")
+public class LeaveDayClaim {
+    @Id
+    private String id;
+    private String employeeId;
+    private LocalDate date;
+    private String half; // FIRST_HALF or SECOND_HALF; a full-day leave claims both
+    private String leaveId;
+    private Instant claimedAt;
+}
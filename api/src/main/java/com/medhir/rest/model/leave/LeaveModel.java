@@ -30,6 +30,10 @@ public class LeaveModel {
     private String reason;
     private String status = "Pending"; // Pending, Approved, Rejected
     private String remarks; // Used by the manager to provide remarks
+    @JsonIgnore
+    private String statusBatchId; // Marks the leaves changed by one bulk status update
+    @JsonIgnore
+    private Boolean balanceApplied; // false from approval until the leave balance has been adjusted
 
     @CreatedDate
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Kolkata")
@@ -0,0 +1,55 @@
+package com.medhir.rest.model.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A side effect on another service (or on a slow local subsystem) recorded next to the write that
+ * caused it and delivered later by OutboxDispatcher. Delivered events are kept for a week
+ * (TTL on completedAt) so failures can be traced back.
+ */
+@Document(collection = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    private String type; // e.g. attendance.register, see the OutboxHandler implementations
+
+    private String aggregateKey; // usually the employeeId; events with the same key may be coalesced
+
+    private Map<String, Object> payload;
+
+    @Builder.Default
+    private String status = PENDING;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    private Instant nextAttemptAt;
+
+    private String claimedBy;
+
+    private Instant lockedUntil;
+
+    private Instant completedAt;
+
+    private String lastError;
+}
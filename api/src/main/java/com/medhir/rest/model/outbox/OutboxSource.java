@@ -0,0 +1,17 @@
+package com.medhir.rest.model.outbox;
+
+import java.util.List;
+
+/**
+ * An entity that carries the outbox events of its writes in its own document, so the write and
+ * its events land together without a transaction. OutboxService moves them to outbox_events right
+ * after the write and sweeps up any that a crash left behind.
+ */
+public interface OutboxSource {
+
+    String getId();
+
+    List<OutboxEvent> getOutboxEvents();
+
+    void setOutboxEvents(List<OutboxEvent> outboxEvents);
+}
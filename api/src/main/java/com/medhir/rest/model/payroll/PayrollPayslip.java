@@ -0,0 +1,27 @@
+package com.medhir.rest.model.payroll;
+
+import com.medhir.rest.model.PayslipModel;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The payslip a payroll run computed for one employee and month. There is one document per
+ * company, month and employee; re-runs overwrite it only when the input fingerprint changed.
+ */
+@Data
+@Document(collection = "payroll_payslips")
+public class PayrollPayslip {
+    @Id
+    private String id;
+    private String companyId;
+    private int year;
+    private int month; // 1-12
+    private String employeeId;
+    private String fingerprint; // hash of every input the payslip was computed from
+    private int runVersion; // run that last recomputed it
+    private PayslipModel payslip;
+    private Instant computedAt;
+}
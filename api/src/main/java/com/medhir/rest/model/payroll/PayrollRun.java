@@ -0,0 +1,52 @@
+package com.medhir.rest.model.payroll;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One execution of the payroll engine for a company-month. Runs of the same month are numbered by
+ * {@code version}; the counters are updated as chunks finish, so a running document doubles as the
+ * progress report.
+ */
+@Document(collection = "payroll_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    private String runId;
+    private String companyId;
+    private int year;
+    private int month; // 1-12
+    private int version;
+
+    @Builder.Default
+    private String status = RUNNING;
+
+    private int totalEmployees;
+    private int processed;
+    private int recomputed; // inputs changed since the previous run, payslip rewritten
+    private int unchanged; // same input fingerprint, previous payslip kept
+    private int failed;
+    private int removed; // payslips of employees no longer in the company, deleted at the end
+    private Map<String, String> errors; // employeeId -> message, first few only
+
+    private Instant startedAt;
+    private Instant heartbeatAt; // refreshed while running; a RUNNING run whose heartbeat stops is failed
+    private Instant completedAt;
+}
@@ -44,7 +44,7 @@ public class LeavePolicyModel {
         private Integer daysPerYear;
 
         @NotNull(message = "Consecutive allowed flag is required")
-        private Boolean consecutiveAllowed = false;
+        private Boolean consecutiveAllowed = true;
 
         private List<LeaveRestriction> restrictions;
     }
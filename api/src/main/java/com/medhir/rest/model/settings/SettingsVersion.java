@@ -0,0 +1,29 @@
+package com.medhir.rest.model.settings;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Version of one company's list of one kind of settings, bumped on every write to it. The epoch is
+ * set when the counter is first created, so ETags handed out before a counter was lost are not
+ * matched again by its replacement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "settings_versions")
+public class SettingsVersion {
+
+    @Id
+    private String id; // settings:companyId
+
+    private long version;
+    private long epoch;
+
+    public static String idOf(String settings, String companyId) {
+        return settings + ":" + companyId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.medhir.rest.model.updates;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Number of unread notifications of one employee, moved with {@code $inc} as notifications are
+ * registered and read.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "update_unread_counters")
+public class UnreadCounter {
+
+    @Id
+    private String employeeId;
+    private long unread;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -27,6 +28,11 @@ public class UpdatesModel {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Kolkata")
     private LocalDateTime timestamp;
 
+    private boolean read;
+
+    // Removed by the TTL index on this field; notifications stored before it existed never expire
+    private Instant expiresAt;
+
     // Convert IST to UTC before saving
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = ZonedDateTime.of(timestamp, ZoneId.of("Asia/Kolkata"))
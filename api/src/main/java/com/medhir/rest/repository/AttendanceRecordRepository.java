@@ -5,6 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,7 @@ public interface AttendanceRecordRepository extends MongoRepository<AttendanceRe
     List<AttendanceRecord> findByMonthAndYear(String month, String year);
     Optional<AttendanceRecord> findByEmployeeIdAndMonthAndYear(String employeeId, String month, String year);
     List<AttendanceRecord> findByEmployeeId(String employeeId);
+    Optional<AttendanceRecord> findFirstByEmployeeIdAndMonthInAndYear(String employeeId, Collection<String> months, String year);
     
     @Query("{ 'month': ?0, 'year': ?1, 'dailyAttendance.?2': { $exists: true } }")
     List<AttendanceRecord> findByMonthYearAndDate(String month, String year, String date);
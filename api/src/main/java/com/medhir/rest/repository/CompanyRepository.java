@@ -3,6 +3,8 @@ package com.medhir.rest.repository;
 import com.medhir.rest.model.CompanyModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CompanyRepository extends MongoRepository<CompanyModel, String> {
@@ -12,6 +14,8 @@ public interface CompanyRepository extends MongoRepository<CompanyModel, String>
 
     Optional<CompanyModel> findByCompanyId(String companyId);
 
+    List<CompanyModel> findByCompanyIdIn(Collection<String> companyIds);
+
     boolean existsByCompanyId(String companyId);
 
     void deleteByCompanyId(String companyId);
@@ -4,6 +4,7 @@ import com.medhir.rest.model.EmployeeModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,8 @@ public interface EmployeeRepository extends MongoRepository<EmployeeModel, Strin
 
     Optional<EmployeeModel> findByEmployeeId(String employeeId);
 
+    List<EmployeeModel> findByEmployeeIdIn(Collection<String> employeeIds);
+
     List<EmployeeModel> findByUpdateStatus(String updateStatus);
 
     List<EmployeeModel> findByReportingManager(String reportingManager);
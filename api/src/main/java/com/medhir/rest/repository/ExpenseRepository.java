@@ -11,6 +11,6 @@ import java.util.Optional;
 public interface ExpenseRepository extends MongoRepository<Expense, String> {
     Optional<Expense> findByExpenseId(String expenseId);
     boolean existsByExpenseId(String expenseId);
-    void deleteByExpenseId(String expenseId);
+    long deleteByExpenseId(String expenseId);
     List<Expense> findByCompanyId(String companyId);
 }
@@ -13,4 +13,5 @@ public interface IncomeRepository extends MongoRepository<IncomeModel, String> {
     List<IncomeModel> findByCompanyIdOrderBySubmittedBy(String companyId);
     List<IncomeModel> findByCompanyIdAndStatusOrderBySubmittedBy(String companyId, String status);
     List<IncomeModel> findBySubmittedByInAndStatusOrderBySubmittedBy(List<String> submittedByList, String status);
+    long deleteByIncomeId(String incomeId);
 }
\ No newline at end of file
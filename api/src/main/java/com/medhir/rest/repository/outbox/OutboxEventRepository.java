@@ -0,0 +1,12 @@
+package com.medhir.rest.repository.outbox;
+
+import com.medhir.rest.model.outbox.OutboxEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+    List<OutboxEvent> findTop100ByStatusOrderByCreatedAtDesc(String status);
+}
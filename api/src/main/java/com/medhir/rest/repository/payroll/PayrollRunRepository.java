@@ -0,0 +1,15 @@
+package com.medhir.rest.repository.payroll;
+
+import com.medhir.rest.model.payroll.PayrollRun;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunRepository extends MongoRepository<PayrollRun, String> {
+    Optional<PayrollRun> findByRunId(String runId);
+    Optional<PayrollRun> findFirstByCompanyIdAndYearAndMonthOrderByVersionDesc(String companyId, int year, int month);
+    List<PayrollRun> findByCompanyIdAndYearAndMonthOrderByVersionDesc(String companyId, int year, int month);
+}
@@ -5,6 +5,7 @@ import com.medhir.rest.repository.AttendanceRecordRepository;
 import com.medhir.rest.dto.attendance.DailyAttendanceDTO;
 import com.medhir.rest.dto.attendance.FilteredAttendanceDTO;
 import com.medhir.rest.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,11 +13,16 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "service.method", histogram = true)
 public class AttendanceRecordService {
+    // Commas outside double quotes
+    private static final Pattern CSV_SEPARATOR = Pattern.compile(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+
     private final AttendanceRecordRepository attendanceRecordRepository;
 
     public List<AttendanceRecord> processAndSaveAttendanceRecords(MultipartFile file, String month, String year) {
@@ -33,8 +39,7 @@ public class AttendanceRecordService {
             String line;
             while ((line = reader.readLine()) != null) {
                 lineNumber++;
-                // Split by comma but preserve quoted values
-                String[] values = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+                String[] values = splitRow(line);
 
                 // Skip empty rows or rows with insufficient data
                 if (values.length < 5 || isRowEmpty(values)) {
@@ -152,6 +157,13 @@ public class AttendanceRecordService {
         }
     }
 
+    /**
+     * Splits an uploaded CSV row by comma but preserves quoted values.
+     */
+    public static String[] splitRow(String line) {
+        return CSV_SEPARATOR.split(line);
+    }
+
     private boolean isRowEmpty(String[] values) {
         return values.length == 0 || Arrays.stream(values).allMatch(String::isEmpty);
     }
@@ -8,8 +8,11 @@ import com.medhir.rest.utils.SnowflakeIdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class CompanyService {
@@ -81,4 +84,13 @@ public class CompanyService {
         return Optional.ofNullable(companyRepository.findByCompanyId(companyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Company not found with ID: " + companyId)));
     }
+
+    // Companies found among the given IDs, keyed by companyId; missing IDs are left out
+    public Map<String, CompanyModel> getCompaniesByIds(Collection<String> companyIds) {
+        if (companyIds.isEmpty()) {
+            return Map.of();
+        }
+        return companyRepository.findByCompanyIdIn(companyIds).stream()
+                .collect(Collectors.toMap(CompanyModel::getCompanyId, company -> company, (a, b) -> a));
+    }
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package com.medhir.rest.service;
 
 import com.medhir.rest.dto.*;
+import com.medhir.rest.dto.employeeUpdateRequest.EmployeeUpdateRequest;
 import com.medhir.rest.service.auth.EmployeeAuthService;
+import com.medhir.rest.service.auth.RefreshTokenService;
 import com.medhir.rest.model.EmployeeModel;
 import com.medhir.rest.exception.DuplicateResourceException;
 import com.medhir.rest.exception.ResourceNotFoundException;
 import com.medhir.rest.model.CompanyModel;
 import com.medhir.rest.model.ModuleModel;
+import com.medhir.rest.model.outbox.OutboxEvent;
 import com.medhir.rest.repository.EmployeeRepository;
-import com.medhir.rest.repository.ModuleRepository;
 import com.medhir.rest.model.settings.DepartmentModel;
 import com.medhir.rest.service.settings.DepartmentService;
 import com.medhir.rest.model.settings.DesignationModel;
@@ -17,34 +19,44 @@ import com.medhir.rest.model.settings.LeaveTypeModel;
 import com.medhir.rest.service.settings.LeaveTypeService;
 import com.medhir.rest.model.settings.LeavePolicyModel;
 import com.medhir.rest.service.settings.LeavePolicyService;
+import com.medhir.rest.service.outbox.AttendanceRegisterHandler;
+import com.medhir.rest.service.outbox.AttendanceUpdateHandler;
+import com.medhir.rest.service.outbox.LoginRegistrationHandler;
+import com.medhir.rest.service.outbox.OutboxService;
+import com.medhir.rest.service.org.OrgGraph;
+import com.medhir.rest.service.search.SearchIndex;
 import com.medhir.rest.utils.GeneratedId;
 import com.medhir.rest.utils.MinioService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "service.method", histogram = true)
 public class EmployeeService {
 
     @Value("${auth.service.url}")
     String authServiceUrl;
-    @Value("${attendance.service.url}")
-    String attendanceServiceUrl;
 
     @Autowired
     private EmployeeRepository employeeRepository;
@@ -55,17 +67,27 @@ public class EmployeeService {
     @Autowired
     private CompanyService companyService;
     @Autowired
-    ModuleRepository moduleRepository;
-    @Autowired
     private DesignationService designationService;
     @Autowired
     private DepartmentService departmentService;
     @Autowired
     private EmployeeAuthService employeeAuthService;
     @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
     private LeavePolicyService leavePolicyService;
     @Autowired
     private LeaveTypeService leaveTypeService;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OrgGraph orgGraph;
+    @Autowired
+    private ModuleMembershipIndex moduleIndex;
+    @Autowired
+    private SearchIndex searchIndex;
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     // Create Employee
     public EmployeeWithLeaveDetailsDTO createEmployee(EmployeeModel employee,
@@ -133,12 +155,23 @@ public class EmployeeService {
         }
 
         employee.setEmployeeId(generateEmployeeId(employee.getCompanyId()));
-        EmployeeModel savedEmployee = employeeRepository.save(employee);
 
-        // Update reporting manager's assignTo list if a reporting manager is set
-        if (savedEmployee.getReportingManager() != null && !savedEmployee.getReportingManager().isEmpty()) {
-            updateManagerAssignTo(savedEmployee.getReportingManager());
-        }
+        // Login and face-verification registration are delivered by the outbox dispatcher
+        EmployeeModel toSave = employee;
+        EmployeeModel savedEmployee = outboxService.saveWithEvents(toSave, employeeRepository::save,
+                created -> {
+                    List<OutboxEvent> events = new ArrayList<>();
+                    if (created.getPhone() != null && !created.getPhone().isEmpty() &&
+                            created.getEmailPersonal() != null && !created.getEmailPersonal().isEmpty()) {
+                        events.add(LoginRegistrationHandler.event(created.getEmployeeId()));
+                    }
+                    events.add(AttendanceRegisterHandler.event(created));
+                    return events;
+                });
+
+        // Add the employee to their reporting manager's assignTo list
+        orgGraph.update(savedEmployee);
+        searchIndex.put(savedEmployee);
 
         // Create response DTO with leave details
         EmployeeWithLeaveDetailsDTO response = new EmployeeWithLeaveDetailsDTO();
@@ -171,23 +204,6 @@ public class EmployeeService {
             }
         }
 
-        try {
-            // Register employee for login with email and phone number as password
-            if (savedEmployee.getPhone() != null && !savedEmployee.getPhone().isEmpty() &&
-                    savedEmployee.getEmailPersonal() != null && !savedEmployee.getEmailPersonal().isEmpty()) {
-                employeeAuthService.registerEmployee(
-                        savedEmployee.getEmployeeId(),
-                        savedEmployee.getEmailPersonal(),
-                        savedEmployee.getPhone());
-            }
-
-            // call Attendance Service to register user for face verification
-            registerUserInAttendanceService(savedEmployee);
-        } catch (Exception e) {
-            // Log the error but don't fail the employee creation
-            System.err.println("Failed to register employee in auth/attendance service: " + e.getMessage());
-        }
-
         return response;
     }
 
@@ -379,7 +395,7 @@ public class EmployeeService {
 
     // Get Employees by Manager
     public List<ManagerEmployeeDTO> getEmployeesByManager(String managerId) {
-        List<EmployeeModel> employees = employeeRepository.findByReportingManager(managerId);
+        List<EmployeeModel> employees = employeeRepository.findByEmployeeIdIn(orgGraph.directReports(managerId));
 
         return employees.stream()
                 .map(employee -> {
@@ -428,7 +444,51 @@ public class EmployeeService {
         }
 
         // Delete the employee
-        employeeRepository.delete(employeeOpt.get());
+        EmployeeModel employee = employeeOpt.get();
+        employeeRepository.delete(employee);
+        refreshTokenService.revokeAll(employeeId);
+        orgGraph.remove(employeeId);
+        searchIndex.remove(SearchIndex.Type.EMPLOYEE, employeeId);
+
+        List<String> documents = new ArrayList<>(documentUrls(employee));
+        documents.addAll(documentUrls(employee.getPendingUpdateRequest()));
+        minioService.releaseReplaced(documents, List.of());
+    }
+
+    /**
+     * URLs of the employee's stored documents (ID proofs and passbook), which hold references on
+     * deduplicated blobs. The profile photo is not deduplicated.
+     */
+    public static List<String> documentUrls(EmployeeModel employee) {
+        List<String> urls = new ArrayList<>();
+        EmployeeModel.IdProofs idProofs = employee.getIdProofs();
+        if (idProofs != null) {
+            urls.add(idProofs.getAadharImgUrl());
+            urls.add(idProofs.getPancardImgUrl());
+            urls.add(idProofs.getPassportImgUrl());
+            urls.add(idProofs.getDrivingLicenseImgUrl());
+            urls.add(idProofs.getVoterIdImgUrl());
+        }
+        if (employee.getBankDetails() != null) {
+            urls.add(employee.getBankDetails().getPassbookImgUrl());
+        }
+        urls.removeIf(Objects::isNull);
+        return urls;
+    }
+
+    public static List<String> documentUrls(EmployeeUpdateRequest request) {
+        if (request == null) {
+            return List.of();
+        }
+        List<String> urls = new ArrayList<>();
+        urls.add(request.getAadharImgUrl());
+        urls.add(request.getPancardImgUrl());
+        urls.add(request.getPassportImgUrl());
+        urls.add(request.getDrivingLicenseImgUrl());
+        urls.add(request.getVoterIdImgUrl());
+        urls.add(request.getPassbookImgUrl());
+        urls.removeIf(Objects::isNull);
+        return urls;
     }
 
     // Update Employee
@@ -441,6 +501,7 @@ public class EmployeeService {
             MultipartFile voterIdImage,
             MultipartFile passbookImage) {
         return employeeRepository.findByEmployeeId(employeeId).map(existingEmployee -> {
+            List<String> documentsBefore = documentUrls(existingEmployee);
 
             Optional<EmployeeModel> employeeIDExists = employeeRepository
                     .findByEmployeeId(updatedEmployee.getEmployeeId());
@@ -463,9 +524,6 @@ public class EmployeeService {
                         phoneExists.get().getPhone() + " : Phone number is already in use by another Employee");
             }
 
-            // Store old reporting manager for comparison
-            String oldReportingManager = existingEmployee.getReportingManager();
-
             // Update basic details
             existingEmployee.setName(updatedEmployee.getName());
             existingEmployee.setDesignation(updatedEmployee.getDesignation());
@@ -585,11 +643,11 @@ public class EmployeeService {
                         minioService.uploadDocumentsImg(passbookImage, existingEmployee.getEmployeeId()));
             }
 
-            existingEmployee = setDefaultValues(existingEmployee);
-            // call Attendance Service to update user for face verification
-            updateEmployeeInAttendanceService(existingEmployee);
-
-            EmployeeModel savedEmployee = employeeRepository.save(existingEmployee);
+            EmployeeModel toSave = setDefaultValues(existingEmployee);
+            // Attendance service (face verification) is updated by the outbox dispatcher
+            EmployeeModel savedEmployee = outboxService.saveWithEvents(toSave, employeeRepository::save,
+                    updated -> List.of(AttendanceUpdateHandler.event(updated)));
+            minioService.releaseReplaced(documentsBefore, documentUrls(savedEmployee));
 
             // Create response DTO with leave details
             EmployeeWithLeaveDetailsDTO response = new EmployeeWithLeaveDetailsDTO();
@@ -623,14 +681,9 @@ public class EmployeeService {
                 }
             }
 
-            // If reporting manager changed, update both old and new manager's assignTo lists
-            String newReportingManager = updatedEmployee.getReportingManager() != null ? updatedEmployee.getReportingManager() : "";
-            if (!newReportingManager.equals(oldReportingManager)) {
-                // Update old manager's assignTo list (remove this employee)
-                updateManagerAssignTo(oldReportingManager);
-                // Update new manager's assignTo list (add this employee)
-                updateManagerAssignTo(newReportingManager);
-            }
+            // If reporting manager changed, move the employee between the managers' assignTo lists
+            orgGraph.update(savedEmployee);
+            searchIndex.put(savedEmployee);
 
             return response;
         }).orElseThrow(() -> new ResourceNotFoundException("Employee with ID " + employeeId + " not found"));
@@ -664,9 +717,6 @@ public class EmployeeService {
             employee.setAssignTo(new ArrayList<>());
         }
 
-        // Update assignTo lists for all managers
-        updateAllManagersAssignTo();
-
         // ID Proofs
         if (employee.getIdProofs() == null) {
             employee.setIdProofs(new EmployeeModel.IdProofs());
@@ -742,66 +792,6 @@ public class EmployeeService {
         }
     }
 
-    private RestTemplate restTemplate = new RestTemplate();
-
-    public void registerUserInAttendanceService(EmployeeModel employee) {
-        try {
-            // Create request parameters
-            MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
-            requestBody.add("employeeId", employee.getEmployeeId());
-            requestBody.add("name", employee.getName());
-            requestBody.add("imgUrl", employee.getEmployeeImgUrl()); // Always using imgUrl
-            requestBody.add("joiningDate", employee.getJoiningDate().toString());
-
-            // Set headers for form-data
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA); // Ensures compatibility with @RequestParam
-            HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            // Call the /register API
-            restTemplate.postForEntity(attendanceServiceUrl + "/register", requestEntity, String.class);
-            System.out.println("User registered in Attendance Service: " + employee.getName());
-
-        } catch (Exception e) {
-            System.err.println("Failed to register user in Attendance Service: " + e.getMessage());
-        }
-    }
-
-    public void updateEmployeeInAttendanceService(EmployeeModel employee) {
-        try {
-            // Create request parameters
-            MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
-            requestBody.add("employeeId", employee.getEmployeeId());
-
-            if (employee.getName() != null && !employee.getName().trim().isEmpty()) {
-                requestBody.add("name", employee.getName());
-            }
-
-            if (employee.getEmployeeImgUrl() != null && !employee.getEmployeeImgUrl().trim().isEmpty()) {
-                requestBody.add("imgUrl", employee.getEmployeeImgUrl());
-            }
-
-            if (employee.getJoiningDate() != null) {
-                requestBody.add("joiningDate", employee.getJoiningDate().toString());
-            }
-
-            // Set headers for form-data
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-
-            HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            // Make the PUT request
-            ResponseEntity<String> response = restTemplate.exchange(
-                    attendanceServiceUrl + "/update", HttpMethod.PUT, requestEntity, String.class);
-            System.out.println("User Updated in Attendance Service: " + employee.getName());
-
-        } catch (Exception e) {
-            System.err.println("Failed to Update user in Attendance Service: " + e.getMessage());
-
-        }
-    }
-
     public String generateEmployeeId(String companyId) {
         CompanyModel company = companyService.getCompanyById(companyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Company not found with ID: " + companyId));
@@ -831,18 +821,19 @@ public class EmployeeService {
         // Set default values for required fields
         employee = setDefaultValues(employee);
 
-        // Save the employee
-        EmployeeModel savedEmployee = employeeRepository.save(employee);
+        // Save the employee; registration in the attendance service goes through the outbox
+        EmployeeModel toSave = employee;
+        EmployeeModel savedEmployee = outboxService.saveWithEvents(toSave, employeeRepository::save,
+                created -> List.of(AttendanceRegisterHandler.event(created)));
+        orgGraph.update(savedEmployee);
+        searchIndex.put(savedEmployee);
 
-        // Register employee for login with email
+        // Register employee for login with email; kept synchronous so a duplicate email fails the request
         employeeAuthService.registerEmployee(
                 savedEmployee.getEmployeeId(),
                 savedEmployee.getEmailPersonal(),
                 savedEmployee.getPhone());
 
-        // Register user in attendance service
-        registerUserInAttendanceService(savedEmployee);
-
         return savedEmployee;
     }
 
@@ -850,35 +841,23 @@ public class EmployeeService {
         EmployeeModel employee = employeeRepository.findByEmployeeId(employeeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee with ID " + employeeId + " not found"));
 
-        if (employee.getModuleIds() == null || employee.getModuleIds().isEmpty()) {
+        // Get unique company IDs from the employee's modules
+        Set<String> companyIds = moduleIndex.modulesOfEmployee(employee.getEmployeeId()).stream()
+                .map(ModuleMembershipIndex.ModuleEntry::companyId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (companyIds.isEmpty()) {
             return List.of();
         }
 
-        // Get all modules for the employee
-        List<ModuleModel> modules = employee.getModuleIds().stream()
-                .map(moduleId -> moduleRepository.findByModuleId(moduleId))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
-
-        // Get unique company IDs from modules
-        Set<String> companyIds = modules.stream()
-                .filter(module -> module.getCompanyId() != null)
-                .map(ModuleModel::getCompanyId)
-                .collect(Collectors.toSet());
-
-        // Get company details for each company ID
+        // Get company details for all company IDs at once
+        Map<String, CompanyModel> companies = companyService.getCompaniesByIds(companyIds);
         return companyIds.stream()
                 .map(companyId -> {
-                    try {
-                        Optional<CompanyModel> company = companyService.getCompanyById(companyId);
-                        return new UserCompanyDTO(
-                                company.get().getCompanyId(),
-                                company.get().getName(),
-                                company.get().getColorCode());
-                    } catch (ResourceNotFoundException e) {
-                        return new UserCompanyDTO(companyId, "Unknown Company", "Unknown Color");
-                    }
+                    CompanyModel company = companies.get(companyId);
+                    return company != null
+                            ? new UserCompanyDTO(company.getCompanyId(), company.getName(), company.getColorCode())
+                            : new UserCompanyDTO(companyId, "Unknown Company", "Unknown Color");
                 })
                 .collect(Collectors.toList());
     }
@@ -992,10 +971,11 @@ public class EmployeeService {
         String op = operation == null ? "" : operation.trim().toUpperCase();
 
         // Find all HR modules for the provided companyId
-        List<ModuleModel> hrModules = moduleRepository.findAll().stream()
-                .filter(m -> m.getCompanyId() != null && m.getCompanyId().equals(companyId)
-                        && m.getModuleName() != null && m.getModuleName().toUpperCase().contains("HR"))
+        List<String> hrModuleIds = moduleIndex.modulesOfCompany(companyId).stream()
+                .filter(m -> m.roles().contains("HRADMIN"))
+                .map(ModuleMembershipIndex.ModuleEntry::moduleId)
                 .collect(Collectors.toList());
+        Query hrModules = Query.query(Criteria.where("moduleId").in(hrModuleIds));
 
         switch (op) {
             case "ADD":
@@ -1005,18 +985,15 @@ public class EmployeeService {
                     if (employee.getModuleIds() == null) {
                         employee.setModuleIds(new ArrayList<>());
                     }
-                    for (ModuleModel hrModule : hrModules) {
-                        if (!employee.getModuleIds().contains(hrModule.getModuleId())) {
-                            employee.getModuleIds().add(hrModule.getModuleId());
-                        }
-                        // Also add this employee to the module's employeeIds if not present
-                        if (hrModule.getEmployeeIds() == null) {
-                            hrModule.setEmployeeIds(new ArrayList<>());
-                        }
-                        if (!hrModule.getEmployeeIds().contains(employeeId)) {
-                            hrModule.getEmployeeIds().add(employeeId);
-                            moduleRepository.save(hrModule);
+                    for (String hrModuleId : hrModuleIds) {
+                        if (!employee.getModuleIds().contains(hrModuleId)) {
+                            employee.getModuleIds().add(hrModuleId);
                         }
+                        moduleIndex.addMember(hrModuleId, employeeId);
+                    }
+                    // Also add this employee to the modules' employeeIds, in one write
+                    if (!hrModuleIds.isEmpty()) {
+                        mongoTemplate.updateMulti(hrModules, new Update().addToSet("employeeIds", employeeId), ModuleModel.class);
                     }
                 }
                 break;
@@ -1025,15 +1002,13 @@ public class EmployeeService {
                 // If HRADMIN is being removed, detach HR modules
                 if (roles.contains("HRADMIN")) {
                     if (employee.getModuleIds() != null) {
-                        for (ModuleModel hrModule : hrModules) {
-                            employee.getModuleIds().remove(hrModule.getModuleId());
-                            // Remove this employee from the module's employeeIds
-                            if (hrModule.getEmployeeIds() != null) {
-                                hrModule.getEmployeeIds().remove(employeeId);
-                                // Save the module even if employeeIds is now empty
-                                moduleRepository.save(hrModule);
-                            }
-                            // No error or exception if no admin remains
+                        for (String hrModuleId : hrModuleIds) {
+                            employee.getModuleIds().remove(hrModuleId);
+                            moduleIndex.removeMember(hrModuleId, employeeId);
+                        }
+                        // Remove this employee from the modules' employeeIds; no error if no admin remains
+                        if (!hrModuleIds.isEmpty()) {
+                            mongoTemplate.updateMulti(hrModules, new Update().pull("employeeIds", employeeId), ModuleModel.class);
                         }
                     }
                 }
@@ -1042,8 +1017,14 @@ public class EmployeeService {
                 throw new IllegalArgumentException("Invalid operation. Must be 'ADD' or 'REMOVE'");
         }
 
+        boolean rolesChanged = !currentRoles.equals(employee.getRoles());
         employee.setRoles(currentRoles);
-        return employeeRepository.save(employee);
+        EmployeeModel saved = employeeRepository.save(employee);
+        // Sessions carry the old roles until they log in again
+        if (rolesChanged) {
+            refreshTokenService.revokeAll(employeeId);
+        }
+        return saved;
     }
 
     public EmployeeAttendanceDetailsDTO getEmployeeAttendanceDetails(String employeeId) {
@@ -1059,132 +1040,6 @@ public class EmployeeService {
         return dto;
     }
 
-    // Add this new method
-    private void updateAllManagersAssignTo() {
-        // Get all employees
-        List<EmployeeModel> allEmployees = employeeRepository.findAll();
-
-        // Create a map of reporting manager to their team members
-        Map<String, List<String>> managerToTeamMap = new HashMap<>();
-
-        // First, collect all team members for each manager based on reportingManager
-        // field
-        for (EmployeeModel employee : allEmployees) {
-            if (employee.getReportingManager() != null && !employee.getReportingManager().isEmpty()) {
-                managerToTeamMap.computeIfAbsent(employee.getReportingManager(), k -> new ArrayList<>())
-                        .add(employee.getEmployeeId());
-            }
-        }
-
-        // Then update each manager's assignTo list and add MANAGER role
-        for (Map.Entry<String, List<String>> entry : managerToTeamMap.entrySet()) {
-            String managerId = entry.getKey();
-            List<String> teamMembers = entry.getValue();
-
-            employeeRepository.findByEmployeeId(managerId).ifPresent(manager -> {
-                boolean needsUpdate = false;
-
-                // Update assignTo list
-                if (!teamMembers.equals(manager.getAssignTo())) {
-                    manager.setAssignTo(teamMembers);
-                    needsUpdate = true;
-                }
-
-                // Add MANAGER role if not already present
-                Set<String> roles = manager.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                if (!roles.contains("MANAGER")) {
-                    roles.add("MANAGER");
-                    manager.setRoles(roles);
-                    needsUpdate = true;
-                }
-
-                // Save if any changes were made
-                if (needsUpdate) {
-                    employeeRepository.save(manager);
-                }
-            });
-        }
-
-        // Also handle direct assignTo relationships
-        for (EmployeeModel employee : allEmployees) {
-            if (employee.getAssignTo() != null && !employee.getAssignTo().isEmpty()) {
-                boolean needsUpdate = false;
-
-                // Add MANAGER role if not already present
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                if (!roles.contains("MANAGER")) {
-                    roles.add("MANAGER");
-                    employee.setRoles(roles);
-                    needsUpdate = true;
-                }
-
-                // Save if any changes were made
-                if (needsUpdate) {
-                    employeeRepository.save(employee);
-                }
-            }
-        }
-    }
-
-    // Add this new method
-    private void updateManagerAssignTo(String managerId) {
-        if (managerId == null || managerId.isEmpty()) {
-            return;
-        }
-
-        // Get all employees who report to this manager
-        List<EmployeeModel> teamMembers = employeeRepository.findByReportingManager(managerId);
-
-        // Get the manager
-        employeeRepository.findByEmployeeId(managerId).ifPresent(manager -> {
-            boolean needsUpdate = false;
-
-            // Create list of team member IDs
-            List<String> teamMemberIds = teamMembers.stream()
-                    .map(EmployeeModel::getEmployeeId)
-                    .collect(Collectors.toList());
-
-            // Update assignTo list if different
-            if (!teamMemberIds.equals(manager.getAssignTo())) {
-                manager.setAssignTo(teamMemberIds);
-                needsUpdate = true;
-            }
-
-            // Handle MANAGER role based on assignTo list
-            Set<String> roles = manager.getRoles();
-            if (roles == null) {
-                roles = new HashSet<>();
-            }
-
-            if (teamMemberIds.isEmpty()) {
-                // Remove MANAGER role if assignTo is empty
-                if (roles.contains("MANAGER")) {
-                    roles.remove("MANAGER");
-                    manager.setRoles(roles);
-                    needsUpdate = true;
-                }
-            } else {
-                // Add MANAGER role if not already present and assignTo is not empty
-                if (!roles.contains("MANAGER")) {
-                    roles.add("MANAGER");
-                    manager.setRoles(roles);
-                    needsUpdate = true;
-                }
-            }
-
-            // Save if any changes were made
-            if (needsUpdate) {
-                employeeRepository.save(manager);
-            }
-        });
-    }
-
     public EmployeeLeavePolicyWeeklyOffsDTO getEmployeeLeavePolicy(String employeeId) {
         EmployeeModel employee = employeeRepository.findByEmployeeId(employeeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found with ID: " + employeeId));
@@ -7,9 +7,17 @@ import com.medhir.rest.repository.CompanyRepository;
 import com.medhir.rest.repository.ExpenseRepository;
 import com.medhir.rest.utils.MinioService;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +37,24 @@ public class ExpenseService {
     @Autowired
     private MinioService minioService;
 
+    @Autowired
+    private FinanceRollupService financeRollupService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Expenses written before the version field existed would look new to Spring Data and be
+     * inserted again on their next save, so they start at version 0.
+     */
+    @PostConstruct
+    void initVersions() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                Expense.class);
+    }
+
     public Expense createExpense(Expense expense, MultipartFile receiptInvoiceAttachment, MultipartFile paymentProof) {
 
         boolean exists = companyRepository.existsByCompanyId(expense.getCompanyId());
@@ -54,7 +80,9 @@ public class ExpenseService {
             throw new RuntimeException("File upload failed", e);
         }
 
-        return expenseRepository.insert(expense);
+        Expense saved = expenseRepository.insert(expense);
+        financeRollupService.apply(null, FinanceRollupService.Entry.of(saved));
+        return saved;
     }
 
 
@@ -65,6 +93,7 @@ public class ExpenseService {
     public Expense updateExpense(String expenseId, Expense updatedExpense, MultipartFile receiptInvoiceAttachment, MultipartFile paymentProof) {
         Expense expense = expenseRepository.findByExpenseId(expenseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Expense not found with ID: " + expenseId));
+        FinanceRollupService.Entry before = FinanceRollupService.Entry.of(expense);
 
         // Set basic fields
         expense.setExpenseType(updatedExpense.getExpenseType());
@@ -100,15 +129,27 @@ public class ExpenseService {
             throw new RuntimeException("File upload failed", e);
         }
 
-        return expenseRepository.save(expense);
+        // Fails if another request changed the expense since it was read, so the rollups see the change once
+        Expense saved;
+        try {
+            saved = expenseRepository.save(expense);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Expense " + expenseId + " was changed by another request, please reload and try again");
+        }
+        financeRollupService.apply(before, FinanceRollupService.Entry.of(saved));
+        return saved;
     }
 
 
     public void deleteExpense(String expenseId) {
-        if (!expenseRepository.existsByExpenseId(expenseId)) {
+        Expense expense = expenseRepository.findByExpenseId(expenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with ID: " + expenseId));
+        // Only the call that actually removed the expense takes it out of the rollups
+        if (expenseRepository.deleteByExpenseId(expenseId) == 0) {
             throw new ResourceNotFoundException("Expense not found with ID: " + expenseId);
         }
-        expenseRepository.deleteByExpenseId(expenseId);
+        financeRollupService.apply(FinanceRollupService.Entry.of(expense), null);
     }
 
     public Expense getExpenseByExpenseId(String expenseId) {
@@ -0,0 +1,332 @@
+package com.medhir.rest.service;
+
+import com.medhir.rest.dto.FinanceSummaryDTO;
+import com.medhir.rest.model.Expense;
+import com.medhir.rest.model.FinanceRollup;
+import com.medhir.rest.model.IncomeModel;
+import com.medhir.rest.utils.Money;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Expense and income totals per company, month, status and project, kept in
+ * {@link FinanceRollup} documents so finance dashboards read a few rollups instead of every record.
+ * <p>
+ * ExpenseService and IncomeService call {@link #apply} with the record as it was before and after
+ * each create, update, status change or delete; the difference is {@code $inc}-ed into at most two
+ * rollups in one bulk upsert. The callers only apply a change after their guarded write of the
+ * record succeeded, so concurrent edits of one record are counted once. {@link #backfill} rebuilds
+ * everything from the source collections; it runs on the first start with no rollups, nightly on
+ * {@code finance.rollup.backfill-cron} so any drift heals, and on demand.
+ */
+@Slf4j
+@Service
+public class FinanceRollupService {
+
+    public static final Set<String> DIMENSIONS = Set.of("month", "status", "project");
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(FinanceRollup.class).ensureIndex(new Index()
+                .on("kind", Sort.Direction.ASC)
+                .on("companyId", Sort.Direction.ASC)
+                .on("month", Sort.Direction.ASC));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (mongoTemplate.exists(new Query(), FinanceRollup.class)) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            log.warn("Initial finance rollup backfill failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${finance.rollup.backfill-cron:0 50 2 * * *}", zone = "Asia/Kolkata")
+    public void scheduledBackfill() {
+        try {
+            backfill();
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled finance rollup backfill: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * What one expense or income adds to its rollup.
+     */
+    public record Entry(String kind, String companyId, String month, String status, String project,
+                        long amount, long reimbursement) {
+
+        public static Entry of(Expense expense) {
+            if (expense == null || isBlank(expense.getCompanyId())) {
+                return null;
+            }
+            return new Entry(FinanceRollup.EXPENSE, expense.getCompanyId(),
+                    expense.getDate() != null ? YearMonth.from(expense.getDate()).toString() : "",
+                    expense.getStatus() != null ? expense.getStatus().name() : "",
+                    nullToEmpty(expense.getProjectId()),
+                    Money.fromBigDecimal(expense.getTotalExpenseAmount()),
+                    Money.fromBigDecimal(expense.getReimbursementAmount()));
+        }
+
+        public static Entry of(IncomeModel income) {
+            if (income == null || isBlank(income.getCompanyId())) {
+                return null;
+            }
+            return new Entry(FinanceRollup.INCOME, income.getCompanyId(), monthOf(income.getInitiated()),
+                    nullToEmpty(income.getStatus()), nullToEmpty(income.getProject()),
+                    Money.fromRupees(income.getAmount()), Money.ZERO);
+        }
+
+        String id() {
+            return FinanceRollup.idOf(kind, companyId, month, status, project);
+        }
+    }
+
+    /**
+     * A record changed from {@code before} (null when created) to {@code after} (null when deleted).
+     */
+    public void apply(Entry before, Entry after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        Map<String, long[]> deltas = new LinkedHashMap<>();
+        Map<String, Entry> keys = new HashMap<>();
+        accumulate(deltas, keys, before, -1);
+        accumulate(deltas, keys, after, 1);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FinanceRollup.class);
+        int operations = 0;
+        Instant now = Instant.now();
+        for (Map.Entry<String, long[]> delta : deltas.entrySet()) {
+            long[] d = delta.getValue();
+            if (d[0] == 0 && d[1] == 0 && d[2] == 0) {
+                continue;
+            }
+            Entry key = keys.get(delta.getKey());
+            Update update = new Update()
+                    .inc("count", d[0])
+                    .inc("amount", d[1])
+                    .inc("reimbursement", d[2])
+                    .set("updatedAt", now)
+                    .setOnInsert("kind", key.kind())
+                    .setOnInsert("companyId", key.companyId())
+                    .setOnInsert("month", key.month())
+                    .setOnInsert("status", key.status())
+                    .setOnInsert("project", key.project());
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getKey())), update);
+            operations++;
+        }
+        if (operations > 0) {
+            bulk.execute();
+        }
+    }
+
+    private static void accumulate(Map<String, long[]> deltas, Map<String, Entry> keys, Entry entry, int sign) {
+        if (entry == null) {
+            return;
+        }
+        keys.putIfAbsent(entry.id(), entry);
+        long[] d = deltas.computeIfAbsent(entry.id(), id -> new long[3]);
+        d[0] += sign;
+        d[1] = Money.add(d[1], sign * entry.amount());
+        d[2] = Money.add(d[2], sign * entry.reimbursement());
+    }
+
+    /**
+     * Totals of a company's expenses or incomes between two months (inclusive, either may be
+     * null), grouped by the given subset of {@link #DIMENSIONS}.
+     */
+    public List<FinanceSummaryDTO> getSummary(String kind, String companyId, YearMonth from, YearMonth to,
+                                              Set<String> groupBy) {
+        Criteria criteria = Criteria.where("kind").is(kind).and("companyId").is(companyId).and("count").gt(0);
+        if (from != null && to != null) {
+            criteria = criteria.and("month").gte(from.toString()).lte(to.toString());
+        } else if (from != null) {
+            criteria = criteria.and("month").gte(from.toString());
+        } else if (to != null) {
+            criteria = criteria.and("month").lte(to.toString());
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("month", "status", "project", "count", "amount", "reimbursement");
+
+        Map<List<String>, long[]> groups = new LinkedHashMap<>();
+        for (FinanceRollup rollup : mongoTemplate.find(query, FinanceRollup.class)) {
+            List<String> key = Arrays.asList(
+                    groupBy.contains("month") ? rollup.getMonth() : null,
+                    groupBy.contains("status") ? rollup.getStatus() : null,
+                    groupBy.contains("project") ? rollup.getProject() : null);
+            long[] totals = groups.computeIfAbsent(key, k -> new long[3]);
+            totals[0] += rollup.getCount();
+            totals[1] = Money.add(totals[1], rollup.getAmount());
+            totals[2] = Money.add(totals[2], rollup.getReimbursement());
+        }
+
+        boolean expenses = FinanceRollup.EXPENSE.equals(kind);
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        return groups.entrySet().stream()
+                .map(group -> FinanceSummaryDTO.builder()
+                        .month(group.getKey().get(0))
+                        .status(group.getKey().get(1))
+                        .project(group.getKey().get(2))
+                        .count(group.getValue()[0])
+                        .amount(Money.toBigDecimal(group.getValue()[1]))
+                        .reimbursement(expenses ? Money.toBigDecimal(group.getValue()[2]) : null)
+                        .build())
+                .sorted(Comparator.comparing(FinanceSummaryDTO::getMonth, nullsFirst)
+                        .thenComparing(FinanceSummaryDTO::getStatus, nullsFirst)
+                        .thenComparing(FinanceSummaryDTO::getProject, nullsFirst))
+                .collect(Collectors.toList());
+    }
+
+    public record BackfillResult(int rollups, int drifted) {
+    }
+
+    /**
+     * Rebuilds every rollup from the expenses and incomes and replaces what is stored, reporting
+     * how many stored rollups disagreed. Writes made while it runs may be missed until the next run.
+     */
+    public BackfillResult backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            throw new IllegalStateException("Finance rollup backfill already running");
+        }
+        try {
+            Map<String, FinanceRollup> rebuilt = new HashMap<>();
+
+            Query expenseQuery = new Query();
+            expenseQuery.fields().include("companyId", "date", "status", "projectId", "totalExpenseAmount", "reimbursementAmount");
+            try (Stream<Expense> expenses = mongoTemplate.stream(expenseQuery, Expense.class)) {
+                expenses.forEach(expense -> add(rebuilt, Entry.of(expense)));
+            }
+            Query incomeQuery = new Query();
+            incomeQuery.fields().include("companyId", "initiated", "status", "project", "amount");
+            try (Stream<IncomeModel> incomes = mongoTemplate.stream(incomeQuery, IncomeModel.class)) {
+                incomes.forEach(income -> add(rebuilt, Entry.of(income)));
+            }
+
+            Query storedQuery = new Query();
+            storedQuery.fields().include("count", "amount", "reimbursement");
+            Map<String, FinanceRollup> stored = mongoTemplate.find(storedQuery, FinanceRollup.class).stream()
+                    .collect(Collectors.toMap(FinanceRollup::getId, rollup -> rollup));
+
+            int drifted = 0;
+            Instant now = Instant.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FinanceRollup.class);
+            int operations = 0;
+            for (FinanceRollup rollup : rebuilt.values()) {
+                FinanceRollup current = stored.get(rollup.getId());
+                if (current == null || current.getCount() != rollup.getCount() || current.getAmount() != rollup.getAmount()
+                        || current.getReimbursement() != rollup.getReimbursement()) {
+                    drifted++;
+                }
+                rollup.setUpdatedAt(now);
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(rollup.getId())), rollup,
+                        FindAndReplaceOptions.options().upsert());
+                if (++operations == CHUNK_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FinanceRollup.class);
+                    operations = 0;
+                }
+            }
+            Set<String> obsolete = new HashSet<>(stored.keySet());
+            obsolete.removeAll(rebuilt.keySet());
+            for (String id : obsolete) {
+                if (stored.get(id).getCount() != 0) {
+                    drifted++;
+                }
+            }
+            if (!obsolete.isEmpty()) {
+                bulk.remove(Query.query(Criteria.where("_id").in(new ArrayList<>(obsolete))));
+                operations++;
+            }
+            if (operations > 0) {
+                bulk.execute();
+            }
+
+            log.info("Finance rollups backfilled: {} rollups, {} had drifted", rebuilt.size(), drifted);
+            return new BackfillResult(rebuilt.size(), drifted);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    private static void add(Map<String, FinanceRollup> rollups, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        FinanceRollup rollup = rollups.computeIfAbsent(entry.id(), id -> FinanceRollup.builder()
+                .id(id)
+                .kind(entry.kind())
+                .companyId(entry.companyId())
+                .month(entry.month())
+                .status(entry.status())
+                .project(entry.project())
+                .build());
+        rollup.setCount(rollup.getCount() + 1);
+        rollup.setAmount(Money.add(rollup.getAmount(), entry.amount()));
+        rollup.setReimbursement(Money.add(rollup.getReimbursement(), entry.reimbursement()));
+    }
+
+    /**
+     * Income dates are free-form strings; ISO dates ("2025-06-14", "2025-06-14T10:00") give their
+     * month and anything else is grouped under an empty month.
+     */
+    static String monthOf(String date) {
+        if (date == null || date.length() < 7) {
+            return "";
+        }
+        try {
+            return YearMonth.parse(date.substring(0, 7)).toString();
+        } catch (DateTimeParseException e) {
+            return "";
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
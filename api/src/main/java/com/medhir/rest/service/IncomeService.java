@@ -3,7 +3,13 @@ package com.medhir.rest.service;
 import com.medhir.rest.model.IncomeModel;
 import com.medhir.rest.repository.IncomeRepository;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import com.medhir.rest.utils.GeneratedId;
 import org.springframework.http.HttpStatus;
@@ -11,10 +17,10 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.util.StringUtils;
 import com.medhir.rest.model.EmployeeModel;
 import com.medhir.rest.repository.EmployeeRepository;
+import com.medhir.rest.service.org.OrgGraph;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.ArrayList;
 
 @Service
@@ -25,11 +31,32 @@ public class IncomeService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private OrgGraph orgGraph;
+
     @Autowired
     private GeneratedId generatedId;
     @Autowired
     private SnowflakeIdGenerator snowflakeIdGenerator;
 
+    @Autowired
+    private FinanceRollupService financeRollupService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Incomes written before the version field existed would look new to Spring Data and be
+     * inserted again on their next save, so they start at version 0.
+     */
+    @PostConstruct
+    void initVersions() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                IncomeModel.class);
+    }
+
     public IncomeModel createIncome(IncomeModel income) {
         try {
             // Validate submittedBy
@@ -41,7 +68,9 @@ public class IncomeService {
 //             income.setIncomeId("INC" + snowflakeIdGenerator.nextId());
 
             income.generateIncomeId();
-            return incomeRepository.save(income);
+            IncomeModel saved = incomeRepository.save(income);
+            financeRollupService.apply(null, FinanceRollupService.Entry.of(saved));
+            return saved;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -68,19 +97,14 @@ public class IncomeService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Status is required");
         }
 
-        // Find all employees who have this manager as their reporting manager
-        List<EmployeeModel> employees = employeeRepository.findByReportingManager(managerId);
-        
+        // Employees who have this manager as their reporting manager
+        List<String> employeeIds = orgGraph.directReports(managerId);
+
         // If no employees found, return empty list instead of throwing error
-        if (employees.isEmpty()) {
+        if (employeeIds.isEmpty()) {
             return new ArrayList<>();
         }
 
-        // Get all employee IDs
-        List<String> employeeIds = employees.stream()
-            .map(EmployeeModel::getEmployeeId)
-            .collect(Collectors.toList());
-
         return incomeRepository.findBySubmittedByInAndStatusOrderBySubmittedBy(employeeIds, status);
     }
 
@@ -115,6 +139,7 @@ public class IncomeService {
             IncomeModel updatedIncome = new IncomeModel();
             updatedIncome.setId(currentIncome.getId());
             updatedIncome.setIncomeId(currentIncome.getIncomeId());
+            updatedIncome.setVersion(currentIncome.getVersion());
             
             // Copy all existing values
             updatedIncome.setProject(currentIncome.getProject());
@@ -135,7 +160,9 @@ public class IncomeService {
             // if (income.getStatus() != null) updatedIncome.setStatus(income.getStatus());
             if (income.getFile() != "") updatedIncome.setFile(income.getFile());
             if (income.getComments() != "") updatedIncome.setComments(income.getComments());
-            return incomeRepository.save(updatedIncome);
+            IncomeModel saved = save(updatedIncome);
+            financeRollupService.apply(FinanceRollupService.Entry.of(currentIncome), FinanceRollupService.Entry.of(saved));
+            return saved;
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Income with ID '" + incomeId + "' not found");
         }
@@ -144,11 +171,17 @@ public class IncomeService {
     public void deleteIncome(String incomeId) {
         Optional<IncomeModel> income = incomeRepository.findByIncomeId(incomeId);
         if (income.isPresent()) {
+            long deleted;
             try {
-                incomeRepository.delete(income.get());
+                deleted = incomeRepository.deleteByIncomeId(incomeId);
             } catch (Exception e) {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error deleting income: " + e.getMessage());
             }
+            // Only the call that actually removed the income takes it out of the rollups
+            if (deleted == 0) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Income with ID '" + incomeId + "' not found");
+            }
+            financeRollupService.apply(FinanceRollupService.Entry.of(income.get()), null);
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Income with ID '" + incomeId + "' not found");
         }
@@ -165,12 +198,15 @@ public class IncomeService {
             }
             
             // Update status and status remarks
+            FinanceRollupService.Entry before = FinanceRollupService.Entry.of(income);
             income.setStatus(status);
             if (remarks != null) {
                 income.setStatusRemarks(remarks);
             }
             
-            return incomeRepository.save(income);
+            IncomeModel saved = save(income);
+            financeRollupService.apply(before, FinanceRollupService.Entry.of(saved));
+            return saved;
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Income with ID '" + incomeId + "' not found");
         }
@@ -193,17 +229,33 @@ public class IncomeService {
             }
             
             // Update status and status remarks
+            FinanceRollupService.Entry before = FinanceRollupService.Entry.of(income);
             income.setStatus(status);
             if (remarks != null) {
                 income.setStatusRemarks(remarks);
             }
             
-            return incomeRepository.save(income);
+            IncomeModel saved = save(income);
+            financeRollupService.apply(before, FinanceRollupService.Entry.of(saved));
+            return saved;
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Income with ID '" + incomeId + "' not found");
         }
     }
 
+    /**
+     * Saves an income read earlier; fails if another request changed it in the meantime, so each
+     * change is applied to the rollups once.
+     */
+    private IncomeModel save(IncomeModel income) {
+        try {
+            return incomeRepository.save(income);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Income '" + income.getIncomeId() + "' was changed by another request, please reload and try again");
+        }
+    }
+
     // Keep the existing updateIncomeStatus method for backward compatibility
     // public Income updateIncomeStatus(String incomeId, String status, String remarks, String currentUserRole, String currentUserId) {
     //     if ("HRADMIN".equals(currentUserRole)) {
@@ -222,14 +274,11 @@ public class IncomeService {
             return false;
         }
 
-        // Find the employee who submitted the expense
-        Optional<EmployeeModel> employeeOpt = employeeRepository.findByEmployeeId(income.getSubmittedBy());
-        if (employeeOpt.isEmpty()) {
-            return false;
-        }
-
-        // Check if the manager is the reporting manager of the employee
-        return managerId.equals(employeeOpt.get().getReportingManager());
+        // Check if the manager is the reporting manager of the employee who submitted the income;
+        // read from Mongo, since the cached org graph may not have seen a recent reassignment
+        return employeeRepository.findByEmployeeId(income.getSubmittedBy())
+                .map(submitter -> managerId.equals(submitter.getReportingManager()))
+                .orElse(false);
     }
     
 } 
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.medhir.rest.service;
+
+import com.medhir.rest.dto.filter.LeadFilterDTO;
+import com.medhir.rest.dto.lead.LeadPage;
+import com.medhir.rest.model.LeadModel;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lead pipeline listings. A {@link LeadFilterDTO} becomes one indexed query projected to the
+ * columns the pipeline shows; the heavy fields (call history, descriptions, documents) are left
+ * at their defaults and are loaded with {@code GET /leads/{leadId}}.
+ * <p>
+ * Pages are ordered by next follow-up, then leadId, and continue from the last lead returned, so
+ * paging stays stable while leads are added. The first page also carries per-status counts for
+ * the same filter, computed by a single {@code $facet} aggregation.
+ */
+@Service
+public class LeadQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String[] LIST_FIELDS = {
+            "leadId", "name", "contactNumber", "email", "projectType", "expectedBudget", "status",
+            "salesRep", "designer", "nextCall", "quotedAmount", "finalQuotation", "submittedBy"
+    };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(LeadModel.class);
+        indexOps.ensureIndex(new Index().on("leadId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index()
+                .on("nextCall", Sort.Direction.ASC)
+                .on("leadId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("nextCall", Sort.Direction.ASC)
+                .on("leadId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index()
+                .on("salesRep", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("nextCall", Sort.Direction.ASC)
+                .on("leadId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index()
+                .on("designer", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("nextCall", Sort.Direction.ASC)
+                .on("leadId", Sort.Direction.ASC));
+    }
+
+    /**
+     * @param limit page size, defaulting to {@value #DEFAULT_PAGE_SIZE}
+     * @param after the {@code nextCursor} of the previous page; counts are only returned without it
+     */
+    public LeadPage findLeads(LeadFilterDTO filter, Integer limit, String after) {
+        LeadFilterDTO f = filter != null ? filter : new LeadFilterDTO();
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+        // Status narrows the page but not the counts, so the other pipeline tabs keep their totals
+        List<Criteria> common = filterCriteria(f);
+        List<Criteria> pageCriteria = new ArrayList<>(common);
+        if (!isBlank(f.getStatus())) {
+            pageCriteria.add(Criteria.where("status").is(f.getStatus()));
+        }
+        boolean firstPage = isBlank(after);
+        if (!firstPage) {
+            pageCriteria.add(after(decodeCursor(after)));
+        }
+
+        Query query = Query.query(and(pageCriteria))
+                .with(Sort.by(Sort.Order.asc("nextCall"), Sort.Order.asc("leadId")))
+                .limit(pageSize + 1);
+        query.fields().include(LIST_FIELDS);
+        List<LeadModel> leads = mongoTemplate.find(query, LeadModel.class);
+
+        String nextCursor = null;
+        if (leads.size() > pageSize) {
+            leads = new ArrayList<>(leads.subList(0, pageSize));
+            LeadModel last = leads.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getNextCall(), last.getLeadId());
+        }
+
+        LeadPage page = new LeadPage(leads, null, null, nextCursor);
+        if (firstPage) {
+            countByStatus(and(common), page);
+        }
+        return page;
+    }
+
+    private void countByStatus(Criteria criteria, LeadPage page) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.facet(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.count().as("count")).as("total"));
+        Document result = mongoTemplate.aggregate(aggregation, LeadModel.class, Document.class).getUniqueMappedResult();
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        long total = 0;
+        if (result != null) {
+            for (Document status : result.getList("byStatus", Document.class, List.of())) {
+                Object key = status.get("_id");
+                counts.merge(key != null ? key.toString() : "", ((Number) status.get("count")).longValue(), Long::sum);
+            }
+            List<Document> totals = result.getList("total", Document.class, List.of());
+            if (!totals.isEmpty()) {
+                total = ((Number) totals.get(0).get("count")).longValue();
+            }
+        }
+        page.setStatusCounts(counts);
+        page.setTotal(total);
+    }
+
+    /**
+     * Everything but status and the cursor. A lead counts as lost or junk once a reason has been
+     * recorded for it, the only marker the lead document carries.
+     */
+    private static List<Criteria> filterCriteria(LeadFilterDTO f) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (!isBlank(f.getLeadId())) {
+            criteria.add(Criteria.where("leadId").is(f.getLeadId()));
+        }
+        if (!isBlank(f.getLeadBy())) {
+            criteria.add(Criteria.where("submittedBy").is(f.getLeadBy()));
+        }
+        if (!isBlank(f.getProjectType())) {
+            criteria.add(Criteria.where("projectType").is(f.getProjectType()));
+        }
+        if (f.getSalesRepresentative() != null && !f.getSalesRepresentative().isEmpty()) {
+            criteria.add(Criteria.where("salesRep").in(f.getSalesRepresentative()));
+        }
+        if (f.getDesigner() != null && !f.getDesigner().isEmpty()) {
+            criteria.add(Criteria.where("designer").in(f.getDesigner()));
+        }
+        if (f.getMinBudget() != null) {
+            criteria.add(Criteria.where("expectedBudget").gte(f.getMinBudget()));
+        }
+        if (f.getMaxBudget() != null) {
+            criteria.add(Criteria.where("expectedBudget").lte(f.getMaxBudget()));
+        }
+        if (f.getIsLost() != null) {
+            criteria.add(hasReason("reasonForLost", f.getIsLost()));
+        }
+        if (f.getIsJunk() != null) {
+            criteria.add(hasReason("reasonForJunk", f.getIsJunk()));
+        }
+        // Follow-ups are stored as ISO date or date-time strings, so a day is a prefix range
+        if (!isBlank(f.getNextFollowUp())) {
+            criteria.add(Criteria.where("nextCall").gte(f.getNextFollowUp()).lt(endOf(f.getNextFollowUp())));
+        }
+        if (!isBlank(f.getFollowUpFrom())) {
+            criteria.add(Criteria.where("nextCall").gte(f.getFollowUpFrom()));
+        }
+        if (!isBlank(f.getFollowUpTo())) {
+            criteria.add(Criteria.where("nextCall").lt(endOf(f.getFollowUpTo())));
+        }
+        return criteria;
+    }
+
+    private static Criteria hasReason(String field, boolean present) {
+        List<String> none = Arrays.asList(null, "");
+        return present ? Criteria.where(field).nin(none) : Criteria.where(field).in(none);
+    }
+
+    /**
+     * Leads strictly after the cursor in (nextCall, leadId) order. Leads without a follow-up sort
+     * first, and {@code $gt} does not compare across types, so they get their own branch.
+     */
+    private static Criteria after(String[] cursor) {
+        String nextCall = cursor[0];
+        String leadId = cursor[1];
+        if (nextCall == null) {
+            return new Criteria().orOperator(
+                    Criteria.where("nextCall").is(null).and("leadId").gt(leadId),
+                    Criteria.where("nextCall").type(2)); // any string
+        }
+        return new Criteria().orOperator(
+                Criteria.where("nextCall").gt(nextCall),
+                Criteria.where("nextCall").is(nextCall).and("leadId").gt(leadId));
+    }
+
+    private static Criteria and(List<Criteria> criteria) {
+        if (criteria.isEmpty()) {
+            return new Criteria();
+        }
+        return criteria.size() == 1 ? criteria.get(0) : new Criteria().andOperator(criteria);
+    }
+
+    // The cursor is opaque to clients: "<marker><nextCall>\n<leadId>", base64url encoded, where
+    // the marker tells a missing follow-up apart from an empty one
+    static String encodeCursor(String nextCall, String leadId) {
+        String raw = (nextCall == null ? "-" : "+" + nextCall) + "\n" + (leadId != null ? leadId : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+        int separator = raw.lastIndexOf('\n');
+        if (separator < 1 || raw.charAt(0) != '-' && raw.charAt(0) != '+') {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+        String nextCall = raw.charAt(0) == '-' ? null : raw.substring(1, separator);
+        return new String[]{nextCall, raw.substring(separator + 1)};
+    }
+
+    private static String endOf(String prefix) {
+        return prefix + Character.MAX_VALUE;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -2,6 +2,7 @@ package com.medhir.rest.service;
 
 import com.medhir.rest.model.LeadModel;
 import com.medhir.rest.repository.LeadRepository;
+import com.medhir.rest.service.search.SearchIndex;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,9 @@ public class LeadService {
     @Autowired
     private GeneratedId generatedId;
 
+    @Autowired
+    private SearchIndex searchIndex;
+
     public LeadModel createLead(LeadModel lead) {
         // Check if lead with same name exists
         if (leadRepository.existsByContactNumber(lead.getContactNumber())) {
@@ -35,7 +39,9 @@ public class LeadService {
             lead.generateLeadId();
 //            lead.setLeadId("LID" + snowflakeIdGenerator.nextId());
 
-            return leadRepository.save(lead);
+            LeadModel saved = leadRepository.save(lead);
+            searchIndex.put(saved);
+            return saved;
         } catch (DuplicateKeyException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "A lead with this contact number or email already exists");
         } catch (Exception e) {
@@ -100,7 +106,9 @@ public class LeadService {
             // Preserve the original leadId and id
             lead.setLeadId(leadId);
             lead.setId(currentLead.getId());
-            return leadRepository.save(lead);
+            LeadModel saved = leadRepository.save(lead);
+            searchIndex.put(saved);
+            return saved;
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Lead with ID '" + leadId + "' not found");
         }
@@ -111,6 +119,7 @@ public class LeadService {
         if (lead.isPresent()) {
             try {
                 leadRepository.delete(lead.get());
+                searchIndex.remove(SearchIndex.Type.LEAD, leadId);
             } catch (Exception e) {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error deleting lead: " + e.getMessage());
             }
@@ -0,0 +1,233 @@
+package com.medhir.rest.service;
+
+import com.medhir.rest.model.ModuleModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Module membership held in memory: module to employees, employee to modules and company to
+ * modules, plus the roles each module grants. Module listings and an employee's companies are
+ * answered from here instead of loading modules and employees one id at a time.
+ * <p>
+ * The modules collection is small, so it is loaded whole on first use and reloaded after
+ * {@code module.index.refresh-ms} to pick up writes made through other instances. ModuleService
+ * and EmployeeService update it after each of their writes.
+ */
+@Component
+public class ModuleMembershipIndex {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${module.index.refresh-ms:300000}")
+    private long refreshMillis;
+
+    private volatile Memberships memberships;
+
+    /**
+     * Roles granted to the members of a module, derived from its name.
+     */
+    public static Set<String> rolesFor(String moduleName) {
+        Set<String> roles = new LinkedHashSet<>();
+        if (moduleName == null) {
+            return roles;
+        }
+        String name = moduleName.toUpperCase(Locale.ROOT);
+        if (name.contains("HR") || name.contains("HUMAN RESOURCE") || name.contains("HUMANRESOURCE")) {
+            roles.add("HRADMIN");
+        }
+        if (name.contains("ACCOUNT")) {
+            roles.add("ACCOUNTANT");
+        }
+        if (name.contains("PROJECT")) {
+            roles.add("PROJECTMANAGER");
+        }
+        if (name.contains("SALE")) {
+            roles.add("SALES");
+        }
+        return roles;
+    }
+
+    public List<ModuleEntry> modules() {
+        return current().all();
+    }
+
+    public Optional<ModuleEntry> module(String moduleId) {
+        return Optional.ofNullable(current().get(moduleId));
+    }
+
+    public List<ModuleEntry> modulesOfEmployee(String employeeId) {
+        return current().ofEmployee(employeeId);
+    }
+
+    public List<ModuleEntry> modulesOfCompany(String companyId) {
+        return current().ofCompany(companyId);
+    }
+
+    public void put(ModuleModel module) {
+        current().put(module);
+    }
+
+    public void remove(String moduleId) {
+        current().remove(moduleId);
+    }
+
+    public void addMember(String moduleId, String employeeId) {
+        current().addMember(moduleId, employeeId);
+    }
+
+    public void removeMember(String moduleId, String employeeId) {
+        current().removeMember(moduleId, employeeId);
+    }
+
+    private Memberships current() {
+        Memberships m = memberships;
+        long now = System.currentTimeMillis();
+        if (m != null && now - m.loadedAt < refreshMillis) {
+            return m;
+        }
+        synchronized (this) {
+            m = memberships;
+            if (m == null || now - m.loadedAt >= refreshMillis) {
+                m = new Memberships(now);
+                mongoTemplate.findAll(ModuleModel.class).forEach(m::put);
+                memberships = m;
+            }
+            return m;
+        }
+    }
+
+    /**
+     * A module as held by the index. Roles are the stored ones when present, otherwise derived
+     * from the name for modules saved before roles were stored.
+     */
+    public record ModuleEntry(String moduleId, String moduleName, String description, String companyId,
+                              Set<String> roles, List<String> employeeIds) {
+    }
+
+    private static final class Memberships {
+
+        private final long loadedAt;
+        private final Map<String, ModuleEntry> byModule = new LinkedHashMap<>();
+        private final Map<String, Set<String>> modulesByEmployee = new HashMap<>();
+        private final Map<String, Set<String>> modulesByCompany = new HashMap<>();
+
+        Memberships(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void put(ModuleModel module) {
+            if (module.getModuleId() == null) {
+                return;
+            }
+            remove(module.getModuleId());
+            Set<String> roles = module.getRoles() != null ? module.getRoles() : rolesFor(module.getModuleName());
+            List<String> employeeIds = module.getEmployeeIds() != null
+                    ? new ArrayList<>(new LinkedHashSet<>(module.getEmployeeIds())) : List.of();
+            ModuleEntry entry = new ModuleEntry(module.getModuleId(), module.getModuleName(), module.getDescription(),
+                    module.getCompanyId(), Set.copyOf(roles), List.copyOf(employeeIds));
+            index(entry);
+        }
+
+        synchronized void remove(String moduleId) {
+            ModuleEntry entry = byModule.remove(moduleId);
+            if (entry == null) {
+                return;
+            }
+            for (String employeeId : entry.employeeIds()) {
+                unlink(modulesByEmployee, employeeId, moduleId);
+            }
+            if (entry.companyId() != null) {
+                unlink(modulesByCompany, entry.companyId(), moduleId);
+            }
+        }
+
+        synchronized void addMember(String moduleId, String employeeId) {
+            ModuleEntry entry = byModule.get(moduleId);
+            if (entry == null || entry.employeeIds().contains(employeeId)) {
+                return;
+            }
+            List<String> employeeIds = new ArrayList<>(entry.employeeIds());
+            employeeIds.add(employeeId);
+            replace(entry, employeeIds);
+        }
+
+        synchronized void removeMember(String moduleId, String employeeId) {
+            ModuleEntry entry = byModule.get(moduleId);
+            if (entry == null || !entry.employeeIds().contains(employeeId)) {
+                return;
+            }
+            List<String> employeeIds = new ArrayList<>(entry.employeeIds());
+            employeeIds.remove(employeeId);
+            replace(entry, employeeIds);
+        }
+
+        synchronized ModuleEntry get(String moduleId) {
+            return byModule.get(moduleId);
+        }
+
+        synchronized List<ModuleEntry> all() {
+            return new ArrayList<>(byModule.values());
+        }
+
+        synchronized List<ModuleEntry> ofEmployee(String employeeId) {
+            return entries(modulesByEmployee.get(employeeId));
+        }
+
+        synchronized List<ModuleEntry> ofCompany(String companyId) {
+            return entries(modulesByCompany.get(companyId));
+        }
+
+        private void replace(ModuleEntry entry, List<String> employeeIds) {
+            remove(entry.moduleId());
+            index(new ModuleEntry(entry.moduleId(), entry.moduleName(), entry.description(), entry.companyId(),
+                    entry.roles(), List.copyOf(employeeIds)));
+        }
+
+        private void index(ModuleEntry entry) {
+            byModule.put(entry.moduleId(), entry);
+            for (String employeeId : entry.employeeIds()) {
+                modulesByEmployee.computeIfAbsent(employeeId, e -> new LinkedHashSet<>()).add(entry.moduleId());
+            }
+            if (entry.companyId() != null) {
+                modulesByCompany.computeIfAbsent(entry.companyId(), c -> new LinkedHashSet<>()).add(entry.moduleId());
+            }
+        }
+
+        private List<ModuleEntry> entries(Collection<String> moduleIds) {
+            List<ModuleEntry> entries = new ArrayList<>();
+            if (moduleIds != null) {
+                for (String moduleId : moduleIds) {
+                    ModuleEntry entry = byModule.get(moduleId);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+            }
+            return entries;
+        }
+
+        private static void unlink(Map<String, Set<String>> map, String key, String moduleId) {
+            Set<String> moduleIds = map.get(key);
+            if (moduleIds != null) {
+                moduleIds.remove(moduleId);
+                if (moduleIds.isEmpty()) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -2,14 +2,20 @@ package com.medhir.rest.service;
 
 import com.medhir.rest.dto.ModuleResponseDTO;
 import com.medhir.rest.model.EmployeeModel;
-import com.medhir.rest.repository.EmployeeRepository;
 import com.medhir.rest.exception.ResourceNotFoundException;
 import com.medhir.rest.model.CompanyModel;
 import com.medhir.rest.model.ModuleModel;
 import com.medhir.rest.repository.ModuleRepository;
+import com.medhir.rest.service.ModuleMembershipIndex.ModuleEntry;
 import com.medhir.rest.utils.GeneratedId;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
+import com.medhir.rest.service.auth.RefreshTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -21,9 +27,6 @@ public class ModuleService {
     @Autowired
     private ModuleRepository moduleRepository;
 
-    @Autowired
-    private EmployeeRepository employeeRepository;
-
     @Autowired
     private CompanyService companyService;
 
@@ -32,6 +35,15 @@ public class ModuleService {
     @Autowired
     private SnowflakeIdGenerator snowflakeIdGenerator;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ModuleMembershipIndex moduleIndex;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     public ModuleModel createModule(ModuleModel moduleModel) {
         // Validate company exists
         if (moduleModel.getCompanyId() != null) {
@@ -39,100 +51,63 @@ public class ModuleService {
         }
 
         // Validate all employees exist
-        List<EmployeeModel> employees = new ArrayList<>();
-        for (String employeeId : moduleModel.getEmployeeIds()) {
-            EmployeeModel employee = employeeRepository.findByEmployeeId(employeeId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Employee with ID " + employeeId + " not found"));
-            employees.add(employee);
-        }
+        List<String> employeeIds = distinct(moduleModel.getEmployeeIds());
+        requireEmployees(employeeIds);
 
         // Generate module ID
 //        moduleModel.setModuleId(generatedId.generateId("MID", ModuleModel.class, "moduleId"));
         moduleModel.setModuleId("MOD" + snowflakeIdGenerator.nextId());
+        moduleModel.setEmployeeIds(employeeIds);
+        moduleModel.setRoles(ModuleMembershipIndex.rolesFor(moduleModel.getModuleName()));
 
         // Save the module
         ModuleModel savedModule = moduleRepository.save(moduleModel);
 
-        // Update employee details with module ID and roles
-        for (EmployeeModel employee : employees) {
-            if (employee.getModuleIds() == null) {
-                employee.setModuleIds(new ArrayList<>());
-            }
-            employee.getModuleIds().add(savedModule.getModuleId());
-
-            String moduleNameUpper = savedModule.getModuleName().toUpperCase();
-            if (moduleNameUpper.contains("HR") || moduleNameUpper.contains("HUMAN RESOURCE") || moduleNameUpper.contains("HUMANRESOURCE")) {
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                roles.add("HRADMIN");
-                employee.setRoles(roles);
-            }
-            if (savedModule.getModuleName().toUpperCase().contains("ACCOUNT")) {
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                roles.add("ACCOUNTANT");
-                employee.setRoles(roles);
-            }
-            if (savedModule.getModuleName().toUpperCase().contains("PROJECT")) {
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                roles.add("PROJECTMANAGER");
-                employee.setRoles(roles);
-            }
-            if (savedModule.getModuleName().toUpperCase().contains("SALE")) {
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                roles.add("SALES");
-                employee.setRoles(roles);
-            }
-            
-            employeeRepository.save(employee);
-        }
+        // Add the module ID and its roles to all employees in one write
+        MembershipWrites writes = new MembershipWrites(mongoTemplate, refreshTokenService, savedModule.getModuleId());
+        writes.grant(employeeIds, savedModule.getRoles());
+        writes.execute();
 
+        moduleIndex.put(savedModule);
         return savedModule;
     }
 
     public List<ModuleResponseDTO> getAllModules() {
-        List<ModuleModel> modules = moduleRepository.findAll();
-        return modules.stream().map(module -> {
-            List<Map<String, String>> employees = new ArrayList<>();
-            if (module.getEmployeeIds() != null) {
-                employees = module.getEmployeeIds().stream()
-                        .map(employeeId -> {
-                            Map<String, String> employeeInfo = new HashMap<>();
-                            employeeInfo.put("employeeId", employeeId);
-                            employeeInfo.put("name", employeeRepository.findByEmployeeId(employeeId)
-                                    .map(EmployeeModel::getName)
-                                    .orElse("Unknown Employee"));
-                            return employeeInfo;
-                        })
-                        .collect(Collectors.toList());
+        List<ModuleEntry> modules = moduleIndex.modules();
+
+        // Names and companies for every module are loaded with one query each
+        Set<String> employeeIds = new HashSet<>();
+        Set<String> companyIds = new HashSet<>();
+        for (ModuleEntry module : modules) {
+            employeeIds.addAll(module.employeeIds());
+            if (module.companyId() != null) {
+                companyIds.add(module.companyId());
             }
+        }
+        Map<String, String> employeeNames = employeeNames(employeeIds);
+        Map<String, CompanyModel> companies = companyService.getCompaniesByIds(companyIds);
+
+        return modules.stream().map(module -> {
+            List<Map<String, String>> employees = module.employeeIds().stream()
+                    .map(employeeId -> {
+                        Map<String, String> employeeInfo = new HashMap<>();
+                        employeeInfo.put("employeeId", employeeId);
+                        employeeInfo.put("name", employeeNames.getOrDefault(employeeId, "Unknown Employee"));
+                        return employeeInfo;
+                    })
+                    .collect(Collectors.toList());
 
             Map<String, String> companyInfo = new HashMap<>();
-            if (module.getCompanyId() != null) {
-                try {
-                    Optional<CompanyModel> company = companyService.getCompanyById(module.getCompanyId());
-                    companyInfo.put("companyId", module.getCompanyId());
-                    companyInfo.put("name", company.get().getName());
-                } catch (ResourceNotFoundException e) {
-                    companyInfo.put("companyId", module.getCompanyId());
-                    companyInfo.put("name", "Unknown Company");
-                }
+            if (module.companyId() != null) {
+                CompanyModel company = companies.get(module.companyId());
+                companyInfo.put("companyId", module.companyId());
+                companyInfo.put("name", company != null ? company.getName() : "Unknown Company");
             }
 
             return new ModuleResponseDTO(
-                    module.getModuleId(),
-                    module.getModuleName(),
-                    module.getDescription(),
+                    module.moduleId(),
+                    module.moduleName(),
+                    module.description(),
                     employees,
                     companyInfo
             );
@@ -143,9 +118,10 @@ public class ModuleService {
         ModuleModel existingModule = moduleRepository.findByModuleId(moduleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Module with ID " + moduleId + " not found"));
 
-        // Store the old employee IDs for comparison
-        List<String> oldEmployeeIds = existingModule.getEmployeeIds() != null ? new ArrayList<>(existingModule.getEmployeeIds()) : new ArrayList<>();
-        List<String> newEmployeeIds = updatedModule.getEmployeeIds() != null ? new ArrayList<>(updatedModule.getEmployeeIds()) : new ArrayList<>();
+        // Store the old employee IDs and roles for comparison
+        List<String> oldEmployeeIds = distinct(existingModule.getEmployeeIds());
+        Set<String> oldRoles = existingModule.getRoles() != null
+                ? existingModule.getRoles() : ModuleMembershipIndex.rolesFor(existingModule.getModuleName());
 
         // Update only the allowed fields
         if (updatedModule.getModuleName() != null) {
@@ -159,9 +135,12 @@ public class ModuleService {
             companyService.getCompanyById(updatedModule.getCompanyId());
             existingModule.setCompanyId(updatedModule.getCompanyId());
         }
+        Set<String> newRoles = ModuleMembershipIndex.rolesFor(existingModule.getModuleName());
+        existingModule.setRoles(newRoles);
 
-        // Handle employee updates
+        MembershipWrites writes = new MembershipWrites(mongoTemplate, refreshTokenService, moduleId);
         if (updatedModule.getEmployeeIds() != null) {
+            List<String> newEmployeeIds = distinct(updatedModule.getEmployeeIds());
             // Employees to remove: in old but not in new
             List<String> removedEmployeeIds = oldEmployeeIds.stream()
                     .filter(id -> !newEmployeeIds.contains(id))
@@ -170,139 +149,184 @@ public class ModuleService {
             List<String> addedEmployeeIds = newEmployeeIds.stream()
                     .filter(id -> !oldEmployeeIds.contains(id))
                     .collect(Collectors.toList());
-
-            // Remove module ID from old employees who are no longer in the list
-            for (String oldEmployeeId : removedEmployeeIds) {
-                employeeRepository.findByEmployeeId(oldEmployeeId).ifPresent(employee -> {
-                    if (employee.getModuleIds() != null) {
-                        employee.getModuleIds().remove(moduleId);
-                    }
-                    // Remove roles if not present in any other relevant module
-                    Set<String> roles = employee.getRoles();
-                    if (roles != null) {
-                        // Check for each role
-                        removeRoleIfNoOtherModule(employee, moduleId, existingModule.getModuleName(), roles);
-                        employee.setRoles(roles);
-                    }
-                    employeeRepository.save(employee);
-                });
-            }
-
-            // Validate all new employees exist and update their module associations
-            for (String employeeId : addedEmployeeIds) {
-                EmployeeModel employee = employeeRepository.findByEmployeeId(employeeId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Employee with ID " + employeeId + " not found"));
-                // Add module ID to employee if not already present
-                if (employee.getModuleIds() == null) {
-                    employee.setModuleIds(new ArrayList<>());
-                }
-                if (!employee.getModuleIds().contains(moduleId)) {
-                    employee.getModuleIds().add(moduleId);
-                }
-                // Add roles based on module name
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                String moduleName = existingModule.getModuleName().toUpperCase();
-                if (moduleName.contains("HR") || moduleName.contains("HUMAN RESOURCE") || moduleName.contains("HUMANRESOURCE")) {
-                    roles.add("HRADMIN");
-                }
-                if (moduleName.contains("ACCOUNT")) {
-                    roles.add("ACCOUNTANT");
-                }
-                if (moduleName.contains("PROJECT")) {
-                    roles.add("PROJECTMANAGER");
-                }
-                if (moduleName.contains("SALE")) {
-                    roles.add("SALES");
-                }
-                employee.setRoles(roles);
-                employeeRepository.save(employee);
-            }
-            // For employees that remain, ensure their roles are correct if module name changed
+            // Employees that remain keep the module; their roles follow a renamed module
             List<String> remainingEmployeeIds = newEmployeeIds.stream()
                     .filter(oldEmployeeIds::contains)
                     .collect(Collectors.toList());
-            for (String employeeId : remainingEmployeeIds) {
-                EmployeeModel employee = employeeRepository.findByEmployeeId(employeeId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Employee with ID " + employeeId + " not found"));
-                Set<String> roles = employee.getRoles();
-                if (roles == null) {
-                    roles = new HashSet<>();
-                }
-                String moduleName = existingModule.getModuleName().toUpperCase();
-                if (moduleName.contains("HR")) {
-                    roles.add("HRADMIN");
-                } else {
-                    roles.remove("HRADMIN");
-                }
-                if (moduleName.contains("ACCOUNT")) {
-                    roles.add("ACCOUNTANT");
-                } else {
-                    roles.remove("ACCOUNTANT");
-                }
-                if (moduleName.contains("PROJECT")) {
-                    roles.add("PROJECTMANAGER");
-                } else {
-                    roles.remove("PROJECTMANAGER");
-                }
-                employee.setRoles(roles);
-                employeeRepository.save(employee);
+
+            requireEmployees(addedEmployeeIds);
+            for (String employeeId : removedEmployeeIds) {
+                writes.revoke(employeeId, oldRoles);
             }
+            writes.grant(addedEmployeeIds, newRoles);
+            writes.changeRoles(remainingEmployeeIds, oldRoles, newRoles);
             existingModule.setEmployeeIds(newEmployeeIds);
+        } else {
+            writes.changeRoles(oldEmployeeIds, oldRoles, newRoles);
         }
 
-        moduleRepository.save(existingModule);
+        ModuleModel savedModule = moduleRepository.save(existingModule);
+        writes.execute();
+        moduleIndex.put(savedModule);
     }
 
-    // Helper method to remove roles if employee is not in any other module with that role
-    private void removeRoleIfNoOtherModule(EmployeeModel employee, String removedModuleId, String removedModuleName, Set<String> roles) {
-        List<String> otherModuleIds = employee.getModuleIds();
-        if (otherModuleIds == null) return;
-        // Fetch all other modules
-        List<ModuleModel> otherModules = moduleRepository.findAllById(otherModuleIds);
-        boolean hasHR = false, hasAccount = false, hasProject = false;
-        for (ModuleModel m : otherModules) {
-            String name = m.getModuleName().toUpperCase();
-            if (name.contains("HR")) hasHR = true;
-            if (name.contains("ACCOUNT")) hasAccount = true;
-            if (name.contains("PROJECT")) hasProject = true;
+    public void deleteModule(String moduleId) {
+        ModuleModel module = moduleRepository.findByModuleId(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Module with ID " + moduleId + " not found"));
+        Set<String> roles = module.getRoles() != null
+                ? module.getRoles() : ModuleMembershipIndex.rolesFor(module.getModuleName());
+
+        // Remove module ID, and the roles no other module of theirs grants, from all associated employees
+        MembershipWrites writes = new MembershipWrites(mongoTemplate, refreshTokenService, moduleId);
+        for (String employeeId : distinct(module.getEmployeeIds())) {
+            writes.revoke(employeeId, roles);
         }
-        String removedName = removedModuleName.toUpperCase();
-        if (removedName.contains("HR") && !hasHR) {
-            roles.remove("HRADMIN");
+        writes.execute();
+
+        moduleRepository.delete(module);
+        moduleIndex.remove(moduleId);
+    }
+
+    private void requireEmployees(List<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return;
         }
-        if (removedName.contains("ACCOUNT") && !hasAccount) {
-            roles.remove("ACCOUNTANT");
+        Query query = Query.query(Criteria.where("employeeId").in(employeeIds));
+        query.fields().include("employeeId");
+        Set<String> found = mongoTemplate.find(query, EmployeeModel.class).stream()
+                .map(EmployeeModel::getEmployeeId)
+                .collect(Collectors.toSet());
+        for (String employeeId : employeeIds) {
+            if (!found.contains(employeeId)) {
+                throw new ResourceNotFoundException("Employee with ID " + employeeId + " not found");
+            }
         }
-        if (removedName.contains("PROJECT") && !hasProject) {
-            roles.remove("PROJECTMANAGER");
+    }
+
+    private Map<String, String> employeeNames(Collection<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return Map.of();
         }
+        Query query = Query.query(Criteria.where("employeeId").in(employeeIds));
+        query.fields().include("employeeId", "name");
+        return mongoTemplate.find(query, EmployeeModel.class).stream()
+                .filter(employee -> employee.getName() != null)
+                .collect(Collectors.toMap(EmployeeModel::getEmployeeId, EmployeeModel::getName, (a, b) -> a));
     }
 
-    public void deleteModule(String moduleId) {
-        ModuleModel module = moduleRepository.findByModuleId(moduleId)
-                .orElseThrow(() -> new ResourceNotFoundException("Module with ID " + moduleId + " not found"));
+    private static List<String> distinct(List<String> ids) {
+        return ids != null ? new ArrayList<>(new LinkedHashSet<>(ids)) : new ArrayList<>();
+    }
 
-        // Remove module ID from all associated employees
-        if (module.getEmployeeIds() != null) {
-            for (String employeeId : module.getEmployeeIds()) {
-                employeeRepository.findByEmployeeId(employeeId).ifPresent(employee -> {
-                    if (employee.getModuleIds() != null) {
-                        employee.getModuleIds().remove(moduleId);
-                        // If moduleIds is now empty and employee has HRADMIN role, remove HRADMIN role
-                        if (employee.getModuleIds().isEmpty() && employee.getRoles() != null && employee.getRoles().contains("HRADMIN")) {
-                            employee.getRoles().remove("HRADMIN");
-                        }
-                        employeeRepository.save(employee);
+    /**
+     * Employee updates for one module change, sent as a single unordered bulk write. Roles are
+     * stored under "Roles" after EmployeeModel's field name. A role is only taken away if none of
+     * the employee's other modules grants it; those modules are read from Mongo when the writes are
+     * executed, since the in-memory index may not have seen changes made through other instances
+     * yet. Employees whose roles change are logged out of their sessions once the write has gone
+     * through.
+     */
+    static final class MembershipWrites {
+
+        private final MongoTemplate mongoTemplate;
+        private final RefreshTokenService refreshTokenService;
+        private final String moduleId;
+        private final BulkOperations bulk;
+        private int operations;
+        private final Set<String> rolesChanged = new HashSet<>();
+        // Roles the employees may lose, and the employees leaving the module, resolved in execute()
+        private final Map<String, Set<String>> lostRoles = new LinkedHashMap<>();
+        private final Set<String> leaving = new HashSet<>();
+
+        MembershipWrites(MongoTemplate mongoTemplate, RefreshTokenService refreshTokenService, String moduleId) {
+            this.mongoTemplate = mongoTemplate;
+            this.refreshTokenService = refreshTokenService;
+            this.moduleId = moduleId;
+            this.bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmployeeModel.class);
+        }
+
+        void grant(List<String> employeeIds, Set<String> roles) {
+            if (employeeIds.isEmpty()) {
+                return;
+            }
+            Update update = new Update().addToSet("moduleIds", moduleId);
+            if (!roles.isEmpty()) {
+                update.addToSet("Roles").each(roles.toArray());
+                rolesChanged.addAll(employeeIds);
+            }
+            bulk.updateMulti(Query.query(Criteria.where("employeeId").in(employeeIds)), update);
+            operations++;
+        }
+
+        void revoke(String employeeId, Set<String> roles) {
+            leaving.add(employeeId);
+            lostRoles.computeIfAbsent(employeeId, id -> new HashSet<>()).addAll(roles);
+        }
+
+        void changeRoles(List<String> employeeIds, Set<String> oldRoles, Set<String> newRoles) {
+            if (employeeIds.isEmpty() || oldRoles.equals(newRoles)) {
+                return;
+            }
+            Set<String> gained = new HashSet<>(newRoles);
+            gained.removeAll(oldRoles);
+            if (!gained.isEmpty()) {
+                bulk.updateMulti(Query.query(Criteria.where("employeeId").in(employeeIds)),
+                        new Update().addToSet("Roles").each(gained.toArray()));
+                rolesChanged.addAll(employeeIds);
+                operations++;
+            }
+            Set<String> lost = new HashSet<>(oldRoles);
+            lost.removeAll(newRoles);
+            if (!lost.isEmpty()) {
+                for (String employeeId : employeeIds) {
+                    lostRoles.computeIfAbsent(employeeId, id -> new HashSet<>()).addAll(lost);
+                }
+            }
+        }
+
+        void execute() {
+            if (!lostRoles.isEmpty()) {
+                Map<String, Set<String>> kept = rolesFromOtherModules(lostRoles.keySet());
+                lostRoles.forEach((employeeId, roles) -> {
+                    Set<String> lost = new HashSet<>(roles);
+                    lost.removeAll(kept.getOrDefault(employeeId, Set.of()));
+                    Update update = new Update();
+                    if (leaving.contains(employeeId)) {
+                        update.pull("moduleIds", moduleId);
+                    }
+                    if (!lost.isEmpty()) {
+                        update.pullAll("Roles", lost.toArray());
+                        rolesChanged.add(employeeId);
+                    }
+                    if (!update.getUpdateObject().isEmpty()) {
+                        bulk.updateOne(Query.query(Criteria.where("employeeId").is(employeeId)), update);
+                        operations++;
                     }
                 });
             }
+            if (operations > 0) {
+                bulk.execute();
+            }
+            refreshTokenService.revokeAll(rolesChanged);
         }
 
-        moduleRepository.delete(module);
+        /**
+         * Roles each employee gets from their modules other than this one.
+         */
+        private Map<String, Set<String>> rolesFromOtherModules(Set<String> employeeIds) {
+            Query query = Query.query(Criteria.where("employeeIds").in(employeeIds).and("moduleId").ne(moduleId));
+            query.fields().include("moduleName", "roles", "employeeIds");
+            Map<String, Set<String>> roles = new HashMap<>();
+            for (ModuleModel module : mongoTemplate.find(query, ModuleModel.class)) {
+                Set<String> granted = module.getRoles() != null
+                        ? module.getRoles() : ModuleMembershipIndex.rolesFor(module.getModuleName());
+                for (String employeeId : module.getEmployeeIds()) {
+                    if (employeeIds.contains(employeeId)) {
+                        roles.computeIfAbsent(employeeId, id -> new HashSet<>()).addAll(granted);
+                    }
+                }
+            }
+            return roles;
+        }
     }
-
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.medhir.rest.service;
+
+import com.medhir.rest.model.updates.UpdatesModel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent event streams of the employees connected to this instance. Newly registered
+ * notifications are pushed to their employee's open streams as {@code notification} events, and a
+ * comment is sent every {@code updates.sse.heartbeat-ms} so proxies keep idle streams open and
+ * closed ones are noticed. Heartbeats go out from their own thread: a write to a slow client can
+ * block, and must not hold up the application's {@code @Scheduled} jobs. Clients reconnect when a stream times out and page the feed from the
+ * start to catch up on anything registered through another instance.
+ */
+@Slf4j
+@Service
+public class NotificationPushService {
+
+    @Value("${updates.sse.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${updates.sse.max-streams-per-employee:5}")
+    private int maxStreamsPerEmployee;
+
+    @Value("${updates.sse.heartbeat-ms:25000}")
+    private long heartbeatMillis;
+
+    private final Map<String, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startHeartbeats() {
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    public SseEmitter subscribe(String employeeId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        List<SseEmitter> employeeStreams = streams.compute(employeeId, (id, current) -> {
+            List<SseEmitter> updated = current != null ? current : new CopyOnWriteArrayList<>();
+            updated.add(emitter);
+            return updated;
+        });
+        // Tabs that were closed without the stream ending are dropped oldest first
+        while (employeeStreams.size() > maxStreamsPerEmployee) {
+            employeeStreams.remove(0).complete();
+        }
+
+        Runnable remove = () -> remove(employeeId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    public void push(UpdatesModel notification) {
+        List<SseEmitter> employeeStreams = streams.get(notification.getEmployeeId());
+        if (employeeStreams == null) {
+            return;
+        }
+        for (SseEmitter emitter : employeeStreams) {
+            send(notification.getEmployeeId(), emitter,
+                    SseEmitter.event().id(notification.getId()).name("notification").data(notification));
+        }
+    }
+
+    public void pushAll(Collection<UpdatesModel> notifications) {
+        if (streams.isEmpty()) {
+            return;
+        }
+        for (UpdatesModel notification : notifications) {
+            push(notification);
+        }
+    }
+
+    void heartbeat() {
+        // An exception escaping here would cancel every later heartbeat
+        try {
+            streams.forEach((employeeId, employeeStreams) -> {
+                for (SseEmitter emitter : employeeStreams) {
+                    send(employeeId, emitter, SseEmitter.event().comment("keep-alive"));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Notification stream heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void send(String employeeId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping notification stream of {}: {}", employeeId, e.getMessage());
+            remove(employeeId, emitter);
+        }
+    }
+
+    private void remove(String employeeId, SseEmitter emitter) {
+        streams.computeIfPresent(employeeId, (id, employeeStreams) -> {
+            employeeStreams.remove(emitter);
+            return employeeStreams.isEmpty() ? null : employeeStreams;
+        });
+    }
+}
@@ -1,12 +1,22 @@
 package com.medhir.rest.service;
 
+import com.medhir.rest.model.AttendanceRecord;
 import com.medhir.rest.model.EmployeeModel;
 import com.medhir.rest.model.PayslipModel;
+import com.medhir.rest.model.settings.ProfessionalTaxSettingsModel;
+import com.medhir.rest.model.settings.TdsSettingsModel;
+import com.medhir.rest.repository.AttendanceRecordRepository;
+import com.medhir.rest.repository.settings.ProfessionalTaxSettingsRepository;
+import com.medhir.rest.repository.settings.TdsSettingsRepository;
+import com.medhir.rest.utils.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.Month;
 import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -15,6 +25,15 @@ public class PayslipService {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private ProfessionalTaxSettingsRepository professionalTaxSettingsRepository;
+
+    @Autowired
+    private TdsSettingsRepository tdsSettingsRepository;
+
     private static final Map<String, Integer> MONTH_MAP = new HashMap<>();
     static {
         MONTH_MAP.put("JANUARY", 1);
@@ -37,65 +56,146 @@ public class PayslipService {
         EmployeeModel employee = employeeService.getEmployeeById(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId));
 
+        YearMonth yearMonth = YearMonth.of(year, getMonthNumber(month));
+        AttendanceRecord attendance = attendanceRecordRepository
+                .findFirstByEmployeeIdAndMonthInAndYear(employeeId, attendanceMonthKeys(yearMonth), String.valueOf(year))
+                .orElse(null);
+        ProfessionalTaxSettingsModel professionalTax = professionalTaxSettingsRepository
+                .findFirstByCompanyIdOrderByCreatedAtDesc(employee.getCompanyId()).orElse(null);
+        TdsSettingsModel tds = tdsSettingsRepository
+                .findFirstByCompanyIdOrderByCreatedAtDesc(employee.getCompanyId()).orElse(null);
+
+        return calculatePayslip(employee, yearMonth, attendance, professionalTax, tds);
+    }
+
+    /**
+     * Builds a payslip from already loaded inputs; shared by {@link #generatePayslip} and payroll
+     * runs, which load the inputs of many employees at once. Monthly components are prorated by the
+     * attendance record's payable days - or, without one, by the days since joining.
+     */
+    public PayslipModel calculatePayslip(EmployeeModel employee, YearMonth yearMonth, AttendanceRecord attendance,
+                                         ProfessionalTaxSettingsModel professionalTax, TdsSettingsModel tds) {
         // Create payslip model
         PayslipModel payslip = new PayslipModel();
-        
+
         // Set employee details
         payslip.setEmployeeId(employee.getEmployeeId());
         payslip.setEmployeeName(employee.getName());
         payslip.setDateOfJoining(employee.getJoiningDate());
         payslip.setDesignation(employee.getDesignation());
-        payslip.setPan(employee.getIdProofs().getPanNo());
-        payslip.setUanNumber(employee.getBankDetails().getAccountNumber()); // Assuming UAN is stored in account number for now
+        if (employee.getIdProofs() != null) {
+            payslip.setPan(employee.getIdProofs().getPanNo());
+        }
+        if (employee.getBankDetails() != null) {
+            payslip.setUanNumber(employee.getBankDetails().getAccountNumber()); // Assuming UAN is stored in account number for now
+        }
 
         // Format month with proper capitalization
-        String formattedMonth = formatMonth(month);
-        
+        String formattedMonth = formatMonth(yearMonth.getMonth().name());
+
         // Set payslip period
         payslip.setMonth(formattedMonth);
-        payslip.setYear(year);
-        payslip.setMonthYearDisplay(formattedMonth.substring(0, 3) + "-" + year);
+        payslip.setYear(yearMonth.getYear());
+        payslip.setMonthYearDisplay(formattedMonth.substring(0, 3) + "-" + yearMonth.getYear());
 
         // Calculate days in month
-        YearMonth yearMonth = YearMonth.of(year, getMonthNumber(month));
-        payslip.setDaysInMonth(yearMonth.lengthOfMonth());
+        int daysInMonth = yearMonth.lengthOfMonth();
+        payslip.setDaysInMonth(daysInMonth);
+
+        double payableDays = payableDays(employee.getJoiningDate(), yearMonth, attendance);
+        payslip.setSalaryPaidForDays((int) Math.round(payableDays));
+        payslip.setLossOfPayDays(daysInMonth - payslip.getSalaryPaidForDays());
+        if (attendance != null) {
+            payslip.setLeavesTaken((int) Math.round(attendance.getLeavesTaken()));
+            payslip.setCompOffLeavesEarned(attendance.getCompOffEarned());
+            payslip.setAnnualLeavesEarned(attendance.getLeavesEarned());
+            payslip.setOldLeavesBalance(attendance.getLastMonthBalance());
+            payslip.setNewLeavesBalance(attendance.getNetLeaveBalance());
+        }
 
         // Set salary details from employee model
-        payslip.setBasicSalaryPerMonth(employee.getSalaryDetails().getBasicSalary());
-        payslip.setHraPerMonth(employee.getSalaryDetails().getHra());
-        payslip.setOtherAllowancesPerMonth(employee.getSalaryDetails().getAllowances());
-        payslip.setPfEmployeePerMonth(employee.getSalaryDetails().getEmployeePfContribution());
-        payslip.setPfEmployerContributionPerMonth(employee.getSalaryDetails().getEmployerPfContribution());
-
-        // Calculate this month's values (assuming full month for now)
-        payslip.setBasicSalaryThisMonth(payslip.getBasicSalaryPerMonth());
-        payslip.setHraThisMonth(payslip.getHraPerMonth());
-        payslip.setOtherAllowancesThisMonth(payslip.getOtherAllowancesPerMonth());
-        payslip.setPfEmployeeThisMonth(payslip.getPfEmployeePerMonth());
+        EmployeeModel.SalaryDetails salary = employee.getSalaryDetails() != null
+                ? employee.getSalaryDetails() : new EmployeeModel.SalaryDetails();
+        payslip.setBasicSalaryPerMonth(amount(salary.getBasicSalary()));
+        payslip.setHraPerMonth(amount(salary.getHra()));
+        payslip.setOtherAllowancesPerMonth(amount(salary.getAllowances()));
+        payslip.setPfEmployeePerMonth(amount(salary.getEmployeePfContribution()));
+        payslip.setPfEmployerContributionPerMonth(amount(salary.getEmployerPfContribution()));
+
+        // This month's values are prorated by the days the salary is paid for; all sums are in paise
+        long basic = Money.fromRupees(payslip.getBasicSalaryPerMonth());
+        long hra = Money.fromRupees(payslip.getHraPerMonth());
+        long allowances = Money.fromRupees(payslip.getOtherAllowancesPerMonth());
+        long basicThisMonth = Money.prorate(basic, payableDays, daysInMonth);
+        long hraThisMonth = Money.prorate(hra, payableDays, daysInMonth);
+        long allowancesThisMonth = Money.prorate(allowances, payableDays, daysInMonth);
+        long pfThisMonth = Money.prorate(Money.fromRupees(payslip.getPfEmployeePerMonth()), payableDays, daysInMonth);
+        long pfEmployerThisMonth = Money.prorate(Money.fromRupees(payslip.getPfEmployerContributionPerMonth()), payableDays, daysInMonth);
+        payslip.setBasicSalaryThisMonth(Money.toRupees(basicThisMonth));
+        payslip.setHraThisMonth(Money.toRupees(hraThisMonth));
+        payslip.setOtherAllowancesThisMonth(Money.toRupees(allowancesThisMonth));
+        payslip.setPfEmployeeThisMonth(Money.toRupees(pfThisMonth));
+        payslip.setPfEmployerContributionThisMonth(Money.toRupees(pfEmployerThisMonth));
 
         // Calculate total earnings
-        payslip.setTotalEarningsPerMonth(
-            payslip.getBasicSalaryPerMonth() +
-            payslip.getHraPerMonth() +
-            payslip.getOtherAllowancesPerMonth()
-        );
-        payslip.setTotalEarningsThisMonth(
-            payslip.getBasicSalaryThisMonth() +
-            payslip.getHraThisMonth() +
-            payslip.getOtherAllowancesThisMonth()
-        );
+        long grossThisMonth = Money.add(basicThisMonth, hraThisMonth, allowancesThisMonth);
+        payslip.setTotalEarningsPerMonth(Money.toRupees(Money.add(basic, hra, allowances)));
+        payslip.setTotalEarningsThisMonth(Money.toRupees(grossThisMonth));
 
         // Calculate deductions
-        payslip.setPfEmployeeDeduction(payslip.getPfEmployeeThisMonth());
-        payslip.setTotalDeductions(payslip.getPfEmployeeDeduction());
+        long professionalTaxThisMonth = professionalTax(professionalTax, grossThisMonth);
+        long tdsThisMonth = tds != null && tds.getTdsRate() != null
+                ? Money.percent(grossThisMonth, tds.getTdsRate())
+                : Money.ZERO;
+        long totalDeductions = Money.add(pfThisMonth, professionalTaxThisMonth, tdsThisMonth);
+        payslip.setPfEmployeeDeduction(Money.toRupees(pfThisMonth));
+        payslip.setProfessionalTax(Money.toRupees(professionalTaxThisMonth));
+        payslip.setTds(Money.toRupees(tdsThisMonth));
+        payslip.setTotalDeductions(Money.toRupees(totalDeductions));
 
         // Calculate net pay
-        payslip.setNetPay(payslip.getTotalEarningsThisMonth() - payslip.getTotalDeductions());
+        payslip.setNetPay(Money.toRupees(Money.subtract(grossThisMonth, totalDeductions)));
 
         return payslip;
     }
 
-    private int getMonthNumber(String month) {
+    /**
+     * The attendance service and CSV uploads have stored months both by name and by number.
+     */
+    public static List<String> attendanceMonthKeys(YearMonth yearMonth) {
+        Month month = yearMonth.getMonth();
+        String name = month.name();
+        return List.of(name, name.charAt(0) + name.substring(1).toLowerCase(), name.toLowerCase(),
+                String.valueOf(month.getValue()), String.format("%02d", month.getValue()));
+    }
+
+    private static double payableDays(LocalDate joiningDate, YearMonth yearMonth, AttendanceRecord attendance) {
+        if (attendance != null) {
+            return Math.min(attendance.getPayableDays(), yearMonth.lengthOfMonth());
+        }
+        if (joiningDate == null || joiningDate.isBefore(yearMonth.atDay(1))) {
+            return yearMonth.lengthOfMonth();
+        }
+        if (joiningDate.isAfter(yearMonth.atEndOfMonth())) {
+            return 0;
+        }
+        return yearMonth.lengthOfMonth() - joiningDate.getDayOfMonth() + 1;
+    }
+
+    private static long professionalTax(ProfessionalTaxSettingsModel settings, long grossThisMonth) {
+        if (settings == null || grossThisMonth <= 0) {
+            return Money.ZERO;
+        }
+        boolean above = settings.getMonthlySalaryThreshold() != null
+                && grossThisMonth > Money.fromRupees(settings.getMonthlySalaryThreshold());
+        return Money.fromRupees(above ? settings.getAmountAboveThreshold() : settings.getAmountBelowThreshold());
+    }
+
+    private static double amount(Double value) {
+        return value != null ? value : 0;
+    }
+
+    public int getMonthNumber(String month) {
         String monthUpper = month.toUpperCase();
         Integer monthNumber = MONTH_MAP.get(monthUpper);
         if (monthNumber == null) {
@@ -1,29 +1,269 @@
 package com.medhir.rest.service;
 
+import com.medhir.rest.dto.updates.NotificationPage;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.updates.UnreadCounter;
 import com.medhir.rest.model.updates.UpdatesModel;
 import com.medhir.rest.repository.UpdatesRepository;
+import com.medhir.rest.service.org.OrgGraph;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Employees' notification feeds.
+ * <p>
+ * Feeds are read a page at a time, newest first, keyed on the notification id so a page costs the
+ * same however long the history is. Each employee's unread count is kept in an
+ * {@link UnreadCounter} that is {@code $inc}-ed as notifications are registered and read, and
+ * notifications are removed by a TTL index {@code updates.ttl-days} after they are registered.
+ * Notifying a team or a whole company writes the notifications with batched inserts and the
+ * counters with one bulk upsert. New notifications are pushed to the employee's open streams.
+ * <p>
+ * Unread notifications removed by the TTL index leave their counter too high; counters are
+ * recounted from the feeds nightly.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UpdatesService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
     private final UpdatesRepository updatesRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationPushService notificationPushService;
+    private final OrgGraph orgGraph;
+
+    @Value("${updates.ttl-days:90}")
+    private long ttlDays;
+
+    @PostConstruct
+    void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(UpdatesModel.class);
+        indexOps.ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.DESC));
+        indexOps.ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("read", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+    }
 
-    public List<UpdatesModel> getNotifications(String employeeId) {
-        return updatesRepository.findByEmployeeIdOrderByTimestampDesc(employeeId);
+    /**
+     * Notifications stored before feeds tracked expiry and read state get an expiry counted from
+     * when they were registered, so the TTL index removes old history too, and count as read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyNotifications() {
+        try {
+            long ttlMillis = Duration.ofDays(ttlDays).toMillis();
+            long updated = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("expiresAt").exists(false).and("timestamp").exists(true)),
+                    AggregationUpdate.from(List.of(context -> new Document("$set",
+                            new Document("expiresAt", new Document("$add", List.of("$timestamp", ttlMillis)))
+                                    .append("read", true)))),
+                    UpdatesModel.class).getModifiedCount();
+            if (updated > 0) {
+                log.info("Migrated {} notifications stored without an expiry", updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not migrate older notifications: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param limit page size, defaulting to {@value #DEFAULT_PAGE_SIZE}
+     * @param before the {@code nextCursor} of the previous page
+     */
+    public NotificationPage getNotifications(String employeeId, Integer limit, String before) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+        Criteria criteria = Criteria.where("employeeId").is(employeeId);
+        if (before != null && !before.isBlank()) {
+            if (!ObjectId.isValid(before)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + before);
+            }
+            criteria = criteria.and("_id").lt(new ObjectId(before));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .limit(pageSize + 1);
+        List<UpdatesModel> notifications = mongoTemplate.find(query, UpdatesModel.class);
+
+        String nextCursor = null;
+        if (notifications.size() > pageSize) {
+            notifications = new ArrayList<>(notifications.subList(0, pageSize));
+            nextCursor = notifications.get(pageSize - 1).getId();
+        }
+        return new NotificationPage(notifications, getUnreadCount(employeeId), nextCursor);
+    }
+
+    public long getUnreadCount(String employeeId) {
+        UnreadCounter counter = mongoTemplate.findById(employeeId, UnreadCounter.class);
+        return counter != null ? Math.max(counter.getUnread(), 0) : 0;
     }
 
     public UpdatesModel registerNotification(String employeeId, String message, String flag) {
+        UpdatesModel update = newNotification(employeeId, message, flag);
+        UpdatesModel saved = updatesRepository.insert(update);
+        incrementUnread(Map.of(employeeId, 1L));
+        notificationPushService.push(saved);
+        return saved;
+    }
+
+    /**
+     * Sends the same notification to every employee reporting directly to the manager.
+     */
+    public int notifyTeam(String managerId, String message, String flag) {
+        return registerNotifications(orgGraph.directReports(managerId), message, flag);
+    }
+
+    /**
+     * Sends the same notification to every employee of the company.
+     */
+    public int notifyCompany(String companyId, String message, String flag) {
+        Query query = Query.query(Criteria.where("companyId").is(companyId));
+        query.fields().include("employeeId");
+        List<String> employeeIds = mongoTemplate.find(query, EmployeeModel.class).stream()
+                .map(EmployeeModel::getEmployeeId)
+                .toList();
+        return registerNotifications(employeeIds, message, flag);
+    }
+
+    public int registerNotifications(Collection<String> employeeIds, String message, String flag) {
+        List<UpdatesModel> notifications = new ArrayList<>();
+        Map<String, Long> unread = new LinkedHashMap<>();
+        for (String employeeId : new LinkedHashSet<>(employeeIds)) {
+            if (employeeId == null || employeeId.isBlank()) {
+                continue;
+            }
+            notifications.add(newNotification(employeeId, message, flag));
+            unread.put(employeeId, 1L);
+        }
+        for (int from = 0; from < notifications.size(); from += INSERT_BATCH_SIZE) {
+            List<UpdatesModel> batch = notifications.subList(from, Math.min(from + INSERT_BATCH_SIZE, notifications.size()));
+            notificationPushService.pushAll(mongoTemplate.insert(batch, UpdatesModel.class));
+        }
+        incrementUnread(unread);
+        return notifications.size();
+    }
+
+    /**
+     * Marks the employee's notifications with the given ids read and returns the new unread count.
+     */
+    public long markRead(String employeeId, Collection<String> notificationIds) {
+        List<ObjectId> ids = notificationIds.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        if (!ids.isEmpty()) {
+            long marked = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("employeeId").is(employeeId).and("_id").in(ids).and("read").ne(true)),
+                    new Update().set("read", true),
+                    UpdatesModel.class).getModifiedCount();
+            if (marked > 0) {
+                incrementUnread(Map.of(employeeId, -marked));
+            }
+        }
+        return getUnreadCount(employeeId);
+    }
+
+    public void markAllRead(String employeeId) {
+        long marked = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("employeeId").is(employeeId).and("read").ne(true)),
+                new Update().set("read", true),
+                UpdatesModel.class).getModifiedCount();
+        // Subtracted rather than reset, so notifications registered meanwhile stay counted
+        if (marked > 0) {
+            incrementUnread(Map.of(employeeId, -marked));
+        }
+    }
+
+    /**
+     * Resets every counter to the number of unread notifications still stored.
+     */
+    @Scheduled(cron = "${updates.unread.recount-cron:0 40 2 * * *}", zone = "Asia/Kolkata")
+    public void recountUnread() {
+        Map<String, Long> actual = new HashMap<>();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("read").ne(true)),
+                Aggregation.group("employeeId").count().as("unread"));
+        for (Document row : mongoTemplate.aggregate(aggregation, UpdatesModel.class, Document.class)) {
+            actual.put(row.getString("_id"), ((Number) row.get("unread")).longValue());
+        }
+
+        Map<String, Long> stored = new HashMap<>();
+        for (UnreadCounter counter : mongoTemplate.findAll(UnreadCounter.class)) {
+            stored.put(counter.getEmployeeId(), counter.getUnread());
+            actual.putIfAbsent(counter.getEmployeeId(), 0L);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UnreadCounter.class);
+        int operations = 0;
+        for (Map.Entry<String, Long> entry : actual.entrySet()) {
+            if (!entry.getValue().equals(stored.get(entry.getKey()))) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(entry.getKey())),
+                        new Update().set("unread", entry.getValue()));
+                operations++;
+            }
+        }
+        if (operations > 0) {
+            bulk.execute();
+            log.info("Corrected {} unread notification counters", operations);
+        }
+    }
+
+    private void incrementUnread(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UnreadCounter.class);
+        deltas.forEach((employeeId, delta) ->
+                bulk.upsert(Query.query(Criteria.where("_id").is(employeeId)), new Update().inc("unread", delta)));
+        bulk.execute();
+    }
+
+    private UpdatesModel newNotification(String employeeId, String message, String flag) {
         UpdatesModel update = new UpdatesModel();
         update.setEmployeeId(employeeId);
         update.setMessage(message);
         update.setFlag(flag);
         update.setTimestamp(LocalDateTime.now()); // Automatically converted to UTC
-
-        return updatesRepository.save(update);
+        update.setExpiresAt(Instant.now().plus(Duration.ofDays(ttlDays)));
+        return update;
     }
 }
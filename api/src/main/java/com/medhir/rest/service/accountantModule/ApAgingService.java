@@ -0,0 +1,488 @@
+package com.medhir.rest.service.accountantModule;
+
+import com.medhir.rest.dto.ApAgingDTO;
+import com.medhir.rest.model.accountantModule.ApAgingRollup;
+import com.medhir.rest.model.accountantModule.BillModel;
+import com.medhir.rest.model.accountantModule.VendorModel;
+import com.medhir.rest.utils.Money;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Accounts-payable aging per company and per vendor, kept in {@link ApAgingRollup} documents so
+ * that reading a company's aging is a single lookup by id.
+ * <p>
+ * Bill and payment writes call {@link #apply} with what the affected bills contributed before
+ * and after the write; the difference is {@code $inc}-ed into the vendor's and the company's
+ * rollup in one bulk upsert. A bill contributes its unpaid amount, keyed by due date, to the
+ * bucket it falls in today.
+ * <p>
+ * Bills age without being written, so {@link #rebucket} recomputes every rollup's buckets from its
+ * per-due-date amounts shortly after midnight; until it has run, reads do the same for the one
+ * rollup they return. {@link #reconcile} rebuilds all rollups from the bills weekly, and on the
+ * first start with an empty rollup collection.
+ */
+@Slf4j
+@Service
+public class ApAgingService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    private static final int CHUNK_SIZE = 500;
+
+    static final String NO_DUE_DATE = "none";
+
+    static final String CURRENT = "current";
+    static final String DAYS_1_TO_30 = "days1To30";
+    static final String DAYS_31_TO_60 = "days31To60";
+    static final String DAYS_61_TO_90 = "days61To90";
+    static final String DAYS_90_PLUS = "days90Plus";
+    private static final List<String> BUCKETS = List.of(CURRENT, DAYS_1_TO_30, DAYS_31_TO_60, DAYS_61_TO_90, DAYS_90_PLUS);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(ApAgingRollup.class).ensureIndex(new Index()
+                .on("companyId", Sort.Direction.ASC)
+                .on("outstanding", Sort.Direction.DESC));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (mongoTemplate.exists(new Query(), ApAgingRollup.class)) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Initial AP aging build failed: {}", e.getMessage());
+        }
+    }
+
+    // Reads
+
+    public ApAgingDTO getCompanyAging(String companyId) {
+        ApAgingRollup rollup = mongoTemplate.findById(ApAgingRollup.idOf(companyId, ApAgingRollup.ALL_VENDORS), ApAgingRollup.class);
+        return toDTO(rollup, companyId, null, null);
+    }
+
+    public ApAgingDTO getVendorAging(String companyId, String vendorId) {
+        ApAgingRollup rollup = mongoTemplate.findById(ApAgingRollup.idOf(companyId, vendorId), ApAgingRollup.class);
+        return toDTO(rollup, companyId, vendorId, vendorNames(List.of(vendorId)).get(vendorId));
+    }
+
+    /**
+     * Vendors of the company with something outstanding, largest balance first.
+     */
+    public List<ApAgingDTO> getVendorBalances(String companyId) {
+        Query query = Query.query(Criteria.where("companyId").is(companyId)
+                        .and("vendorId").ne(ApAgingRollup.ALL_VENDORS)
+                        .and("outstanding").gt(0))
+                .with(Sort.by(Sort.Direction.DESC, "outstanding"));
+        List<ApAgingRollup> rollups = mongoTemplate.find(query, ApAgingRollup.class);
+        Map<String, String> names = vendorNames(rollups.stream().map(ApAgingRollup::getVendorId).toList());
+        return rollups.stream()
+                .map(rollup -> toDTO(rollup, companyId, rollup.getVendorId(), names.get(rollup.getVendorId())))
+                .collect(Collectors.toList());
+    }
+
+    // Writes
+
+    /**
+     * What a bill adds to its vendor's and company's outstanding balance.
+     */
+    public record Contribution(String companyId, String vendorId, String dueDate, long outstanding) {
+
+        public static Contribution of(BillModel bill) {
+            return bill != null ? of(bill, Money.fromBigDecimal(bill.getTotalPaid())) : null;
+        }
+
+        /**
+         * The bill's contribution once {@code totalPaid} paise of it have been paid.
+         */
+        public static Contribution of(BillModel bill, long totalPaid) {
+            if (bill == null || bill.getCompanyId() == null || bill.getVendorId() == null) {
+                return null;
+            }
+            long due = Money.subtract(Money.fromBigDecimal(bill.getFinalAmount()), totalPaid);
+            return new Contribution(bill.getCompanyId(), bill.getVendorId(), dueDateKey(bill.getDueDate()),
+                    Math.max(due, Money.ZERO));
+        }
+    }
+
+    /**
+     * A single bill changed from {@code before} (null when it is new) to {@code after}.
+     */
+    public void apply(Contribution before, Contribution after) {
+        apply(Collections.singletonList(before), Collections.singletonList(after));
+    }
+
+    /**
+     * Moves the rollups from the {@code removed} contributions to the {@code added} ones with one
+     * bulk upsert. Null entries are ignored.
+     */
+    public void apply(Collection<Contribution> removed, Collection<Contribution> added) {
+        LocalDate today = LocalDate.now(ZONE);
+        Map<RollupKey, Map<String, Long>> deltas = new LinkedHashMap<>();
+        for (Contribution contribution : removed) {
+            accumulate(deltas, contribution, -1, today);
+        }
+        for (Contribution contribution : added) {
+            accumulate(deltas, contribution, 1, today);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApAgingRollup.class);
+        int operations = 0;
+        Instant now = Instant.now();
+        for (Map.Entry<RollupKey, Map<String, Long>> entry : deltas.entrySet()) {
+            Update update = new Update();
+            entry.getValue().forEach((field, delta) -> {
+                if (delta != 0) {
+                    update.inc(field, delta);
+                }
+            });
+            if (update.getUpdateObject().isEmpty()) {
+                continue;
+            }
+            RollupKey key = entry.getKey();
+            update.set("updatedAt", now)
+                    .setOnInsert("companyId", key.companyId())
+                    .setOnInsert("vendorId", key.vendorId())
+                    .setOnInsert("asOf", today.toString());
+            bulk.upsert(Query.query(Criteria.where("_id").is(ApAgingRollup.idOf(key.companyId(), key.vendorId()))), update);
+            operations++;
+        }
+        if (operations > 0) {
+            bulk.execute();
+        }
+    }
+
+    private static void accumulate(Map<RollupKey, Map<String, Long>> deltas, Contribution contribution, int sign,
+                                   LocalDate today) {
+        if (contribution == null || contribution.outstanding() <= 0) {
+            return;
+        }
+        long amount = sign * contribution.outstanding();
+        for (String vendorId : List.of(contribution.vendorId(), ApAgingRollup.ALL_VENDORS)) {
+            Map<String, Long> fields = deltas.computeIfAbsent(new RollupKey(contribution.companyId(), vendorId),
+                    k -> new LinkedHashMap<>());
+            fields.merge("outstanding", amount, Long::sum);
+            fields.merge("openBills", (long) sign, Long::sum);
+            fields.merge("byDueDate." + contribution.dueDate(), amount, Long::sum);
+            fields.merge(bucket(contribution.dueDate(), today), amount, Long::sum);
+        }
+    }
+
+    private record RollupKey(String companyId, String vendorId) {
+    }
+
+    // Jobs
+
+    /**
+     * Recomputes every rollup's buckets for today. Each update is guarded on the rollup's
+     * {@code updatedAt}, so a bill write landing in between is not overwritten; rollups that
+     * changed are read again and redone on their own.
+     */
+    @Scheduled(cron = "${ap.aging.rebucket-cron:0 10 0 * * *}", zone = "Asia/Kolkata")
+    public void rebucket() {
+        LocalDate today = LocalDate.now(ZONE);
+        Query query = new Query();
+        query.fields().include("byDueDate", "updatedAt");
+        List<ApAgingRollup> chunk = new ArrayList<>(CHUNK_SIZE);
+        int[] rebucketed = {0};
+        try (Stream<ApAgingRollup> rollups = mongoTemplate.stream(query, ApAgingRollup.class)) {
+            rollups.forEach(rollup -> {
+                chunk.add(rollup);
+                if (chunk.size() == CHUNK_SIZE) {
+                    rebucketed[0] += rebucket(chunk, today);
+                    chunk.clear();
+                }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            rebucketed[0] += rebucket(chunk, today);
+        }
+        log.info("AP aging re-bucketed {} rollups as of {}", rebucketed[0], today);
+    }
+
+    private int rebucket(List<ApAgingRollup> rollups, LocalDate today) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApAgingRollup.class);
+        for (ApAgingRollup rollup : rollups) {
+            bulk.updateOne(unchanged(rollup), rebucketUpdate(rollup, today));
+        }
+        int matched = bulk.execute().getMatchedCount();
+        if (matched == rollups.size()) {
+            return matched;
+        }
+
+        Query query = Query.query(Criteria.where("_id").in(rollups.stream().map(ApAgingRollup::getId).toList())
+                .and("asOf").ne(today.toString()));
+        query.fields().include("byDueDate", "updatedAt");
+        for (ApAgingRollup fresh : mongoTemplate.find(query, ApAgingRollup.class)) {
+            matched += (int) mongoTemplate.updateFirst(unchanged(fresh), rebucketUpdate(fresh, today), ApAgingRollup.class)
+                    .getMatchedCount();
+        }
+        return matched;
+    }
+
+    private static Query unchanged(ApAgingRollup rollup) {
+        return Query.query(Criteria.where("_id").is(rollup.getId()).and("updatedAt").is(rollup.getUpdatedAt()));
+    }
+
+    private static Update rebucketUpdate(ApAgingRollup rollup, LocalDate today) {
+        Map<String, Long> byDueDate = rollup.getByDueDate() != null ? rollup.getByDueDate() : Map.of();
+        long[] amounts = buckets(byDueDate, today);
+        Update update = new Update();
+        for (int i = 0; i < BUCKETS.size(); i++) {
+            update.set(BUCKETS.get(i), amounts[i]);
+        }
+        // Due dates that have been paid off are dropped
+        byDueDate.forEach((dueDate, amount) -> {
+            if (amount == null || amount == 0) {
+                update.unset("byDueDate." + dueDate);
+            }
+        });
+        return update.set("asOf", today.toString()).set("updatedAt", Instant.now());
+    }
+
+    @Scheduled(cron = "${ap.aging.reconcile-cron:0 30 2 * * SUN}", zone = "Asia/Kolkata")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled AP aging reconciliation: {}", e.getMessage());
+        }
+    }
+
+    public record ReconcileResult(int rollups, int drifted) {
+    }
+
+    /**
+     * Rebuilds every rollup from the bills and replaces what is stored, reporting how many stored
+     * rollups disagreed. Bill writes made while it runs may be lost from the rebuilt rollups until
+     * the next run, so it is scheduled for a quiet hour.
+     */
+    public ReconcileResult reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            throw new IllegalStateException("AP aging reconciliation already running");
+        }
+        try {
+            LocalDate today = LocalDate.now(ZONE);
+            Map<String, ApAgingRollup> rebuilt = new HashMap<>();
+            Query billQuery = new Query();
+            billQuery.fields().include("companyId", "vendorId", "dueDate", "finalAmount", "totalPaid");
+            try (Stream<BillModel> bills = mongoTemplate.stream(billQuery, BillModel.class)) {
+                bills.forEach(bill -> {
+                    Contribution contribution = Contribution.of(bill);
+                    if (contribution != null && contribution.outstanding() > 0) {
+                        add(rebuilt, contribution, contribution.vendorId());
+                        add(rebuilt, contribution, ApAgingRollup.ALL_VENDORS);
+                    }
+                });
+            }
+            Instant now = Instant.now();
+            for (ApAgingRollup rollup : rebuilt.values()) {
+                long[] amounts = buckets(rollup.getByDueDate(), today);
+                rollup.setCurrent(amounts[0]);
+                rollup.setDays1To30(amounts[1]);
+                rollup.setDays31To60(amounts[2]);
+                rollup.setDays61To90(amounts[3]);
+                rollup.setDays90Plus(amounts[4]);
+                rollup.setAsOf(today.toString());
+                rollup.setUpdatedAt(now);
+            }
+
+            Query storedQuery = new Query();
+            storedQuery.fields().include("outstanding", "byDueDate");
+            Map<String, ApAgingRollup> stored = mongoTemplate.find(storedQuery, ApAgingRollup.class).stream()
+                    .collect(Collectors.toMap(ApAgingRollup::getId, rollup -> rollup));
+
+            int drifted = 0;
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApAgingRollup.class);
+            int operations = 0;
+            for (ApAgingRollup rollup : rebuilt.values()) {
+                if (!sameAmounts(stored.get(rollup.getId()), rollup)) {
+                    drifted++;
+                }
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(rollup.getId())), rollup,
+                        FindAndReplaceOptions.options().upsert());
+                if (++operations == CHUNK_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApAgingRollup.class);
+                    operations = 0;
+                }
+            }
+            Set<String> obsolete = new HashSet<>(stored.keySet());
+            obsolete.removeAll(rebuilt.keySet());
+            for (String id : obsolete) {
+                if (stored.get(id).getOutstanding() != 0) {
+                    drifted++;
+                }
+            }
+            if (!obsolete.isEmpty()) {
+                bulk.remove(Query.query(Criteria.where("_id").in(obsolete)));
+                operations++;
+            }
+            if (operations > 0) {
+                bulk.execute();
+            }
+
+            log.info("AP aging reconciled: {} rollups rebuilt, {} had drifted", rebuilt.size(), drifted);
+            return new ReconcileResult(rebuilt.size(), drifted);
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private static void add(Map<String, ApAgingRollup> rollups, Contribution contribution, String vendorId) {
+        String id = ApAgingRollup.idOf(contribution.companyId(), vendorId);
+        ApAgingRollup rollup = rollups.computeIfAbsent(id, k -> ApAgingRollup.builder()
+                .id(k)
+                .companyId(contribution.companyId())
+                .vendorId(vendorId)
+                .byDueDate(new HashMap<>())
+                .build());
+        rollup.setOutstanding(rollup.getOutstanding() + contribution.outstanding());
+        rollup.setOpenBills(rollup.getOpenBills() + 1);
+        rollup.getByDueDate().merge(contribution.dueDate(), contribution.outstanding(), Long::sum);
+    }
+
+    private static boolean sameAmounts(ApAgingRollup stored, ApAgingRollup rebuilt) {
+        if (stored == null) {
+            return false;
+        }
+        return stored.getOutstanding() == rebuilt.getOutstanding()
+                && nonZero(stored.getByDueDate()).equals(nonZero(rebuilt.getByDueDate()));
+    }
+
+    private static Map<String, Long> nonZero(Map<String, Long> amounts) {
+        if (amounts == null) {
+            return Map.of();
+        }
+        return amounts.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && entry.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    // Bucketing
+
+    /**
+     * Bills are keyed by their ISO due date; bills without a readable one count as current.
+     */
+    static String dueDateKey(String dueDate) {
+        if (dueDate == null || dueDate.isBlank()) {
+            return NO_DUE_DATE;
+        }
+        try {
+            return LocalDate.parse(dueDate.trim()).toString();
+        } catch (DateTimeParseException e) {
+            return NO_DUE_DATE;
+        }
+    }
+
+    static String bucket(String dueDateKey, LocalDate today) {
+        if (NO_DUE_DATE.equals(dueDateKey)) {
+            return CURRENT;
+        }
+        long daysPastDue = ChronoUnit.DAYS.between(LocalDate.parse(dueDateKey), today);
+        if (daysPastDue <= 0) {
+            return CURRENT;
+        }
+        if (daysPastDue <= 30) {
+            return DAYS_1_TO_30;
+        }
+        if (daysPastDue <= 60) {
+            return DAYS_31_TO_60;
+        }
+        return daysPastDue <= 90 ? DAYS_61_TO_90 : DAYS_90_PLUS;
+    }
+
+    /**
+     * Amounts per bucket, in {@link #BUCKETS} order.
+     */
+    static long[] buckets(Map<String, Long> byDueDate, LocalDate today) {
+        long[] amounts = new long[BUCKETS.size()];
+        byDueDate.forEach((dueDate, amount) -> {
+            if (amount != null) {
+                int i = BUCKETS.indexOf(bucket(dueDate, today));
+                amounts[i] = Money.add(amounts[i], amount);
+            }
+        });
+        return amounts;
+    }
+
+    private ApAgingDTO toDTO(ApAgingRollup rollup, String companyId, String vendorId, String vendorName) {
+        ApAgingDTO dto = ApAgingDTO.builder()
+                .companyId(companyId)
+                .vendorId(vendorId)
+                .vendorName(vendorName)
+                .build();
+        String today = LocalDate.now(ZONE).toString();
+        long[] amounts = new long[BUCKETS.size()];
+        if (rollup != null) {
+            dto.setOutstanding(Money.toBigDecimal(rollup.getOutstanding()));
+            dto.setOpenBills(rollup.getOpenBills());
+            if (today.equals(rollup.getAsOf())) {
+                amounts = new long[]{rollup.getCurrent(), rollup.getDays1To30(), rollup.getDays31To60(),
+                        rollup.getDays61To90(), rollup.getDays90Plus()};
+            } else if (rollup.getByDueDate() != null) {
+                // Not re-bucketed yet today
+                amounts = buckets(rollup.getByDueDate(), LocalDate.parse(today));
+            }
+        } else {
+            dto.setOutstanding(Money.toBigDecimal(Money.ZERO));
+        }
+        dto.setCurrent(Money.toBigDecimal(amounts[0]));
+        dto.setDays1To30(Money.toBigDecimal(amounts[1]));
+        dto.setDays31To60(Money.toBigDecimal(amounts[2]));
+        dto.setDays61To90(Money.toBigDecimal(amounts[3]));
+        dto.setDays90Plus(Money.toBigDecimal(amounts[4]));
+        dto.setAsOf(today);
+        return dto;
+    }
+
+    private Map<String, String> vendorNames(Collection<String> vendorIds) {
+        if (vendorIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("vendorId").in(vendorIds));
+        query.fields().include("vendorId", "vendorName");
+        return mongoTemplate.find(query, VendorModel.class).stream()
+                .filter(vendor -> vendor.getVendorId() != null && vendor.getVendorName() != null)
+                .collect(Collectors.toMap(VendorModel::getVendorId, VendorModel::getVendorName, (a, b) -> a));
+    }
+}
@@ -3,12 +3,19 @@ package com.medhir.rest.service.accountantModule;
 import com.medhir.rest.model.accountantModule.BillModel;
 import com.medhir.rest.repository.accountantModule.BillRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
-import java.math.BigDecimal;
 
 import com.medhir.rest.service.CompanyService;
 import com.medhir.rest.exception.ResourceNotFoundException;
@@ -33,6 +40,10 @@ public class BillService {
 
     private final MinioService minioService;
 
+    private final ApAgingService apAgingService;
+
+    private final MongoTemplate mongoTemplate;
+
     public BillModel createBill(BillModel bill, MultipartFile attachment) {
         // Check if company exists
         companyService.getCompanyById(bill.getCompanyId())
@@ -48,12 +59,16 @@ public class BillService {
         } else {
             bill.setAttachmentUrls(null);
         }
-        return billRepository.save(bill);
+        BillModel saved = billRepository.save(bill);
+        apAgingService.apply(null, ApAgingService.Contribution.of(saved));
+        return saved;
     }
 
     public BillModel updateBill(String billId, BillModel updatedBill, MultipartFile attachment) {
         BillModel existing = billRepository.findByBillId(billId)
                 .orElseThrow(() -> new ResourceNotFoundException("Bill not found with id: " + billId));
+        ApAgingService.Contribution before = ApAgingService.Contribution.of(existing);
+        List<String> attachmentsBefore = attachmentUrls(existing);
         // Check if company exists (if companyId is being updated)
         if (updatedBill.getCompanyId() != null && !updatedBill.getCompanyId().equals(existing.getCompanyId())) {
             companyService.getCompanyById(updatedBill.getCompanyId())
@@ -63,42 +78,70 @@ public class BillService {
         if (updatedBill.getVendorId() != null && !updatedBill.getVendorId().equals(existing.getVendorId())) {
             vendorService.getVendorById(updatedBill.getVendorId());
         }
-        // Update only non-null fields
-        if (updatedBill.getCompanyId() != null) existing.setCompanyId(updatedBill.getCompanyId());
-//        if (updatedBill.getCompanyName() != null) existing.setCompanyName(updatedBill.getCompanyName());
-        if (updatedBill.getVendorId() != null) existing.setVendorId(updatedBill.getVendorId());
-//        if (updatedBill.getVendorName() != null) existing.setVendorName(updatedBill.getVendorName());
-        if (updatedBill.getGstin() != null) existing.setGstin(updatedBill.getGstin());
-        if (updatedBill.getGstTreatment() != null) existing.setGstTreatment(updatedBill.getGstTreatment());
-        existing.setReverseCharge(updatedBill.isReverseCharge());
-        if (updatedBill.getBillReference() != null) existing.setBillReference(updatedBill.getBillReference());
-        if (updatedBill.getBillDate() != null) existing.setBillDate(updatedBill.getBillDate());
-        if (updatedBill.getDueDate() != null) existing.setDueDate(updatedBill.getDueDate());
-        if (updatedBill.getPlaceOfSupply() != null) existing.setPlaceOfSupply(updatedBill.getPlaceOfSupply());
-        if (updatedBill.getJournal() != null) existing.setJournal(updatedBill.getJournal());
-        if (updatedBill.getCurrency() != null) existing.setCurrency(updatedBill.getCurrency());
-        if (updatedBill.getStatus() != null) existing.setStatus(updatedBill.getStatus());
-        if (updatedBill.getBillLineItems() != null) existing.setBillLineItems(updatedBill.getBillLineItems());
-        if (updatedBill.getTotalBeforeGST() != null) existing.setTotalBeforeGST(updatedBill.getTotalBeforeGST());
-        if (updatedBill.getTotalGST() != null) existing.setTotalGST(updatedBill.getTotalGST());
-        if (updatedBill.getFinalAmount() != null) existing.setFinalAmount(updatedBill.getFinalAmount());
-        if (updatedBill.getPaymentTerms() != null) existing.setPaymentTerms(updatedBill.getPaymentTerms());
-        if (updatedBill.getRecipientBank() != null) existing.setRecipientBank(updatedBill.getRecipientBank());
-        if (updatedBill.getEwayBillNumber() != null) existing.setEwayBillNumber(updatedBill.getEwayBillNumber());
-        if (updatedBill.getTransporter() != null) existing.setTransporter(updatedBill.getTransporter());
-        if (updatedBill.getVehicleNumber() != null) existing.setVehicleNumber(updatedBill.getVehicleNumber());
-        if (updatedBill.getVendorReference() != null) existing.setVendorReference(updatedBill.getVendorReference());
-        if (updatedBill.getShippingAddress() != null) existing.setShippingAddress(updatedBill.getShippingAddress());
-        if (updatedBill.getBillingAddress() != null) existing.setBillingAddress(updatedBill.getBillingAddress());
-        if (updatedBill.getInternalNotes() != null) existing.setInternalNotes(updatedBill.getInternalNotes());
+        // Update only non-null fields. The payment fields are never written here, and the update only
+        // matches while the fields the AP aging rollup depends on are as read, so a payment applied
+        // in the meantime is neither overwritten nor counted twice.
+        Update update = new Update();
+        setIfPresent(update, "companyId", updatedBill.getCompanyId());
+        setIfPresent(update, "vendorId", updatedBill.getVendorId());
+        setIfPresent(update, "gstin", updatedBill.getGstin());
+        setIfPresent(update, "gstTreatment", updatedBill.getGstTreatment());
+        update.set("reverseCharge", updatedBill.isReverseCharge());
+        setIfPresent(update, "billReference", updatedBill.getBillReference());
+        setIfPresent(update, "billDate", updatedBill.getBillDate());
+        setIfPresent(update, "dueDate", updatedBill.getDueDate());
+        setIfPresent(update, "placeOfSupply", updatedBill.getPlaceOfSupply());
+        setIfPresent(update, "journal", updatedBill.getJournal());
+        setIfPresent(update, "currency", updatedBill.getCurrency());
+        setIfPresent(update, "status", updatedBill.getStatus());
+        setIfPresent(update, "billLineItems", updatedBill.getBillLineItems());
+        setIfPresent(update, "totalBeforeGST", updatedBill.getTotalBeforeGST());
+        setIfPresent(update, "totalGST", updatedBill.getTotalGST());
+        setIfPresent(update, "finalAmount", updatedBill.getFinalAmount());
+        setIfPresent(update, "paymentTerms", updatedBill.getPaymentTerms());
+        setIfPresent(update, "recipientBank", updatedBill.getRecipientBank());
+        setIfPresent(update, "ewayBillNumber", updatedBill.getEwayBillNumber());
+        setIfPresent(update, "transporter", updatedBill.getTransporter());
+        setIfPresent(update, "vehicleNumber", updatedBill.getVehicleNumber());
+        setIfPresent(update, "vendorReference", updatedBill.getVendorReference());
+        setIfPresent(update, "shippingAddress", updatedBill.getShippingAddress());
+        setIfPresent(update, "billingAddress", updatedBill.getBillingAddress());
+        setIfPresent(update, "internalNotes", updatedBill.getInternalNotes());
         // Handle attachment upload
+        List<String> uploaded = List.of();
         if (attachment != null && !attachment.isEmpty()) {
-            String url = minioService.uploadBillAttachment(attachment, existing.getVendorId());
-            existing.setAttachmentUrls(Collections.singletonList(url));
+            String vendorId = updatedBill.getVendorId() != null ? updatedBill.getVendorId() : existing.getVendorId();
+            uploaded = Collections.singletonList(minioService.uploadBillAttachment(attachment, vendorId));
+            update.set("attachmentUrls", uploaded);
         } else if (updatedBill.getAttachmentUrls() != null) {
-            existing.setAttachmentUrls(updatedBill.getAttachmentUrls());
+            update.set("attachmentUrls", updatedBill.getAttachmentUrls());
+        }
+        Query unchanged = Query.query(Criteria.where("billId").is(billId)
+                .and("companyId").is(existing.getCompanyId())
+                .and("vendorId").is(existing.getVendorId())
+                .and("dueDate").is(existing.getDueDate())
+                .and("finalAmount").is(existing.getFinalAmount())
+                .and("totalPaid").in(PaymentAllocationService.unchanged(existing.getTotalPaid())));
+        BillModel saved = mongoTemplate.findAndModify(unchanged, update,
+                FindAndModifyOptions.options().returnNew(true), BillModel.class);
+        if (saved == null) {
+            minioService.releaseReplaced(uploaded, List.of());
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Bill " + billId + " was changed or paid in the meantime; please reload and retry");
+        }
+        apAgingService.apply(before, ApAgingService.Contribution.of(saved));
+        minioService.releaseReplaced(attachmentsBefore, attachmentUrls(saved));
+        return saved;
+    }
+
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
         }
-        return billRepository.save(existing);
+    }
+
+    private static List<String> attachmentUrls(BillModel bill) {
+        return bill.getAttachmentUrls() != null ? new ArrayList<>(bill.getAttachmentUrls()) : List.of();
     }
 
     public BillModel getBillById(String billId) {
@@ -123,30 +166,6 @@ public class BillService {
         return billRepository.findByVendorId(vendorId);
     }
 
-    /**
-     * Updates the payment details (totalPaid, paymentStatus, and paymentId) of a bill.
-     * @param billId The bill's unique ID
-     * @param paidAmount The new paid amount to set
-     * @param paymentId The payment's unique ID to link
-     */
-    public BillModel updateBillPaymentDetails(String billId, BigDecimal paidAmount, String paymentId) {
-        BillModel bill = billRepository.findByBillId(billId)
-                .orElseThrow(() -> new ResourceNotFoundException("Bill not found with id : " + billId));
-        BigDecimal finalAmount = bill.getFinalAmount();
-        if (paidAmount == null) paidAmount = BigDecimal.ZERO;
-        if (finalAmount == null) finalAmount = BigDecimal.ZERO;
-        bill.setTotalPaid(paidAmount);
-        bill.setPaymentId(paymentId);
-        if (paidAmount.compareTo(finalAmount) >= 0) {
-            bill.setPaymentStatus(BillModel.PaymentStatus.PAID);
-        } else if (paidAmount.compareTo(BigDecimal.ZERO) > 0) {
-            bill.setPaymentStatus(BillModel.PaymentStatus.PARTIALLY_PAID);
-        } else {
-            bill.setPaymentStatus(BillModel.PaymentStatus.UN_PAID);
-        }
-        return billRepository.save(bill);
-    }
-
     private BillDTO mapToDTO(BillModel bill) {
         CompanyModel company = companyService.getCompanyById(bill.getCompanyId()).orElse(null);
         VendorModel vendor = vendorService.getVendorById(bill.getVendorId());
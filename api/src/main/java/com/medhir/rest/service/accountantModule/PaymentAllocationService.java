@@ -0,0 +1,289 @@
+package com.medhir.rest.service.accountantModule;
+
+import com.medhir.rest.exception.BadRequestException;
+import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.model.accountantModule.BillModel;
+import com.medhir.rest.model.accountantModule.PaymentModel;
+import com.medhir.rest.repository.accountantModule.PaymentRepository;
+import com.medhir.rest.utils.Money;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a payment to the bills it pays. All referenced bills are read with one {@code $in} query,
+ * every allocation is validated before anything is written, the bills' {@code totalPaid},
+ * {@code paymentStatus} and {@code paymentId} are updated in one unordered bulk write - a handful
+ * of round trips however many bills a vendor run covers. The vendor's AP aging rollup moves with
+ * the bills.
+ * <p>
+ * Transactions are off by default, so the payment does not rely on them: it is saved as
+ * {@code PENDING} before any bill is touched and only marked {@code COMPLETED} once every bill
+ * update went through. Each bill update is guarded on the {@code totalPaid} it was validated
+ * against; if another payment got to one of the bills first, the bills this payment did update are
+ * put back and the pending payment is removed. A payment left {@code PENDING} for longer than
+ * {@code payment.allocation.pending-timeout-ms} was cut short by a crash; {@link #reconcilePending}
+ * completes it if every bill carries it, and otherwise takes it back off the bills it reached and
+ * removes it. A completed payment's AP aging change may be missing in that case, which the weekly
+ * AP aging reconciliation corrects.
+ */
+@Slf4j
+@Service
+public class PaymentAllocationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ApAgingService apAgingService;
+
+    @Value("${payment.allocation.pending-timeout-ms:600000}")
+    private long pendingTimeoutMillis;
+
+    @PostConstruct
+    void ensureIndexes() {
+        // Sparse, so only payments still being allocated are indexed
+        mongoTemplate.indexOps(PaymentModel.class).ensureIndex(new Index().on("pendingSince", Sort.Direction.ASC).sparse());
+    }
+
+    public PaymentModel allocate(PaymentModel payment) {
+        List<PaymentModel.BillPaymentDetail> details = payment.getBillPayments() != null
+                ? payment.getBillPayments() : List.of();
+        Map<String, BillModel> bills = loadBills(details);
+        List<Allocation> allocations = plan(payment, bills);
+
+        payment.setStatus(PaymentModel.Status.PENDING);
+        payment.setPendingSince(Instant.now());
+        PaymentModel pending = paymentRepository.save(payment);
+
+        if (!allocations.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BillModel.class);
+            for (Allocation allocation : allocations) {
+                bulk.updateOne(
+                        Query.query(Criteria.where("billId").is(allocation.billId())
+                                .and("totalPaid").in(unchanged(allocation.previousTotalPaid()))),
+                        new Update()
+                                .set("totalPaid", Money.toBigDecimal(allocation.totalPaid()))
+                                .set("paymentStatus", allocation.status())
+                                .set("paymentId", payment.getPaymentId()));
+            }
+            BulkWriteResult result = bulk.execute();
+            if (result.getMatchedCount() != allocations.size()) {
+                undo(payment.getPaymentId(), allocations, bills);
+                paymentRepository.delete(pending);
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "One or more bills were paid by another payment in the meantime; please retry");
+            }
+
+            List<ApAgingService.Contribution> before = new ArrayList<>(allocations.size());
+            List<ApAgingService.Contribution> after = new ArrayList<>(allocations.size());
+            for (Allocation allocation : allocations) {
+                BillModel bill = bills.get(allocation.billId());
+                before.add(ApAgingService.Contribution.of(bill));
+                after.add(ApAgingService.Contribution.of(bill, allocation.totalPaid()));
+            }
+            apAgingService.apply(before, after);
+        }
+
+        pending.setStatus(PaymentModel.Status.COMPLETED);
+        pending.setPendingSince(null);
+        return paymentRepository.save(pending);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.allocation.reconcile-interval-ms:300000}")
+    public void reconcilePending() {
+        Query query = Query.query(Criteria.where("status").is(PaymentModel.Status.PENDING)
+                .and("pendingSince").lt(Instant.now().minusMillis(pendingTimeoutMillis)));
+        for (PaymentModel payment : mongoTemplate.find(query, PaymentModel.class)) {
+            try {
+                reconcile(payment);
+            } catch (Exception e) {
+                log.warn("Could not reconcile pending payment {}: {}", payment.getPaymentId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Finishes an allocation that was cut short. The bills it reached are the ones still carrying
+     * its id; every write is guarded on the state just read, so a bill paid again in the meantime
+     * is left alone.
+     */
+    private void reconcile(PaymentModel payment) {
+        List<PaymentModel.BillPaymentDetail> details = payment.getBillPayments() != null
+                ? payment.getBillPayments() : List.of();
+        Map<String, BillModel> bills = loadBills(details);
+        List<PaymentModel.BillPaymentDetail> reached = details.stream()
+                .filter(detail -> detail != null && bills.containsKey(detail.getBillId())
+                        && payment.getPaymentId().equals(bills.get(detail.getBillId()).getPaymentId()))
+                .toList();
+
+        if (reached.size() == details.size()) {
+            // Every bill update went through, only the final status write was lost
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(payment.getId()).and("status").is(PaymentModel.Status.PENDING)),
+                    new Update().set("status", PaymentModel.Status.COMPLETED).unset("pendingSince"),
+                    PaymentModel.class);
+            log.info("Completed pending payment {}", payment.getPaymentId());
+            return;
+        }
+
+        if (!reached.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BillModel.class);
+            for (PaymentModel.BillPaymentDetail detail : reached) {
+                BillModel bill = bills.get(detail.getBillId());
+                long previous = Money.subtract(Money.fromBigDecimal(bill.getTotalPaid()), Money.fromBigDecimal(detail.getPaidAmount()));
+                bulk.updateOne(
+                        Query.query(Criteria.where("billId").is(bill.getBillId())
+                                .and("paymentId").is(payment.getPaymentId())
+                                .and("totalPaid").is(bill.getTotalPaid())),
+                        new Update()
+                                .set("totalPaid", Money.toBigDecimal(previous))
+                                .set("paymentStatus", BillModel.PaymentStatus.of(previous, Money.fromBigDecimal(bill.getFinalAmount())))
+                                .unset("paymentId"));
+            }
+            bulk.execute();
+        }
+        mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(payment.getId()).and("status").is(PaymentModel.Status.PENDING)),
+                PaymentModel.class);
+        log.info("Rolled back pending payment {} from {} bill(s)", payment.getPaymentId(), reached.size());
+    }
+
+    /**
+     * Puts back the bills this payment updated before the conflict was noticed. A bill still
+     * counts as this payment's only while it carries the payment's id and the total it set.
+     */
+    private void undo(String paymentId, List<Allocation> allocations, Map<String, BillModel> bills) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BillModel.class);
+        for (Allocation allocation : allocations) {
+            BillModel bill = bills.get(allocation.billId());
+            bulk.updateOne(
+                    Query.query(Criteria.where("billId").is(allocation.billId())
+                            .and("paymentId").is(paymentId)
+                            .and("totalPaid").is(Money.toBigDecimal(allocation.totalPaid()))),
+                    new Update()
+                            .set("totalPaid", allocation.previousTotalPaid())
+                            .set("paymentStatus", bill.getPaymentStatus())
+                            .set("paymentId", bill.getPaymentId()));
+        }
+        bulk.execute();
+    }
+
+    private Map<String, BillModel> loadBills(List<PaymentModel.BillPaymentDetail> details) {
+        Set<String> billIds = new HashSet<>();
+        for (PaymentModel.BillPaymentDetail detail : details) {
+            if (detail != null && detail.getBillId() != null) {
+                billIds.add(detail.getBillId());
+            }
+        }
+        if (billIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("billId").in(billIds));
+        query.fields().include("billId", "vendorId", "companyId", "dueDate", "finalAmount", "totalPaid",
+                "paymentStatus", "paymentId");
+        Map<String, BillModel> bills = new HashMap<>();
+        for (BillModel bill : mongoTemplate.find(query, BillModel.class)) {
+            bills.put(bill.getBillId(), bill);
+        }
+        return bills;
+    }
+
+    /**
+     * Validates every bill payment of the payment against the loaded bills and works out each
+     * bill's new total and status. Amounts add to what the bill has already been paid and may not
+     * exceed what is still due.
+     */
+    static List<Allocation> plan(PaymentModel payment, Map<String, BillModel> bills) {
+        List<PaymentModel.BillPaymentDetail> details = payment.getBillPayments() != null
+                ? payment.getBillPayments() : List.of();
+        List<Allocation> allocations = new ArrayList<>(details.size());
+        Set<String> seen = new HashSet<>();
+        long allocated = Money.ZERO;
+
+        for (PaymentModel.BillPaymentDetail detail : details) {
+            if (detail == null || detail.getBillId() == null || detail.getBillId().isBlank()) {
+                throw new BadRequestException("Bill ID is required for every bill payment");
+            }
+            String billId = detail.getBillId();
+            if (!seen.add(billId)) {
+                throw new BadRequestException("Bill " + billId + " appears more than once in the payment");
+            }
+            long paid = Money.fromBigDecimal(detail.getPaidAmount());
+            if (paid <= Money.ZERO) {
+                throw new BadRequestException("Paid amount for bill " + billId + " must be positive");
+            }
+            BillModel bill = bills.get(billId);
+            if (bill == null) {
+                throw new ResourceNotFoundException("Bill not found with id : " + billId);
+            }
+            if (payment.getVendorId() != null && !payment.getVendorId().equals(bill.getVendorId())) {
+                throw new BadRequestException("Bill " + billId + " does not belong to vendor " + payment.getVendorId());
+            }
+            if (payment.getCompanyId() != null && !payment.getCompanyId().equals(bill.getCompanyId())) {
+                throw new BadRequestException("Bill " + billId + " does not belong to company " + payment.getCompanyId());
+            }
+
+            long finalAmount = Money.fromBigDecimal(bill.getFinalAmount());
+            long alreadyPaid = Money.fromBigDecimal(bill.getTotalPaid());
+            long due = Money.subtract(finalAmount, alreadyPaid);
+            if (paid > due) {
+                throw new BadRequestException("Paid amount for bill " + billId + " exceeds its due amount of "
+                        + Money.toBigDecimal(Math.max(due, Money.ZERO)));
+            }
+            long totalPaid = Money.add(alreadyPaid, paid);
+            allocations.add(new Allocation(billId, bill.getTotalPaid(), totalPaid,
+                    BillModel.PaymentStatus.of(totalPaid, finalAmount)));
+            allocated = Money.add(allocated, paid);
+        }
+
+        // With TDS the bills are settled for more than the cash paid out, so the total only caps
+        // the allocations of payments without it
+        if (payment.getTotalAmount() != null && !payment.isTdsApplied()
+                && allocated > Money.fromBigDecimal(payment.getTotalAmount())) {
+            throw new BadRequestException("Bill payments add up to " + Money.toBigDecimal(allocated)
+                    + ", more than the payment total of " + payment.getTotalAmount());
+        }
+        return allocations;
+    }
+
+    /**
+     * Values the stored {@code totalPaid} may have if nobody changed it since it was read. Bills
+     * saved before the field existed load it as zero but have nothing stored.
+     */
+    static List<BigDecimal> unchanged(BigDecimal previous) {
+        if (previous == null || previous.signum() == 0) {
+            return Arrays.asList(previous, null);
+        }
+        return List.of(previous);
+    }
+
+    record Allocation(String billId, BigDecimal previousTotalPaid, long totalPaid, BillModel.PaymentStatus status) {
+    }
+}
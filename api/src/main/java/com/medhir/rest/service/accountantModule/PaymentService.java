@@ -15,7 +15,7 @@ public class PaymentService {
     @Autowired
     private PaymentRepository paymentRepository;
     @Autowired
-    private BillService billService;
+    private PaymentAllocationService paymentAllocationService;
     @Autowired
     private SnowflakeIdGenerator snowflakeIdGenerator;
     @Autowired
@@ -28,13 +28,8 @@ public class PaymentService {
             String url = minioService.uploadPaymentProof(paymentProof, payment.getPaymentId());
             payment.setPaymentProofUrl(url);
         }
-        // Update each bill with paid amount and status
-        if (payment.getBillPayments() != null) {
-            for (PaymentModel.BillPaymentDetail detail : payment.getBillPayments()) {
-                billService.updateBillPaymentDetails(detail.getBillId(), detail.getPaidAmount(), payment.getPaymentId());
-            }
-        }
-        return paymentRepository.save(payment);
+        // Apply the payment to its bills and save it together
+        return paymentAllocationService.allocate(payment);
     }
 
     public List<PaymentModel> getAllPayments() {
@@ -4,6 +4,7 @@ import com.medhir.rest.model.accountantModule.VendorModel;
 import com.medhir.rest.repository.accountantModule.VendorRepository;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
 import com.medhir.rest.service.CompanyService;
+import com.medhir.rest.service.search.SearchIndex;
 import com.medhir.rest.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -19,13 +20,17 @@ public class VendorService {
     private SnowflakeIdGenerator snowflakeIdGenerator;
     @Autowired
     private CompanyService companyService;
+    @Autowired
+    private SearchIndex searchIndex;
 
     public VendorModel createVendor(VendorModel vendor) {
         // Check if company exists
         companyService.getCompanyById(vendor.getCompanyId())
             .orElseThrow(() -> new ResourceNotFoundException("Company not found with ID: " + vendor.getCompanyId()));
         vendor.setVendorId("VID" + snowflakeIdGenerator.nextId());
-        return vendorRepository.save(vendor);
+        VendorModel saved = vendorRepository.save(vendor);
+        searchIndex.put(saved);
+        return saved;
     }
 
     public VendorModel updateVendor(String vendorId, VendorModel updatedVendor) {
@@ -55,7 +60,9 @@ public class VendorService {
         existingVendor.setVendorTags(updatedVendor.getVendorTags());
         existingVendor.setBankDetails(updatedVendor.getBankDetails());
         existingVendor.setContactAddresses(updatedVendor.getContactAddresses());
-        return vendorRepository.save(existingVendor);
+        VendorModel saved = vendorRepository.save(existingVendor);
+        searchIndex.put(saved);
+        return saved;
     }
 
     public List<VendorModel> getAllVendors() {
@@ -71,8 +78,6 @@ public class VendorService {
         // Check if company exists
         companyService.getCompanyById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Company not found with ID: " + companyId));
-        return vendorRepository.findAll().stream()
-                .filter(v -> companyId.equals(v.getCompanyId()))
-                .toList();
+        return vendorRepository.findByCompanyId(companyId);
     }
 } 
\ No newline at end of file
@@ -2,16 +2,20 @@ package com.medhir.rest.service.auth;
 
 import com.medhir.rest.dto.auth.LoginRequest;
 import com.medhir.rest.dto.auth.LoginResponse;
+import com.medhir.rest.dto.auth.TokenClaims;
 import com.medhir.rest.model.auth.EmployeeAuth;
 import com.medhir.rest.repository.auth.EmployeeAuthRepository;
 import com.medhir.rest.config.JwtUtil;
 import com.medhir.rest.model.EmployeeModel;
-import com.medhir.rest.repository.EmployeeRepository;
 import com.medhir.rest.exception.ResourceNotFoundException;
-import com.medhir.rest.service.CompanyService;
 import com.medhir.rest.service.settings.DepartmentService;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -27,13 +31,12 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class EmployeeAuthService implements UserDetailsService {
     private final EmployeeAuthRepository employeeAuthRepository;
-    private final EmployeeRoleService employeeRoleService;
-    private final EmployeeRepository employeeRepository;
     private final JwtUtil jwtUtil;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private final JwtService jwtService;
-    private final CompanyService companyService;
+    private final RefreshTokenService refreshTokenService;
     private final DepartmentService departmentService;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -71,62 +74,146 @@ public class EmployeeAuthService implements UserDetailsService {
 
     public LoginResponse authenticate(LoginRequest request) {
         log.info("Attempting authentication for email: {}", request.getEmail());
-        
-        // Find auth record by email
-        EmployeeAuth employeeAuth = employeeAuthRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> {
-                    log.error("No auth record found for email: {}", request.getEmail());
-                    throw new RuntimeException("No auth record found for email: " + request.getEmail());
-                });
 
-        // Get employee details
-        EmployeeModel employee = employeeRepository.findByEmployeeId(employeeAuth.getEmployeeId())
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
+        // Auth record, employee, company and department in a single round trip
+        LoginRecord login = findLoginRecord(Criteria.where("email").is(request.getEmail()));
+        if (login == null) {
+            log.error("No auth record found for email: {}", request.getEmail());
+            throw new RuntimeException("No auth record found for email: " + request.getEmail());
+        }
+        if (login.getName() == null && login.getPhone() == null) {
+            throw new RuntimeException("Employee not found");
+        }
 
         // If password has been changed, verify against stored password
-        if (employeeAuth.isPasswordChanged()) {
-            if (!passwordEncoder.matches(request.getPassword(), employeeAuth.getPassword())) {
+        if (login.isPasswordChanged()) {
+            if (!passwordEncoder.matches(request.getPassword(), login.getPassword())) {
                 throw new RuntimeException("Invalid credentials");
             }
         } else {
             // If password hasn't been changed, verify against phone number
             String normalizedInputPhone = normalizePhoneNumber(request.getPassword());
-            String normalizedStoredPhone = normalizePhoneNumber(employee.getPhone());
+            String normalizedStoredPhone = normalizePhoneNumber(login.getPhone());
             
             if (!normalizedInputPhone.equals(normalizedStoredPhone)) {
                 throw new RuntimeException("Invalid credentials. Expected phone number: " + normalizedStoredPhone);
             }
         }
 
-        // Get roles
-        Set<String> roles = employeeRoleService.getEmployeeRoles(employeeAuth.getEmployeeId());
-        List<String> roleList = new ArrayList<>(roles);
-        
-        log.info("Roles found for employee {}: {}", employeeAuth.getEmployeeId(), roleList);
+        TokenClaims claims = toClaims(login);
+        LoginResponse response = buildLoginResponse(claims, refreshTokenService.issue(claims));
+        log.info("JWT token generated successfully for employee: {}", login.getEmployeeId());
+        return response;
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token. No password check,
+     * but the claims are rebuilt from the current employee record, so role and department changes
+     * take effect and a deleted employee's sessions end.
+     */
+    public LoginResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken,
+                claims -> currentClaims(claims.getEmployeeId()));
+        return buildLoginResponse(rotation.claims(), rotation.refreshToken());
+    }
+
+    /**
+     * Claims for the employee as they stand now, or null if the auth record or the employee is gone.
+     */
+    private TokenClaims currentClaims(String employeeId) {
+        LoginRecord login = findLoginRecord(Criteria.where("employeeId").is(employeeId));
+        if (login == null || (login.getName() == null && login.getPhone() == null)) {
+            return null;
+        }
+        return toClaims(login);
+    }
+
+    private TokenClaims toClaims(LoginRecord login) {
+        List<String> roleList = login.getRoles() != null ? new ArrayList<>(login.getRoles()) : new ArrayList<>();
+        log.info("Roles found for employee {}: {}", login.getEmployeeId(), roleList);
 
-        // Get department name
-        String departmentName = "";
-        if (employee.getDepartment() != null && !employee.getDepartment().isEmpty()) {
+        // Older employees reference their department by Mongo id, which the lookup does not match
+        String departmentName = login.getDepartmentName() != null ? login.getDepartmentName() : "";
+        if (departmentName.isEmpty() && login.getDepartment() != null && !login.getDepartment().isEmpty()) {
             try {
-                departmentName = departmentService.getDepartmentById(employee.getDepartment()).getName();
+                departmentName = departmentService.getDepartmentById(login.getDepartment()).getName();
             } catch (Exception e) {
-                log.warn("Could not fetch department name for employee {}: {}", employee.getEmployeeId(), e.getMessage());
+                log.warn("Could not fetch department name for employee {}: {}", login.getEmployeeId(), e.getMessage());
             }
         }
 
-        // Generate JWT token
-        String token = jwtService.generateToken(employeeAuth);
-        log.info("JWT token generated successfully for employee: {}", employeeAuth.getEmployeeId());
-
-        return LoginResponse.builder()
-                .token(token)
+        return TokenClaims.builder()
+                .email(login.getEmail())
+                .employeeId(login.getEmployeeId())
+                .companyId(login.getCompanyId())
+                .companyName(login.getCompanyName() != null ? login.getCompanyName() : "Unknown Company")
+                .name(login.getName())
                 .roles(roleList)
-                .employeeId(employeeAuth.getEmployeeId())
-                .isPasswordChanged(employeeAuth.isPasswordChanged())
                 .departmentName(departmentName)
+                .passwordChanged(login.isPasswordChanged())
                 .build();
     }
 
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    private LoginResponse buildLoginResponse(TokenClaims claims, String refreshToken) {
+        return LoginResponse.builder()
+                .token(jwtService.generateAccessToken(claims))
+                .refreshToken(refreshToken)
+                .expiresIn(jwtService.getAccessExpirationSeconds())
+                .roles(claims.getRoles())
+                .employeeId(claims.getEmployeeId())
+                .isPasswordChanged(claims.isPasswordChanged())
+                .departmentName(claims.getDepartmentName())
+                .build();
+    }
+
+    /**
+     * employee_auth joined with employees, companies and departments, projected down to the
+     * fields login and refresh need.
+     */
+    private LoginRecord findLoginRecord(Criteria authMatch) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(authMatch),
+                Aggregation.limit(1),
+                Aggregation.lookup("employees", "employeeId", "employeeId", "employee"),
+                Aggregation.unwind("employee", true),
+                Aggregation.lookup("companies", "employee.companyId", "companyId", "company"),
+                Aggregation.lookup("departments", "employee.department", "departmentId", "departmentDoc"),
+                context -> new Document("$project", new Document()
+                        .append("_id", 0)
+                        .append("email", "$email")
+                        .append("employeeId", "$employeeId")
+                        .append("password", "$password")
+                        .append("passwordChanged", "$isPasswordChanged")
+                        .append("name", "$employee.name")
+                        .append("phone", "$employee.phone")
+                        .append("companyId", "$employee.companyId")
+                        .append("roles", "$employee.Roles")
+                        .append("department", "$employee.department")
+                        .append("companyName", new Document("$arrayElemAt", List.of("$company.name", 0)))
+                        .append("departmentName", new Document("$arrayElemAt", List.of("$departmentDoc.name", 0))))
+        );
+        return mongoTemplate.aggregate(aggregation, "employee_auth", LoginRecord.class).getUniqueMappedResult();
+    }
+
+    @Data
+    static class LoginRecord {
+        private String email;
+        private String employeeId;
+        private String password;
+        private boolean passwordChanged;
+        private String name;
+        private String phone;
+        private String companyId;
+        private Set<String> roles;
+        private String department;
+        private String companyName;
+        private String departmentName;
+    }
+
     public void createEmployeeAuth(EmployeeModel employee) {
         log.info("Creating auth record for employee: {}", employee.getEmployeeId());
         log.info("Employee phone number: {}", employee.getPhone());
@@ -1,5 +1,7 @@
 package com.medhir.rest.service.auth;
 
+import com.medhir.rest.config.JwtTokenVerifier;
+import com.medhir.rest.dto.auth.TokenClaims;
 import com.medhir.rest.model.auth.EmployeeAuth;
 import com.medhir.rest.model.EmployeeModel;
 import com.medhir.rest.repository.EmployeeRepository;
@@ -7,7 +9,6 @@ import com.medhir.rest.service.CompanyService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,14 +25,15 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
-
     @Value("${jwt.expiration}")
     private long expirationTime;
 
+    @Value("${jwt.access-expiration:900000}")
+    private long accessExpirationTime;
+
     private final EmployeeRepository employeeRepository;
     private final CompanyService companyService;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
@@ -70,15 +72,11 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtTokenVerifier.parseClaims(token);
     }
 
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+        return jwtTokenVerifier.getSigningKey();
     }
 
     public String generateToken(EmployeeAuth employeeAuth) {
@@ -104,4 +102,26 @@ public class JwtService {
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Short-lived access token built from claims resolved at login; reads nothing from Mongo,
+     * so it can be minted on every refresh.
+     */
+    public String generateAccessToken(TokenClaims claims) {
+        return Jwts.builder()
+                .claim("companyId", claims.getCompanyId())
+                .claim("companyName", claims.getCompanyName())
+                .claim("name", claims.getName())
+                .claim("employeeId", claims.getEmployeeId())
+                .claim("roles", claims.getRoles())
+                .setSubject(claims.getEmail())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + accessExpirationTime))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public long getAccessExpirationSeconds() {
+        return accessExpirationTime / 1000;
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class PasswordService {
     private final EmployeeAuthRepository employeeAuthRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
 
     @Transactional
     public void changePassword(String email, PasswordChangeRequest request) {
@@ -28,6 +29,9 @@ public class PasswordService {
         employee.setPassword(passwordEncoder.encode(request.getNewPassword()));
         employee.setPasswordChanged(true);
         employeeAuthRepository.save(employee);
+
+        // Sessions opened with the old password must log in again
+        refreshTokenService.revokeAll(employee.getEmployeeId());
     }
 
     public boolean isPasswordChanged(String email) {
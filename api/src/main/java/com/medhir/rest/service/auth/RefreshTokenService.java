@@ -0,0 +1,190 @@
+package com.medhir.rest.service.auth;
+
+import com.medhir.rest.dto.auth.TokenClaims;
+import com.medhir.rest.model.auth.RefreshToken;
+import com.medhir.rest.repository.auth.RefreshTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Issues and rotates refresh tokens. Refresh tokens are 256 random bits, so a plain SHA-256 is
+ * enough to store them safely and a refresh costs one findAndModify plus one insert - no BCrypt.
+ * A token family (one login) never outlives jwt.refresh-max-lifetime, however often it is rotated.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpiration;
+
+    @Value("${jwt.refresh-max-lifetime:2592000000}")
+    private long refreshMaxLifetime;
+
+    /**
+     * The api does not enable auto-index-creation (several older models declare unique indexes
+     * that existing data would violate), so the indexes this collection depends on are created here.
+     */
+    @PostConstruct
+    void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(RefreshToken.class);
+        indexOps.ensureIndex(new Index().on("tokenHash", Sort.Direction.ASC).unique());
+        indexOps.ensureIndex(new Index().on("familyId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("claims.employeeId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+    }
+
+    /**
+     * Starts a new token family, used on login.
+     *
+     * @return the raw refresh token to hand to the client
+     */
+    public String issue(TokenClaims claims) {
+        return issue(claims, UUID.randomUUID().toString(), Instant.now().plusMillis(refreshMaxLifetime));
+    }
+
+    /**
+     * Consumes the given refresh token and issues its successor. The successor carries the claims
+     * returned by {@code resolveClaims}, which is given the claims of the consumed token; when it
+     * returns null the whole family is revoked instead.
+     *
+     * @throws BadCredentialsException if the token is unknown, expired, revoked or already used,
+     *                                 or its claims no longer resolve
+     */
+    public Rotation rotate(String rawToken, UnaryOperator<TokenClaims> resolveClaims) {
+        String tokenHash = hash(rawToken);
+        Instant now = Instant.now();
+
+        RefreshToken current = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("tokenHash").is(tokenHash)
+                        .and("rotatedAt").is(null)
+                        .and("revokedAt").is(null)
+                        .and("expiresAt").gt(now)),
+                new Update().set("rotatedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                RefreshToken.class);
+
+        if (current == null) {
+            refreshTokenRepository.findByTokenHash(tokenHash)
+                    .filter(token -> token.getRotatedAt() != null && token.getRevokedAt() == null)
+                    .ifPresent(reused -> {
+                        log.warn("Refresh token reuse detected for employee {}, revoking token family {}",
+                                reused.getClaims().getEmployeeId(), reused.getFamilyId());
+                        revokeFamily(reused.getFamilyId());
+                    });
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        TokenClaims claims = resolveClaims.apply(current.getClaims());
+        if (claims == null) {
+            log.info("Claims for employee {} no longer resolve, revoking token family {}",
+                    current.getClaims().getEmployeeId(), current.getFamilyId());
+            revokeFamily(current.getFamilyId());
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        // Families issued before the max lifetime existed are capped from their first rotation
+        Instant familyExpiresAt = current.getFamilyExpiresAt() != null
+                ? current.getFamilyExpiresAt() : now.plusMillis(refreshMaxLifetime);
+        return new Rotation(claims, issue(claims, current.getFamilyId(), familyExpiresAt));
+    }
+
+    /**
+     * Logs out the session the token belongs to.
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Logs the employee out of every session, e.g. after a password change.
+     */
+    public void revokeAll(String employeeId) {
+        revokeAll(List.of(employeeId));
+    }
+
+    /**
+     * Logs the employees out of every session, e.g. after their roles changed.
+     */
+    public void revokeAll(Collection<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("claims.employeeId").in(employeeIds).and("revokedAt").is(null)),
+                new Update().set("revokedAt", Instant.now()),
+                RefreshToken.class);
+    }
+
+    private void revokeFamily(String familyId) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("familyId").is(familyId).and("revokedAt").is(null)),
+                new Update().set("revokedAt", Instant.now()),
+                RefreshToken.class);
+    }
+
+    private String issue(TokenClaims claims, String familyId, Instant familyExpiresAt) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        refreshTokenRepository.insert(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .claims(claims)
+                .issuedAt(now)
+                .expiresAt(min(now.plusMillis(refreshExpiration), familyExpiresAt))
+                .familyExpiresAt(familyExpiresAt)
+                .build());
+        return rawToken;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(TokenClaims claims, String refreshToken) {
+    }
+}
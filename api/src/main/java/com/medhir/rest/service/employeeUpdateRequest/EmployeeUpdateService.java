@@ -5,11 +5,14 @@ import com.medhir.rest.model.EmployeeModel;
 import com.medhir.rest.repository.EmployeeRepository;
 import com.medhir.rest.exception.DuplicateResourceException;
 import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.service.EmployeeService;
+import com.medhir.rest.service.search.SearchIndex;
 import com.medhir.rest.utils.MinioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,9 @@ public class EmployeeUpdateService {
     @Autowired
     private MinioService minioService;
 
+    @Autowired
+    private SearchIndex searchIndex;
+
     // Create update request with images
     public EmployeeModel createUpdateRequest(EmployeeUpdateRequest request,
                                              MultipartFile profileImage, MultipartFile aadharImage,
@@ -77,10 +83,14 @@ public class EmployeeUpdateService {
         // store the request in the employee Model in the Pending request field with
         // status as Pending
         EmployeeModel employeeModel = employee.get();
+        EmployeeUpdateRequest previous = employeeModel.getPendingUpdateRequest();
         employeeModel.setUpdateStatus("Pending");
         employeeModel.setPendingUpdateRequest(request);
 
-        return employeeRepository.save(employeeModel);
+        EmployeeModel saved = employeeRepository.save(employeeModel);
+        // Documents of the request this one replaces are no longer referenced
+        minioService.releaseReplaced(EmployeeService.documentUrls(previous), EmployeeService.documentUrls(request));
+        return saved;
     }
 
     public List<EmployeeModel> getAllPendingRequests() {
@@ -112,7 +122,10 @@ public class EmployeeUpdateService {
             throw new ResourceNotFoundException("No pending update request found for employee: " + employeeId);
 
         }
+        List<String> documentsBefore = new ArrayList<>(EmployeeService.documentUrls(employee));
         if ("Approved".equals(status)) {
+            // The request's documents either replace the employee's or are dropped with the request
+            documentsBefore.addAll(EmployeeService.documentUrls(request));
 
             // Apply the approved changes
             if (request.getEmailPersonal() != null)
@@ -170,7 +183,11 @@ public class EmployeeUpdateService {
             employee.setUpdateStatus("Rejected");
         }
 
-        employeeRepository.save(employee);
+        EmployeeModel saved = employeeRepository.save(employee);
+        searchIndex.put(saved);
+        if ("Approved".equals(status)) {
+            minioService.releaseReplaced(documentsBefore, EmployeeService.documentUrls(saved));
+        }
         return true;
     }
 
@@ -0,0 +1,196 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.model.settings.LeavePolicyModel;
+import com.medhir.rest.model.settings.LeaveTypeModel;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A leave policy turned into plain rules, one list per leave type. Built once per policy version by
+ * {@link LeavePolicyEvaluator}; evaluating an application only touches the precomputed
+ * {@link Facts} and never reads policy or leave type documents.
+ */
+final class CompiledLeavePolicy {
+
+    private final String policyId;
+    private final String version;
+    private final String primaryLeaveTypeId;
+    private final Map<String, List<Rule>> rulesByLeaveType;
+
+    private CompiledLeavePolicy(String policyId, String version, String primaryLeaveTypeId, Map<String, List<Rule>> rulesByLeaveType) {
+        this.policyId = policyId;
+        this.version = version;
+        this.primaryLeaveTypeId = primaryLeaveTypeId;
+        this.rulesByLeaveType = rulesByLeaveType;
+    }
+
+    /**
+     * @param leaveTypes the policy's leave types, keyed by leaveTypeId
+     * @param probationMonths length of the probation period after joining; 0 disables the check
+     */
+    static CompiledLeavePolicy compile(LeavePolicyModel policy, Map<String, LeaveTypeModel> leaveTypes, int probationMonths) {
+        Map<String, List<Rule>> rulesByLeaveType = new LinkedHashMap<>();
+        List<LeavePolicyModel.LeaveAllocation> allocations =
+                policy.getLeaveAllocations() != null ? policy.getLeaveAllocations() : List.of();
+
+        for (LeavePolicyModel.LeaveAllocation allocation : allocations) {
+            LeaveTypeModel leaveType = leaveTypes.get(allocation.getLeaveTypeId());
+            String typeName = leaveType != null ? leaveType.getLeaveTypeName() : allocation.getLeaveTypeId();
+            List<Rule> rules = new ArrayList<>();
+
+            // Only an explicit false restricts; policies stored before the flag existed allow it
+            if (Boolean.FALSE.equals(allocation.getConsecutiveAllowed())) {
+                rules.add(facts -> facts.consecutive
+                        ? typeName + " cannot be taken on consecutive days"
+                        : null);
+            }
+
+            if (allocation.getRestrictions() != null) {
+                for (LeavePolicyModel.LeaveRestriction restriction : allocation.getRestrictions()) {
+                    int mask = weekdayMask(restriction.getRestrictedDays());
+                    if (mask == 0) {
+                        continue;
+                    }
+                    int allowed = restriction.getAllowedValue() != null ? restriction.getAllowedValue() : 1;
+                    String days = describe(mask);
+                    rules.add(facts -> facts.daysOn(mask) > allowed
+                            ? "At most " + allowed + " day(s) of " + typeName + " can fall on " + days
+                            : null);
+                }
+            }
+
+            if (probationMonths > 0 && leaveType != null && !leaveType.isAllowedInProbationPeriod()) {
+                rules.add(facts -> facts.joiningDate != null && facts.firstDate != null
+                        && facts.firstDate.isBefore(facts.joiningDate.plusMonths(probationMonths))
+                        ? typeName + " is not allowed during the probation period"
+                        : null);
+            }
+
+            rulesByLeaveType.putIfAbsent(allocation.getLeaveTypeId(), List.copyOf(rules));
+        }
+
+        String primary = allocations.isEmpty() ? null : allocations.get(0).getLeaveTypeId();
+        return new CompiledLeavePolicy(policy.getLeavePolicyId(), policy.getUpdatedAt(), primary,
+                Collections.unmodifiableMap(rulesByLeaveType));
+    }
+
+    String getPolicyId() {
+        return policyId;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * Leave applications do not carry a leave type yet, so a null type is checked against the
+     * policy's first allocation - the same one balances are accrued from.
+     *
+     * @return the violated rules' messages, empty when the application is allowed
+     */
+    List<String> evaluate(String leaveTypeId, Facts facts) {
+        List<Rule> rules = rulesByLeaveType.get(leaveTypeId != null ? leaveTypeId : primaryLeaveTypeId);
+        if (rules == null || rules.isEmpty()) {
+            return List.of();
+        }
+        List<String> violations = new ArrayList<>(1);
+        for (Rule rule : rules) {
+            String violation = rule.check(facts);
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+        return violations;
+    }
+
+    private static int weekdayMask(List<String> days) {
+        int mask = 0;
+        if (days == null) {
+            return mask;
+        }
+        for (String day : days) {
+            DayOfWeek dayOfWeek = parseDay(day);
+            if (dayOfWeek != null) {
+                mask |= 1 << (dayOfWeek.getValue() - 1);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Accepts full or three-letter weekday names in any case ("Monday", "MON", "fri").
+     */
+    private static DayOfWeek parseDay(String day) {
+        if (day == null || day.isBlank()) {
+            return null;
+        }
+        String value = day.trim().toUpperCase(Locale.ROOT);
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek.name().equals(value) || dayOfWeek.name().startsWith(value) && value.length() >= 3) {
+                return dayOfWeek;
+            }
+        }
+        return null;
+    }
+
+    private static String describe(int mask) {
+        List<String> names = new ArrayList<>();
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if ((mask & 1 << (dayOfWeek.getValue() - 1)) != 0) {
+                names.add(dayOfWeek.getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+            }
+        }
+        return String.join(", ", names);
+    }
+
+    @FunctionalInterface
+    interface Rule {
+        /**
+         * @return a message if the application breaks the rule, otherwise null
+         */
+        String check(Facts facts);
+    }
+
+    /**
+     * What the rules need to know about one application, computed in a single pass over its dates.
+     */
+    static final class Facts {
+
+        private final int[] daysPerWeekday = new int[7];
+        private final boolean consecutive;
+        private final LocalDate firstDate;
+        private final LocalDate joiningDate;
+
+        Facts(List<LocalDate> dates, LocalDate joiningDate) {
+            this.joiningDate = joiningDate;
+            List<LocalDate> sorted = dates.stream().distinct().sorted().toList();
+            boolean consecutive = false;
+            for (int i = 0; i < sorted.size(); i++) {
+                daysPerWeekday[sorted.get(i).getDayOfWeek().getValue() - 1]++;
+                if (i > 0 && sorted.get(i - 1).plusDays(1).equals(sorted.get(i))) {
+                    consecutive = true;
+                }
+            }
+            this.consecutive = consecutive;
+            this.firstDate = sorted.isEmpty() ? null : sorted.get(0);
+        }
+
+        int daysOn(int weekdayMask) {
+            int count = 0;
+            for (int i = 0; i < 7; i++) {
+                if ((weekdayMask & 1 << i) != 0) {
+                    count += daysPerWeekday[i];
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.dto.leave.LeaveAccrualResult;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.leave.LeaveBalance;
+import com.medhir.rest.model.settings.DepartmentModel;
+import com.medhir.rest.model.settings.LeavePolicyModel;
+import com.medhir.rest.model.settings.LeaveTypeModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates every employee's {@link LeaveBalance} for a month in one pass at month start, so that
+ * {@link LeaveBalanceService#getCurrentMonthBalance} is a single read for everyone instead of an
+ * employee/department/policy walk for whoever reads first.
+ * <p>
+ * Departments, policies and leave types are loaded once per run and each policy's monthly accrual
+ * is computed once. Employees are processed in parallel chunks; a chunk reads its previous-month
+ * balances with one {@code $in} query and writes with one unordered bulk of upserts.
+ * <p>
+ * Runs are idempotent: the upsert recomputes the accrual and carry-forward fields from the previous
+ * month while keeping whatever approvals already added to the month. After a back-dated policy
+ * change, re-run the affected months in order with {@link #runRange}.
+ */
+@Slf4j
+@Service
+public class LeaveAccrualService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    private final MongoTemplate mongoTemplate;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile List<LeaveAccrualResult> lastRun = List.of();
+
+    @Value("${leave.accrual.chunk-size:500}")
+    private int chunkSize;
+
+    public LeaveAccrualService(MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${leave.accrual.parallelism:4}") int parallelism) {
+        this.mongoTemplate = mongoTemplate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "leave-accrual-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), "leave.accrual");
+    }
+
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(LeaveBalance.class).ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("year", Sort.Direction.ASC)
+                .on("numericMonth", Sort.Direction.ASC));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${leave.accrual.cron:0 5 0 1 * *}", zone = "Asia/Kolkata")
+    public void scheduledRun() {
+        try {
+            YearMonth month = YearMonth.now(ZONE);
+            runRange(month, month);
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled leave accrual: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Computes balances for every month from {@code from} to {@code to}, oldest first, so each month
+     * carries forward the freshly recomputed one before it.
+     */
+    public List<LeaveAccrualResult> runRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Leave accrual already running");
+        }
+        try {
+            AccrualRates rates = loadRates();
+            List<EmployeeModel> employees = loadEmployees();
+            List<LeaveAccrualResult> results = new ArrayList<>();
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                results.add(run(month, employees, rates));
+            }
+            lastRun = results;
+            return results;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<LeaveAccrualResult> getLastRun() {
+        return lastRun;
+    }
+
+    private LeaveAccrualResult run(YearMonth month, List<EmployeeModel> employees, AccrualRates rates) {
+        LeaveAccrualResult result = new LeaveAccrualResult();
+        result.setMonth(month.toString());
+        result.setEmployees(employees.size());
+        result.setStartedAt(Instant.now());
+
+        List<CompletableFuture<int[]>> chunks = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i += chunkSize) {
+            List<EmployeeModel> chunk = employees.subList(i, Math.min(i + chunkSize, employees.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> processChunk(month, chunk, rates), executor)
+                    .exceptionally(e -> {
+                        log.error("Leave accrual chunk for {} failed: {}", month, e.getMessage());
+                        return new int[]{0, 0, chunk.size()};
+                    }));
+        }
+        for (CompletableFuture<int[]> chunk : chunks) {
+            int[] counts = chunk.join();
+            result.setWritten(result.getWritten() + counts[0]);
+            result.setSkipped(result.getSkipped() + counts[1]);
+            result.setFailed(result.getFailed() + counts[2]);
+        }
+
+        result.setDurationMs(Instant.now().toEpochMilli() - result.getStartedAt().toEpochMilli());
+        log.info("Leave accrual for {}: employees={} written={} skipped={} failed={} in {} ms",
+                month, result.getEmployees(), result.getWritten(), result.getSkipped(), result.getFailed(),
+                result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * @return {written, skipped, failed}
+     */
+    private int[] processChunk(YearMonth month, List<EmployeeModel> chunk, AccrualRates rates) {
+        YearMonth previous = month.minusMonths(1);
+        List<String> employeeIds = chunk.stream().map(EmployeeModel::getEmployeeId).toList();
+
+        Map<String, LeaveBalance> previousBalances = mongoTemplate.find(
+                        Query.query(Criteria.where("employeeId").in(employeeIds)
+                                .and("numericMonth").is(previous.getMonthValue())
+                                .and("year").is(previous.getYear())),
+                        LeaveBalance.class).stream()
+                .collect(Collectors.toMap(LeaveBalance::getEmployeeId, balance -> balance, (a, b) -> a));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LeaveBalance.class);
+        int written = 0;
+        int skipped = 0;
+        for (EmployeeModel employee : chunk) {
+            Double earned = rates.forDepartment(employee.getDepartment());
+            if (earned == null) {
+                skipped++;
+                continue;
+            }
+            LeaveBalance computed = LeaveBalanceCalculator.newMonth(employee.getEmployeeId(), month.getMonth(),
+                    month.getYear(), earned, previousBalances.get(employee.getEmployeeId()));
+            bulk.upsert(
+                    Query.query(Criteria.where("employeeId").is(employee.getEmployeeId())
+                            .and("numericMonth").is(month.getMonthValue())
+                            .and("year").is(month.getYear())),
+                    accrualUpdate(computed));
+            written++;
+        }
+        if (written > 0) {
+            bulk.execute();
+        }
+        return new int[]{written, skipped, 0};
+    }
+
+    /**
+     * Pipeline update so that counters maintained by approvals (leaves taken, comp-offs earned this
+     * month) are read from the stored document on the server and survive a re-run.
+     */
+    private static AggregationUpdate accrualUpdate(LeaveBalance computed) {
+        Document takenThisMonth = new Document("$ifNull", List.of("$leavesTakenInThisMonth", 0.0));
+        Document compOffThisMonth = new Document("$ifNull", List.of("$compOffLeavesEarned", 0.0));
+
+        Document set = new Document()
+                .append("employeeId", new Document("$literal", computed.getEmployeeId()))
+                .append("month", new Document("$literal", computed.getMonth()))
+                .append("numericMonth", computed.getNumericMonth())
+                .append("year", computed.getYear())
+                .append("annualLeavesEarned", computed.getAnnualLeavesEarned())
+                .append("annualLeavesCarryForwarded", computed.getAnnualLeavesCarryForwarded())
+                .append("compOffLeavesCarryForwarded", computed.getCompOffLeavesCarryForwarded())
+                .append("totalAnnualLeavesEarnedSinceJanuary", computed.getTotalAnnualLeavesEarnedSinceJanuary())
+                .append("leavesCarriedFromPreviousYear", computed.getLeavesCarriedFromPreviousYear())
+                .append("leavesTakenInThisMonth", takenThisMonth)
+                .append("compOffLeavesEarned", compOffThisMonth)
+                .append("leavesTakenThisYear", new Document("$add", List.of(computed.getLeavesTakenThisYear(), takenThisMonth)))
+                .append("totalCompOffLeavesEarnedSinceJanuary",
+                        new Document("$add", List.of(computed.getTotalCompOffLeavesEarnedSinceJanuary(), compOffThisMonth)))
+                .append("createdAt", new Document("$ifNull", List.of("$createdAt", "$$NOW")))
+                .append("updatedAt", "$$NOW")
+                .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)));
+
+        return AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+    }
+
+    private List<EmployeeModel> loadEmployees() {
+        Query query = Query.query(Criteria.where("employeeId").ne(null));
+        query.fields().include("employeeId", "department");
+        return mongoTemplate.find(query, EmployeeModel.class);
+    }
+
+    /**
+     * Resolves department -> policy -> monthly accrual for every department up front. Departments and
+     * policies are referenced either by their business id or by Mongo id, so both are mapped.
+     */
+    private AccrualRates loadRates() {
+        Map<String, LeaveTypeModel> leaveTypes = new HashMap<>();
+        for (LeaveTypeModel leaveType : mongoTemplate.findAll(LeaveTypeModel.class)) {
+            leaveTypes.put(leaveType.getId(), leaveType);
+            if (leaveType.getLeaveTypeId() != null) {
+                leaveTypes.put(leaveType.getLeaveTypeId(), leaveType);
+            }
+        }
+
+        Map<String, Double> ratesByPolicy = new HashMap<>();
+        for (LeavePolicyModel policy : mongoTemplate.findAll(LeavePolicyModel.class)) {
+            Double rate = monthlyAccrual(policy, leaveTypes);
+            if (rate == null) {
+                continue;
+            }
+            ratesByPolicy.put(policy.getId(), rate);
+            if (policy.getLeavePolicyId() != null) {
+                ratesByPolicy.put(policy.getLeavePolicyId(), rate);
+            }
+        }
+
+        Query departmentQuery = new Query();
+        departmentQuery.fields().include("departmentId", "leavePolicy");
+        Map<String, Double> ratesByDepartment = new HashMap<>();
+        for (DepartmentModel department : mongoTemplate.find(departmentQuery, DepartmentModel.class)) {
+            Double rate = department.getLeavePolicy() != null ? ratesByPolicy.get(department.getLeavePolicy()) : null;
+            if (rate == null) {
+                continue;
+            }
+            ratesByDepartment.put(department.getId(), rate);
+            if (department.getDepartmentId() != null) {
+                ratesByDepartment.put(department.getDepartmentId(), rate);
+            }
+        }
+        return new AccrualRates(ratesByDepartment);
+    }
+
+    /**
+     * Same rule as LeaveBalanceService.calculateMonthlyLeaves: the policy's first allocation decides.
+     */
+    private static Double monthlyAccrual(LeavePolicyModel policy, Map<String, LeaveTypeModel> leaveTypes) {
+        if (policy.getLeaveAllocations() == null || policy.getLeaveAllocations().isEmpty()) {
+            return null;
+        }
+        LeavePolicyModel.LeaveAllocation allocation = policy.getLeaveAllocations().get(0);
+        LeaveTypeModel leaveType = leaveTypes.get(allocation.getLeaveTypeId());
+        if (leaveType == null || leaveType.getAccrualPeriod() == null || allocation.getDaysPerYear() == null) {
+            return null;
+        }
+        try {
+            return LeaveBalanceCalculator.monthlyAccrual(allocation.getDaysPerYear(), leaveType.getAccrualPeriod());
+        } catch (IllegalArgumentException e) {
+            log.warn("Leave policy {} skipped: {}", policy.getLeavePolicyId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private record AccrualRates(Map<String, Double> byDepartment) {
+        Double forDepartment(String department) {
+            return department == null || department.isEmpty() ? null : byDepartment.get(department);
+        }
+    }
+}
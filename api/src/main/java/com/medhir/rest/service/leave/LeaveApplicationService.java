@@ -2,39 +2,64 @@ package com.medhir.rest.service.leave;
 
 import com.medhir.rest.service.EmployeeService;
 import com.medhir.rest.dto.EmployeeWithLeaveDetailsDTO;
-import com.medhir.rest.dto.ManagerEmployeeDTO;
 import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.dto.leave.BulkLeaveStatusResult;
+import com.medhir.rest.dto.leave.BulkUpdateLeaveStatusRequest;
+import com.medhir.rest.dto.leave.LeaveAbsence;
+import com.medhir.rest.dto.leave.LeaveListingFilter;
+import com.medhir.rest.dto.leave.LeavePage;
 import com.medhir.rest.dto.leave.LeaveWithEmployeeDetails;
 import com.medhir.rest.dto.leave.UpdateLeaveStatusRequest;
-import com.medhir.rest.model.leave.LeaveBalance;
+import com.medhir.rest.model.EmployeeModel;
 import com.medhir.rest.model.leave.LeaveModel;
-import com.medhir.rest.repository.leave.LeaveBalanceRepository;
 import com.medhir.rest.repository.leave.LeaveRepository;
 import com.medhir.rest.service.CompanyService;
 import com.medhir.rest.service.settings.DepartmentService;
 import com.medhir.rest.service.settings.LeaveTypeService;
 import com.medhir.rest.service.settings.LeavePolicyService;
+import com.medhir.rest.service.org.OrgGraph;
 //import com.medhir.rest.utils.GeneratedId;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
 import org.springframework.beans.BeanUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class LeaveApplicationService {
 
+    private static final int MAX_BULK_SIZE = 500;
+    private static final int MAX_CALENDAR_DAYS = 366;
+    private static final List<String> DECIDED = List.of("Approved", "Rejected");
+
     @Autowired
     private LeaveRepository leaveRepository;
 
@@ -63,12 +88,29 @@ public class LeaveApplicationService {
     private CompanyService companyService;
 
     @Autowired
-    private LeaveBalanceRepository leaveBalanceRepository;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LeaveListingService leaveListingService;
+
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @Autowired
+    private LeavePolicyEvaluator leavePolicyEvaluator;
+
+    @Autowired
+    private OrgGraph orgGraph;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${leave.balance.reconcile-grace-ms:60000}")
+    private long reconcileGraceMillis;
 
-    @Value("${attendance.service.url}")
-    private String ATTENDANCE_SERVICE_URL;
+    @PostConstruct
+    void ensureIndexes() {
+        // Partial, so only approvals still waiting for their balance change are indexed
+        mongoTemplate.indexOps(LeaveModel.class).ensureIndex(new Index().on("balanceApplied", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("balanceApplied").is(false))));
+    }
 
 
     public LeaveModel applyLeave(LeaveModel request) {
@@ -87,6 +129,20 @@ public class LeaveApplicationService {
             throw new IllegalArgumentException("Leave dates cannot be empty");
         }
 
+        // Comp-off requests claim days worked, so the policy only restricts regular leave
+        if ("Leave".equals(request.getLeaveName())) {
+            EmployeeWithLeaveDetailsDTO employee = employeeOpt.get();
+            leavePolicyEvaluator.validate(employee.getLeavePolicyId(), employee.getJoiningDate(), request.getLeaveDates());
+        }
+
+        List<LeaveAbsence> conflicts = leaveCalendarIndex.findConflicts(
+                request.getCompanyId(), request.getEmployeeId(), request.getLeaveDates(), request.getShiftType());
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Leave overlaps with existing leave(s): " + conflicts.stream()
+                    .map(LeaveAbsence::getLeaveId)
+                    .collect(Collectors.joining(", ")));
+        }
+
         // Create new leave object
         LeaveModel leave = new LeaveModel();
 
@@ -99,72 +155,175 @@ public class LeaveApplicationService {
         leave.setLeaveId("LID" + snowflakeIdGenerator.nextId());
         leave.setStatus("Pending");
 
-        return leaveRepository.save(leave);
+        // The check above can miss a leave applied a moment ago; claiming the days cannot
+        List<String> clashes = leaveCalendarIndex.claim(leave);
+        if (!clashes.isEmpty()) {
+            throw new IllegalArgumentException("Leave overlaps with existing leave(s): " + String.join(", ", clashes));
+        }
+
+        LeaveModel saved;
+        try {
+            saved = leaveRepository.save(leave);
+        } catch (RuntimeException e) {
+            leaveCalendarIndex.release(leave.getLeaveId());
+            throw e;
+        }
+        leaveCalendarIndex.update(saved);
+        return saved;
     }
 
 
 
+    /**
+     * Changes the status only while the leave is still undecided, so two managers acting on the
+     * same leave cannot both apply it to the balance. An approval is stored with
+     * {@code balanceApplied=false} and the balance is then adjusted with an {@code $inc}; if that
+     * second write fails, repeating the approval or {@link #reconcileBalances()} applies it later.
+     */
     public LeaveModel updateLeaveStatus(UpdateLeaveStatusRequest request) {
-        Optional<LeaveModel> leaveOpt = leaveRepository.findByLeaveId(request.getLeaveId());
-        if (leaveOpt.isEmpty()) {
-            throw new ResourceNotFoundException("Leave not found with ID: " + request.getLeaveId());
+        validateDecision(request.getStatus());
+
+        LeaveModel leave = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("leaveId").is(request.getLeaveId()).and("status").nin(DECIDED)),
+                statusUpdate(request.getStatus(), request.getRemarks()),
+                FindAndModifyOptions.options().returnNew(true),
+                LeaveModel.class);
+        if (leave == null) {
+            LeaveModel existing = getLeaveByLeaveId(request.getLeaveId());
+            if (!balancePending(existing, request.getStatus())) {
+                throw new IllegalArgumentException("Leave is already " + existing.getStatus().toLowerCase());
+            }
+            // A retry of an approval whose balance change did not go through
+            applyToBalances(List.of(existing));
+            return existing;
         }
 
-        LeaveModel leave = leaveOpt.get();
+        leaveCalendarIndex.update(leave);
+        applyToBalances(List.of(leave));
+        return leave;
+    }
 
-        // Check if leave is already approved or rejected
-        if ("Approved".equals(leave.getStatus()) || "Rejected".equals(leave.getStatus())) {
-            throw new IllegalArgumentException("Leave is already " + leave.getStatus().toLowerCase());
+    /**
+     * Approves or rejects a batch of leaves with one update on Leaves and one bulk write on
+     * LeaveBalances, however many leaves and employees are involved. Leaves that are unknown or
+     * already decided are reported back instead of failing the batch, except approvals whose
+     * balance change is still pending, which are applied again.
+     */
+    public BulkLeaveStatusResult updateLeaveStatuses(BulkUpdateLeaveStatusRequest request) {
+        validateDecision(request.getStatus());
+        if (request.getLeaveIds() == null || request.getLeaveIds().isEmpty()) {
+            throw new IllegalArgumentException("Leave IDs cannot be empty");
+        }
+        Set<String> leaveIds = new LinkedHashSet<>(request.getLeaveIds());
+        if (leaveIds.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " leaves can be updated at once");
         }
 
-        if (!"Approved".equals(request.getStatus()) && !"Rejected".equals(request.getStatus())) {
+        // Tag the leaves this call actually moved, so concurrent decisions are never applied twice
+        String batchId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("leaveId").in(leaveIds).and("status").nin(DECIDED)),
+                statusUpdate(request.getStatus(), request.getRemarks()).set("statusBatchId", batchId),
+                LeaveModel.class);
+        List<LeaveModel> updated = mongoTemplate.find(
+                Query.query(Criteria.where("leaveId").in(leaveIds).and("statusBatchId").is(batchId)),
+                LeaveModel.class);
+
+        Set<String> updatedIds = updated.stream().map(LeaveModel::getLeaveId).collect(Collectors.toCollection(HashSet::new));
+        List<String> remaining = leaveIds.stream().filter(id -> !updatedIds.contains(id)).toList();
+        Map<String, LeaveModel> existing = remaining.isEmpty() ? Map.of() : mongoTemplate.find(
+                        Query.query(Criteria.where("leaveId").in(remaining)), LeaveModel.class).stream()
+                .collect(Collectors.toMap(LeaveModel::getLeaveId, leave -> leave, (a, b) -> a));
+        List<LeaveModel> retried = existing.values().stream()
+                .filter(leave -> balancePending(leave, request.getStatus()))
+                .toList();
+
+        List<LeaveModel> toApply = new ArrayList<>(updated);
+        toApply.addAll(retried);
+        updated.forEach(leaveCalendarIndex::update);
+        applyToBalances(toApply);
+        retried.forEach(leave -> updatedIds.add(leave.getLeaveId()));
+
+        Map<String, String> skipped = new LinkedHashMap<>();
+        remaining.stream().filter(id -> !updatedIds.contains(id)).forEach(id -> skipped.put(id, existing.containsKey(id)
+                ? "Leave is already " + String.valueOf(existing.get(id).getStatus()).toLowerCase()
+                : "Leave not found"));
+
+        return new BulkLeaveStatusResult(
+                leaveIds.stream().filter(updatedIds::contains).toList(),
+                skipped);
+    }
+
+    private void validateDecision(String status) {
+        if (!"Approved".equals(status) && !"Rejected".equals(status)) {
             throw new IllegalArgumentException("Status must be either 'Approved' or 'Rejected'");
         }
+    }
 
-        leave.setStatus(request.getStatus());
-        leave.setRemarks(request.getRemarks());
+    private static Update statusUpdate(String status, String remarks) {
+        Update update = new Update()
+                .set("status", status)
+                .set("remarks", remarks)
+                .currentDate("updatedAt");
+        if ("Approved".equals(status)) {
+            update.set("balanceApplied", false);
+        }
+        return update;
+    }
 
-        if ("Approved".equals(request.getStatus())) {
+    private static boolean balancePending(LeaveModel leave, String status) {
+        return status.equals(leave.getStatus()) && Boolean.FALSE.equals(leave.getBalanceApplied());
+    }
+
+    /**
+     * Approved leaves count against the current month's balance, approved comp-offs add to it.
+     * The leaves are marked {@code balanceApplied} only once the balance write has succeeded.
+     */
+    private void applyToBalances(List<LeaveModel> leaves) {
+        List<LeaveBalanceService.LeaveDelta> deltas = new ArrayList<>();
+        List<String> approvedIds = new ArrayList<>();
+        for (LeaveModel leave : leaves) {
+            if (!"Approved".equals(leave.getStatus())) {
+                continue;
+            }
+            approvedIds.add(leave.getLeaveId());
+            double days = calculateLeaveDays(leave);
             if ("Leave".equals(leave.getLeaveName())) {
-                handleRegularLeaveApproval(leave);
+                deltas.add(new LeaveBalanceService.LeaveDelta(leave.getLeaveId(), leave.getEmployeeId(), days, 0));
             } else if ("Comp-Off".equals(leave.getLeaveName())) {
-                handleCompOffApproval(leave);
+                deltas.add(new LeaveBalanceService.LeaveDelta(leave.getLeaveId(), leave.getEmployeeId(), 0, days));
             }
         }
-
-        return leaveRepository.save(leave);
-    }
-
-    private void handleRegularLeaveApproval(LeaveModel leave) {
-        // Calculate the number of days for this leave
-        double leaveDays = calculateLeaveDays(leave);
-        
-        // Get current month's leave balance
-        LeaveBalance currentBalance = leaveBalanceService.getCurrentMonthBalance(leave.getEmployeeId());
-        
-        // Update leaves taken
-        currentBalance.setLeavesTakenInThisMonth(currentBalance.getLeavesTakenInThisMonth() + leaveDays);
-        currentBalance.setLeavesTakenThisYear(currentBalance.getLeavesTakenThisYear() + leaveDays);
-        
-        // Save the updated balance
-        leaveBalanceRepository.save(currentBalance);
+        leaveBalanceService.applyToCurrentMonth(deltas);
+        if (!approvedIds.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("leaveId").in(approvedIds).and("balanceApplied").is(false)),
+                    new Update().set("balanceApplied", true),
+                    LeaveModel.class);
+        }
     }
 
-    private void handleCompOffApproval(LeaveModel leave) {
-        // Calculate the number of comp-off days
-        double compOffDays = calculateLeaveDays(leave);
-        
-        // Get current month's leave balance
-        LeaveBalance currentBalance = leaveBalanceService.getCurrentMonthBalance(leave.getEmployeeId());
-        
-        // Update comp-off earned
-        currentBalance.setCompOffLeavesEarned(currentBalance.getCompOffLeavesEarned() + compOffDays);
-        currentBalance.setTotalCompOffLeavesEarnedSinceJanuary(
-            currentBalance.getTotalCompOffLeavesEarnedSinceJanuary() + compOffDays
-        );
-        
-        // Save the updated balance
-        leaveBalanceRepository.save(currentBalance);
+    /**
+     * Applies approvals whose balance change did not go through, e.g. because the instance died
+     * between the status write and the {@code $inc}. Only leaves approved more than
+     * {@code leave.balance.reconcile-grace-ms} ago are picked up, so approvals still in flight are
+     * left to finish.
+     */
+    @Scheduled(fixedDelayString = "${leave.balance.reconcile-interval-ms:300000}")
+    public void reconcileBalances() {
+        Query query = Query.query(Criteria.where("balanceApplied").is(false)
+                        .and("updatedAt").lt(LocalDateTime.now().minus(Duration.ofMillis(reconcileGraceMillis))))
+                .limit(MAX_BULK_SIZE);
+        List<LeaveModel> pending = mongoTemplate.find(query, LeaveModel.class);
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            applyToBalances(pending);
+            log.info("Applied {} pending leave approval(s) to balances", pending.size());
+        } catch (Exception e) {
+            log.warn("Could not apply {} pending leave approval(s) to balances: {}", pending.size(), e.getMessage());
+        }
     }
 
     private double calculateLeaveDays(LeaveModel leave) {
@@ -186,168 +345,71 @@ public class LeaveApplicationService {
     }
 
     public List<LeaveWithEmployeeDetails> getLeavesByStatus(String companyId, String status) {
+        return getLeavesByStatus(companyId, status, null).getLeaves();
+    }
+
+    public LeavePage getLeavesByStatus(String companyId, String status, LeaveListingFilter filter) {
         // Validate company exists
         companyService.getCompanyById(companyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Company not found with id: " + companyId));
 
+        validateListingStatus(status);
+        return leaveListingService.findByCompany(companyId, status, filter);
+    }
+
+    private void validateListingStatus(String status) {
         if (!"Pending".equals(status) && !"Approved".equals(status) && !"Rejected".equals(status)) {
             throw new IllegalArgumentException("Status must be either 'Pending', 'Approved', or 'Rejected'");
         }
+    }
 
-        List<LeaveModel> leaves = leaveRepository.findByCompanyIdAndStatus(companyId, status);
-
-        return leaves.stream().map(leave -> {
-            LeaveWithEmployeeDetails leaveWithDetails = new LeaveWithEmployeeDetails();
-
-            // Copy all fields from LeaveModel to LeaveWithEmployeeDetails
-            leaveWithDetails.setId(leave.getId());
-            leaveWithDetails.setLeaveDates(leave.getLeaveDates());
-            leaveWithDetails.setLeaveId(leave.getLeaveId());
-            leaveWithDetails.setEmployeeId(leave.getEmployeeId());
-            leaveWithDetails.setCompanyId(leave.getCompanyId());
-            leaveWithDetails.setLeaveName(leave.getLeaveName());
-//            leaveWithDetails.setLeaveType(leave.getLeaveType());
-            leaveWithDetails.setShiftType(leave.getShiftType());
-            leaveWithDetails.setReason(leave.getReason());
-            leaveWithDetails.setStatus(leave.getStatus());
-            leaveWithDetails.setRemarks(leave.getRemarks());
-            leaveWithDetails.setCreatedAt(leave.getCreatedAt());
-
-            // Get employee details
-            Optional<EmployeeWithLeaveDetailsDTO> employeeOpt = employeeService.getEmployeeById(leave.getEmployeeId());
-            if (employeeOpt.isPresent()) {
-                EmployeeWithLeaveDetailsDTO employee = employeeOpt.get();
-                leaveWithDetails.setEmployeeName(employee.getName());
-
-                // Get department name
-                try {
-                    if (employee.getDepartment() != null && !employee.getDepartment().isEmpty()) {
-                        leaveWithDetails.setDepartment(departmentService.getDepartmentById(employee.getDepartment()).getName());
-                    }
-                } catch (Exception e) {
-                    leaveWithDetails.setDepartment(employee.getDepartment());
-                }
-            }
+    public List<LeaveModel> getLeavesByEmployeeId(String employeeId) {
+        List<LeaveModel> leaves = leaveRepository.findByEmployeeId(employeeId);
+        return leaves;
+    }
 
-            return leaveWithDetails;
-        }).collect(Collectors.toList());
+    public List<LeaveWithEmployeeDetails> getLeavesByManagerIdAndStatus(String managerId, String status) {
+        return getLeavesByManagerIdAndStatus(managerId, status, null).getLeaves();
     }
 
-    private String markPresentWithApprovedLeaveInAttendance(String employeeId, LocalDate leaveDate, LocalDate endDate, String reason, String leaveId) {
-        try {
-            // Create list of dates between start and end date
-            List<LocalDate> dates = leaveDate.datesUntil(endDate.plusDays(1)).collect(Collectors.toList());
-
-            // Convert dates to string array
-            String datesJson = dates.stream()
-                    .map(date -> "\"" + date + "\"")
-                    .collect(Collectors.joining(",", "[", "]"));
-
-            String url = ATTENDANCE_SERVICE_URL + "/mark-bulk";
-
-            // Create request body
-            String requestBody = String.format(
-                    "{\"employeeId\":\"%s\",\"status\":\"Leave\",\"dates\":%s,\"leaveId\":\"%s\"}",
-                    employeeId,
-                    datesJson,
-                    leaveId
-            );
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            return response.getBody();
-        } catch (Exception e) {
-            return "Error while applying leave: " + e.getMessage();
-        }
+    public LeavePage getLeavesByManagerIdAndStatus(String managerId, String status, LeaveListingFilter filter) {
+        validateListingStatus(status);
+        return leaveListingService.findByManager(managerId, status, filter);
     }
 
-    private String markApprovedLOPInAttendance(String employeeId, LocalDate leaveDate, LocalDate endDate, String reason, String leaveId) {
-        try {
-            // Create list of dates between start and end date
-            List<LocalDate> dates = leaveDate.datesUntil(endDate.plusDays(1)).collect(Collectors.toList());
-
-            // Convert dates to string array
-            String datesJson = dates.stream()
-                    .map(date -> "\"" + date + "\"")
-                    .collect(Collectors.joining(",", "[", "]"));
-
-            String url = ATTENDANCE_SERVICE_URL + "/mark-bulk";
-
-            // Create request body
-            String requestBody = String.format(
-                    "{\"employeeId\":\"%s\",\"status\":\"LOP\",\"dates\":%s,\"leaveId\":\"%s\"}",
-                    employeeId,
-                    datesJson,
-                    leaveId
-            );
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            return response.getBody();
-        } catch (Exception e) {
-            return "Error while applying leave: " + e.getMessage();
+    /**
+     * Who among the manager's assigned employees is out on each day of the range.
+     */
+    public Map<LocalDate, List<LeaveAbsence>> getTeamCalendar(String managerId, LocalDate from, LocalDate to) {
+        validateCalendarRange(from, to);
+        String companyId = orgGraph.companyOf(managerId);
+        if (companyId == null) {
+            throw new ResourceNotFoundException("Employee not found with ID: " + managerId);
         }
+        Set<String> team = new HashSet<>(orgGraph.directReports(managerId));
+        return leaveCalendarIndex.absences(companyId, team, from, to);
     }
 
-    public List<LeaveModel> getLeavesByEmployeeId(String employeeId) {
-        List<LeaveModel> leaves = leaveRepository.findByEmployeeId(employeeId);
-        return leaves;
+    /**
+     * Who in the department is out on each day of the range.
+     */
+    public Map<LocalDate, List<LeaveAbsence>> getDepartmentCalendar(String companyId, String departmentId, LocalDate from, LocalDate to) {
+        validateCalendarRange(from, to);
+        Query query = Query.query(Criteria.where("companyId").is(companyId).and("department").is(departmentId));
+        query.fields().include("employeeId");
+        Set<String> members = mongoTemplate.find(query, EmployeeModel.class).stream()
+                .map(EmployeeModel::getEmployeeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return leaveCalendarIndex.absences(companyId, members, from, to);
     }
 
-    public List<LeaveWithEmployeeDetails> getLeavesByManagerIdAndStatus(String managerId, String status) {
-        if (!"Pending".equals(status) && !"Approved".equals(status) && !"Rejected".equals(status)) {
-            throw new IllegalArgumentException("Status must be either 'Pending', 'Approved', or 'Rejected'");
+    private void validateCalendarRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("Calendar range cannot exceed " + MAX_CALENDAR_DAYS + " days");
         }
-
-        // Get all employees reporting to this manager
-        List<ManagerEmployeeDTO> teamMembers = employeeService.getEmployeesByManager(managerId);
-        List<String> teamMemberIds = teamMembers.stream()
-                .map(ManagerEmployeeDTO::getEmployeeId)
-                .collect(Collectors.toList());
-
-        // Get all leaves for team members with the specified status
-        List<LeaveModel> leaves = leaveRepository.findByEmployeeIdInAndStatus(teamMemberIds, status);
-
-        return leaves.stream().map(leave -> {
-            LeaveWithEmployeeDetails leaveWithDetails = new LeaveWithEmployeeDetails();
-
-            // Copy all fields from LeaveModel to LeaveWithEmployeeDetails
-            leaveWithDetails.setId(leave.getId());
-            leaveWithDetails.setLeaveId(leave.getLeaveId());
-            leaveWithDetails.setEmployeeId(leave.getEmployeeId());
-            leaveWithDetails.setCompanyId(leave.getCompanyId());
-            leaveWithDetails.setLeaveName(leave.getLeaveName());
-            leaveWithDetails.setLeaveDates(leave.getLeaveDates());
-//            leaveWithDetails.setLeaveType(leave.getLeaveType());
-            leaveWithDetails.setShiftType(leave.getShiftType());
-            leaveWithDetails.setReason(leave.getReason());
-            leaveWithDetails.setStatus(leave.getStatus());
-            leaveWithDetails.setRemarks(leave.getRemarks());
-            leaveWithDetails.setCreatedAt(leave.getCreatedAt());
-
-            // Get employee details
-            Optional<EmployeeWithLeaveDetailsDTO> employeeOpt = employeeService.getEmployeeById(leave.getEmployeeId());
-            if (employeeOpt.isPresent()) {
-                EmployeeWithLeaveDetailsDTO employee = employeeOpt.get();
-                leaveWithDetails.setEmployeeName(employee.getName());
-
-                // Get department name
-                try {
-                    if (employee.getDepartment() != null && !employee.getDepartment().isEmpty()) {
-                        leaveWithDetails.setDepartment(departmentService.getDepartmentById(employee.getDepartment()).getName());
-                    }
-                } catch (Exception e) {
-                    leaveWithDetails.setDepartment(employee.getDepartment());
-                }
-            }
-
-            return leaveWithDetails;
-        }).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
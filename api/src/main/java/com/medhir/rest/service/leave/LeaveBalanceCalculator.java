@@ -0,0 +1,91 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.model.leave.LeaveBalance;
+
+import java.time.Month;
+
+/**
+ * Month-over-month balance rules shared by the lazy path in {@link LeaveBalanceService} and the
+ * monthly batch in {@link LeaveAccrualService}. Pure computation: callers load the previous month
+ * and persist the result.
+ */
+final class LeaveBalanceCalculator {
+
+    private LeaveBalanceCalculator() {
+    }
+
+    /**
+     * Builds a fresh balance for the given month, with nothing taken or earned as comp-off yet.
+     *
+     * @param previousBalance the balance of the month before (December of last year for January), or null
+     */
+    static LeaveBalance newMonth(String employeeId, Month month, int year, double earnedLeaves, LeaveBalance previousBalance) {
+        LeaveBalance newBalance = new LeaveBalance();
+        newBalance.setEmployeeId(employeeId);
+        newBalance.setMonth(month.toString());
+        newBalance.setNumericMonth(month.getValue());
+        newBalance.setYear(year);
+
+        newBalance.setAnnualLeavesEarned(earnedLeaves);
+        newBalance.setCompOffLeavesEarned(0.0);
+        newBalance.setLeavesTakenInThisMonth(0.0);
+
+        if (previousBalance == null) {
+            // Case 1: No previous balance exists
+            newBalance.setAnnualLeavesCarryForwarded(0.0);
+            newBalance.setCompOffLeavesCarryForwarded(0.0);
+            newBalance.setTotalAnnualLeavesEarnedSinceJanuary(earnedLeaves);
+            newBalance.setTotalCompOffLeavesEarnedSinceJanuary(0.0);
+            newBalance.setLeavesTakenThisYear(0.0);
+            newBalance.setLeavesCarriedFromPreviousYear(0.0);
+            return newBalance;
+        }
+
+        // Case 2: Previous balance exists - Calculate carry forward
+        double totalCompOff = previousBalance.getCompOffLeavesEarned() + previousBalance.getCompOffLeavesCarryForwarded();
+        double totalAnnual = previousBalance.getAnnualLeavesEarned() + previousBalance.getAnnualLeavesCarryForwarded();
+        double leavesTaken = previousBalance.getLeavesTakenInThisMonth();
+
+        // First deduct from comp-off
+        if (leavesTaken <= totalCompOff) {
+            // All leaves taken from comp-off
+            newBalance.setCompOffLeavesCarryForwarded(totalCompOff - leavesTaken);
+            newBalance.setAnnualLeavesCarryForwarded(totalAnnual);
+        } else {
+            // Comp-off fully used, remaining from annual
+            newBalance.setCompOffLeavesCarryForwarded(0.0);
+            newBalance.setAnnualLeavesCarryForwarded(totalAnnual - (leavesTaken - totalCompOff));
+        }
+
+        // Carry forward yearly totals
+        newBalance.setTotalAnnualLeavesEarnedSinceJanuary(previousBalance.getTotalAnnualLeavesEarnedSinceJanuary() + earnedLeaves);
+        newBalance.setTotalCompOffLeavesEarnedSinceJanuary(previousBalance.getTotalCompOffLeavesEarnedSinceJanuary());
+        newBalance.setLeavesTakenThisYear(previousBalance.getLeavesTakenThisYear() + previousBalance.getLeavesTakenInThisMonth());
+
+        // Handle leaves carried from previous year for January; the previous balance is December's
+        if (month == Month.JANUARY) {
+            double remainingAnnual = totalAnnual - Math.max(0, leavesTaken - totalCompOff);
+            newBalance.setLeavesCarriedFromPreviousYear(remainingAnnual);
+        } else {
+            newBalance.setLeavesCarriedFromPreviousYear(previousBalance.getLeavesCarriedFromPreviousYear());
+        }
+        return newBalance;
+    }
+
+    /**
+     * Leaves accrued per month for a policy's first allocation, given its leave type's accrual period.
+     */
+    static double monthlyAccrual(double daysPerYear, String accrualPeriod) {
+        // Calculate monthly leaves based on accrual period
+        switch (accrualPeriod.toUpperCase()) {
+            case "MONTHLY":
+                return daysPerYear / 12.0;
+            case "QUARTERLY":
+                return daysPerYear / 4.0;
+            case "ANNUALLY":
+                return daysPerYear;
+            default:
+                throw new IllegalArgumentException("Invalid accrual period: " + accrualPeriod);
+        }
+    }
+}
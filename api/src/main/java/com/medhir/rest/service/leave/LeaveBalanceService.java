@@ -8,12 +8,23 @@ import com.medhir.rest.repository.leave.LeaveBalanceRepository;
 import com.medhir.rest.service.settings.DepartmentService;
 import com.medhir.rest.service.settings.LeaveTypeService;
 import com.medhir.rest.service.settings.LeavePolicyService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +35,19 @@ public class LeaveBalanceService {
     private final DepartmentService departmentService;
     private final LeavePolicyService leavePolicyService;
     private final LeaveTypeService leaveTypeService;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Balances written before the version field existed would look new to Spring Data and be
+     * inserted again on their next save, so they start at version 0.
+     */
+    @PostConstruct
+    void initVersions() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                LeaveBalance.class);
+    }
 
     private double calculateMonthlyLeaves(String employeeId) {
         // Get employee's department
@@ -52,104 +76,34 @@ public class LeaveBalanceService {
         var leaveTypeModel = leaveTypeService.getLeaveTypeById(leaveAllocation.getLeaveTypeId());
         double daysPerYear = leaveAllocation.getDaysPerYear();
 
-        // Calculate monthly leaves based on accrual period
-        switch (leaveTypeModel.getAccrualPeriod().toUpperCase()) {
-            case "MONTHLY":
-                return daysPerYear / 12.0;
-            case "QUARTERLY":
-                return daysPerYear / 4.0;
-            case "ANNUALLY":
-                return daysPerYear;
-            default:
-                throw new IllegalArgumentException("Invalid accrual period: " + leaveTypeModel.getAccrualPeriod());
-        }
+        return LeaveBalanceCalculator.monthlyAccrual(daysPerYear, leaveTypeModel.getAccrualPeriod());
     }
 
     public LeaveBalance getOrCreateLeaveBalance(String employeeId, String month, int year) {
-        // Validate employee exists
-        Optional<EmployeeWithLeaveDetailsDTO> employeeOpt = employeeService.getEmployeeById(employeeId);
-        if (employeeOpt.isEmpty()) {
-            throw new ResourceNotFoundException("Employee not found with ID: " + employeeId);
-        }
+        Month monthValue = Month.valueOf(month.toUpperCase());
 
-        // Try to find existing balance
-        Optional<LeaveBalance> existingBalance = leaveBalanceRepository.findByEmployeeIdAndMonthAndYear(employeeId, month, year);
+        // Balances are normally created up front by LeaveAccrualService, so this is a single read.
+        // Looked up by numeric month so "January" and "JANUARY" resolve to the same document.
+        Optional<LeaveBalance> existingBalance = leaveBalanceRepository.findByEmployeeIdAndNumericMonthAndYear(
+                employeeId, monthValue.getValue(), year);
         if (existingBalance.isPresent()) {
             return existingBalance.get();
         }
 
-        // Create new balance
-        LeaveBalance newBalance = new LeaveBalance();
-        newBalance.setEmployeeId(employeeId);
-        newBalance.setMonth(month);
-        newBalance.setNumericMonth(Month.valueOf(month.toUpperCase()).getValue());
-        newBalance.setYear(year);
+        // Validate employee exists
+        Optional<EmployeeWithLeaveDetailsDTO> employeeOpt = employeeService.getEmployeeById(employeeId);
+        if (employeeOpt.isEmpty()) {
+            throw new ResourceNotFoundException("Employee not found with ID: " + employeeId);
+        }
 
         // Calculate earned leaves based on policy
         double earnedLeaves = calculateMonthlyLeaves(employeeId);
-        newBalance.setAnnualLeavesEarned(earnedLeaves);
-        newBalance.setCompOffLeavesEarned(0.0);
-        newBalance.setLeavesTakenInThisMonth(0.0);
 
         // Get previous month's balance
         LeaveBalance previousBalance = getPreviousMonthBalance(employeeId, month, year);
 
-        if (previousBalance == null) {
-            // Case 1: No previous balance exists
-            newBalance.setAnnualLeavesCarryForwarded(0.0);
-            newBalance.setCompOffLeavesCarryForwarded(0.0);
-            newBalance.setTotalAnnualLeavesEarnedSinceJanuary(earnedLeaves);
-            newBalance.setTotalCompOffLeavesEarnedSinceJanuary(0.0);
-            newBalance.setLeavesTakenThisYear(0.0);
-            newBalance.setLeavesCarriedFromPreviousYear(0.0);
-        } else {
-            // Case 2: Previous balance exists - Calculate carry forward
-            double totalCompOff = previousBalance.getCompOffLeavesEarned() + previousBalance.getCompOffLeavesCarryForwarded();
-            double totalAnnual = previousBalance.getAnnualLeavesEarned() + previousBalance.getAnnualLeavesCarryForwarded();
-            double leavesTaken = previousBalance.getLeavesTakenInThisMonth();
-
-            // First deduct from comp-off
-            if (leavesTaken <= totalCompOff) {
-                // All leaves taken from comp-off
-                newBalance.setCompOffLeavesCarryForwarded(totalCompOff - leavesTaken);
-                newBalance.setAnnualLeavesCarryForwarded(totalAnnual);
-            } else {
-                // Comp-off fully used, remaining from annual
-                newBalance.setCompOffLeavesCarryForwarded(0.0);
-                newBalance.setAnnualLeavesCarryForwarded(totalAnnual - (leavesTaken - totalCompOff));
-            }
-
-            // Carry forward yearly totals
-            newBalance.setTotalAnnualLeavesEarnedSinceJanuary(previousBalance.getTotalAnnualLeavesEarnedSinceJanuary() + earnedLeaves);
-            newBalance.setTotalCompOffLeavesEarnedSinceJanuary(previousBalance.getTotalCompOffLeavesEarnedSinceJanuary());
-            newBalance.setLeavesTakenThisYear(previousBalance.getLeavesTakenThisYear() + previousBalance.getLeavesTakenInThisMonth());
-
-            // Handle leaves carried from previous year for January
-            if (Month.valueOf(month.toUpperCase()) == Month.JANUARY) {
-                Optional<LeaveBalance> decemberBalance = leaveBalanceRepository.findByEmployeeIdAndNumericMonthAndYear(
-                        employeeId,
-                        12,  // December
-                        year - 1  // Previous year
-                );
-
-                if (decemberBalance.isPresent()) {
-                    double decTotalCompOff = decemberBalance.get().getCompOffLeavesEarned() + decemberBalance.get().getCompOffLeavesCarryForwarded();
-                    double decTotalAnnual = decemberBalance.get().getAnnualLeavesEarned() + decemberBalance.get().getAnnualLeavesCarryForwarded();
-                    double decLeavesTaken = decemberBalance.get().getLeavesTakenInThisMonth();
-
-                    // Calculate remaining leaves from December
-                    double remainingCompOff = Math.max(0, decTotalCompOff - decLeavesTaken);
-                    double remainingAnnual = decTotalAnnual - Math.max(0, decLeavesTaken - decTotalCompOff);
-
-                    newBalance.setLeavesCarriedFromPreviousYear(remainingAnnual);
-                } else {
-                    newBalance.setLeavesCarriedFromPreviousYear(0.0);
-                }
-            } else {
-                newBalance.setLeavesCarriedFromPreviousYear(previousBalance.getLeavesCarriedFromPreviousYear());
-            }
-        }
-
+        LeaveBalance newBalance = LeaveBalanceCalculator.newMonth(employeeId, monthValue, year, earnedLeaves, previousBalance);
+        newBalance.setMonth(month);
         return leaveBalanceRepository.save(newBalance);
     }
 
@@ -172,4 +126,50 @@ public class LeaveBalanceService {
         return getOrCreateLeaveBalance(employeeId, now.getMonth().toString(), now.getYear());
     }
 
-} 
\ No newline at end of file
+    /**
+     * Adds approved leave and comp-off days to the employees' current-month balances in one bulk
+     * write of {@code $inc} updates, one per leave. Each update only matches a balance that has not
+     * seen the leave yet and records it in {@code appliedLeaveIds}, so applying a leave again after
+     * a failed or interrupted approval is a no-op. Each update also bumps the version, so a
+     * concurrent read-modify-save of the same balance fails with an optimistic locking error instead
+     * of overwriting the increment.
+     */
+    public void applyToCurrentMonth(List<LeaveDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        LocalDate now = LocalDate.now();
+        Set<String> employeeIds = deltas.stream().map(LeaveDelta::employeeId).collect(Collectors.toSet());
+
+        Query query = Query.query(Criteria.where("employeeId").in(employeeIds)
+                .and("numericMonth").is(now.getMonthValue())
+                .and("year").is(now.getYear()));
+        query.fields().include("employeeId");
+        Map<String, String> balanceIds = new HashMap<>();
+        mongoTemplate.find(query, LeaveBalance.class)
+                .forEach(balance -> balanceIds.putIfAbsent(balance.getEmployeeId(), balance.getId()));
+
+        // Normally created by the monthly accrual run; fall back to creating them here
+        employeeIds.stream()
+                .filter(employeeId -> !balanceIds.containsKey(employeeId))
+                .forEach(employeeId -> balanceIds.put(employeeId, getCurrentMonthBalance(employeeId).getId()));
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LeaveBalance.class);
+        for (LeaveDelta delta : deltas) {
+            Update update = new Update()
+                    .inc("leavesTakenInThisMonth", delta.leavesTaken())
+                    .inc("leavesTakenThisYear", delta.leavesTaken())
+                    .inc("compOffLeavesEarned", delta.compOffEarned())
+                    .inc("totalCompOffLeavesEarnedSinceJanuary", delta.compOffEarned())
+                    .addToSet("appliedLeaveIds", delta.leaveId())
+                    .inc("version", 1)
+                    .currentDate("updatedAt");
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(balanceIds.get(delta.employeeId()))
+                    .and("appliedLeaveIds").ne(delta.leaveId())), update);
+        }
+        bulkOps.execute();
+    }
+
+    public record LeaveDelta(String leaveId, String employeeId, double leavesTaken, double compOffEarned) {
+    }
+}
@@ -0,0 +1,317 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.dto.leave.LeaveAbsence;
+import com.medhir.rest.model.leave.LeaveDayClaim;
+import com.medhir.rest.model.leave.LeaveModel;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Day-by-day index of pending and approved leaves, one per company. Overlap checks and team
+ * calendars are answered from a sorted map of days instead of loading every leave and scanning
+ * its {@code leaveDates}.
+ * <p>
+ * A company's index is loaded from Mongo on first use and kept current by the leave write paths
+ * of this instance. It is reloaded after {@code leave.calendar.refresh-ms} so writes made through
+ * other instances show up as well.
+ * <p>
+ * Since the index can lag, a new leave also claims its days in {@code LeaveDayClaims}, whose unique
+ * index lets only one of two overlapping leaves through however they are interleaved.
+ */
+@Component
+public class LeaveCalendarIndex {
+
+    static final List<String> ACTIVE_STATUSES = List.of("Pending", "Approved");
+    static final List<String> HALVES = List.of("FIRST_HALF", "SECOND_HALF");
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    // Claims of a leave that never got saved (the instance died in between) are dropped after this
+    private static final Duration ABANDONED_CLAIM = Duration.ofMinutes(5);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${leave.calendar.refresh-ms:300000}")
+    private long refreshMillis;
+
+    private final Map<String, CompanyCalendar> calendars = new ConcurrentHashMap<>();
+    // Calendars being read from Mongo, so that writes made meanwhile are not lost
+    private final Set<CompanyCalendar> loading = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(LeaveDayClaim.class).ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("date", Sort.Direction.ASC)
+                .on("half", Sort.Direction.ASC)
+                .unique());
+        mongoTemplate.indexOps(LeaveDayClaim.class).ensureIndex(new Index().on("leaveId", Sort.Direction.ASC));
+    }
+
+    /**
+     * Active leaves of the employee that share a day with the requested dates. Two half-day leaves
+     * on the same day only clash when they are for the same half.
+     */
+    public List<LeaveAbsence> findConflicts(String companyId, String employeeId, Collection<LocalDate> dates, String shiftType) {
+        return calendar(companyId).conflicts(employeeId, dates, shiftType);
+    }
+
+    /**
+     * Absences per day in {@code [from, to]} for the given employees. Every day in the range is
+     * present in the result, in order; comp-off claims are not absences and are left out.
+     */
+    public Map<LocalDate, List<LeaveAbsence>> absences(String companyId, Set<String> employeeIds, LocalDate from, LocalDate to) {
+        return calendar(companyId).absences(employeeIds, from, to);
+    }
+
+    /**
+     * Takes the days of a leave that is about to be saved for its employee. Nothing is taken when
+     * any of them already belongs to another pending or approved leave; the ids of those leaves are
+     * returned instead. The caller must {@link #release} the claim if the leave is not saved.
+     */
+    public List<String> claim(LeaveModel leave) {
+        List<LeaveDayClaim> claims = new ArrayList<>();
+        Instant claimedAt = Instant.now();
+        for (LocalDate date : new HashSet<>(leave.getLeaveDates())) {
+            for (String half : halves(leave.getShiftType())) {
+                claims.add(new LeaveDayClaim(null, leave.getEmployeeId(), date, half, leave.getLeaveId(), claimedAt));
+            }
+        }
+
+        for (int attempt = 1; attempt <= MAX_CLAIM_ATTEMPTS; attempt++) {
+            try {
+                mongoTemplate.insert(claims, LeaveDayClaim.class);
+                return List.of();
+            } catch (DuplicateKeyException e) {
+                // The insert is ordered, so the days before the taken one are ours and must go back
+                release(leave.getLeaveId());
+                List<String> holders = liveHolders(leave);
+                if (!holders.isEmpty()) {
+                    return holders;
+                }
+            }
+        }
+        throw new IllegalStateException("Could not claim the leave days, please try again");
+    }
+
+    /**
+     * Gives back the days claimed by a leave.
+     */
+    public void release(String leaveId) {
+        mongoTemplate.remove(Query.query(Criteria.where("leaveId").is(leaveId)), LeaveDayClaim.class);
+    }
+
+    /**
+     * Records a new or changed leave. Leaves that are no longer pending or approved are dropped and
+     * their days released.
+     */
+    public void update(LeaveModel leave) {
+        if (!ACTIVE_STATUSES.contains(leave.getStatus())) {
+            release(leave.getLeaveId());
+        }
+        if (leave.getCompanyId() == null) {
+            return;
+        }
+        // Calendars not loaded yet will read the leave from Mongo when they are
+        CompanyCalendar calendar = calendars.get(leave.getCompanyId());
+        if (calendar != null) {
+            calendar.put(leave);
+        }
+        for (CompanyCalendar pending : loading) {
+            if (pending.companyId.equals(leave.getCompanyId())) {
+                pending.put(leave);
+            }
+        }
+    }
+
+    static List<String> halves(String shiftType) {
+        return HALVES.contains(shiftType) ? List.of(shiftType) : HALVES;
+    }
+
+    /**
+     * Leaves holding claims on the leave's days, without the ones whose claim was abandoned.
+     */
+    private List<String> liveHolders(LeaveModel leave) {
+        Query query = Query.query(Criteria.where("employeeId").is(leave.getEmployeeId())
+                .and("date").in(leave.getLeaveDates())
+                .and("half").in(halves(leave.getShiftType()))
+                .and("leaveId").ne(leave.getLeaveId()));
+        Map<String, Instant> holders = new LinkedHashMap<>();
+        for (LeaveDayClaim claim : mongoTemplate.find(query, LeaveDayClaim.class)) {
+            holders.merge(claim.getLeaveId(), claim.getClaimedAt(), (a, b) -> a.isBefore(b) ? a : b);
+        }
+        if (holders.isEmpty()) {
+            return List.of();
+        }
+
+        Query active = Query.query(Criteria.where("leaveId").in(holders.keySet()).and("status").in(ACTIVE_STATUSES));
+        active.fields().include("leaveId");
+        Set<String> activeIds = new HashSet<>();
+        mongoTemplate.find(active, LeaveModel.class).forEach(found -> activeIds.add(found.getLeaveId()));
+
+        Instant cutoff = Instant.now().minus(ABANDONED_CLAIM);
+        List<String> live = new ArrayList<>();
+        List<String> abandoned = new ArrayList<>();
+        // A recent claim without a leave yet belongs to an apply that is still in flight
+        holders.forEach((leaveId, claimedAt) -> {
+            if (activeIds.contains(leaveId) || claimedAt.isAfter(cutoff)) {
+                live.add(leaveId);
+            } else {
+                abandoned.add(leaveId);
+            }
+        });
+        if (!abandoned.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("leaveId").in(abandoned).and("claimedAt").lt(cutoff)),
+                    LeaveDayClaim.class);
+        }
+        return live;
+    }
+
+    private CompanyCalendar calendar(String companyId) {
+        long now = System.currentTimeMillis();
+        CompanyCalendar existing = calendars.get(companyId);
+        if (existing != null && now - existing.loadedAt < refreshMillis) {
+            return existing;
+        }
+
+        // Read outside the map so that writers are not held up for the database round trip
+        CompanyCalendar loaded = new CompanyCalendar(companyId, now);
+        loading.add(loaded);
+        try {
+            Query query = Query.query(Criteria.where("companyId").is(companyId).and("status").in(ACTIVE_STATUSES));
+            query.fields().include("leaveId", "employeeId", "companyId", "leaveName", "leaveDates", "shiftType", "status");
+            mongoTemplate.find(query, LeaveModel.class).forEach(loaded::putLoaded);
+            loaded.loaded();
+            return calendars.merge(companyId, loaded,
+                    (current, fresh) -> fresh.loadedAt >= current.loadedAt ? fresh : current);
+        } finally {
+            loading.remove(loaded);
+        }
+    }
+
+    static final class CompanyCalendar {
+
+        private final String companyId;
+        private final long loadedAt;
+        // day -> employeeId -> leaves covering that day
+        private final NavigableMap<LocalDate, Map<String, List<LeaveAbsence>>> byDay = new TreeMap<>();
+        private final Map<String, List<LocalDate>> datesByLeave = new HashMap<>();
+        // Leaves written while the calendar was being read; the read may hold an older copy of them
+        private Set<String> writtenWhileLoading = new HashSet<>();
+
+        CompanyCalendar(String companyId, long loadedAt) {
+            this.companyId = companyId;
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void putLoaded(LeaveModel leave) {
+            if (writtenWhileLoading == null || !writtenWhileLoading.contains(leave.getLeaveId())) {
+                index(leave);
+            }
+        }
+
+        synchronized void loaded() {
+            writtenWhileLoading = null;
+        }
+
+        synchronized void put(LeaveModel leave) {
+            if (writtenWhileLoading != null) {
+                writtenWhileLoading.add(leave.getLeaveId());
+            }
+            index(leave);
+        }
+
+        private void index(LeaveModel leave) {
+            remove(leave.getLeaveId());
+            if (!ACTIVE_STATUSES.contains(leave.getStatus()) || leave.getLeaveDates() == null || leave.getEmployeeId() == null) {
+                return;
+            }
+            LeaveAbsence absence = new LeaveAbsence(leave.getLeaveId(), leave.getEmployeeId(),
+                    leave.getLeaveName(), leave.getShiftType(), leave.getStatus());
+            List<LocalDate> dates = List.copyOf(leave.getLeaveDates());
+            for (LocalDate date : dates) {
+                byDay.computeIfAbsent(date, d -> new HashMap<>())
+                        .computeIfAbsent(leave.getEmployeeId(), e -> new ArrayList<>())
+                        .add(absence);
+            }
+            datesByLeave.put(leave.getLeaveId(), dates);
+        }
+
+        synchronized void remove(String leaveId) {
+            List<LocalDate> dates = datesByLeave.remove(leaveId);
+            if (dates == null) {
+                return;
+            }
+            for (LocalDate date : dates) {
+                Map<String, List<LeaveAbsence>> day = byDay.get(date);
+                if (day == null) {
+                    continue;
+                }
+                day.values().forEach(absences -> absences.removeIf(absence -> leaveId.equals(absence.getLeaveId())));
+                day.values().removeIf(List::isEmpty);
+                if (day.isEmpty()) {
+                    byDay.remove(date);
+                }
+            }
+        }
+
+        synchronized List<LeaveAbsence> conflicts(String employeeId, Collection<LocalDate> dates, String shiftType) {
+            Map<String, LeaveAbsence> conflicts = new LinkedHashMap<>();
+            for (LocalDate date : dates) {
+                Map<String, List<LeaveAbsence>> day = byDay.get(date);
+                if (day == null) {
+                    continue;
+                }
+                for (LeaveAbsence existing : day.getOrDefault(employeeId, List.of())) {
+                    if (overlaps(shiftType, existing.getShiftType())) {
+                        conflicts.putIfAbsent(existing.getLeaveId(), existing);
+                    }
+                }
+            }
+            return new ArrayList<>(conflicts.values());
+        }
+
+        synchronized Map<LocalDate, List<LeaveAbsence>> absences(Set<String> employeeIds, LocalDate from, LocalDate to) {
+            Map<LocalDate, List<LeaveAbsence>> result = new LinkedHashMap<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                result.put(date, new ArrayList<>());
+            }
+            byDay.subMap(from, true, to, true).forEach((date, day) -> {
+                List<LeaveAbsence> absences = result.get(date);
+                employeeIds.forEach(employeeId -> day.getOrDefault(employeeId, List.of()).stream()
+                        .filter(absence -> !"Comp-Off".equals(absence.getLeaveName()))
+                        .forEach(absences::add));
+            });
+            return result;
+        }
+
+        private static boolean overlaps(String shiftType, String otherShiftType) {
+            boolean half = "FIRST_HALF".equals(shiftType) || "SECOND_HALF".equals(shiftType);
+            boolean otherHalf = "FIRST_HALF".equals(otherShiftType) || "SECOND_HALF".equals(otherShiftType);
+            return !half || !otherHalf || shiftType.equals(otherShiftType);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.dto.leave.LeaveListingFilter;
+import com.medhir.rest.dto.leave.LeavePage;
+import com.medhir.rest.dto.leave.LeaveWithEmployeeDetails;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.leave.LeaveModel;
+import com.medhir.rest.model.settings.DepartmentModel;
+import com.medhir.rest.service.org.OrgGraph;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the company and manager leave queues. A page of leaves is enriched with two queries in
+ * total - one {@code $in} on employees and one on departments, both projected to the fields the
+ * listing shows - instead of a full employee lookup per leave.
+ * <p>
+ * Pages are ordered newest first and continue from the {@code _id} of the last leave returned,
+ * so paging stays cheap and stable while new leaves are being applied.
+ */
+@Service
+public class LeaveListingService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @PostConstruct
+    void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(LeaveModel.class);
+        indexOps.ensureIndex(new Index()
+                .on("companyId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.DESC));
+        indexOps.ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.DESC));
+        indexOps.ensureIndex(new Index().on("leaveId", Sort.Direction.ASC));
+    }
+
+    public LeavePage findByCompany(String companyId, String status, LeaveListingFilter filter) {
+        Criteria criteria = Criteria.where("companyId").is(companyId).and("status").is(status);
+        return findPage(criteria, filter, Map.of());
+    }
+
+    public LeavePage findByManager(String managerId, String status, LeaveListingFilter filter) {
+        List<String> reports = orgGraph.directReports(managerId);
+        if (reports.isEmpty()) {
+            return new LeavePage(List.of(), null);
+        }
+        Query teamQuery = Query.query(Criteria.where("employeeId").in(reports));
+        teamQuery.fields().include("employeeId", "name", "department");
+        Map<String, EmployeeModel> team = mongoTemplate.find(teamQuery, EmployeeModel.class).stream()
+                .filter(employee -> employee.getEmployeeId() != null)
+                .collect(Collectors.toMap(EmployeeModel::getEmployeeId, employee -> employee, (a, b) -> a));
+        if (team.isEmpty()) {
+            return new LeavePage(List.of(), null);
+        }
+
+        Criteria criteria = Criteria.where("employeeId").in(team.keySet()).and("status").is(status);
+        return findPage(criteria, filter, team);
+    }
+
+    /**
+     * @param knownEmployees employees already loaded by the caller, keyed by employeeId
+     */
+    private LeavePage findPage(Criteria criteria, LeaveListingFilter filter, Map<String, EmployeeModel> knownEmployees) {
+        LeaveListingFilter f = filter != null ? filter : new LeaveListingFilter();
+
+        // On an array, $gte/$lte without $elemMatch match when any date is >= from and any date
+        // is <= to, i.e. when the leave's span overlaps the requested range
+        if (f.getFrom() != null || f.getTo() != null) {
+            Criteria dates = Criteria.where("leaveDates");
+            if (f.getFrom() != null) {
+                dates = dates.gte(f.getFrom());
+            }
+            if (f.getTo() != null) {
+                dates = dates.lte(f.getTo());
+            }
+            criteria = new Criteria().andOperator(criteria, dates);
+        }
+        if (f.getAfter() != null && !f.getAfter().isBlank()) {
+            if (!ObjectId.isValid(f.getAfter())) {
+                throw new IllegalArgumentException("Invalid cursor: " + f.getAfter());
+            }
+            criteria = new Criteria().andOperator(criteria, Criteria.where("_id").lt(new ObjectId(f.getAfter())));
+        }
+
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "_id"));
+        Integer limit = f.getLimit();
+        if (limit != null) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Limit must be positive");
+            }
+            limit = Math.min(limit, MAX_PAGE_SIZE);
+            query.limit(limit + 1);
+        }
+
+        List<LeaveModel> leaves = mongoTemplate.find(query, LeaveModel.class);
+        String nextCursor = null;
+        if (limit != null && leaves.size() > limit) {
+            leaves = leaves.subList(0, limit);
+            nextCursor = leaves.get(limit - 1).getId();
+        }
+
+        Map<String, EmployeeModel> employees = new HashMap<>(knownEmployees);
+        Set<String> missing = leaves.stream()
+                .map(LeaveModel::getEmployeeId)
+                .filter(id -> id != null && !employees.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            Query employeeQuery = Query.query(Criteria.where("employeeId").in(missing));
+            employeeQuery.fields().include("employeeId", "name", "department");
+            mongoTemplate.find(employeeQuery, EmployeeModel.class)
+                    .forEach(employee -> employees.putIfAbsent(employee.getEmployeeId(), employee));
+        }
+
+        Map<String, String> departmentNames = resolveDepartmentNames(leaves.stream()
+                .map(leave -> employees.get(leave.getEmployeeId()))
+                .filter(Objects::nonNull)
+                .map(EmployeeModel::getDepartment)
+                .filter(department -> department != null && !department.isEmpty())
+                .collect(Collectors.toSet()));
+
+        List<LeaveWithEmployeeDetails> result = leaves.stream()
+                .map(leave -> toDetails(leave, employees.get(leave.getEmployeeId()), departmentNames))
+                .collect(Collectors.toList());
+        return new LeavePage(result, nextCursor);
+    }
+
+    /**
+     * Employees reference their department either by departmentId or, for older records, by the
+     * Mongo id; both are resolved in the same query.
+     */
+    private Map<String, String> resolveDepartmentNames(Set<String> departmentRefs) {
+        if (departmentRefs.isEmpty()) {
+            return Map.of();
+        }
+        List<ObjectId> objectIds = departmentRefs.stream()
+                .filter(ObjectId::isValid)
+                .map(ObjectId::new)
+                .collect(Collectors.toList());
+
+        Criteria criteria = objectIds.isEmpty()
+                ? Criteria.where("departmentId").in(departmentRefs)
+                : new Criteria().orOperator(
+                        Criteria.where("departmentId").in(departmentRefs),
+                        Criteria.where("_id").in(objectIds));
+        Query query = Query.query(criteria);
+        query.fields().include("departmentId", "name");
+
+        Map<String, String> names = new HashMap<>();
+        for (DepartmentModel department : mongoTemplate.find(query, DepartmentModel.class)) {
+            if (department.getDepartmentId() != null) {
+                names.put(department.getDepartmentId(), department.getName());
+            }
+            names.putIfAbsent(department.getId(), department.getName());
+        }
+        return names;
+    }
+
+    private LeaveWithEmployeeDetails toDetails(LeaveModel leave, EmployeeModel employee, Map<String, String> departmentNames) {
+        LeaveWithEmployeeDetails leaveWithDetails = new LeaveWithEmployeeDetails();
+
+        // Copy all fields from LeaveModel to LeaveWithEmployeeDetails
+        leaveWithDetails.setId(leave.getId());
+        leaveWithDetails.setLeaveId(leave.getLeaveId());
+        leaveWithDetails.setEmployeeId(leave.getEmployeeId());
+        leaveWithDetails.setCompanyId(leave.getCompanyId());
+        leaveWithDetails.setLeaveName(leave.getLeaveName());
+        leaveWithDetails.setLeaveDates(leave.getLeaveDates());
+        leaveWithDetails.setShiftType(leave.getShiftType());
+        leaveWithDetails.setReason(leave.getReason());
+        leaveWithDetails.setStatus(leave.getStatus());
+        leaveWithDetails.setRemarks(leave.getRemarks());
+        leaveWithDetails.setCreatedAt(leave.getCreatedAt());
+
+        if (employee != null) {
+            leaveWithDetails.setEmployeeName(employee.getName());
+            String department = employee.getDepartment();
+            if (department != null && !department.isEmpty()) {
+                // Unknown departments fall back to the raw reference, as before
+                leaveWithDetails.setDepartment(departmentNames.getOrDefault(department, department));
+            }
+        }
+        return leaveWithDetails;
+    }
+}
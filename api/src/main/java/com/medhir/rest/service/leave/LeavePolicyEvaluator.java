@@ -0,0 +1,144 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.model.settings.LeavePolicyModel;
+import com.medhir.rest.model.settings.LeaveTypeModel;
+import com.medhir.rest.repository.settings.LeavePolicyRepository;
+import com.medhir.rest.repository.settings.LeaveTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks leave applications against the employee's leave policy: consecutive days, restricted
+ * weekdays and, when {@code leave.policy.probation-months} is set, the probation flag of the leave
+ * type. Policies are compiled once and cached by policy id and version; {@code LeavePolicyService}
+ * and {@code LeaveTypeService} evict them on every write, and entries are recompiled after
+ * {@code leave.policy.cache-ttl-ms} to pick up writes made through other instances.
+ * <p>
+ * Repositories are used directly because {@code LeavePolicyService} depends on this class.
+ */
+@Component
+public class LeavePolicyEvaluator {
+
+    @Autowired
+    private LeavePolicyRepository leavePolicyRepository;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Value("${leave.policy.probation-months:0}")
+    private int probationMonths;
+
+    @Value("${leave.policy.cache-ttl-ms:600000}")
+    private long cacheTtlMillis;
+
+    private final Map<String, CachedPolicy> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalArgumentException listing every rule the application breaks
+     */
+    public void validate(String policyId, LocalDate joiningDate, List<LocalDate> leaveDates) {
+        if (policyId == null || policyId.isBlank() || leaveDates == null || leaveDates.isEmpty()) {
+            return;
+        }
+        CompiledLeavePolicy policy = compiled(policyId);
+        if (policy == null) {
+            return;
+        }
+        List<String> violations = policy.evaluate(null, new CompiledLeavePolicy.Facts(leaveDates, joiningDate));
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", violations));
+        }
+    }
+
+    /**
+     * Drops the compiled form of a policy, looked up by either its leavePolicyId or Mongo id.
+     */
+    public void evict(LeavePolicyModel policy) {
+        if (policy.getLeavePolicyId() != null) {
+            cache.remove(policy.getLeavePolicyId());
+        }
+        if (policy.getId() != null) {
+            cache.remove(policy.getId());
+        }
+    }
+
+    /**
+     * Leave types are shared between policies, so a leave type write invalidates all of them.
+     */
+    public void evictAll() {
+        cache.clear();
+    }
+
+    /**
+     * Compiles every policy ahead of the first leave application and returns how many were
+     * compiled. Used by the startup warm-up.
+     */
+    public int preload() {
+        Map<String, LeaveTypeModel> leaveTypes = new HashMap<>();
+        for (LeaveTypeModel leaveType : leaveTypeRepository.findAll()) {
+            leaveTypes.put(leaveType.getId(), leaveType);
+            if (leaveType.getLeaveTypeId() != null) {
+                leaveTypes.put(leaveType.getLeaveTypeId(), leaveType);
+            }
+        }
+        long now = System.currentTimeMillis();
+        int compiled = 0;
+        for (LeavePolicyModel policy : leavePolicyRepository.findAll()) {
+            if (policy.getLeavePolicyId() == null) {
+                continue;
+            }
+            cache.put(policy.getLeavePolicyId(),
+                    new CachedPolicy(CompiledLeavePolicy.compile(policy, leaveTypes, probationMonths), now));
+            compiled++;
+        }
+        return compiled;
+    }
+
+    private CompiledLeavePolicy compiled(String policyId) {
+        long now = System.currentTimeMillis();
+        CachedPolicy cached = cache.get(policyId);
+        if (cached != null && now - cached.compiledAt < cacheTtlMillis) {
+            return cached.policy;
+        }
+
+        LeavePolicyModel policy = leavePolicyRepository.findByLeavePolicyId(policyId)
+                .or(() -> leavePolicyRepository.findById(policyId))
+                .orElse(null);
+        if (policy == null) {
+            cache.remove(policyId);
+            return null;
+        }
+        // Unchanged since it was compiled: keep the compiled form, just restart its TTL
+        if (cached != null && Objects.equals(cached.policy.getVersion(), policy.getUpdatedAt())) {
+            cache.put(policyId, new CachedPolicy(cached.policy, now));
+            return cached.policy;
+        }
+
+        Map<String, LeaveTypeModel> leaveTypes = new HashMap<>();
+        if (policy.getLeaveAllocations() != null) {
+            for (LeavePolicyModel.LeaveAllocation allocation : policy.getLeaveAllocations()) {
+                String leaveTypeId = allocation.getLeaveTypeId();
+                if (leaveTypeId != null && !leaveTypes.containsKey(leaveTypeId)) {
+                    leaveTypeRepository.findByLeaveTypeId(leaveTypeId)
+                            .or(() -> leaveTypeRepository.findById(leaveTypeId))
+                            .ifPresent(leaveType -> leaveTypes.put(leaveTypeId, leaveType));
+                }
+            }
+        }
+
+        CompiledLeavePolicy compiled = CompiledLeavePolicy.compile(policy, leaveTypes, probationMonths);
+        cache.put(policyId, new CachedPolicy(compiled, now));
+        return compiled;
+    }
+
+    private record CachedPolicy(CompiledLeavePolicy policy, long compiledAt) {
+    }
+}
@@ -0,0 +1,390 @@
+package com.medhir.rest.service.org;
+
+import com.medhir.rest.model.EmployeeModel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reporting lines of every company, held in memory: who each employee reports to, each manager's
+ * direct reports, and - computed on first use per employee - the chain of managers above them.
+ * Team lookups and "is X in Y's chain" checks are answered from here without querying Mongo.
+ * <p>
+ * The graph is loaded with one projected query on first use and reloaded after
+ * {@code org.graph.refresh-ms} to pick up writes made through other instances, so it may be stale
+ * and is never written back wholesale. Employee writes call {@link #update} / {@link #remove},
+ * which move the one edge in Mongo with {@code $pull} / {@code $addToSet} on the managers'
+ * {@code assignTo} lists and MANAGER role. {@link #repair} is the only place stored
+ * {@code assignTo} lists are rebuilt from the reporting lines; it runs nightly.
+ */
+@Slf4j
+@Component
+public class OrgGraph {
+
+    static final String MANAGER_ROLE = "MANAGER";
+
+    // A reporting line longer than this is treated as a cycle
+    private static final int MAX_DEPTH = 64;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${org.graph.refresh-ms:300000}")
+    private long refreshMillis;
+
+    private volatile Graph graph;
+
+    private final AtomicBoolean repairing = new AtomicBoolean();
+
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(EmployeeModel.class).ensureIndex(new Index().on("assignTo", Sort.Direction.ASC));
+    }
+
+    /**
+     * Employees reporting directly to the manager, in the order they were added.
+     */
+    public List<String> directReports(String managerId) {
+        return current().directReports(managerId);
+    }
+
+    /**
+     * Employees exactly two levels below the manager: the reports of their reports.
+     */
+    public List<String> skipLevelReports(String managerId) {
+        Graph g = current();
+        List<String> result = new ArrayList<>();
+        for (String report : g.directReports(managerId)) {
+            result.addAll(g.directReports(report));
+        }
+        return result;
+    }
+
+    /**
+     * Everyone below the manager, breadth first.
+     */
+    public List<String> allReports(String managerId) {
+        return current().allReports(managerId);
+    }
+
+    /**
+     * The employee's reporting manager, or null.
+     */
+    public String managerOf(String employeeId) {
+        return current().manager(employeeId);
+    }
+
+    /**
+     * Managers above the employee, nearest first.
+     */
+    public List<String> managerChain(String employeeId) {
+        return current().chain(employeeId);
+    }
+
+    /**
+     * Whether {@code managerId} is anywhere above {@code employeeId} in the reporting line.
+     */
+    public boolean isInChain(String employeeId, String managerId) {
+        if (employeeId == null || managerId == null) {
+            return false;
+        }
+        return current().ancestors(employeeId).contains(managerId);
+    }
+
+    public boolean contains(String employeeId) {
+        return current().company(employeeId) != null;
+    }
+
+    public String companyOf(String employeeId) {
+        return current().company(employeeId);
+    }
+
+    /**
+     * Records a created or updated employee and moves their edge in Mongo: they are added to their
+     * reporting manager's {@code assignTo} and pulled from anyone else's. The stored lists are
+     * used rather than this instance's copy of the graph, which may be out of date.
+     */
+    public void update(EmployeeModel employee) {
+        if (employee.getEmployeeId() == null) {
+            return;
+        }
+        String managerId = blankToNull(employee.getReportingManager());
+        current().put(employee.getEmployeeId(), employee.getCompanyId(), managerId);
+        writeEdge(employee.getEmployeeId(), managerId);
+    }
+
+    /**
+     * Drops a deleted employee; their manager loses them from {@code assignTo}. Their own reports
+     * keep pointing at them until they are reassigned.
+     */
+    public void remove(String employeeId) {
+        if (employeeId == null) {
+            return;
+        }
+        current().remove(employeeId);
+        writeEdge(employeeId, null);
+    }
+
+    @Scheduled(cron = "${org.graph.repair-cron:0 20 3 * * *}", zone = "Asia/Kolkata")
+    public void scheduledRepair() {
+        try {
+            repair();
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled org graph repair: {}", e.getMessage());
+        }
+    }
+
+    public record RepairResult(int employees, int drifted) {
+    }
+
+    /**
+     * Reloads the reporting lines and rewrites the {@code assignTo} list and MANAGER role of every
+     * manager whose stored values no longer match their reports. Each write is guarded on the
+     * {@code assignTo} that was read, so an edge moved in the meantime is left for the next run.
+     */
+    public RepairResult repair() {
+        if (!repairing.compareAndSet(false, true)) {
+            throw new IllegalStateException("Org graph repair already running");
+        }
+        try {
+            List<EmployeeModel> employees = findEmployees();
+            Graph g = build(employees, System.currentTimeMillis());
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmployeeModel.class);
+            int drifted = 0;
+            for (EmployeeModel employee : employees) {
+                if (employee.getEmployeeId() == null) {
+                    continue;
+                }
+                List<String> reports = g.directReports(employee.getEmployeeId());
+                List<String> stored = employee.getAssignTo() != null ? employee.getAssignTo() : List.of();
+                boolean manager = employee.getRoles() != null && employee.getRoles().contains(MANAGER_ROLE);
+                if (new HashSet<>(stored).equals(new HashSet<>(reports)) && (reports.isEmpty() || manager)) {
+                    continue;
+                }
+                Update update = new Update().set("assignTo", reports);
+                // The MANAGER role follows having reports; the field is stored as "Roles" after EmployeeModel
+                if (reports.isEmpty()) {
+                    update.pull("Roles", MANAGER_ROLE);
+                } else {
+                    update.addToSet("Roles", MANAGER_ROLE);
+                }
+                bulk.updateOne(Query.query(Criteria.where("employeeId").is(employee.getEmployeeId())
+                        .and("assignTo").is(employee.getAssignTo())), update);
+                drifted++;
+            }
+            if (drifted > 0) {
+                bulk.execute();
+            }
+            graph = g;
+            log.info("Org graph repair checked {} employees, rewrote {} manager(s)", employees.size(), drifted);
+            return new RepairResult(employees.size(), drifted);
+        } finally {
+            repairing.set(false);
+        }
+    }
+
+    private Graph current() {
+        Graph g = graph;
+        long now = System.currentTimeMillis();
+        if (g != null && now - g.loadedAt < refreshMillis) {
+            return g;
+        }
+        synchronized (this) {
+            g = graph;
+            if (g == null || now - g.loadedAt >= refreshMillis) {
+                g = load(now);
+                graph = g;
+            }
+            return g;
+        }
+    }
+
+    private Graph load(long now) {
+        return build(findEmployees(), now);
+    }
+
+    private List<EmployeeModel> findEmployees() {
+        Query query = new Query();
+        query.fields().include("employeeId", "companyId", "reportingManager", "assignTo", "Roles");
+        return mongoTemplate.find(query, EmployeeModel.class);
+    }
+
+    private static Graph build(List<EmployeeModel> employees, long now) {
+        Graph g = new Graph(now);
+        for (EmployeeModel employee : employees) {
+            if (employee.getEmployeeId() != null) {
+                g.put(employee.getEmployeeId(), employee.getCompanyId(), blankToNull(employee.getReportingManager()));
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Moves one employee's edge: pulled from every {@code assignTo} other than their manager's,
+     * added to their manager's. Managers left without reports lose the MANAGER role.
+     */
+    private void writeEdge(String employeeId, String managerId) {
+        Criteria held = Criteria.where("assignTo").is(employeeId);
+        if (managerId != null) {
+            held = held.and("employeeId").ne(managerId);
+        }
+        Query holders = Query.query(held);
+        holders.fields().include("employeeId");
+        List<String> previous = mongoTemplate.find(holders, EmployeeModel.class).stream()
+                .map(EmployeeModel::getEmployeeId)
+                .toList();
+        if (previous.isEmpty() && managerId == null) {
+            return;
+        }
+
+        // Ordered, so the role check on the previous managers sees their updated assignTo
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, EmployeeModel.class);
+        if (!previous.isEmpty()) {
+            bulk.updateMulti(Query.query(Criteria.where("employeeId").in(previous)),
+                    new Update().pull("assignTo", employeeId));
+            bulk.updateMulti(Query.query(Criteria.where("employeeId").in(previous).and("assignTo").size(0)),
+                    new Update().pull("Roles", MANAGER_ROLE));
+        }
+        if (managerId != null) {
+            bulk.updateOne(Query.query(Criteria.where("employeeId").is(managerId)),
+                    new Update().addToSet("assignTo", employeeId).addToSet("Roles", MANAGER_ROLE));
+        }
+        bulk.execute();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * One loaded copy of the graph. Mutations and reads are synchronized on the instance; the
+     * ancestor sets are the transitive closure, filled lazily and cleared when an edge moves.
+     */
+    static final class Graph {
+
+        private final long loadedAt;
+        private final Map<String, String> companyOf = new HashMap<>();
+        private final Map<String, String> managerOf = new HashMap<>();
+        private final Map<String, Set<String>> reportsOf = new HashMap<>();
+        private final Map<String, Set<String>> ancestors = new HashMap<>();
+
+        Graph(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * @return the managers whose direct reports changed
+         */
+        synchronized Set<String> put(String employeeId, String companyId, String managerId) {
+            if (companyId != null) {
+                companyOf.put(employeeId, companyId);
+            }
+            String previous = managerOf.get(employeeId);
+            if (Objects.equals(previous, managerId)) {
+                return Set.of();
+            }
+            Set<String> affected = new HashSet<>();
+            if (previous != null) {
+                Set<String> reports = reportsOf.get(previous);
+                if (reports != null) {
+                    reports.remove(employeeId);
+                    if (reports.isEmpty()) {
+                        reportsOf.remove(previous);
+                    }
+                }
+                affected.add(previous);
+            }
+            if (managerId != null) {
+                managerOf.put(employeeId, managerId);
+                reportsOf.computeIfAbsent(managerId, m -> new LinkedHashSet<>()).add(employeeId);
+                affected.add(managerId);
+            } else {
+                managerOf.remove(employeeId);
+            }
+            ancestors.clear();
+            return affected;
+        }
+
+        synchronized Set<String> remove(String employeeId) {
+            Set<String> affected = put(employeeId, null, null);
+            companyOf.remove(employeeId);
+            return affected;
+        }
+
+        synchronized String manager(String employeeId) {
+            return managerOf.get(employeeId);
+        }
+
+        synchronized String company(String employeeId) {
+            return companyOf.get(employeeId);
+        }
+
+        synchronized List<String> directReports(String managerId) {
+            Set<String> reports = reportsOf.get(managerId);
+            return reports != null ? new ArrayList<>(reports) : new ArrayList<>();
+        }
+
+        synchronized List<String> allReports(String managerId) {
+            List<String> result = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            seen.add(managerId);
+            List<String> level = List.of(managerId);
+            for (int depth = 0; depth < MAX_DEPTH && !level.isEmpty(); depth++) {
+                List<String> next = new ArrayList<>();
+                for (String id : level) {
+                    for (String report : reportsOf.getOrDefault(id, Set.of())) {
+                        if (seen.add(report)) {
+                            result.add(report);
+                            next.add(report);
+                        }
+                    }
+                }
+                level = next;
+            }
+            return result;
+        }
+
+        synchronized List<String> chain(String employeeId) {
+            List<String> chain = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            seen.add(employeeId);
+            String manager = managerOf.get(employeeId);
+            while (manager != null && seen.add(manager) && chain.size() < MAX_DEPTH) {
+                chain.add(manager);
+                manager = managerOf.get(manager);
+            }
+            return chain;
+        }
+
+        synchronized Set<String> ancestors(String employeeId) {
+            Set<String> cached = ancestors.get(employeeId);
+            if (cached == null) {
+                cached = Collections.unmodifiableSet(new HashSet<>(chain(employeeId)));
+                ancestors.put(employeeId, cached);
+            }
+            return cached;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.medhir.rest.service.outbox;
+
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.outbox.OutboxEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers a new employee for face verification in the attendance service.
+ */
+@Component
+@Order(10)
+public class AttendanceRegisterHandler implements OutboxHandler {
+
+    public static final String TYPE = "attendance.register";
+
+    private final RestTemplate restTemplate;
+
+    @Value("${attendance.service.url}")
+    private String attendanceServiceUrl;
+
+    public AttendanceRegisterHandler(@Qualifier("outboxRestTemplate") RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    public static OutboxEvent event(EmployeeModel employee) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("employeeId", employee.getEmployeeId());
+        payload.put("name", employee.getName());
+        payload.put("imgUrl", employee.getEmployeeImgUrl());
+        payload.put("joiningDate", employee.getJoiningDate() != null ? employee.getJoiningDate().toString() : null);
+        return OutboxService.newEvent(TYPE, employee.getEmployeeId(), payload);
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    // A repeated registration of the same employee only needs to be sent once
+    @Override
+    public List<List<OutboxEvent>> coalesce(List<OutboxEvent> events) {
+        return OutboxHandler.groupBy(events, OutboxEvent::getAggregateKey);
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> group) {
+        Map<String, Object> payload = group.get(group.size() - 1).getPayload();
+
+        MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
+        requestBody.add("employeeId", (String) payload.get("employeeId"));
+        requestBody.add("name", (String) payload.get("name"));
+        if (payload.get("imgUrl") != null) {
+            requestBody.add("imgUrl", (String) payload.get("imgUrl")); // Always using imgUrl
+        }
+        if (payload.get("joiningDate") != null) {
+            requestBody.add("joiningDate", (String) payload.get("joiningDate"));
+        }
+
+        // Set headers for form-data
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA); // Ensures compatibility with @RequestParam
+
+        restTemplate.postForEntity(attendanceServiceUrl + "/register", new HttpEntity<>(requestBody, headers), String.class);
+    }
+}
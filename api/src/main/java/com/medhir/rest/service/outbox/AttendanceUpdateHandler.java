@@ -0,0 +1,82 @@
+package com.medhir.rest.service.outbox;
+
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.outbox.OutboxEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes name, photo and joining date changes to the attendance service. Every event carries the
+ * full state after the update, so a burst of edits to one employee collapses into a single call
+ * with the latest state.
+ */
+@Component
+@Order(20)
+public class AttendanceUpdateHandler implements OutboxHandler {
+
+    public static final String TYPE = "attendance.update";
+
+    private final RestTemplate restTemplate;
+
+    @Value("${attendance.service.url}")
+    private String attendanceServiceUrl;
+
+    public AttendanceUpdateHandler(@Qualifier("outboxRestTemplate") RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    public static OutboxEvent event(EmployeeModel employee) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("employeeId", employee.getEmployeeId());
+        payload.put("name", employee.getName());
+        payload.put("imgUrl", employee.getEmployeeImgUrl());
+        payload.put("joiningDate", employee.getJoiningDate() != null ? employee.getJoiningDate().toString() : null);
+        return OutboxService.newEvent(TYPE, employee.getEmployeeId(), payload);
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<List<OutboxEvent>> coalesce(List<OutboxEvent> events) {
+        return OutboxHandler.groupBy(events, OutboxEvent::getAggregateKey);
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> group) {
+        Map<String, Object> payload = group.get(group.size() - 1).getPayload();
+
+        MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
+        requestBody.add("employeeId", (String) payload.get("employeeId"));
+        addIfPresent(requestBody, "name", payload.get("name"));
+        addIfPresent(requestBody, "imgUrl", payload.get("imgUrl"));
+        addIfPresent(requestBody, "joiningDate", payload.get("joiningDate"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        restTemplate.exchange(attendanceServiceUrl + "/update", HttpMethod.PUT,
+                new HttpEntity<>(requestBody, headers), String.class);
+    }
+
+    private static void addIfPresent(MultiValueMap<String, String> body, String key, Object value) {
+        if (value instanceof String text && !text.trim().isEmpty()) {
+            body.add(key, text);
+        }
+    }
+}
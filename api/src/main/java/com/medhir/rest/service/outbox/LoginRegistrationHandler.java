@@ -0,0 +1,66 @@
+package com.medhir.rest.service.outbox;
+
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.outbox.OutboxEvent;
+import com.medhir.rest.repository.EmployeeRepository;
+import com.medhir.rest.repository.auth.EmployeeAuthRepository;
+import com.medhir.rest.service.auth.EmployeeAuthService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the login for a new employee. Hashing the initial password is the slow part of
+ * employee creation, so it happens here rather than in the request. The employee is read at
+ * delivery time, so the login always gets the current email and phone.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class LoginRegistrationHandler implements OutboxHandler {
+
+    public static final String TYPE = "auth.register";
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeAuthRepository employeeAuthRepository;
+    private final EmployeeAuthService employeeAuthService;
+
+    public static OutboxEvent event(String employeeId) {
+        return OutboxService.newEvent(TYPE, employeeId, Map.of("employeeId", employeeId));
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<List<OutboxEvent>> coalesce(List<OutboxEvent> events) {
+        return OutboxHandler.groupBy(events, OutboxEvent::getAggregateKey);
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> group) {
+        String employeeId = group.get(0).getAggregateKey();
+        EmployeeModel employee = employeeRepository.findByEmployeeId(employeeId).orElse(null);
+        if (employee == null) {
+            log.warn("Skipping login registration for {}: employee no longer exists", employeeId);
+            return;
+        }
+        if (employee.getPhone() == null || employee.getPhone().isEmpty()
+                || employee.getEmailPersonal() == null || employee.getEmailPersonal().isEmpty()) {
+            log.warn("Skipping login registration for {}: email or phone missing", employeeId);
+            return;
+        }
+        // Retries after a partial failure must not trip the duplicate check
+        if (employeeAuthRepository.findByEmployeeId(employeeId).isPresent()) {
+            return;
+        }
+        employeeAuthService.registerEmployee(employeeId, employee.getEmailPersonal(), employee.getPhone());
+    }
+}
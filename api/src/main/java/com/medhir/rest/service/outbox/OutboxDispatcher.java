@@ -0,0 +1,302 @@
+package com.medhir.rest.service.outbox;
+
+import com.medhir.rest.model.outbox.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls outbox_events and hands due events to their {@link OutboxHandler}, one batch per type
+ * per tick. Polling runs on its own thread, so slow downstream calls never hold up the
+ * application's other {@code @Scheduled} jobs, and those cannot delay delivery. Events are claimed with a lease before delivery, so a crashed instance's batch is
+ * picked up again once the lease runs out, and two instances never deliver the same batch.
+ * <p>
+ * Failed deliveries back off exponentially ({@code outbox.retry.*}) and end up FAILED after
+ * {@code outbox.retry.max-attempts}; they can be re-queued from {@code /hradmin/outbox}.
+ * <p>
+ * Metrics: {@code outbox.pending} and {@code outbox.lag} (age of the oldest pending event, seconds)
+ * per type, {@code outbox.delivery} timer per type and outcome, {@code outbox.coalesced} counter.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, OutboxHandler> handlers = new LinkedHashMap<>();
+
+    private final Map<String, AtomicLong> pendingByType = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lagSecondsByType = new ConcurrentHashMap<>();
+    private final AtomicLong failedTotal = new AtomicLong();
+
+    @Value("${outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.lease-ms:120000}")
+    private long leaseMillis;
+
+    @Value("${outbox.retry.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry.initial-backoff-ms:5000}")
+    private long initialBackoffMillis;
+
+    @Value("${outbox.retry.max-backoff-ms:3600000}")
+    private long maxBackoffMillis;
+
+    @Value("${outbox.completed-retention-days:7}")
+    private long completedRetentionDays;
+
+    private final ScheduledExecutorService poller;
+
+    public OutboxDispatcher(MongoTemplate mongoTemplate, MeterRegistry meterRegistry, List<OutboxHandler> handlers) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        // The list arrives in @Order, which is the order types are dispatched in
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+        this.poller = ExecutorServiceMetrics.monitor(meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        }), "outbox.dispatcher");
+    }
+
+    @PostConstruct
+    void init() {
+        IndexOperations indexOps = mongoTemplate.indexOps(OutboxEvent.class);
+        indexOps.ensureIndex(new Index()
+                .on("type", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("nextAttemptAt", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("claimedBy", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("completedAt", Sort.Direction.ASC)
+                .expire(Duration.ofDays(completedRetentionDays)));
+
+        for (String type : handlers.keySet()) {
+            AtomicLong pending = pendingByType.computeIfAbsent(type, t -> new AtomicLong());
+            AtomicLong lag = lagSecondsByType.computeIfAbsent(type, t -> new AtomicLong());
+            Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                    .description("Outbox events waiting for delivery")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("outbox.lag", lag, AtomicLong::get)
+                    .description("Age of the oldest undelivered outbox event")
+                    .baseUnit("seconds")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("outbox.failed", failedTotal, AtomicLong::get)
+                .description("Outbox events that ran out of retries")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        poller.scheduleWithFixedDelay(this::dispatch, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+    }
+
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        for (OutboxHandler handler : handlers.values()) {
+            try {
+                dispatch(handler);
+            } catch (Exception e) {
+                log.error("Outbox dispatch for {} failed: {}", handler.type(), e.getMessage());
+            }
+        }
+        try {
+            refreshBacklogMetrics();
+        } catch (Exception e) {
+            log.warn("Could not refresh outbox metrics: {}", e.getMessage());
+        }
+    }
+
+    void dispatch(OutboxHandler handler) {
+        List<OutboxEvent> claimed = claim(handler.type());
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<List<OutboxEvent>> groups = handler.coalesce(claimed);
+        if (groups.size() < claimed.size()) {
+            Counter.builder("outbox.coalesced")
+                    .description("Outbox events merged into another delivery")
+                    .tag("type", handler.type())
+                    .register(meterRegistry)
+                    .increment(claimed.size() - groups.size());
+        }
+
+        for (List<OutboxEvent> group : groups) {
+            long start = System.nanoTime();
+            String outcome = "success";
+            try {
+                handler.deliver(group);
+                markDone(group);
+            } catch (Exception e) {
+                outcome = "failure";
+                markFailed(handler.type(), group, e);
+            } finally {
+                Timer.builder("outbox.delivery")
+                        .description("Time spent delivering one coalesced outbox group")
+                        .tag("type", handler.type())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+    }
+
+    /**
+     * Leases up to one batch of due events of the given type to this tick.
+     */
+    private List<OutboxEvent> claim(String type) {
+        Instant now = Instant.now();
+        Criteria due = new Criteria().andOperator(
+                Criteria.where("type").is(type),
+                new Criteria().orOperator(
+                        Criteria.where("status").is(OutboxEvent.PENDING).and("nextAttemptAt").lte(now),
+                        Criteria.where("status").is(OutboxEvent.PROCESSING).and("lockedUntil").lt(now)));
+
+        Query candidates = Query.query(due).with(Sort.by(Sort.Direction.ASC, "createdAt")).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxEvent.class).stream().map(OutboxEvent::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Re-check "due" so events another instance claimed in the meantime are skipped
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                new Update()
+                        .set("status", OutboxEvent.PROCESSING)
+                        .set("claimedBy", claimToken)
+                        .set("lockedUntil", now.plusMillis(leaseMillis)),
+                OutboxEvent.class);
+
+        return mongoTemplate.find(
+                Query.query(Criteria.where("claimedBy").is(claimToken).and("status").is(OutboxEvent.PROCESSING))
+                        .with(Sort.by(Sort.Direction.ASC, "createdAt")),
+                OutboxEvent.class);
+    }
+
+    private void markDone(List<OutboxEvent> group) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids(group))),
+                new Update()
+                        .set("status", OutboxEvent.DONE)
+                        .set("completedAt", Instant.now())
+                        .unset("claimedBy")
+                        .unset("lockedUntil")
+                        .unset("lastError"),
+                OutboxEvent.class);
+    }
+
+    private void markFailed(String type, List<OutboxEvent> group, Exception e) {
+        int attempts = group.stream().mapToInt(OutboxEvent::getAttempts).max().orElse(0) + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 20));
+
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids(group))),
+                new Update()
+                        .set("status", exhausted ? OutboxEvent.FAILED : OutboxEvent.PENDING)
+                        .set("attempts", attempts)
+                        .set("nextAttemptAt", Instant.now().plusMillis(backoff))
+                        .set("lastError", String.valueOf(e.getMessage()))
+                        .unset("claimedBy")
+                        .unset("lockedUntil"),
+                OutboxEvent.class);
+
+        if (exhausted) {
+            log.error("Giving up on {} event(s) of type {} for {} after {} attempts: {}",
+                    group.size(), type, group.get(0).getAggregateKey(), attempts, e.getMessage());
+        } else {
+            log.warn("Delivery of {} for {} failed (attempt {}), retrying in {} ms: {}",
+                    type, group.get(0).getAggregateKey(), attempts, backoff, e.getMessage());
+        }
+    }
+
+    private void refreshBacklogMetrics() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").in(OutboxEvent.PENDING, OutboxEvent.PROCESSING)),
+                Aggregation.group("type").count().as("count").min("createdAt").as("oldest"));
+
+        Set<String> seen = new HashSet<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, OutboxEvent.class, Document.class)) {
+            String type = row.getString("_id");
+            seen.add(type);
+            Date oldest = row.getDate("oldest");
+            pendingByType.computeIfAbsent(type, t -> new AtomicLong()).set(((Number) row.get("count")).longValue());
+            lagSecondsByType.computeIfAbsent(type, t -> new AtomicLong())
+                    .set(oldest != null ? Duration.between(oldest.toInstant(), Instant.now()).toSeconds() : 0);
+        }
+        pendingByType.forEach((type, value) -> {
+            if (!seen.contains(type)) {
+                value.set(0);
+                lagSecondsByType.get(type).set(0);
+            }
+        });
+        failedTotal.set(mongoTemplate.count(
+                Query.query(Criteria.where("status").is(OutboxEvent.FAILED)), OutboxEvent.class));
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        handlers.keySet().forEach(type -> status.put(type, Map.of(
+                "pending", pendingByType.getOrDefault(type, new AtomicLong()).get(),
+                "lagSeconds", lagSecondsByType.getOrDefault(type, new AtomicLong()).get())));
+        status.put("failed", failedTotal.get());
+        return status;
+    }
+
+    private static List<String> ids(List<OutboxEvent> group) {
+        return group.stream().map(OutboxEvent::getId).toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.medhir.rest.service.outbox;
+
+import com.medhir.rest.model.outbox.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Delivers one type of outbox event. Handlers are run by OutboxDispatcher in {@code @Order};
+ * a handler that creates something downstream should run before the handlers that update it.
+ */
+public interface OutboxHandler {
+
+    String type();
+
+    /**
+     * Splits a claimed batch into downstream calls. Every event must end up in exactly one group;
+     * the default is one call per event.
+     */
+    default List<List<OutboxEvent>> coalesce(List<OutboxEvent> events) {
+        return events.stream().map(List::of).toList();
+    }
+
+    /**
+     * Performs the downstream call for one group. Any exception schedules the whole group for a retry,
+     * so delivery must be idempotent.
+     */
+    void deliver(List<OutboxEvent> group) throws Exception;
+
+    /**
+     * Groups events by key, keeping the order in which each key was first seen.
+     */
+    static List<List<OutboxEvent>> groupBy(List<OutboxEvent> events, Function<OutboxEvent, String> key) {
+        Map<String, List<OutboxEvent>> groups = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            groups.computeIfAbsent(key.apply(event), k -> new ArrayList<>()).add(event);
+        }
+        return new ArrayList<>(groups.values());
+    }
+}
@@ -0,0 +1,152 @@
+package com.medhir.rest.service.outbox;
+
+import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.outbox.OutboxEvent;
+import com.medhir.rest.model.outbox.OutboxSource;
+import com.medhir.rest.repository.outbox.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    // Entities whose writes carry their outbox events in their own documents
+    private static final List<Class<? extends OutboxSource>> SOURCES = List.of(EmployeeModel.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${outbox.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @PostConstruct
+    void ensureIndexes() {
+        // Sparse, so only documents that still carry events are indexed
+        for (Class<? extends OutboxSource> source : SOURCES) {
+            mongoTemplate.indexOps(source).ensureIndex(new Index().on("outboxEvents._id", Sort.Direction.ASC).sparse());
+        }
+    }
+
+    /**
+     * Event ids are assigned up front, so an event that is moved to outbox_events twice is only
+     * stored once.
+     */
+    static OutboxEvent newEvent(String type, String aggregateKey, Map<String, Object> payload) {
+        Instant now = Instant.now();
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .type(type)
+                .aggregateKey(aggregateKey)
+                .payload(payload)
+                .status(OutboxEvent.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    /**
+     * Saves the entity with the events it produced embedded in its document, so both are written
+     * in one atomic document write whether or not transactions are enabled, then moves the events
+     * to outbox_events. If the move fails, {@link #sweep()} finishes it.
+     */
+    public <T extends OutboxSource> T saveWithEvents(T entity, UnaryOperator<T> write, Function<T, List<OutboxEvent>> events) {
+        // Keep events an earlier write left behind on the document
+        List<OutboxEvent> carried = new ArrayList<>();
+        if (entity.getOutboxEvents() != null) {
+            carried.addAll(entity.getOutboxEvents());
+        }
+        carried.addAll(events.apply(entity));
+        entity.setOutboxEvents(carried);
+
+        T saved = write.apply(entity);
+        try {
+            relay(saved.getClass(), saved.getId(), carried);
+            saved.setOutboxEvents(null);
+        } catch (Exception e) {
+            log.warn("Could not move outbox events of {} {}, leaving them for the sweep: {}",
+                    saved.getClass().getSimpleName(), saved.getId(), e.getMessage());
+        }
+        return saved;
+    }
+
+    /**
+     * Moves events still embedded in entity documents to outbox_events, e.g. after the instance
+     * died between an entity write and its relay.
+     */
+    @Scheduled(fixedDelayString = "${outbox.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (Class<? extends OutboxSource> source : SOURCES) {
+            Query query = Query.query(Criteria.where("outboxEvents._id").exists(true)).limit(sweepBatchSize);
+            query.fields().include("_id", "outboxEvents");
+            for (OutboxSource stranded : mongoTemplate.find(query, source)) {
+                try {
+                    relay(source, stranded.getId(), stranded.getOutboxEvents());
+                } catch (Exception e) {
+                    log.warn("Could not move outbox events of {} {}: {}",
+                            source.getSimpleName(), stranded.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void relay(Class<?> source, String id, List<OutboxEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        for (OutboxEvent event : events) {
+            try {
+                outboxEventRepository.insert(event);
+            } catch (DuplicateKeyException e) {
+                // Already moved by an earlier relay or sweep
+            }
+        }
+        List<String> ids = events.stream().map(OutboxEvent::getId).toList();
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update().pull("outboxEvents", new Document("_id", new Document("$in", ids))),
+                source);
+    }
+
+    public List<OutboxEvent> getFailedEvents() {
+        return outboxEventRepository.findTop100ByStatusOrderByCreatedAtDesc(OutboxEvent.FAILED);
+    }
+
+    /**
+     * Puts a failed event back in the queue with a fresh retry budget.
+     */
+    public void retry(String id) {
+        long updated = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id).and("status").is(OutboxEvent.FAILED)),
+                new Update()
+                        .set("status", OutboxEvent.PENDING)
+                        .set("attempts", 0)
+                        .set("nextAttemptAt", Instant.now()),
+                OutboxEvent.class).getModifiedCount();
+        if (updated == 0) {
+            throw new ResourceNotFoundException("No failed outbox event with id: " + id);
+        }
+    }
+}
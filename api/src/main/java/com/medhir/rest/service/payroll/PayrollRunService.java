@@ -0,0 +1,443 @@
+package com.medhir.rest.service.payroll;
+
+import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.model.AttendanceRecord;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.PayslipModel;
+import com.medhir.rest.model.payroll.PayrollPayslip;
+import com.medhir.rest.model.payroll.PayrollRun;
+import com.medhir.rest.model.settings.ProfessionalTaxSettingsModel;
+import com.medhir.rest.model.settings.TdsSettingsModel;
+import com.medhir.rest.repository.payroll.PayrollRunRepository;
+import com.medhir.rest.repository.settings.ProfessionalTaxSettingsRepository;
+import com.medhir.rest.repository.settings.TdsSettingsRepository;
+import com.medhir.rest.service.PayslipService;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Computes a whole company's payslips for a month. Settings are read once per run; employees are
+ * split into chunks processed in parallel, each chunk reading its attendance records and previous
+ * fingerprints with one {@code $in} query apiece and writing with one unordered bulk of upserts.
+ * <p>
+ * Every payslip is stored with a fingerprint of the inputs it was computed from (salary, joining
+ * date, attendance, professional tax and TDS settings). A re-run of the same month only recomputes
+ * employees whose fingerprint changed, and since payslips are upserted per company, month and
+ * employee, re-running after a crash is safe. Payslips of employees no longer in the company are
+ * removed once all chunks are done.
+ * <p>
+ * A partial unique index allows one {@code RUNNING} run per company-month across all instances.
+ * A running run refreshes its {@code heartbeatAt}; one whose heartbeat is older than
+ * {@code payroll.run.stale-after-ms} (its instance died) is marked {@code FAILED}, so a new run can
+ * start.
+ */
+@Slf4j
+@Service
+public class PayrollRunService {
+
+    // Part of every fingerprint; bump it when PayslipService.calculatePayslip changes so the next
+    // run recomputes everyone
+    private static final String FORMULA_VERSION = "2";
+    private static final int MAX_ERRORS_PER_CHUNK = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final PayslipService payslipService;
+    private final PayrollRunRepository payrollRunRepository;
+    private final ProfessionalTaxSettingsRepository professionalTaxSettingsRepository;
+    private final TdsSettingsRepository tdsSettingsRepository;
+    private final ExecutorService executor;
+    private final ExecutorService coordinator;
+    private final Timer runTimer;
+    // Runs started by this instance that have not finished yet, including those queued behind another
+    private final Set<String> localRuns = ConcurrentHashMap.newKeySet();
+
+    @Value("${payroll.run.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${payroll.run.heartbeat-ms:30000}")
+    private long heartbeatMillis;
+
+    @Value("${payroll.run.stale-after-ms:300000}")
+    private long staleAfterMillis;
+
+    public PayrollRunService(MongoTemplate mongoTemplate,
+                             PayslipService payslipService,
+                             PayrollRunRepository payrollRunRepository,
+                             ProfessionalTaxSettingsRepository professionalTaxSettingsRepository,
+                             TdsSettingsRepository tdsSettingsRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${payroll.run.parallelism:4}") int parallelism) {
+        this.mongoTemplate = mongoTemplate;
+        this.payslipService = payslipService;
+        this.payrollRunRepository = payrollRunRepository;
+        this.professionalTaxSettingsRepository = professionalTaxSettingsRepository;
+        this.tdsSettingsRepository = tdsSettingsRepository;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "payroll-run-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), "payroll.run");
+        this.coordinator = ExecutorServiceMetrics.monitor(meterRegistry, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payroll-run-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        }), "payroll.run.coordinator");
+        this.runTimer = Timer.builder("payroll.run.duration")
+                .description("Time to complete a payroll run for one company-month")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(PayrollPayslip.class).ensureIndex(new Index()
+                .on("companyId", Sort.Direction.ASC)
+                .on("year", Sort.Direction.ASC)
+                .on("month", Sort.Direction.ASC)
+                .on("employeeId", Sort.Direction.ASC)
+                .unique());
+        mongoTemplate.indexOps(PayrollRun.class).ensureIndex(new Index().on("runId", Sort.Direction.ASC).unique());
+        mongoTemplate.indexOps(PayrollRun.class).ensureIndex(new Index()
+                .on("companyId", Sort.Direction.ASC)
+                .on("year", Sort.Direction.ASC)
+                .on("month", Sort.Direction.ASC)
+                .on("version", Sort.Direction.DESC)
+                .unique());
+        // At most one RUNNING run per company-month, whichever instance started it
+        mongoTemplate.indexOps(PayrollRun.class).ensureIndex(new Index()
+                .on("companyId", Sort.Direction.ASC)
+                .on("year", Sort.Direction.ASC)
+                .on("month", Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("status").is(PayrollRun.RUNNING))));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a run in the background and returns it right away; poll {@link #getRun} for progress.
+     *
+     * @throws IllegalStateException if a run for the same company-month is already in progress
+     */
+    public PayrollRun start(String companyId, YearMonth month) {
+        failStaleRuns(monthCriteria(companyId, month));
+        try {
+            int version = payrollRunRepository
+                    .findFirstByCompanyIdAndYearAndMonthOrderByVersionDesc(companyId, month.getYear(), month.getMonthValue())
+                    .map(previous -> previous.getVersion() + 1)
+                    .orElse(1);
+            PayrollRun run = payrollRunRepository.insert(PayrollRun.builder()
+                    .runId("PR" + UUID.randomUUID().toString().replace("-", ""))
+                    .companyId(companyId)
+                    .year(month.getYear())
+                    .month(month.getMonthValue())
+                    .version(version)
+                    .startedAt(Instant.now())
+                    .heartbeatAt(Instant.now())
+                    .build());
+
+            localRuns.add(run.getRunId());
+            coordinator.execute(() -> {
+                try {
+                    runTimer.record(() -> execute(run, month));
+                } finally {
+                    localRuns.remove(run.getRunId());
+                }
+            });
+            return run;
+        } catch (DuplicateKeyException e) {
+            // A run of this month is RUNNING, or another instance took the same version a moment earlier
+            throw new IllegalStateException("A payroll run for " + month + " is already in progress");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payroll.run.stale-check-ms:60000}")
+    public void failStaleRuns() {
+        failStaleRuns(new Criteria());
+    }
+
+    /**
+     * Marks RUNNING runs whose heartbeat stopped, i.e. whose instance died, as FAILED.
+     */
+    private void failStaleRuns(Criteria scope) {
+        Instant cutoff = Instant.now().minusMillis(staleAfterMillis);
+        UpdateResult result = mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(scope, Criteria.where("status").is(PayrollRun.RUNNING),
+                        new Criteria().orOperator(
+                                Criteria.where("heartbeatAt").lt(cutoff),
+                                Criteria.where("heartbeatAt").exists(false).and("startedAt").lt(cutoff)))),
+                new Update().set("status", PayrollRun.FAILED)
+                        .set("completedAt", Instant.now())
+                        .set("errors.run", "No heartbeat for " + staleAfterMillis + " ms; the instance running it stopped"),
+                PayrollRun.class);
+        if (result.getModifiedCount() > 0) {
+            log.warn("Marked {} stale payroll run(s) as failed", result.getModifiedCount());
+        }
+    }
+
+    public PayrollRun getRun(String runId) {
+        return payrollRunRepository.findByRunId(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found with id: " + runId));
+    }
+
+    public List<PayrollRun> getRuns(String companyId, YearMonth month) {
+        return payrollRunRepository.findByCompanyIdAndYearAndMonthOrderByVersionDesc(
+                companyId, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * The company's payslips for the month as of the latest run, ordered by employee.
+     */
+    public List<PayslipModel> getPayslips(String companyId, YearMonth month) {
+        Query query = Query.query(monthCriteria(companyId, month)).with(Sort.by("employeeId"));
+        query.fields().include("payslip");
+        return mongoTemplate.find(query, PayrollPayslip.class).stream()
+                .map(PayrollPayslip::getPayslip)
+                .collect(Collectors.toList());
+    }
+
+    private void execute(PayrollRun run, YearMonth month) {
+        long start = System.currentTimeMillis();
+        try {
+            ProfessionalTaxSettingsModel professionalTax = professionalTaxSettingsRepository
+                    .findFirstByCompanyIdOrderByCreatedAtDesc(run.getCompanyId()).orElse(null);
+            TdsSettingsModel tds = tdsSettingsRepository
+                    .findFirstByCompanyIdOrderByCreatedAtDesc(run.getCompanyId()).orElse(null);
+            String settingsFingerprint = settingsFingerprint(professionalTax, tds);
+
+            List<EmployeeModel> employees = loadEmployees(run.getCompanyId());
+            updateRun(run, new Update().set("totalEmployees", employees.size()));
+
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int i = 0; i < employees.size(); i += chunkSize) {
+                List<EmployeeModel> chunk = employees.subList(i, Math.min(i + chunkSize, employees.size()));
+                chunks.add(CompletableFuture
+                        .runAsync(() -> processChunk(run, month, chunk, professionalTax, tds, settingsFingerprint), executor)
+                        .exceptionally(e -> {
+                            log.error("Payroll chunk of run {} failed: {}", run.getRunId(), e.getMessage());
+                            updateRun(run, new Update().inc("processed", chunk.size()).inc("failed", chunk.size()));
+                            return null;
+                        }));
+            }
+            CompletableFuture<Void> all = CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+            while (true) {
+                try {
+                    all.get(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    heartbeat();
+                }
+            }
+
+            // Employees who left the company since an earlier run of the month
+            List<String> employeeIds = employees.stream().map(EmployeeModel::getEmployeeId).toList();
+            long removed = mongoTemplate.remove(
+                    Query.query(monthCriteria(run.getCompanyId(), month).and("employeeId").nin(employeeIds)),
+                    PayrollPayslip.class).getDeletedCount();
+
+            if (!finishRun(run, new Update().set("status", PayrollRun.COMPLETED).set("removed", (int) removed))) {
+                log.warn("Payroll run {} finished after it had been marked as failed", run.getRunId());
+                return;
+            }
+            log.info("Payroll run {} for {} {} completed: {} employees, {} payslips removed in {} ms",
+                    run.getRunId(), run.getCompanyId(), month, employees.size(), removed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Payroll run {} failed: {}", run.getRunId(), e.getMessage());
+            finishRun(run, new Update().set("status", PayrollRun.FAILED));
+        }
+    }
+
+    private void processChunk(PayrollRun run, YearMonth month, List<EmployeeModel> chunk,
+                              ProfessionalTaxSettingsModel professionalTax, TdsSettingsModel tds,
+                              String settingsFingerprint) {
+        List<String> employeeIds = chunk.stream().map(EmployeeModel::getEmployeeId).toList();
+
+        Map<String, AttendanceRecord> attendance = mongoTemplate.find(
+                        Query.query(Criteria.where("employeeId").in(employeeIds)
+                                .and("month").in(PayslipService.attendanceMonthKeys(month))
+                                .and("year").is(String.valueOf(month.getYear()))),
+                        AttendanceRecord.class).stream()
+                .collect(Collectors.toMap(AttendanceRecord::getEmployeeId, record -> record, (a, b) -> a));
+
+        Query previousQuery = Query.query(monthCriteria(run.getCompanyId(), month).and("employeeId").in(employeeIds));
+        previousQuery.fields().include("employeeId", "fingerprint");
+        Map<String, String> previousFingerprints = mongoTemplate.find(previousQuery, PayrollPayslip.class).stream()
+                .collect(Collectors.toMap(PayrollPayslip::getEmployeeId, PayrollPayslip::getFingerprint, (a, b) -> a));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PayrollPayslip.class);
+        int recomputed = 0;
+        int unchanged = 0;
+        int failed = 0;
+        Map<String, String> errors = new LinkedHashMap<>();
+        Instant now = Instant.now();
+
+        for (EmployeeModel employee : chunk) {
+            try {
+                AttendanceRecord record = attendance.get(employee.getEmployeeId());
+                String fingerprint = fingerprint(employee, record, settingsFingerprint);
+                if (fingerprint.equals(previousFingerprints.get(employee.getEmployeeId()))) {
+                    unchanged++;
+                    continue;
+                }
+                PayslipModel payslip = payslipService.calculatePayslip(employee, month, record, professionalTax, tds);
+                bulk.upsert(
+                        Query.query(monthCriteria(run.getCompanyId(), month).and("employeeId").is(employee.getEmployeeId())),
+                        new Update()
+                                .set("payslip", payslip)
+                                .set("fingerprint", fingerprint)
+                                .set("runVersion", run.getVersion())
+                                .set("computedAt", now));
+                recomputed++;
+            } catch (Exception e) {
+                failed++;
+                if (errors.size() < MAX_ERRORS_PER_CHUNK) {
+                    errors.put(employee.getEmployeeId(), String.valueOf(e.getMessage()));
+                }
+            }
+        }
+        if (recomputed > 0) {
+            bulk.execute();
+        }
+
+        Update progress = new Update()
+                .inc("processed", chunk.size())
+                .inc("recomputed", recomputed)
+                .inc("unchanged", unchanged)
+                .inc("failed", failed);
+        errors.forEach((employeeId, message) -> progress.set("errors." + employeeId, message));
+        updateRun(run, progress);
+    }
+
+    private List<EmployeeModel> loadEmployees(String companyId) {
+        Query query = Query.query(Criteria.where("companyId").is(companyId).and("employeeId").ne(null));
+        query.fields().include("employeeId", "companyId", "name", "designation", "joiningDate",
+                "idProofs.panNo", "bankDetails.accountNumber", "salaryDetails");
+        return mongoTemplate.find(query, EmployeeModel.class);
+    }
+
+    /**
+     * Applies a progress update; every update also refreshes the run's heartbeat.
+     */
+    private void updateRun(PayrollRun run, Update update) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("runId").is(run.getRunId())),
+                update.set("heartbeatAt", Instant.now()), PayrollRun.class);
+    }
+
+    /**
+     * Refreshes the heartbeat of every run of this instance, so runs queued behind the current one
+     * are not taken for dead either.
+     */
+    private void heartbeat() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("runId").in(localRuns).and("status").is(PayrollRun.RUNNING)),
+                new Update().set("heartbeatAt", Instant.now()),
+                PayrollRun.class);
+    }
+
+    /**
+     * Ends the run unless it was already marked as failed for a stopped heartbeat.
+     */
+    private boolean finishRun(PayrollRun run, Update update) {
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("runId").is(run.getRunId()).and("status").is(PayrollRun.RUNNING)),
+                update.set("completedAt", Instant.now()),
+                PayrollRun.class).getModifiedCount() > 0;
+    }
+
+    private static Criteria monthCriteria(String companyId, YearMonth month) {
+        return Criteria.where("companyId").is(companyId)
+                .and("year").is(month.getYear())
+                .and("month").is(month.getMonthValue());
+    }
+
+    private static String settingsFingerprint(ProfessionalTaxSettingsModel professionalTax, TdsSettingsModel tds) {
+        StringBuilder key = new StringBuilder(FORMULA_VERSION);
+        if (professionalTax != null) {
+            key.append("|pt:").append(professionalTax.getMonthlySalaryThreshold())
+                    .append(',').append(professionalTax.getAmountAboveThreshold())
+                    .append(',').append(professionalTax.getAmountBelowThreshold());
+        }
+        if (tds != null) {
+            key.append("|tds:").append(tds.getTdsRate());
+        }
+        return key.toString();
+    }
+
+    private static String fingerprint(EmployeeModel employee, AttendanceRecord attendance, String settingsFingerprint) {
+        StringBuilder key = new StringBuilder(settingsFingerprint)
+                .append('|').append(employee.getName())
+                .append('|').append(employee.getDesignation())
+                .append('|').append(employee.getJoiningDate());
+        if (employee.getIdProofs() != null) {
+            key.append('|').append(employee.getIdProofs().getPanNo());
+        }
+        if (employee.getBankDetails() != null) {
+            key.append('|').append(employee.getBankDetails().getAccountNumber());
+        }
+        EmployeeModel.SalaryDetails salary = employee.getSalaryDetails();
+        if (salary != null) {
+            key.append("|salary:").append(salary.getBasicSalary())
+                    .append(',').append(salary.getHra())
+                    .append(',').append(salary.getAllowances())
+                    .append(',').append(salary.getEmployeePfContribution())
+                    .append(',').append(salary.getEmployerPfContribution());
+        }
+        if (attendance != null) {
+            key.append("|attendance:").append(attendance.getPayableDays())
+                    .append(',').append(attendance.getLeavesTaken())
+                    .append(',').append(attendance.getLeavesEarned())
+                    .append(',').append(attendance.getCompOffEarned())
+                    .append(',').append(attendance.getLastMonthBalance())
+                    .append(',').append(attendance.getNetLeaveBalance());
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
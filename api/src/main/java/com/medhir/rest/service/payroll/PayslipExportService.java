@@ -0,0 +1,327 @@
+package com.medhir.rest.service.payroll;
+
+import com.medhir.rest.dto.payroll.PayslipExportStatus;
+import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.model.PayslipModel;
+import com.medhir.rest.model.payroll.PayrollPayslip;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a company-month of payslips (as stored by the last payroll run) into a ZIP of PDFs.
+ * Payslips are read from a Mongo cursor and rendered on a bounded pool; each PDF is written to the
+ * response as soon as it is done, and at most {@code 2 x payroll.export.parallelism} rendered pages
+ * are held at a time, so memory stays flat however large the company is.
+ * <p>
+ * The ZIP is written by a small writer pool into a {@link ResponseBodyEmitter} that times out
+ * after {@code payroll.export.timeout-ms}, so the response carries its own deadline. When the
+ * client goes away, the response times out or the export is never picked up, the export is marked
+ * failed and its outstanding renders are cancelled.
+ * <p>
+ * Progress of an export is available by id for an hour after it finishes.
+ */
+@Slf4j
+@Service
+public class PayslipExportService {
+
+    private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final PayslipPdfRenderer renderer;
+    private final ExecutorService executor;
+    private final ExecutorService writers;
+    private final int window;
+    private final Duration timeout;
+    private final Map<String, Export> exports = new ConcurrentHashMap<>();
+
+    public PayslipExportService(MongoTemplate mongoTemplate,
+                                PayslipPdfRenderer renderer,
+                                MeterRegistry meterRegistry,
+                                @Value("${payroll.export.parallelism:4}") int parallelism,
+                                @Value("${payroll.export.writers:2}") int writers,
+                                @Value("${payroll.export.timeout-ms:1800000}") long timeoutMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.renderer = renderer;
+        this.window = parallelism * 2;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "payslip-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), "payslip.export");
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writers = ExecutorServiceMetrics.monitor(meterRegistry, Executors.newFixedThreadPool(writers, runnable -> {
+            Thread thread = new Thread(runnable, "payslip-export-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), "payslip.export.writer");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Registers an export before the response starts, so a month without payslips is still a 404.
+     */
+    public PayslipExportStatus prepare(String companyId, YearMonth month) {
+        long total = mongoTemplate.count(Query.query(monthCriteria(companyId, month)), PayrollPayslip.class);
+        if (total == 0) {
+            throw new ResourceNotFoundException("No payslips for " + month + ", run payroll for the month first");
+        }
+        pruneFinished();
+
+        Export export = new Export("EX" + UUID.randomUUID().toString().replace("-", ""), companyId, month, total);
+        exports.put(export.id, export);
+        return export.status();
+    }
+
+    public PayslipExportStatus getStatus(String exportId) {
+        Export export = exports.get(exportId);
+        if (export == null) {
+            throw new ResourceNotFoundException("Payslip export not found with id: " + exportId);
+        }
+        return export.status();
+    }
+
+    /**
+     * Starts writing a prepared export and returns the response body it is written to.
+     */
+    public ResponseBodyEmitter stream(String exportId) {
+        Export export = exports.get(exportId);
+        if (export == null) {
+            throw new ResourceNotFoundException("Payslip export not found with id: " + exportId);
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.toMillis());
+        emitter.onTimeout(() -> export.cancel("TIMED_OUT"));
+        emitter.onError(e -> export.cancel("FAILED"));
+
+        writers.execute(() -> {
+            // 64 KB per chunk handed to the response
+            try (OutputStream out = new BufferedOutputStream(new EmitterOutputStream(emitter), 64 * 1024)) {
+                writeZip(export, out);
+            } catch (Exception e) {
+                log.warn("Payslip export {} did not complete: {}", exportId, e.getMessage());
+                emitter.completeWithError(e);
+                return;
+            }
+            emitter.complete();
+        });
+        return emitter;
+    }
+
+    private void writeZip(Export export, OutputStream out) throws IOException {
+        if (!export.begin()) {
+            throw new IOException("Payslip export " + export.id + " is " + export.status.toLowerCase());
+        }
+
+        Query query = Query.query(monthCriteria(export.companyId, export.month)).with(Sort.by("employeeId"));
+        query.fields().include("employeeId", "payslip");
+
+        CompletionService<Rendered> completion = new ExecutorCompletionService<>(executor);
+        List<String> errors = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        try (Stream<PayrollPayslip> payslips = mongoTemplate.stream(query, PayrollPayslip.class)) {
+            Iterator<PayrollPayslip> pending = payslips.iterator();
+            Set<Future<Rendered>> inFlight = export.inFlight;
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                if (export.completedAt != null) {
+                    throw new IOException("Payslip export " + export.id + " was cancelled");
+                }
+                while (inFlight.size() < window && pending.hasNext()) {
+                    PayrollPayslip next = pending.next();
+                    PayslipModel payslip = next.getPayslip();
+                    if (payslip == null) {
+                        export.failed.incrementAndGet();
+                        errors.add(next.getEmployeeId() + ": no payslip stored");
+                        continue;
+                    }
+                    inFlight.add(completion.submit(
+                            () -> new Rendered(PayslipPdfRenderer.fileName(payslip), renderer.render(payslip))));
+                }
+                if (inFlight.isEmpty()) {
+                    continue;
+                }
+
+                Future<Rendered> done = completion.take();
+                inFlight.remove(done);
+                try {
+                    Rendered rendered = done.get();
+                    zip.putNextEntry(new ZipEntry(rendered.name()));
+                    zip.write(rendered.pdf());
+                    zip.closeEntry();
+                    export.written.incrementAndGet();
+                } catch (ExecutionException e) {
+                    export.failed.incrementAndGet();
+                    errors.add(String.valueOf(e.getCause().getMessage()));
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errors.txt"));
+                zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            export.finish(errors.isEmpty() ? "COMPLETED" : "COMPLETED_WITH_ERRORS");
+            log.info("Payslip export {} for {} {}: {} written, {} failed in {} ms", export.id, export.companyId,
+                    export.month, export.written.get(), export.failed.get(),
+                    Duration.between(export.startedAt, export.completedAt).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            export.cancel("FAILED");
+            throw new IOException("Payslip export interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            // Usually the client went away mid-download
+            export.cancel("FAILED");
+            throw e;
+        }
+    }
+
+    private void pruneFinished() {
+        Instant now = Instant.now();
+        // An export whose response never started writing, or outlived its timeout, will not finish
+        exports.values().forEach(export -> {
+            if (export.completedAt == null && export.startedAt.isBefore(now.minus(timeout))) {
+                export.cancel("EXPIRED");
+            }
+        });
+        Instant cutoff = now.minus(STATUS_RETENTION);
+        exports.values().removeIf(export -> export.completedAt != null && export.completedAt.isBefore(cutoff));
+    }
+
+    private static Criteria monthCriteria(String companyId, YearMonth month) {
+        return Criteria.where("companyId").is(companyId)
+                .and("year").is(month.getYear())
+                .and("month").is(month.getMonthValue());
+    }
+
+    private record Rendered(String name, byte[] pdf) {
+    }
+
+    /**
+     * Hands everything written to it to the emitter; wrapped in a buffer so each send is a chunk.
+     */
+    private static final class EmitterOutputStream extends OutputStream {
+        private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+
+        private final ResponseBodyEmitter emitter;
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                // Copied, since the emitter may hold on to it until the response is ready
+                emitter.send(Arrays.copyOfRange(b, off, off + len), ZIP);
+            } catch (IllegalStateException e) {
+                // The response already completed, e.g. it timed out
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Export {
+        private final String id;
+        private final String companyId;
+        private final YearMonth month;
+        private final long total;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final Set<Future<Rendered>> inFlight = ConcurrentHashMap.newKeySet();
+        private volatile String status = "RUNNING";
+        private volatile boolean writing;
+        private volatile Instant completedAt;
+
+        private Export(String id, String companyId, YearMonth month, long total) {
+            this.id = id;
+            this.companyId = companyId;
+            this.month = month;
+            this.total = total;
+        }
+
+        /**
+         * @return false if the export ended before it was picked up, e.g. it expired
+         */
+        private synchronized boolean begin() {
+            if (completedAt != null || writing) {
+                return false;
+            }
+            writing = true;
+            return true;
+        }
+
+        private synchronized void finish(String status) {
+            if (completedAt != null) {
+                return;
+            }
+            this.completedAt = Instant.now();
+            this.status = status;
+        }
+
+        /**
+         * Ends the export, unless it already ended, and cancels the renders still outstanding.
+         */
+        private void cancel(String status) {
+            finish(status);
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        private PayslipExportStatus status() {
+            return new PayslipExportStatus(id, companyId, month.toString(), status, total,
+                    written.get(), failed.get(), startedAt, completedAt);
+        }
+    }
+}
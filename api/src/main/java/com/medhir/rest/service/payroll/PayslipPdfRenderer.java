@@ -0,0 +1,176 @@
+package com.medhir.rest.service.payroll;
+
+import com.medhir.rest.model.PayslipModel;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Renders a payslip as a one-page A4 PDF with PDFBox. The layout is compiled once into a flat list
+ * of draw operations - static labels and rules plus value slots bound to payslip getters - so
+ * rendering a payslip is a single pass over that list with no layout decisions left to make.
+ * <p>
+ * Uses the standard Helvetica fonts, which PDF viewers provide, so nothing is embedded and a page
+ * stays a few kilobytes. Thread-safe: every call works on its own document.
+ */
+@Component
+public class PayslipPdfRenderer {
+
+    private static final float MARGIN = 50;
+    private static final float LABEL_COLUMN = MARGIN;
+    private static final float PER_MONTH_COLUMN = 330;
+    private static final float THIS_MONTH_COLUMN = 450;
+
+    private final List<Op> template = compileTemplate();
+
+    public byte[] render(PayslipModel payslip) {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            PDType1Font regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                for (Op op : template) {
+                    if (op instanceof Rule rule) {
+                        content.moveTo(MARGIN, rule.y());
+                        content.lineTo(PDRectangle.A4.getWidth() - MARGIN, rule.y());
+                        content.stroke();
+                    } else if (op instanceof Text text) {
+                        String value = text.value().apply(payslip);
+                        if (value == null || value.isEmpty()) {
+                            continue;
+                        }
+                        content.beginText();
+                        content.setFont(text.bold() ? bold : regular, text.size());
+                        content.newLineAtOffset(text.x(), text.y());
+                        content.showText(printable(value));
+                        content.endText();
+                    }
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+            document.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render payslip for " + payslip.getEmployeeId(), e);
+        }
+    }
+
+    /**
+     * File name of the payslip inside an export, e.g. {@code EMP101_Feb-2025.pdf}.
+     */
+    public static String fileName(PayslipModel payslip) {
+        return payslip.getEmployeeId() + "_" + payslip.getMonthYearDisplay() + ".pdf";
+    }
+
+    private static List<Op> compileTemplate() {
+        List<Op> ops = new ArrayList<>();
+        float top = PDRectangle.A4.getHeight() - MARGIN;
+
+        ops.add(label(LABEL_COLUMN, top, 18, true, "Payslip"));
+        ops.add(new Text(THIS_MONTH_COLUMN, top, 12, true, PayslipModel::getMonthYearDisplay));
+        ops.add(new Rule(top - 12));
+
+        float y = top - 35;
+        y = detail(ops, y, "Employee Name", PayslipModel::getEmployeeName);
+        y = detail(ops, y, "Employee ID", PayslipModel::getEmployeeId);
+        y = detail(ops, y, "Designation", PayslipModel::getDesignation);
+        y = detail(ops, y, "Date of Joining", p -> p.getDateOfJoining() != null ? p.getDateOfJoining().toString() : null);
+        y = detail(ops, y, "PAN", PayslipModel::getPan);
+        y = detail(ops, y, "UAN", PayslipModel::getUanNumber);
+        y -= 8;
+        y = detail(ops, y, "Days in Month", p -> String.valueOf(p.getDaysInMonth()));
+        y = detail(ops, y, "Paid Days", p -> String.valueOf(p.getSalaryPaidForDays()));
+        y = detail(ops, y, "Loss of Pay Days", p -> String.valueOf(p.getLossOfPayDays()));
+
+        y -= 12;
+        ops.add(new Rule(y + 12));
+        ops.add(label(LABEL_COLUMN, y, 11, true, "Earnings"));
+        ops.add(label(PER_MONTH_COLUMN, y, 11, true, "Per Month"));
+        ops.add(label(THIS_MONTH_COLUMN, y, 11, true, "This Month"));
+        y -= 18;
+        y = amounts(ops, y, false, "Basic Salary", PayslipModel::getBasicSalaryPerMonth, PayslipModel::getBasicSalaryThisMonth);
+        y = amounts(ops, y, false, "HRA", PayslipModel::getHraPerMonth, PayslipModel::getHraThisMonth);
+        y = amounts(ops, y, false, "Other Allowances", PayslipModel::getOtherAllowancesPerMonth, PayslipModel::getOtherAllowancesThisMonth);
+        y = amounts(ops, y, true, "Total Earnings", PayslipModel::getTotalEarningsPerMonth, PayslipModel::getTotalEarningsThisMonth);
+
+        y -= 12;
+        ops.add(new Rule(y + 12));
+        ops.add(label(LABEL_COLUMN, y, 11, true, "Deductions"));
+        y -= 18;
+        y = amount(ops, y, false, "PF (Employee)", PayslipModel::getPfEmployeeDeduction);
+        y = amount(ops, y, false, "Professional Tax", PayslipModel::getProfessionalTax);
+        y = amount(ops, y, false, "TDS", PayslipModel::getTds);
+        y = amount(ops, y, true, "Total Deductions", PayslipModel::getTotalDeductions);
+
+        y -= 12;
+        ops.add(new Rule(y + 12));
+        amount(ops, y - 4, true, "Net Pay", PayslipModel::getNetPay);
+
+        ops.add(label(LABEL_COLUMN, MARGIN, 8, false, "This is a system generated payslip and does not require a signature."));
+        return List.copyOf(ops);
+    }
+
+    private static float detail(List<Op> ops, float y, String name, Function<PayslipModel, String> value) {
+        ops.add(label(LABEL_COLUMN, y, 10, false, name));
+        ops.add(new Text(PER_MONTH_COLUMN - 100, y, 10, false, value));
+        return y - 15;
+    }
+
+    private static float amounts(List<Op> ops, float y, boolean bold, String name,
+                                 Function<PayslipModel, Double> perMonth, Function<PayslipModel, Double> thisMonth) {
+        ops.add(label(LABEL_COLUMN, y, 10, bold, name));
+        ops.add(new Text(PER_MONTH_COLUMN, y, 10, bold, p -> money(perMonth.apply(p))));
+        ops.add(new Text(THIS_MONTH_COLUMN, y, 10, bold, p -> money(thisMonth.apply(p))));
+        return y - 15;
+    }
+
+    private static float amount(List<Op> ops, float y, boolean bold, String name, Function<PayslipModel, Double> value) {
+        ops.add(label(LABEL_COLUMN, y, 10, bold, name));
+        ops.add(new Text(THIS_MONTH_COLUMN, y, 10, bold, p -> money(value.apply(p))));
+        return y - 15;
+    }
+
+    private static Text label(float x, float y, float size, boolean bold, String label) {
+        return new Text(x, y, size, bold, p -> label);
+    }
+
+    private static String money(Double amount) {
+        return String.format(Locale.ENGLISH, "Rs. %,.2f", amount != null ? amount : 0.0);
+    }
+
+    /**
+     * The standard fonts only cover WinAnsi; anything outside Latin-1 would fail the whole page.
+     */
+    private static String printable(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            out.append(c >= 0x20 && c < 0x7F || c >= 0xA0 && c <= 0xFF ? c : '?');
+        }
+        return out.toString();
+    }
+
+    private sealed interface Op permits Text, Rule {
+    }
+
+    private record Text(float x, float y, float size, boolean bold, Function<PayslipModel, String> value) implements Op {
+    }
+
+    private record Rule(float y) implements Op {
+    }
+}
@@ -0,0 +1,316 @@
+package com.medhir.rest.service.search;
+
+import com.medhir.rest.dto.search.SearchHit;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.LeadModel;
+import com.medhir.rest.model.accountantModule.VendorModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typeahead index for the employee, vendor and lead pickers. Each company and type has its own
+ * shard: a sorted map from normalized token to the documents containing it, so a prefix lookup is
+ * a range scan over the map instead of loading every document and filtering in the client.
+ * <p>
+ * Indexed fields: employee name, id and phone; vendor name and GSTIN; lead name, email and contact
+ * number. Leads carry no companyId in this schema, so they share a single shard.
+ * <p>
+ * Shards are loaded from Mongo on first search and reloaded after {@code search.index.refresh-ms};
+ * the save and delete paths of EmployeeService, VendorService and LeadService keep loaded shards
+ * current in between.
+ */
+@Component
+public class SearchIndex {
+
+    public static final int MAX_RESULTS = 50;
+
+    private static final String SHARED_TENANT = "";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${search.index.refresh-ms:300000}")
+    private long refreshMillis;
+
+    private final Map<ShardKey, Shard> shards = new ConcurrentHashMap<>();
+
+    public enum Type {
+        EMPLOYEE, VENDOR, LEAD
+    }
+
+    /**
+     * The best {@code limit} matches for the query. Every word of the query has to be a prefix of
+     * a word in one of the indexed fields; exact word matches and matches at the start of the
+     * name rank first.
+     */
+    public List<SearchHit> search(Type type, String companyId, String q, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokens(q)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return shard(type, tenant(type, companyId)).search(terms, Math.min(limit, MAX_RESULTS));
+    }
+
+    public void put(EmployeeModel employee) {
+        if (employee.getEmployeeId() == null) {
+            return;
+        }
+        SearchHit hit = new SearchHit(Type.EMPLOYEE.name(), employee.getEmployeeId(), employee.getName(), employee.getEmployeeId());
+        update(Type.EMPLOYEE, employee.getCompanyId(), hit, employee.getName(), employee.getEmployeeId(), phone(employee.getPhone()));
+    }
+
+    public void put(VendorModel vendor) {
+        if (vendor.getVendorId() == null) {
+            return;
+        }
+        SearchHit hit = new SearchHit(Type.VENDOR.name(), vendor.getVendorId(), vendor.getVendorName(), vendor.getGstin());
+        update(Type.VENDOR, vendor.getCompanyId(), hit, vendor.getVendorName(), vendor.getGstin());
+    }
+
+    public void put(LeadModel lead) {
+        if (lead.getLeadId() == null) {
+            return;
+        }
+        SearchHit hit = new SearchHit(Type.LEAD.name(), lead.getLeadId(), lead.getName(),
+                lead.getEmail() != null && !lead.getEmail().isEmpty() ? lead.getEmail() : lead.getContactNumber());
+        update(Type.LEAD, SHARED_TENANT, hit, lead.getName(), lead.getEmail(), phone(lead.getContactNumber()));
+    }
+
+    /**
+     * Drops a document from every loaded shard of the type; callers do not always know the
+     * company of what they deleted.
+     */
+    public void remove(Type type, String id) {
+        shards.forEach((key, shard) -> {
+            if (key.type() == type) {
+                shard.remove(id);
+            }
+        });
+    }
+
+    private void update(Type type, String companyId, SearchHit hit, String... fields) {
+        // A document can move between companies, so it is dropped everywhere before being re-added
+        remove(type, hit.getId());
+        // Shards not loaded yet will read the document from Mongo when they are
+        Shard shard = shards.get(new ShardKey(type, tenant(type, companyId)));
+        if (shard != null) {
+            shard.put(hit, fields);
+        }
+    }
+
+    private Shard shard(Type type, String tenant) {
+        long now = System.currentTimeMillis();
+        return shards.compute(new ShardKey(type, tenant), (key, existing) ->
+                existing != null && now - existing.loadedAt < refreshMillis ? existing : load(key, now));
+    }
+
+    private Shard load(ShardKey key, long now) {
+        Shard shard = new Shard(now);
+        switch (key.type()) {
+            case EMPLOYEE -> {
+                Query query = Query.query(Criteria.where("companyId").is(key.tenant()));
+                query.fields().include("employeeId", "name", "phone", "companyId");
+                mongoTemplate.find(query, EmployeeModel.class).forEach(employee -> {
+                    if (employee.getEmployeeId() != null) {
+                        shard.put(new SearchHit(Type.EMPLOYEE.name(), employee.getEmployeeId(), employee.getName(), employee.getEmployeeId()),
+                                employee.getName(), employee.getEmployeeId(), phone(employee.getPhone()));
+                    }
+                });
+            }
+            case VENDOR -> {
+                Query query = Query.query(Criteria.where("companyId").is(key.tenant()));
+                query.fields().include("vendorId", "vendorName", "gstin", "companyId");
+                mongoTemplate.find(query, VendorModel.class).forEach(vendor -> {
+                    if (vendor.getVendorId() != null) {
+                        shard.put(new SearchHit(Type.VENDOR.name(), vendor.getVendorId(), vendor.getVendorName(), vendor.getGstin()),
+                                vendor.getVendorName(), vendor.getGstin());
+                    }
+                });
+            }
+            case LEAD -> {
+                Query query = new Query();
+                query.fields().include("leadId", "name", "email", "contactNumber");
+                mongoTemplate.find(query, LeadModel.class).forEach(lead -> {
+                    if (lead.getLeadId() != null) {
+                        shard.put(new SearchHit(Type.LEAD.name(), lead.getLeadId(), lead.getName(),
+                                        lead.getEmail() != null && !lead.getEmail().isEmpty() ? lead.getEmail() : lead.getContactNumber()),
+                                lead.getName(), lead.getEmail(), phone(lead.getContactNumber()));
+                    }
+                });
+            }
+        }
+        return shard;
+    }
+
+    private static String tenant(Type type, String companyId) {
+        return type == Type.LEAD || companyId == null ? SHARED_TENANT : companyId;
+    }
+
+    /**
+     * Phone numbers are indexed as typed and as their last ten digits, so "98450" finds
+     * "+91 98450 12345".
+     */
+    private static String phone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        return digits.length() > 10 ? phone + " " + digits.substring(digits.length() - 10) : phone + " " + digits;
+    }
+
+    /**
+     * Lower case, accents removed, split on anything that is not a letter or digit.
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record ShardKey(Type type, String tenant) {
+    }
+
+    static final class Shard {
+
+        private final long loadedAt;
+        private final NavigableMap<String, Set<String>> postings = new TreeMap<>();
+        private final Map<String, SearchHit> hits = new HashMap<>();
+        private final Map<String, Set<String>> tokensById = new HashMap<>();
+        private final Map<String, String> firstTokenById = new HashMap<>();
+
+        Shard(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void put(SearchHit hit, String... fields) {
+            remove(hit.getId());
+            Set<String> tokens = new HashSet<>();
+            for (String field : fields) {
+                tokens.addAll(tokens(field));
+            }
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(hit.getId());
+            }
+            hits.put(hit.getId(), hit);
+            tokensById.put(hit.getId(), tokens);
+            List<String> titleTokens = tokens(hit.getTitle());
+            if (!titleTokens.isEmpty()) {
+                firstTokenById.put(hit.getId(), titleTokens.get(0));
+            }
+        }
+
+        synchronized void remove(String id) {
+            Set<String> tokens = tokensById.remove(id);
+            if (tokens == null) {
+                return;
+            }
+            for (String token : tokens) {
+                Set<String> ids = postings.get(token);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+            hits.remove(id);
+            firstTokenById.remove(id);
+        }
+
+        synchronized List<SearchHit> search(List<String> terms, int limit) {
+            // Documents matching every term, starting from the rarest term
+            List<Set<String>> matches = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Set<String> ids = prefixMatches(term);
+                if (ids.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(ids);
+            }
+            matches.sort(Comparator.comparingInt(Set::size));
+            Set<String> candidates = new HashSet<>(matches.get(0));
+            for (int i = 1; i < matches.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(matches.get(i));
+            }
+
+            // Keep the best `limit` in a min-heap so ranking is O(n log k)
+            Comparator<Scored> order = Comparator.comparingInt(Scored::score)
+                    .thenComparing(scored -> title(scored.hit()), Comparator.reverseOrder());
+            PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, order);
+            for (String id : candidates) {
+                best.add(new Scored(hits.get(id), score(id, terms)));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Scored> ranked = new ArrayList<>(best);
+            ranked.sort(order.reversed());
+            List<SearchHit> result = new ArrayList<>(ranked.size());
+            ranked.forEach(scored -> result.add(scored.hit()));
+            return result;
+        }
+
+        private Set<String> prefixMatches(String prefix) {
+            Collection<Set<String>> ranges = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            if (ranges.size() == 1) {
+                return ranges.iterator().next();
+            }
+            Set<String> ids = new HashSet<>();
+            ranges.forEach(ids::addAll);
+            return ids;
+        }
+
+        private int score(String id, List<String> terms) {
+            Set<String> tokens = tokensById.get(id);
+            String first = firstTokenById.get(id);
+            int score = 0;
+            for (String term : terms) {
+                if (tokens.contains(term)) {
+                    score += 3;
+                } else if (first != null && first.startsWith(term)) {
+                    score += 2;
+                } else {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+
+        private static String title(SearchHit hit) {
+            return hit.getTitle() != null ? hit.getTitle() : "";
+        }
+    }
+
+    private record Scored(SearchHit hit, int score) {
+    }
+}
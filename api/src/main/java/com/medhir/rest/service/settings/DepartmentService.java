@@ -29,6 +29,9 @@ public class DepartmentService {
     @Autowired
     private CompanyService companyService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     public DepartmentModel createDepartment(DepartmentModel department) {
         // Check if company exists
         companyService.getCompanyById(department.getCompanyId())
@@ -47,7 +50,9 @@ public class DepartmentService {
 
         department.setCreatedAt(LocalDateTime.now().toString());
         department.setUpdatedAt(LocalDateTime.now().toString());
-        return departmentRepository.save(department);
+        DepartmentModel saved = departmentRepository.save(department);
+        settingsResponseCache.bump(SettingsResponseCache.DEPARTMENTS, saved.getCompanyId());
+        return saved;
     }
 
     public List<DepartmentModel> getAllDepartments() {
@@ -74,6 +79,7 @@ public class DepartmentService {
 
     public DepartmentModel updateDepartment(String id, DepartmentModel department) {
         DepartmentModel existingDepartment = getDepartmentById(id);
+        String previousCompanyId = existingDepartment.getCompanyId();
         
         // Check if company exists if companyId is being updated
         if (department.getCompanyId() != null && !department.getCompanyId().equals(existingDepartment.getCompanyId())) {
@@ -101,11 +107,17 @@ public class DepartmentService {
             existingDepartment.setCompanyId(department.getCompanyId());
         }
 
-        return departmentRepository.save(existingDepartment);
+        DepartmentModel saved = departmentRepository.save(existingDepartment);
+        // The company's designation list shows department names
+        settingsResponseCache.bump(SettingsResponseCache.DEPARTMENTS, previousCompanyId, saved.getCompanyId());
+        settingsResponseCache.bump(SettingsResponseCache.DESIGNATIONS, previousCompanyId, saved.getCompanyId());
+        return saved;
     }
 
     public void deleteDepartment(String id) {
         DepartmentModel department = getDepartmentById(id);
         departmentRepository.deleteById(department.getId());
+        settingsResponseCache.bump(SettingsResponseCache.DEPARTMENTS, department.getCompanyId());
+        settingsResponseCache.bump(SettingsResponseCache.DESIGNATIONS, department.getCompanyId());
     }
 }
@@ -32,13 +32,16 @@ public class DesignationService {
     @Autowired
     private DepartmentService departmentService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     public DesignationModel createDesignation(DesignationModel designation) {
         if (designationRepository.existsByNameAndDepartment(designation.getName(), designation.getDepartment())) {
             throw new DuplicateResourceException("Designation with name " + designation.getName() + " already exists in this department");
         }
 
         // Verify leave policy exists
-        departmentService.getDepartmentById(designation.getDepartment());
+        DepartmentModel department = departmentService.getDepartmentById(designation.getDepartment());
 
         String newDesignationId = "DES" + snowflakeIdGenerator.nextId();
 
@@ -46,7 +49,9 @@ public class DesignationService {
 
         designation.setCreatedAt(LocalDateTime.now().toString());
         designation.setUpdatedAt(LocalDateTime.now().toString());
-        return designationRepository.save(designation);
+        DesignationModel saved = designationRepository.save(designation);
+        settingsResponseCache.bump(SettingsResponseCache.DESIGNATIONS, department.getCompanyId());
+        return saved;
     }
 
     public List<DesignationModel> getAllDesignations() {
@@ -73,6 +78,7 @@ public class DesignationService {
 
     public DesignationModel updateDesignation(String id, DesignationModel designation) {
         DesignationModel existingDesignation = getDesignationById(id);
+        String previousDepartment = existingDesignation.getDepartment();
 
         // Check name uniqueness only if name is being updated
         if (designation.getName() != null && !designation.getName().isEmpty() &&
@@ -98,13 +104,28 @@ public class DesignationService {
         existingDesignation.setUpdatedAt(LocalDateTime.now().toString());
         existingDesignation.setOvertimeEligible(designation.isOvertimeEligible());
 
-        return designationRepository.save(existingDesignation);
+        DesignationModel saved = designationRepository.save(existingDesignation);
+        settingsResponseCache.bump(SettingsResponseCache.DESIGNATIONS,
+                companyOfDepartment(previousDepartment), companyOfDepartment(saved.getDepartment()));
+        return saved;
     }
 
 
     public void deleteDesignation(String id) {
         DesignationModel designation = getDesignationById(id);
         designationRepository.delete(designation);
+        settingsResponseCache.bump(SettingsResponseCache.DESIGNATIONS, companyOfDepartment(designation.getDepartment()));
+    }
+
+    private String companyOfDepartment(String departmentId) {
+        if (departmentId == null) {
+            return null;
+        }
+        try {
+            return departmentService.getDepartmentById(departmentId).getCompanyId();
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
     }
 
     public List<CompanyDesignationDTO> getAllDesignationsByCompanyId(String companyId) {
@@ -6,6 +6,7 @@ import com.medhir.rest.exception.ResourceNotFoundException;
 import com.medhir.rest.model.settings.LeavePolicyModel;
 import com.medhir.rest.repository.settings.LeavePolicyRepository;
 import com.medhir.rest.service.CompanyService;
+import com.medhir.rest.service.leave.LeavePolicyEvaluator;
 import com.medhir.rest.utils.GeneratedId;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
 import jakarta.validation.Valid;
@@ -32,6 +33,12 @@ public class LeavePolicyService {
     @Autowired
     private CompanyService companyService;
 
+    @Autowired
+    private LeavePolicyEvaluator leavePolicyEvaluator;
+
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     public LeavePolicyModel createLeavePolicy(LeavePolicyModel leavePolicy) {
         // Check if company exists
         companyService.getCompanyById(leavePolicy.getCompanyId())
@@ -51,7 +58,9 @@ public class LeavePolicyService {
 
         leavePolicy.setCreatedAt(LocalDateTime.now().toString());
         leavePolicy.setUpdatedAt(LocalDateTime.now().toString());
-        return leavePolicyRepository.save(leavePolicy);
+        LeavePolicyModel saved = leavePolicyRepository.save(leavePolicy);
+        settingsResponseCache.bump(SettingsResponseCache.LEAVE_POLICIES, saved.getCompanyId());
+        return saved;
     }
 
     public List<LeavePolicyModel> getAllLeavePolicies() {
@@ -78,6 +87,7 @@ public class LeavePolicyService {
 
     public LeavePolicyModel updateLeavePolicy(String id, LeavePolicyModel leavePolicy) {
         LeavePolicyModel existingPolicy = getLeavePolicyById(id);
+        String previousCompanyId = existingPolicy.getCompanyId();
 
         // Check if company exists if companyId is being updated
         if (leavePolicy.getCompanyId() != null && !leavePolicy.getCompanyId().equals(existingPolicy.getCompanyId())) {
@@ -101,12 +111,17 @@ public class LeavePolicyService {
             existingPolicy.setCompanyId(leavePolicy.getCompanyId());
         }
 
-        return leavePolicyRepository.save(existingPolicy);
+        LeavePolicyModel saved = leavePolicyRepository.save(existingPolicy);
+        leavePolicyEvaluator.evict(saved);
+        settingsResponseCache.bump(SettingsResponseCache.LEAVE_POLICIES, previousCompanyId, saved.getCompanyId());
+        return saved;
     }
 
     public void deleteLeavePolicy(String id) {
         LeavePolicyModel leavePolicy = getLeavePolicyById(id);
         leavePolicyRepository.deleteById(leavePolicy.getId());
+        leavePolicyEvaluator.evict(leavePolicy);
+        settingsResponseCache.bump(SettingsResponseCache.LEAVE_POLICIES, leavePolicy.getCompanyId());
     }
 
     private void validateLeaveAllocations(@NotEmpty @Valid List<LeavePolicyModel.LeaveAllocation> allocations) {
@@ -123,9 +138,9 @@ public class LeavePolicyService {
                 throw new BadRequestException("Days per year must be greater than 0");
             }
 
-            // Validate consecutive allowed flag - if null, it will use the default value of false
+            // Validate consecutive allowed flag - if null, it will use the default value of true
             if (allocation.getConsecutiveAllowed() == null) {
-                allocation.setConsecutiveAllowed(false);
+                allocation.setConsecutiveAllowed(true);
             }
 
             // Validate restrictions if present
@@ -4,6 +4,7 @@ import com.medhir.rest.exception.DuplicateResourceException;
 import com.medhir.rest.exception.ResourceNotFoundException;
 import com.medhir.rest.repository.settings.LeaveTypeRepository;
 import com.medhir.rest.service.CompanyService;
+import com.medhir.rest.service.leave.LeavePolicyEvaluator;
 import com.medhir.rest.model.settings.LeaveTypeModel;
 import com.medhir.rest.utils.GeneratedId;
 import com.medhir.rest.utils.SnowflakeIdGenerator;
@@ -26,6 +27,12 @@ public class LeaveTypeService {
     @Autowired
     private CompanyService companyService;
 
+    @Autowired
+    private LeavePolicyEvaluator leavePolicyEvaluator;
+
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     public LeaveTypeModel createLeaveType(LeaveTypeModel leaveType) {
         // Check if company exists
         companyService.getCompanyById(leaveType.getCompanyId())
@@ -40,7 +47,9 @@ public class LeaveTypeService {
 
         leaveType.setLeaveTypeId(newLeaveTypeId);
 
-        return leaveTypeRepository.save(leaveType);
+        LeaveTypeModel saved = leaveTypeRepository.save(leaveType);
+        settingsResponseCache.bump(SettingsResponseCache.LEAVE_TYPES, saved.getCompanyId());
+        return saved;
     }
 
     public List<LeaveTypeModel> getAllLeaveTypes() {
@@ -67,6 +76,7 @@ public class LeaveTypeService {
 
     public LeaveTypeModel updateLeaveType(String id, LeaveTypeModel leaveType) {
         LeaveTypeModel existingLeaveType = getLeaveTypeById(id);
+        String previousCompanyId = existingLeaveType.getCompanyId();
 
         // Check if company exists if companyId is being updated
         if (leaveType.getCompanyId() != null && !leaveType.getCompanyId().equals(existingLeaveType.getCompanyId())) {
@@ -91,13 +101,18 @@ public class LeaveTypeService {
             existingLeaveType.setCompanyId(leaveType.getCompanyId());
         }
 
-        return leaveTypeRepository.save(existingLeaveType);
+        LeaveTypeModel saved = leaveTypeRepository.save(existingLeaveType);
+        leavePolicyEvaluator.evictAll();
+        settingsResponseCache.bump(SettingsResponseCache.LEAVE_TYPES, previousCompanyId, saved.getCompanyId());
+        return saved;
     }
 
 
     public void deleteLeaveType(String id) {
         LeaveTypeModel leaveType = getLeaveTypeById(id);
         leaveTypeRepository.deleteById(leaveType.getId());
+        leavePolicyEvaluator.evictAll();
+        settingsResponseCache.bump(SettingsResponseCache.LEAVE_TYPES, leaveType.getCompanyId());
     }
 
     public boolean existsByLeaveTypeName(String leaveTypeName) {
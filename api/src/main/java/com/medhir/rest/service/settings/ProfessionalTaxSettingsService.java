@@ -16,6 +16,9 @@ public class ProfessionalTaxSettingsService {
     @Autowired
     private ProfessionalTaxSettingsRepository repository;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     public ProfessionalTaxSettingsModel getProfessionalTaxSettingsByCompany(String companyId) {
         return repository.findFirstByCompanyIdOrderByCreatedAtDesc(companyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Professional tax settings not found for company: " + companyId));
@@ -35,7 +38,9 @@ public class ProfessionalTaxSettingsService {
         settings.setCreatedAt(LocalDateTime.now().toString());
         settings.setUpdatedAt(LocalDateTime.now().toString());
 
-        return repository.save(settings);
+        ProfessionalTaxSettingsModel saved = repository.save(settings);
+        settingsResponseCache.bump(SettingsResponseCache.PROFESSIONAL_TAX_SETTINGS, saved.getCompanyId());
+        return saved;
     }
 
     public ProfessionalTaxSettingsModel updateProfessionalTaxSettings(String companyId, ProfessionalTaxSettingsModel settings) {
@@ -56,7 +61,9 @@ public class ProfessionalTaxSettingsService {
         existingSettings.setDescription(settings.getDescription());
         existingSettings.setUpdatedAt(LocalDateTime.now().toString());
 
-        return repository.save(existingSettings);
+        ProfessionalTaxSettingsModel saved = repository.save(existingSettings);
+        settingsResponseCache.bump(SettingsResponseCache.PROFESSIONAL_TAX_SETTINGS, companyId);
+        return saved;
     }
 
     private void validateProfessionalTaxSettings(ProfessionalTaxSettingsModel settings) {
@@ -24,6 +24,9 @@ public class PublicHolidayService {
     @Autowired
     private CompanyService companyService;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     @Autowired
     public PublicHolidayService(PublicHolidayRepository publicHolidayRepository) {
         this.publicHolidayRepository = publicHolidayRepository;
@@ -46,7 +49,9 @@ public class PublicHolidayService {
 
         holiday.setHolidayId(newHolidayId);
 
-        return publicHolidayRepository.save(holiday);
+        PublicHolidayModel saved = publicHolidayRepository.save(holiday);
+        settingsResponseCache.bump(SettingsResponseCache.PUBLIC_HOLIDAYS, saved.getCompanyId());
+        return saved;
     }
 
     public List<PublicHolidayModel> getAllPublicHolidays() {
@@ -73,6 +78,7 @@ public class PublicHolidayService {
 
     public PublicHolidayModel updatePublicHoliday(String id, PublicHolidayModel holiday) {
         PublicHolidayModel existingHoliday = getPublicHolidayById(id);
+        String previousCompanyId = existingHoliday.getCompanyId();
         
         // Check if company exists if companyId is being updated
         if (holiday.getCompanyId() != null && !holiday.getCompanyId().equals(existingHoliday.getCompanyId())) {
@@ -99,12 +105,15 @@ public class PublicHolidayService {
             existingHoliday.setCompanyId(holiday.getCompanyId());
         }
 
-        return publicHolidayRepository.save(existingHoliday);
+        PublicHolidayModel saved = publicHolidayRepository.save(existingHoliday);
+        settingsResponseCache.bump(SettingsResponseCache.PUBLIC_HOLIDAYS, previousCompanyId, saved.getCompanyId());
+        return saved;
     }
 
     public void deletePublicHoliday(String id) {
         PublicHolidayModel holiday = getPublicHolidayById(id);
         publicHolidayRepository.deleteById(holiday.getId());
+        settingsResponseCache.bump(SettingsResponseCache.PUBLIC_HOLIDAYS, holiday.getCompanyId());
     }
 
     public boolean existsByHolidayName(String holidayName) {
@@ -0,0 +1,169 @@
+package com.medhir.rest.service.settings;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medhir.rest.model.settings.SettingsVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for the per-company settings lists, which are read on almost every screen and
+ * written a few times a year.
+ * <p>
+ * Every list has a {@link SettingsVersion} counter that the settings services {@link #bump} after
+ * each write, created on the first read of a list that has none yet. Responses carry a strong ETag
+ * built from the company and the counter, so a client sending it back in {@code If-None-Match} gets
+ * {@code 304 Not Modified}; otherwise the JSON serialized for the current version is served from
+ * memory and the list is only loaded again after the next bump. Counters are held in memory and
+ * reloaded with one query after {@code settings.cache.refresh-ms}, which is how long a write made
+ * through another instance can go unnoticed here.
+ */
+@Component
+public class SettingsResponseCache {
+
+    public static final String PUBLIC_HOLIDAYS = "public-holidays";
+    public static final String DEPARTMENTS = "departments";
+    public static final String DESIGNATIONS = "designations";
+    public static final String LEAVE_TYPES = "leave-types";
+    public static final String LEAVE_POLICIES = "leave-policies";
+    public static final String TDS_SETTINGS = "tds-settings";
+    public static final String PROFESSIONAL_TAX_SETTINGS = "professional-tax-settings";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${settings.cache.refresh-ms:30000}")
+    private long refreshMillis;
+
+    private volatile Map<String, SettingsVersion> versions = new ConcurrentHashMap<>();
+    private volatile long loadedAt;
+
+    private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * Answers a GET for one company's settings list, loading it with {@code loader} only when the
+     * client's copy is stale and no JSON is held for the current version.
+     */
+    public ResponseEntity<byte[]> respond(String settings, String companyId, WebRequest request, Supplier<?> loader) {
+        String key = SettingsVersion.idOf(settings, companyId);
+        // Read before loading, so a write racing the load leaves its result under the older tag
+        SettingsVersion version = currentVersions().get(key);
+        String etag = etag(settings, companyId, version != null ? version : seed(key));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        CachedBody cached = bodies.get(key);
+        byte[] json;
+        if (cached != null && cached.etag().equals(etag)) {
+            json = cached.json();
+        } else {
+            json = serialize(loader.get());
+            bodies.put(key, new CachedBody(etag, json));
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
+    }
+
+    /**
+     * Records a write to the settings list of each of the given companies; a record moved between
+     * companies changes both lists. Null company ids are ignored.
+     */
+    public void bump(String settings, String... companyIds) {
+        Arrays.stream(companyIds).filter(Objects::nonNull).distinct().forEach(companyId -> bumpOne(settings, companyId));
+    }
+
+    private void bumpOne(String settings, String companyId) {
+        String key = SettingsVersion.idOf(settings, companyId);
+        SettingsVersion bumped = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(key)),
+                new Update().inc("version", 1).setOnInsert("epoch", System.currentTimeMillis()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                SettingsVersion.class);
+        if (bumped != null) {
+            currentVersions().merge(key, bumped, SettingsResponseCache::newer);
+        }
+        bodies.remove(key);
+    }
+
+    // Gives a list that was never bumped its own epoch, so its tag is unique to the company and not
+    // matched by one handed out before the counter existed
+    private SettingsVersion seed(String key) {
+        SettingsVersion seeded = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(key)),
+                new Update().setOnInsert("version", 0L).setOnInsert("epoch", System.currentTimeMillis()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                SettingsVersion.class);
+        return currentVersions().merge(key, seeded, SettingsResponseCache::newer);
+    }
+
+    /**
+     * Loads the version counters ahead of the first request and returns how many there are.
+     */
+    public int preload() {
+        return currentVersions().size();
+    }
+
+    private Map<String, SettingsVersion> currentVersions() {
+        if (System.currentTimeMillis() - loadedAt >= refreshMillis) {
+            synchronized (this) {
+                if (System.currentTimeMillis() - loadedAt >= refreshMillis) {
+                    Map<String, SettingsVersion> loaded = new ConcurrentHashMap<>();
+                    for (SettingsVersion version : mongoTemplate.findAll(SettingsVersion.class)) {
+                        loaded.put(version.getId(), version);
+                    }
+                    // Bumps made on this instance while the query ran are not lost
+                    versions.forEach((key, version) -> loaded.merge(key, version, SettingsResponseCache::newer));
+                    versions = loaded;
+                    loadedAt = System.currentTimeMillis();
+                }
+            }
+        }
+        return versions;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize settings response", e);
+        }
+    }
+
+    static String etag(String settings, String companyId, SettingsVersion version) {
+        return "\"" + settings + "-" + companyId + "-" + Long.toString(version.getEpoch(), 36) + "-" + version.getVersion() + "\"";
+    }
+
+    static SettingsVersion newer(SettingsVersion a, SettingsVersion b) {
+        if (a.getEpoch() != b.getEpoch()) {
+            return a.getEpoch() > b.getEpoch() ? a : b;
+        }
+        return a.getVersion() >= b.getVersion() ? a : b;
+    }
+
+    private record CachedBody(String etag, byte[] json) {
+    }
+}
@@ -21,6 +21,9 @@ public class TdsSettingsService {
     @Autowired
     private GeneratedId generatedId;
 
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
     public List<TdsSettingsModel> getAllTdsSettings() {
         return tdsSettingsRepository.findAll();
     }
@@ -45,7 +48,9 @@ public class TdsSettingsService {
         tdsSettings.setCreatedAt(LocalDateTime.now().toString());
         tdsSettings.setUpdatedAt(LocalDateTime.now().toString());
 
-        return tdsSettingsRepository.save(tdsSettings);
+        TdsSettingsModel saved = tdsSettingsRepository.save(tdsSettings);
+        settingsResponseCache.bump(SettingsResponseCache.TDS_SETTINGS, saved.getCompanyId());
+        return saved;
     }
 
     public TdsSettingsModel updateTdsSettings(String companyId, TdsSettingsModel tdsSettings) {
@@ -64,13 +69,16 @@ public class TdsSettingsService {
         existingSettings.setDescription(tdsSettings.getDescription());
         existingSettings.setUpdatedAt(LocalDateTime.now().toString());
 
-        return tdsSettingsRepository.save(existingSettings);
+        TdsSettingsModel saved = tdsSettingsRepository.save(existingSettings);
+        settingsResponseCache.bump(SettingsResponseCache.TDS_SETTINGS, companyId);
+        return saved;
     }
 
     public void deleteTdsSettings(String id) {
         TdsSettingsModel settings = tdsSettingsRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("TDS Settings not found with id: " + id));
         tdsSettingsRepository.deleteById(settings.getId());
+        settingsResponseCache.bump(SettingsResponseCache.TDS_SETTINGS, settings.getCompanyId());
     }
 
     private void validateTdsSettings(TdsSettingsModel settings) {
@@ -0,0 +1,253 @@
+package com.medhir.rest.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medhir.rest.config.JwtUtil;
+import com.medhir.rest.model.AttendanceRecord;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.settings.ProfessionalTaxSettingsModel;
+import com.medhir.rest.model.settings.TdsSettingsModel;
+import com.medhir.rest.service.AttendanceRecordService;
+import com.medhir.rest.service.ModuleMembershipIndex;
+import com.medhir.rest.service.PayslipService;
+import com.medhir.rest.service.leave.LeavePolicyEvaluator;
+import com.medhir.rest.service.org.OrgGraph;
+import com.medhir.rest.service.settings.SettingsResponseCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs representative work once before the api reports ready, so the first requests after a
+ * restart do not pay for class loading, JIT compilation, Mongo connection setup, Jackson serializer
+ * creation and empty caches.
+ * <p>
+ * The warm-up runs in an {@link ApplicationReadyEvent} listener. Spring Boot only moves readiness
+ * to {@code ACCEPTING_TRAFFIC} once those listeners return, and this indicator reports
+ * {@code OUT_OF_SERVICE} until the warm-up is done, so the readiness probe holds traffic back
+ * meanwhile. Phases:
+ * <ul>
+ *     <li>{@code mongo} - opens {@code warmup.mongo-connections} pooled connections and maps a stored employee</li>
+ *     <li>{@code caches} - loads the org graph, module memberships, compiled leave policies and settings versions</li>
+ *     <li>{@code jwt} - signs a token and fully verifies it</li>
+ *     <li>{@code json} - serializes a synthetic company employee listing</li>
+ *     <li>{@code payslip} - calculates payslips from synthetic inputs</li>
+ *     <li>{@code csv} - splits synthetic attendance upload rows</li>
+ * </ul>
+ * CPU-bound phases repeat {@code warmup.iterations} times. A failing phase is logged and skipped,
+ * and warm-up as a whole is bounded by {@code warmup.timeout-ms}: phases run on a worker thread, a
+ * phase still running at the deadline is abandoned and later phases are skipped. Warm-up never stops
+ * the api from starting. Phase timings are logged and shown in the indicator's details.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements HealthIndicator {
+
+    private static final int LISTING_SIZE = 50;
+    private static final int CSV_ROWS = 10;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PayslipService payslipService;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private ModuleMembershipIndex moduleMembershipIndex;
+
+    @Autowired
+    private LeavePolicyEvaluator leavePolicyEvaluator;
+
+    @Autowired
+    private SettingsResponseCache settingsResponseCache;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:500}")
+    private int iterations;
+
+    @Value("${warmup.mongo-connections:10}")
+    private int mongoConnections;
+
+    @Value("${warmup.timeout-ms:60000}")
+    private long timeoutMillis;
+
+    private final Map<String, Object> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile boolean finished;
+    private volatile long totalMillis;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            finished = true;
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMillis;
+
+        // Phases run on their own thread so the deadline holds even when one of them blocks
+        ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            phase(worker, "mongo", deadline, this::warmMongo);
+            phase(worker, "caches", deadline, this::warmCaches);
+            phase(worker, "jwt", deadline, this::warmJwt);
+            phase(worker, "json", deadline, this::warmJson);
+            phase(worker, "payslip", deadline, this::warmPayslip);
+            phase(worker, "csv", deadline, this::warmCsv);
+        } finally {
+            worker.shutdownNow();
+        }
+
+        totalMillis = System.currentTimeMillis() - start;
+        finished = true;
+        log.info("Startup warm-up finished in {} ms: {}", totalMillis, phases);
+    }
+
+    @Override
+    public Health health() {
+        if (!enabled) {
+            return Health.up().withDetail("warmup", "disabled").build();
+        }
+        Health.Builder health = finished ? Health.up().withDetail("totalMs", totalMillis) : Health.outOfService();
+        synchronized (phases) {
+            return health.withDetail("phases", new LinkedHashMap<>(phases)).build();
+        }
+    }
+
+    private void phase(ExecutorService worker, String name, long deadline, Runnable work) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            phases.put(name, "skipped: timed out");
+            return;
+        }
+        long start = System.nanoTime();
+        Future<?> future = worker.submit(work);
+        try {
+            future.get(remaining, TimeUnit.MILLISECONDS);
+            phases.put(name, (System.nanoTime() - start) / 1_000_000);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Startup warm-up phase {} did not finish within {} ms, abandoning it", name, timeoutMillis);
+            phases.put(name, "timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            log.warn("Startup warm-up phase {} failed: {}", name, cause.getMessage());
+            phases.put(name, "failed: " + cause.getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            phases.put(name, "interrupted");
+        }
+    }
+
+    private void warmMongo() {
+        // Concurrent pings make the driver open one connection per thread
+        ExecutorService executor = Executors.newFixedThreadPool(mongoConnections, runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup-mongo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> pings = new ArrayList<>();
+            for (int i = 0; i < mongoConnections * 4; i++) {
+                pings.add(executor.submit(() -> mongoTemplate.executeCommand("{ ping: 1 }")));
+            }
+            for (Future<?> ping : pings) {
+                ping.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening Mongo connections", e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        mongoTemplate.find(new Query().limit(20), EmployeeModel.class);
+    }
+
+    private void warmCaches() {
+        orgGraph.contains(WarmupData.COMPANY_ID);
+        moduleMembershipIndex.modules();
+        leavePolicyEvaluator.preload();
+        settingsResponseCache.preload();
+    }
+
+    private void warmJwt() {
+        String token = jwtUtil.generateTokenWithStringRoles("warmup@example.com", Set.of("EMPLOYEE"));
+        for (int i = 0; i < iterations; i++) {
+            jwtUtil.extractEmail(token);
+        }
+    }
+
+    private void warmJson() {
+        Object listing = WarmupData.employeeListing(LISTING_SIZE);
+        try {
+            for (int i = 0; i < iterations; i++) {
+                objectMapper.writeValueAsBytes(listing);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void warmPayslip() {
+        YearMonth month = YearMonth.now();
+        ProfessionalTaxSettingsModel professionalTax = WarmupData.professionalTax();
+        TdsSettingsModel tds = WarmupData.tds();
+        for (int i = 0; i < iterations; i++) {
+            EmployeeModel employee = WarmupData.employee(i);
+            AttendanceRecord attendance = WarmupData.attendance(employee.getEmployeeId());
+            payslipService.calculatePayslip(employee, month, attendance, professionalTax, tds);
+        }
+    }
+
+    private void warmCsv() {
+        List<String> rows = new ArrayList<>(CSV_ROWS);
+        for (int n = 0; n < CSV_ROWS; n++) {
+            rows.add(WarmupData.attendanceCsvRow(n));
+        }
+        for (int i = 0; i < iterations; i++) {
+            for (String row : rows) {
+                AttendanceRecordService.splitRow(row);
+            }
+        }
+    }
+}
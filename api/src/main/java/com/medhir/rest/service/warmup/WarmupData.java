@@ -0,0 +1,125 @@
+package com.medhir.rest.service.warmup;
+
+import com.medhir.rest.dto.CompanyEmployeeDTO;
+import com.medhir.rest.model.AttendanceRecord;
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.settings.ProfessionalTaxSettingsModel;
+import com.medhir.rest.model.settings.TdsSettingsModel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Synthetic records shaped like real ones, for the startup warm-up. Nothing here is saved.
+ */
+final class WarmupData {
+
+    static final String COMPANY_ID = "CID-WARMUP";
+
+    private WarmupData() {
+    }
+
+    static EmployeeModel employee(int n) {
+        EmployeeModel employee = new EmployeeModel();
+        fill(employee, n);
+        return employee;
+    }
+
+    static List<CompanyEmployeeDTO> employeeListing(int size) {
+        List<CompanyEmployeeDTO> employees = new ArrayList<>(size);
+        for (int n = 0; n < size; n++) {
+            CompanyEmployeeDTO employee = new CompanyEmployeeDTO();
+            fill(employee, n);
+            employee.setDepartmentName("Operations");
+            employee.setDesignationName("Associate");
+            employee.setReportingManagerName("Manager " + (n % 5));
+            employee.setLeavePolicyName("Standard");
+            employee.setLeaveTypeNames(List.of("Casual Leave", "Sick Leave"));
+            employee.setLeaveTypeIds(List.of("LT1", "LT2"));
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private static void fill(EmployeeModel employee, int n) {
+        employee.setEmployeeId("WARMUP" + n);
+        employee.setCompanyId(COMPANY_ID);
+        employee.setName("Employee " + n);
+        employee.setPhone(String.format("9%09d", n));
+        employee.setEmailPersonal("employee" + n + "@example.com");
+        employee.setRoles(Set.of("EMPLOYEE"));
+        employee.setDesignation("DES1");
+        employee.setDepartment("DEPT1");
+        employee.setReportingManager("WARMUP0");
+        employee.setJoiningDate(LocalDate.of(2023, 4, 1).plusDays(n));
+        employee.setWeeklyOffs(List.of("Sunday"));
+
+        EmployeeModel.IdProofs idProofs = new EmployeeModel.IdProofs();
+        idProofs.setPanNo("ABCDE1234F");
+        employee.setIdProofs(idProofs);
+
+        EmployeeModel.BankDetails bankDetails = new EmployeeModel.BankDetails();
+        bankDetails.setAccountNumber("123456789012");
+        bankDetails.setBankName("Bank");
+        employee.setBankDetails(bankDetails);
+
+        EmployeeModel.SalaryDetails salary = new EmployeeModel.SalaryDetails();
+        salary.setBasicSalary(30000.0 + n);
+        salary.setHra(12000.0);
+        salary.setAllowances(8000.0);
+        salary.setEmployeePfContribution(1800.0);
+        salary.setEmployerPfContribution(1800.0);
+        employee.setSalaryDetails(salary);
+    }
+
+    static AttendanceRecord attendance(String employeeId) {
+        AttendanceRecord attendance = new AttendanceRecord();
+        attendance.setEmployeeId(employeeId);
+        attendance.setPayableDays(27.5);
+        attendance.setLeavesTaken(2);
+        attendance.setLeavesEarned(1.5);
+        attendance.setLastMonthBalance(4);
+        attendance.setNetLeaveBalance(3.5);
+        Map<String, String> daily = new LinkedHashMap<>();
+        for (int day = 1; day <= 30; day++) {
+            daily.put(String.valueOf(day), day % 7 == 0 ? "H" : "P");
+        }
+        attendance.setDailyAttendance(daily);
+        return attendance;
+    }
+
+    static ProfessionalTaxSettingsModel professionalTax() {
+        ProfessionalTaxSettingsModel settings = new ProfessionalTaxSettingsModel();
+        settings.setCompanyId(COMPANY_ID);
+        settings.setMonthlySalaryThreshold(25000.0);
+        settings.setAmountAboveThreshold(200.0);
+        settings.setAmountBelowThreshold(0.0);
+        return settings;
+    }
+
+    static TdsSettingsModel tds() {
+        TdsSettingsModel settings = new TdsSettingsModel();
+        settings.setCompanyId(COMPANY_ID);
+        settings.setTdsRate(10.0);
+        return settings;
+    }
+
+    /**
+     * A row of the monthly attendance upload: serial number, employee id and name, quoted weekly
+     * holidays, working days, 31 daily statuses and 8 leave summary columns.
+     */
+    static String attendanceCsvRow(int n) {
+        StringBuilder row = new StringBuilder();
+        row.append(n).append(",WARMUP").append(n).append(",Employee ").append(n)
+                .append(",\"Saturday, Sunday\",26");
+        for (int day = 1; day <= 31; day++) {
+            row.append(',').append(day % 7 == 0 ? "WO" : "P");
+        }
+        row.append(",27.5,2,1.5,0,4,3.5,0,0");
+        return row.toString();
+    }
+}
@@ -1,6 +1,8 @@
 package com.medhir.rest.utils;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -10,7 +12,19 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
 @Service
 public class MinioService {
 
@@ -30,7 +44,15 @@ public class MinioService {
     @Value("${minio.billsBucketName}")
     private String billsBucketName;
 
-    RestTemplate restTemplate = new RestTemplate();
+    // Buckets where the MinIO service deduplicates by content hash
+    @Value("${minio.dedupBuckets:documents,bills}")
+    private Set<String> dedupBuckets;
+
+    private final RestTemplate restTemplate;
+
+    public MinioService(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder.build();
+    }
 
     public String generateUUID() {
         return restTemplate.getForObject(minioserviceUrl + "/generate-uuid", String.class);
@@ -38,6 +60,14 @@ public class MinioService {
 
     public String uploadFile(String bucketName, MultipartFile file,String employeeId) {
 
+        // Repeat submissions of the same scan resolve to the stored copy without re-sending the file
+        if (dedupBuckets.contains(bucketName)) {
+            String existingUrl = findExisting(bucketName, file);
+            if (existingUrl != null) {
+                return existingUrl;
+            }
+        }
+
         String uniqueId = generateUUID(); // Fetch UUID from MinIO Service
         String filePath = employeeId + "/" + uniqueId + "_" + file.getOriginalFilename(); // Construct path
 
@@ -55,6 +85,90 @@ public class MinioService {
         return response.getBody();  // MinIO file URL
     }
 
+    private String findExisting(String bucketName, MultipartFile file) {
+        try {
+            String sha256 = sha256(file);
+            // Reusing the stored copy takes a reference on it, released by releaseFile
+            return restTemplate.postForObject(minioserviceUrl + "/blobs/" + bucketName + "/" + sha256 + "/references",
+                    null, String.class);
+        } catch (Exception e) {
+            // Lookup is only an optimisation; fall back to a normal upload
+            return null;
+        }
+    }
+
+    /**
+     * Drops the reference a record held on a file in a deduplicated bucket, once the record is
+     * deleted or the file replaced; the MinIO service removes the object when no reference is left.
+     * Other URLs are ignored, and failures are only logged since the record change already happened.
+     */
+    public void releaseFile(String fileUrl) {
+        String[] location = locate(fileUrl);
+        if (location == null || !dedupBuckets.contains(location[0])) {
+            return;
+        }
+        try {
+            restTemplate.delete(UriComponentsBuilder.fromUriString(minioserviceUrl + "/object")
+                    .queryParam("bucketName", location[0])
+                    .queryParam("filePath", location[1])
+                    .encode()
+                    .build()
+                    .toUri());
+        } catch (Exception e) {
+            log.warn("Could not release {}: {}", fileUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * Releases every file a record referenced before a change that it no longer references after.
+     * A URL listed twice holds two references.
+     */
+    public void releaseReplaced(Collection<String> before, Collection<String> after) {
+        for (String fileUrl : replaced(before, after)) {
+            releaseFile(fileUrl);
+        }
+    }
+
+    static List<String> replaced(Collection<String> before, Collection<String> after) {
+        List<String> remaining = new ArrayList<>(after);
+        List<String> replaced = new ArrayList<>();
+        for (String fileUrl : before) {
+            if (fileUrl != null && !remaining.remove(fileUrl)) {
+                replaced.add(fileUrl);
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Splits {@code http://host:port/bucket/object/name} into bucket and object name, or returns
+     * null when the URL has no object part.
+     */
+    static String[] locate(String fileUrl) {
+        if (fileUrl == null || fileUrl.isEmpty()) {
+            return null;
+        }
+        int schemeEnd = fileUrl.indexOf("://");
+        int bucketStart = fileUrl.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        int objectStart = bucketStart < 0 ? -1 : fileUrl.indexOf('/', bucketStart + 1);
+        if (objectStart < 0 || objectStart == fileUrl.length() - 1) {
+            return null;
+        }
+        return new String[]{fileUrl.substring(bucketStart + 1, objectStart), fileUrl.substring(objectStart + 1)};
+    }
+
+    private static String sha256(MultipartFile file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = file.getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
 
     public String uploadProfileImage(MultipartFile file,String employeeId){
         return uploadFile(attendanceBucketName,file,employeeId);
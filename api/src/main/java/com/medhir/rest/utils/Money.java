@@ -0,0 +1,128 @@
+package com.medhir.rest.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic on {@code long} paise. Payroll and accounts payable compute in paise and only
+ * convert at the edges: {@code BigDecimal} fields of bills and payments, and {@code Double} fields
+ * of payslips, keep their stored and JSON representation.
+ * <p>
+ * Every operation is allocation-free and rounds half-even (banker's rounding), so summing many
+ * rounded shares does not drift upwards. Overflow throws {@link ArithmeticException} rather than
+ * wrapping; a {@code long} holds amounts up to roughly 92 trillion rupees.
+ */
+public final class Money {
+
+    public static final long ZERO = 0L;
+
+    private static final int SCALE = 2;
+    private static final long PAISE_PER_RUPEE = 100L;
+
+    /** Fractional factors (days, percentages) are fixed to this many decimal places. */
+    private static final long FACTOR_SCALE = 10_000L;
+
+    private Money() {
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long add(long a, long b, long c) {
+        return Math.addExact(Math.addExact(a, b), c);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * {@code amount * numerator / denominator}, rounded half-even to the paisa.
+     */
+    public static long multiply(long amount, long numerator, long denominator) {
+        if (denominator == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return divide(Math.multiplyExact(amount, numerator), denominator);
+    }
+
+    /**
+     * The share of {@code amount} for {@code part} out of {@code whole}, e.g. a monthly salary for
+     * 27.5 of 30 days. A zero or negative whole yields zero.
+     */
+    public static long prorate(long amount, double part, long whole) {
+        if (whole <= 0) {
+            return ZERO;
+        }
+        return multiply(amount, Math.round(part * FACTOR_SCALE), whole * FACTOR_SCALE);
+    }
+
+    /**
+     * {@code percent}% of {@code amount}, e.g. a 7.5% TDS rate.
+     */
+    public static long percent(long amount, double percent) {
+        return multiply(amount, Math.round(percent * FACTOR_SCALE), 100 * FACTOR_SCALE);
+    }
+
+    // Edges
+
+    /**
+     * Null is treated as zero, matching how missing amounts are handled throughout billing.
+     */
+    public static long fromBigDecimal(BigDecimal value) {
+        if (value == null) {
+            return ZERO;
+        }
+        return value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long paise) {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    /**
+     * Null is treated as zero.
+     */
+    public static long fromRupees(Double value) {
+        return value != null ? fromRupees(value.doubleValue()) : ZERO;
+    }
+
+    /**
+     * Goes through the shortest decimal representation of the double, so 0.1 + 0.2 style noise in
+     * stored values does not leak into the paise.
+     */
+    public static long fromRupees(double value) {
+        if (value == 0) {
+            return ZERO;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Not a finite amount: " + value);
+        }
+        return fromBigDecimal(BigDecimal.valueOf(value));
+    }
+
+    public static double toRupees(long paise) {
+        return (double) paise / PAISE_PER_RUPEE;
+    }
+
+    /**
+     * Integer division rounded half-even.
+     */
+    private static long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // Compare 2|r| with |d| without overflowing: |r| < |d| so |d| - |r| is safe
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        long rest = absDivisor - absRemainder;
+        int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        if (absRemainder > rest || absRemainder == rest && (quotient & 1) != 0) {
+            return quotient + signum;
+        }
+        return quotient;
+    }
+}
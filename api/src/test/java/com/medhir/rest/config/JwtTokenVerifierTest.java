@@ -0,0 +1,72 @@
+package com.medhir.rest.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenVerifierTest {
+
+    private static final String SECRET = "YOUR_SECRET_KEY_IS_YOUR_KEY_TO_AUTHENTICATE_YOU_IF_YOUR_LOGGED_IN_OR_NOT";
+    private static final String OTHER_SECRET = "SOME_OTHER_SECRET_KEY_THAT_IS_LONG_ENOUGH_FOR_HS256_SIGNING";
+
+    private final JwtTokenVerifier verifier = new JwtTokenVerifier(SECRET, 2);
+
+    private static String token(String secret, String subject, long expiresInMillis) {
+        return Jwts.builder()
+                .claim("employeeId", "EMP101")
+                .claim("companyId", "CID101")
+                .claim("roles", Set.of("EMPLOYEE"))
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    void testVerify_returnsCachedResultForSameToken() {
+        String token = token(SECRET, "a@medhir.in", 60_000);
+
+        JwtTokenVerifier.VerifiedToken first = verifier.verify(token);
+        JwtTokenVerifier.VerifiedToken second = verifier.verify(token);
+
+        assertSame(first, second);
+        assertEquals("a@medhir.in", first.username());
+        assertEquals("EMP101", first.details().get("employeeId"));
+        assertNull(first.details().get("companyName"));
+        assertEquals(1, first.authorities().size());
+    }
+
+    @Test
+    void testVerify_rejectsTokenSignedWithOtherKey() {
+        String forged = token(OTHER_SECRET, "a@medhir.in", 60_000);
+        assertThrows(SignatureException.class, () -> verifier.verify(forged));
+    }
+
+    @Test
+    void testVerify_rejectsExpiredToken() {
+        String expired = token(SECRET, "a@medhir.in", -1_000);
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(expired));
+    }
+
+    @Test
+    void testVerify_evictsLeastRecentlyUsed() {
+        String a = token(SECRET, "a@medhir.in", 60_000);
+        String b = token(SECRET, "b@medhir.in", 60_000);
+        String c = token(SECRET, "c@medhir.in", 60_000);
+
+        JwtTokenVerifier.VerifiedToken first = verifier.verify(a);
+        verifier.verify(b);
+        verifier.verify(c); // cache size is 2, so a is evicted
+
+        assertNotSame(first, verifier.verify(a));
+    }
+}
@@ -0,0 +1,32 @@
+package com.medhir.rest.config;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoDocumentMetricsTest {
+
+    @Test
+    void readsCollectionFromCommand() {
+        assertEquals("employees", MongoDocumentMetrics.collectionOf("find",
+                BsonDocument.parse("{find: 'employees', filter: {companyId: 'C1'}}")));
+        assertEquals("employees", MongoDocumentMetrics.collectionOf("getMore",
+                BsonDocument.parse("{getMore: {$numberLong: '42'}, collection: 'employees'}")));
+        assertEquals("none", MongoDocumentMetrics.collectionOf("aggregate",
+                BsonDocument.parse("{aggregate: 1, pipeline: []}")));
+    }
+
+    @Test
+    void countsDocumentsInReplies() {
+        assertEquals(2, MongoDocumentMetrics.documentsOf("find",
+                BsonDocument.parse("{cursor: {id: 0, firstBatch: [{}, {}]}, ok: 1}")));
+        assertEquals(3, MongoDocumentMetrics.documentsOf("getMore",
+                BsonDocument.parse("{cursor: {id: 0, nextBatch: [{}, {}, {}]}, ok: 1}")));
+        assertEquals(5, MongoDocumentMetrics.documentsOf("update",
+                BsonDocument.parse("{n: 5, nModified: 4, ok: 1}")));
+        assertEquals(0, MongoDocumentMetrics.documentsOf("findAndModify",
+                BsonDocument.parse("{value: null, ok: 1}")));
+        assertEquals(-1, MongoDocumentMetrics.documentsOf("insert", BsonDocument.parse("{ok: 1}")));
+    }
+}
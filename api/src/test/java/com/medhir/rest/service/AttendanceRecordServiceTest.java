@@ -0,0 +1,18 @@
+package com.medhir.rest.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttendanceRecordServiceTest {
+
+    @Test
+    void splitsRowsOnCommasOutsideQuotes() {
+        String[] values = AttendanceRecordService.splitRow("1,EMP1,Asha,\"Saturday, Sunday\",26,P,P,A");
+
+        assertEquals(8, values.length);
+        assertEquals("EMP1", values[1]);
+        assertEquals("\"Saturday, Sunday\"", values[3]);
+        assertEquals("A", values[7]);
+    }
+}
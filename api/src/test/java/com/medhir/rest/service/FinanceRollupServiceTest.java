@@ -0,0 +1,59 @@
+package com.medhir.rest.service;
+
+import com.medhir.rest.model.Expense;
+import com.medhir.rest.model.FinanceRollup;
+import com.medhir.rest.model.IncomeModel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinanceRollupServiceTest {
+
+    @Test
+    void readsMonthFromIsoDates() {
+        assertEquals("2025-06", FinanceRollupService.monthOf("2025-06-14"));
+        assertEquals("2025-06", FinanceRollupService.monthOf("2025-06-14T10:15:00"));
+        assertEquals("", FinanceRollupService.monthOf("14/06/2025"));
+        assertEquals("", FinanceRollupService.monthOf("2025-13-01"));
+        assertEquals("", FinanceRollupService.monthOf(null));
+    }
+
+    @Test
+    void expensesContributeAmountAndReimbursement() {
+        Expense expense = new Expense();
+        expense.setCompanyId("CID1");
+        expense.setDate(LocalDate.of(2025, 6, 14));
+        expense.setProjectId("P1");
+        expense.setTotalExpenseAmount(new BigDecimal("1250.50"));
+        expense.setReimbursementAmount(new BigDecimal("200"));
+
+        FinanceRollupService.Entry entry = FinanceRollupService.Entry.of(expense);
+        assertEquals(FinanceRollup.EXPENSE, entry.kind());
+        assertEquals("2025-06", entry.month());
+        assertEquals("PENDING", entry.status());
+        assertEquals("P1", entry.project());
+        assertEquals(125_050L, entry.amount());
+        assertEquals(20_000L, entry.reimbursement());
+
+        expense.setCompanyId(null);
+        assertNull(FinanceRollupService.Entry.of(expense));
+    }
+
+    @Test
+    void incomesWithoutReadableDateGoUnderEmptyMonth() {
+        IncomeModel income = new IncomeModel();
+        income.setCompanyId("CID1");
+        income.setInitiated("June 2025");
+        income.setStatus("Pending");
+        income.setAmount(99.99);
+
+        FinanceRollupService.Entry entry = FinanceRollupService.Entry.of(income);
+        assertEquals("", entry.month());
+        assertEquals("", entry.project());
+        assertEquals(9_999L, entry.amount());
+        assertEquals(0L, entry.reimbursement());
+    }
+}
@@ -0,0 +1,25 @@
+package com.medhir.rest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeadQueryServiceTest {
+
+    @Test
+    void cursorRoundTripsKeepMissingAndEmptyFollowUpsApart() {
+        assertArrayEquals(new String[]{null, "LEAD1"},
+                LeadQueryService.decodeCursor(LeadQueryService.encodeCursor(null, "LEAD1")));
+        assertArrayEquals(new String[]{"", "LEAD2"},
+                LeadQueryService.decodeCursor(LeadQueryService.encodeCursor("", "LEAD2")));
+        assertArrayEquals(new String[]{"2025-05-10T10:00", "LEAD3"},
+                LeadQueryService.decodeCursor(LeadQueryService.encodeCursor("2025-05-10T10:00", "LEAD3")));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(ResponseStatusException.class, () -> LeadQueryService.decodeCursor("not base64!"));
+        assertThrows(ResponseStatusException.class, () -> LeadQueryService.decodeCursor("bm9wZQ"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.medhir.rest.service;
+
+import com.medhir.rest.model.EmployeeModel;
+import com.medhir.rest.model.ModuleModel;
+import com.medhir.rest.service.auth.RefreshTokenService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MembershipWritesTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmployeeModel.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void grantAddsModuleAndRolesAndRevokesSessions() {
+        ModuleService.MembershipWrites writes = new ModuleService.MembershipWrites(mongoTemplate, refreshTokenService, "MOD1");
+        writes.grant(List.of("EMP1", "EMP2"), Set.of("HRADMIN"));
+        writes.execute();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateMulti(any(Query.class), update.capture());
+        Document addToSet = (Document) update.getValue().getUpdateObject().get("$addToSet");
+        assertEquals("MOD1", addToSet.get("moduleIds"));
+        assertEquals(Set.of("HRADMIN"), values(((Update.Modifier) addToSet.get("Roles")).getValue()));
+        verify(bulk).execute();
+        verify(refreshTokenService).revokeAll(Set.of("EMP1", "EMP2"));
+    }
+
+    @Test
+    void revokeKeepsRolesGrantedByAnotherModule() {
+        ModuleModel other = new ModuleModel();
+        other.setModuleId("MOD2");
+        other.setModuleName("Accounts");
+        other.setEmployeeIds(List.of("EMP1"));
+        when(mongoTemplate.find(any(Query.class), eq(ModuleModel.class))).thenReturn(List.of(other));
+
+        ModuleService.MembershipWrites writes = new ModuleService.MembershipWrites(mongoTemplate, refreshTokenService, "MOD1");
+        writes.revoke("EMP1", Set.of("HRADMIN", "ACCOUNTANT"));
+        writes.execute();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals("MOD1", ((Document) updateObject.get("$pull")).get("moduleIds"));
+        assertEquals(Set.of("HRADMIN"), values(((Document) updateObject.get("$pullAll")).get("Roles")));
+        verify(bulk).execute();
+        verify(refreshTokenService).revokeAll(Set.of("EMP1"));
+    }
+
+    @Test
+    void leavingWithoutLosingRolesKeepsSessions() {
+        ModuleModel other = new ModuleModel();
+        other.setModuleId("MOD2");
+        other.setModuleName("HR");
+        other.setRoles(Set.of("HRADMIN"));
+        other.setEmployeeIds(List.of("EMP1"));
+        when(mongoTemplate.find(any(Query.class), eq(ModuleModel.class))).thenReturn(List.of(other));
+
+        ModuleService.MembershipWrites writes = new ModuleService.MembershipWrites(mongoTemplate, refreshTokenService, "MOD1");
+        writes.revoke("EMP1", Set.of("HRADMIN"));
+        writes.execute();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        assertNull(update.getValue().getUpdateObject().get("$pullAll"));
+        verify(refreshTokenService).revokeAll(Set.of());
+    }
+
+    @Test
+    void unchangedRolesWriteNothing() {
+        ModuleService.MembershipWrites writes = new ModuleService.MembershipWrites(mongoTemplate, refreshTokenService, "MOD1");
+        writes.changeRoles(List.of("EMP1"), Set.of("SALES"), Set.of("SALES"));
+        writes.execute();
+
+        verify(bulk, never()).execute();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ModuleModel.class));
+        verify(refreshTokenService).revokeAll(Set.of());
+    }
+
+    private static Set<Object> values(Object value) {
+        if (value instanceof Object[] array) {
+            return new HashSet<>(Arrays.asList(array));
+        }
+        return new HashSet<>((Collection<?>) value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.medhir.rest.service.accountantModule;
+
+import com.medhir.rest.model.accountantModule.BillModel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApAgingServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+
+    @Test
+    void bucketsByDaysPastDue() {
+        assertEquals(ApAgingService.CURRENT, ApAgingService.bucket("2025-07-15", TODAY));
+        assertEquals(ApAgingService.CURRENT, ApAgingService.bucket("2025-06-30", TODAY));
+        assertEquals(ApAgingService.DAYS_1_TO_30, ApAgingService.bucket("2025-06-29", TODAY));
+        assertEquals(ApAgingService.DAYS_1_TO_30, ApAgingService.bucket("2025-05-31", TODAY));
+        assertEquals(ApAgingService.DAYS_31_TO_60, ApAgingService.bucket("2025-05-30", TODAY));
+        assertEquals(ApAgingService.DAYS_61_TO_90, ApAgingService.bucket("2025-04-01", TODAY));
+        assertEquals(ApAgingService.DAYS_90_PLUS, ApAgingService.bucket("2025-03-31", TODAY));
+        assertEquals(ApAgingService.CURRENT, ApAgingService.bucket(ApAgingService.NO_DUE_DATE, TODAY));
+    }
+
+    @Test
+    void sumsDueDatesIntoBuckets() {
+        long[] buckets = ApAgingService.buckets(Map.of(
+                "2025-07-15", 100L,
+                "2025-06-15", 200L,
+                "2025-06-01", 300L,
+                "2024-12-31", 400L,
+                ApAgingService.NO_DUE_DATE, 50L), TODAY);
+
+        assertArrayEquals(new long[]{150L, 500L, 0L, 0L, 400L}, buckets);
+    }
+
+    @Test
+    void billsContributeWhatIsStillUnpaid() {
+        BillModel bill = new BillModel();
+        bill.setCompanyId("CID1");
+        bill.setVendorId("VID1");
+        bill.setDueDate("2025-06-15");
+        bill.setFinalAmount(new BigDecimal("1000.00"));
+        bill.setTotalPaid(new BigDecimal("250.50"));
+
+        ApAgingService.Contribution contribution = ApAgingService.Contribution.of(bill);
+        assertEquals(74_950L, contribution.outstanding());
+        assertEquals("2025-06-15", contribution.dueDate());
+        assertEquals(0L, ApAgingService.Contribution.of(bill, 120_000L).outstanding());
+
+        bill.setDueDate("15/06/2025");
+        assertEquals(ApAgingService.NO_DUE_DATE, ApAgingService.Contribution.of(bill).dueDate());
+    }
+}
@@ -0,0 +1,82 @@
+package com.medhir.rest.service.accountantModule;
+
+import com.medhir.rest.exception.BadRequestException;
+import com.medhir.rest.exception.ResourceNotFoundException;
+import com.medhir.rest.model.accountantModule.BillModel;
+import com.medhir.rest.model.accountantModule.PaymentModel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentAllocationServiceTest {
+
+    private static BillModel bill(String billId, String finalAmount, String totalPaid) {
+        BillModel bill = new BillModel();
+        bill.setBillId(billId);
+        bill.setVendorId("VID1");
+        bill.setCompanyId("CID1");
+        bill.setFinalAmount(new BigDecimal(finalAmount));
+        bill.setTotalPaid(new BigDecimal(totalPaid));
+        return bill;
+    }
+
+    private static PaymentModel payment(PaymentModel.BillPaymentDetail... details) {
+        PaymentModel payment = new PaymentModel();
+        payment.setPaymentId("PAY1");
+        payment.setVendorId("VID1");
+        payment.setCompanyId("CID1");
+        payment.setBillPayments(List.of(details));
+        return payment;
+    }
+
+    private static PaymentModel.BillPaymentDetail pay(String billId, String amount) {
+        return new PaymentModel.BillPaymentDetail(billId, new BigDecimal(amount));
+    }
+
+    private static final Map<String, BillModel> BILLS = Map.of(
+            "B1", bill("B1", "1000.00", "0"),
+            "B2", bill("B2", "500.00", "200.00"));
+
+    @Test
+    void addsToWhatWasAlreadyPaid() {
+        List<PaymentAllocationService.Allocation> allocations =
+                PaymentAllocationService.plan(payment(pay("B1", "400"), pay("B2", "300")), BILLS);
+
+        assertEquals(2, allocations.size());
+        assertEquals(40_000L, allocations.get(0).totalPaid());
+        assertEquals(BillModel.PaymentStatus.PARTIALLY_PAID, allocations.get(0).status());
+        assertEquals(50_000L, allocations.get(1).totalPaid());
+        assertEquals(BillModel.PaymentStatus.PAID, allocations.get(1).status());
+        assertEquals(new BigDecimal("200.00"), allocations.get(1).previousTotalPaid());
+    }
+
+    @Test
+    void rejectsInvalidAllocationsBeforeAnythingIsWritten() {
+        assertThrows(BadRequestException.class,
+                () -> PaymentAllocationService.plan(payment(pay("B2", "300.01")), BILLS));
+        assertThrows(BadRequestException.class,
+                () -> PaymentAllocationService.plan(payment(pay("B1", "0")), BILLS));
+        assertThrows(BadRequestException.class,
+                () -> PaymentAllocationService.plan(payment(pay("B1", "10"), pay("B1", "10")), BILLS));
+        assertThrows(ResourceNotFoundException.class,
+                () -> PaymentAllocationService.plan(payment(pay("B9", "10")), BILLS));
+
+        PaymentModel otherVendor = payment(pay("B1", "10"));
+        otherVendor.setVendorId("VID2");
+        assertThrows(BadRequestException.class, () -> PaymentAllocationService.plan(otherVendor, BILLS));
+    }
+
+    @Test
+    void allocationsMayOnlyExceedThePaymentTotalWithTds() {
+        PaymentModel payment = payment(pay("B1", "400"), pay("B2", "300"));
+        payment.setTotalAmount(new BigDecimal("650"));
+        assertThrows(BadRequestException.class, () -> PaymentAllocationService.plan(payment, BILLS));
+
+        payment.setTdsApplied(true);
+        assertEquals(2, PaymentAllocationService.plan(payment, BILLS).size());
+    }
+}
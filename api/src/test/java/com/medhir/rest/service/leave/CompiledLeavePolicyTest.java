@@ -0,0 +1,83 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.model.settings.LeavePolicyModel;
+import com.medhir.rest.model.settings.LeaveTypeModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledLeavePolicyTest {
+
+    // 2025-06-02 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+
+    private static LeavePolicyModel policy(Boolean consecutiveAllowed, List<String> restrictedDays, Integer allowedValue) {
+        LeavePolicyModel.LeaveAllocation allocation = new LeavePolicyModel.LeaveAllocation();
+        allocation.setLeaveTypeId("LT1");
+        allocation.setDaysPerYear(12);
+        allocation.setConsecutiveAllowed(consecutiveAllowed);
+        if (restrictedDays != null) {
+            LeavePolicyModel.LeaveRestriction restriction = new LeavePolicyModel.LeaveRestriction();
+            restriction.setRestrictedDays(restrictedDays);
+            restriction.setAllowedValue(allowedValue);
+            allocation.setRestrictions(List.of(restriction));
+        }
+
+        LeavePolicyModel policy = new LeavePolicyModel();
+        policy.setLeavePolicyId("LP1");
+        policy.setUpdatedAt("2025-01-01T00:00");
+        policy.setLeaveAllocations(List.of(allocation));
+        return policy;
+    }
+
+    private static Map<String, LeaveTypeModel> casualLeave(boolean allowedInProbation) {
+        LeaveTypeModel leaveType = new LeaveTypeModel();
+        leaveType.setLeaveTypeId("LT1");
+        leaveType.setLeaveTypeName("Casual Leave");
+        leaveType.setAllowedInProbationPeriod(allowedInProbation);
+        return Map.of("LT1", leaveType);
+    }
+
+    private static List<String> evaluate(CompiledLeavePolicy policy, LocalDate joiningDate, LocalDate... dates) {
+        return policy.evaluate(null, new CompiledLeavePolicy.Facts(List.of(dates), joiningDate));
+    }
+
+    @Test
+    void testConsecutiveDays_rejectedUnlessAllowed() {
+        CompiledLeavePolicy strict = CompiledLeavePolicy.compile(policy(false, null, null), casualLeave(true), 0);
+        CompiledLeavePolicy relaxed = CompiledLeavePolicy.compile(policy(true, null, null), casualLeave(true), 0);
+        CompiledLeavePolicy unset = CompiledLeavePolicy.compile(policy(null, null, null), casualLeave(true), 0);
+
+        assertEquals(List.of("Casual Leave cannot be taken on consecutive days"),
+                evaluate(strict, null, MONDAY.plusDays(1), MONDAY));
+        assertTrue(evaluate(strict, null, MONDAY, MONDAY.plusDays(2)).isEmpty());
+        assertTrue(evaluate(relaxed, null, MONDAY, MONDAY.plusDays(1)).isEmpty());
+        assertTrue(evaluate(unset, null, MONDAY, MONDAY.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testRestrictedDays_countsOnlyMatchingWeekdays() {
+        CompiledLeavePolicy policy = CompiledLeavePolicy.compile(
+                policy(true, List.of("Monday", "FRI"), 1), casualLeave(true), 0);
+
+        assertTrue(evaluate(policy, null, MONDAY, MONDAY.plusDays(1), MONDAY.plusDays(2)).isEmpty());
+        assertEquals(List.of("At most 1 day(s) of Casual Leave can fall on Monday, Friday"),
+                evaluate(policy, null, MONDAY, MONDAY.plusDays(4)));
+    }
+
+    @Test
+    void testProbation_onlyCheckedWhenConfigured() {
+        LocalDate joined = MONDAY.minusMonths(2);
+        CompiledLeavePolicy withProbation = CompiledLeavePolicy.compile(policy(true, null, null), casualLeave(false), 6);
+        CompiledLeavePolicy withoutProbation = CompiledLeavePolicy.compile(policy(true, null, null), casualLeave(false), 0);
+
+        assertEquals(List.of("Casual Leave is not allowed during the probation period"),
+                evaluate(withProbation, joined, MONDAY));
+        assertTrue(evaluate(withProbation, joined, MONDAY.plusMonths(5)).isEmpty());
+        assertTrue(evaluate(withoutProbation, joined, MONDAY).isEmpty());
+    }
+}
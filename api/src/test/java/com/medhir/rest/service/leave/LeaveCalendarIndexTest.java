@@ -0,0 +1,138 @@
+package com.medhir.rest.service.leave;
+
+import com.medhir.rest.dto.leave.LeaveAbsence;
+import com.medhir.rest.model.leave.LeaveDayClaim;
+import com.medhir.rest.model.leave.LeaveModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaveCalendarIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private LeaveCalendarIndex index;
+
+    private static LeaveModel leave(String leaveId, String leaveName, String shiftType, String status, LocalDate... dates) {
+        LeaveModel leave = new LeaveModel();
+        leave.setLeaveId(leaveId);
+        leave.setEmployeeId("EMP1");
+        leave.setCompanyId("CID1");
+        leave.setLeaveName(leaveName);
+        leave.setShiftType(shiftType);
+        leave.setStatus(status);
+        leave.setLeaveDates(List.of(dates));
+        return leave;
+    }
+
+    private static List<String> ids(List<LeaveAbsence> absences) {
+        return absences.stream().map(LeaveAbsence::getLeaveId).toList();
+    }
+
+    @Test
+    void halfDaysOnlyClashWithSameHalfOrFullDay() {
+        LeaveCalendarIndex.CompanyCalendar calendar = new LeaveCalendarIndex.CompanyCalendar("CID1", 0);
+        calendar.put(leave("L1", "Leave", "FIRST_HALF", "Pending", DAY));
+
+        assertEquals(List.of(), ids(calendar.conflicts("EMP1", List.of(DAY), "SECOND_HALF")));
+        assertEquals(List.of("L1"), ids(calendar.conflicts("EMP1", List.of(DAY), "FIRST_HALF")));
+        assertEquals(List.of("L1"), ids(calendar.conflicts("EMP1", List.of(DAY), "FULL_DAY")));
+        assertEquals(List.of(), ids(calendar.conflicts("EMP2", List.of(DAY), "FULL_DAY")));
+    }
+
+    @Test
+    void absencesCoverEveryDayAndSkipCompOff() {
+        LeaveCalendarIndex.CompanyCalendar calendar = new LeaveCalendarIndex.CompanyCalendar("CID1", 0);
+        calendar.put(leave("L1", "Leave", "FULL_DAY", "Approved", DAY));
+        calendar.put(leave("L2", "Comp-Off", "FULL_DAY", "Approved", DAY.plusDays(1)));
+
+        Map<LocalDate, List<LeaveAbsence>> absences = calendar.absences(Set.of("EMP1"), DAY, DAY.plusDays(2));
+        assertEquals(List.of(DAY, DAY.plusDays(1), DAY.plusDays(2)), List.copyOf(absences.keySet()));
+        assertEquals(List.of("L1"), ids(absences.get(DAY)));
+        assertEquals(List.of(), absences.get(DAY.plusDays(1)));
+    }
+
+    @Test
+    void writesMadeWhileLoadingWinOverTheLoadedCopy() {
+        LeaveCalendarIndex.CompanyCalendar calendar = new LeaveCalendarIndex.CompanyCalendar("CID1", 0);
+        calendar.put(leave("L1", "Leave", "FULL_DAY", "Rejected", DAY));
+        calendar.putLoaded(leave("L1", "Leave", "FULL_DAY", "Pending", DAY));
+        assertEquals(List.of(), ids(calendar.conflicts("EMP1", List.of(DAY), "FULL_DAY")));
+
+        calendar.loaded();
+        calendar.putLoaded(leave("L1", "Leave", "FULL_DAY", "Pending", DAY));
+        assertEquals(List.of("L1"), ids(calendar.conflicts("EMP1", List.of(DAY), "FULL_DAY")));
+    }
+
+    @Test
+    void claimTakesEachHalfOfEachDay() {
+        assertEquals(List.of(), index.claim(leave("L1", "Leave", "FULL_DAY", "Pending", DAY, DAY.plusDays(1))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<LeaveDayClaim>> claims = ArgumentCaptor.forClass(Collection.class);
+        verify(mongoTemplate).insert(claims.capture(), eq(LeaveDayClaim.class));
+        assertEquals(4, claims.getValue().size());
+        assertTrue(claims.getValue().stream().allMatch(claim -> "L1".equals(claim.getLeaveId())));
+        assertEquals(List.of("SECOND_HALF"), LeaveCalendarIndex.halves("SECOND_HALF"));
+    }
+
+    @Test
+    void overlappingClaimReportsHolderAndGivesBackOwnDays() {
+        doThrow(new DuplicateKeyException("employeeId_date_half"))
+                .when(mongoTemplate).insert(anyCollection(), eq(LeaveDayClaim.class));
+        when(mongoTemplate.find(any(Query.class), eq(LeaveDayClaim.class)))
+                .thenReturn(List.of(new LeaveDayClaim("C1", "EMP1", DAY, "FIRST_HALF", "L1", Instant.now())));
+        when(mongoTemplate.find(any(Query.class), eq(LeaveModel.class))).thenReturn(List.of());
+
+        assertEquals(List.of("L1"), index.claim(leave("L2", "Leave", "FIRST_HALF", "Pending", DAY)));
+        // Only the release of L2's own days; L1's claim is recent, so its apply may still be in flight
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(LeaveDayClaim.class));
+    }
+
+    @Test
+    void abandonedClaimIsDroppedAndClaimRetried() {
+        doThrow(new DuplicateKeyException("employeeId_date_half")).doReturn(List.of())
+                .when(mongoTemplate).insert(anyCollection(), eq(LeaveDayClaim.class));
+        when(mongoTemplate.find(any(Query.class), eq(LeaveDayClaim.class))).thenReturn(List.of(
+                new LeaveDayClaim("C1", "EMP1", DAY, "FIRST_HALF", "L1", Instant.now().minus(1, ChronoUnit.HOURS))));
+        when(mongoTemplate.find(any(Query.class), eq(LeaveModel.class))).thenReturn(List.of());
+
+        assertEquals(List.of(), index.claim(leave("L2", "Leave", "FIRST_HALF", "Pending", DAY)));
+        verify(mongoTemplate, times(2)).insert(anyCollection(), eq(LeaveDayClaim.class));
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(LeaveDayClaim.class));
+    }
+
+    @Test
+    void rejectedLeaveReleasesItsDays() {
+        index.update(leave("L1", "Leave", "FULL_DAY", "Rejected", DAY));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(LeaveDayClaim.class));
+        assertEquals("L1", query.getValue().getQueryObject().get("leaveId"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.medhir.rest.service.org;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgGraphTest {
+
+    // CEO <- CTO <- LEAD <- DEV1, DEV2
+    private static OrgGraph.Graph graph() {
+        OrgGraph.Graph graph = new OrgGraph.Graph(0);
+        graph.put("CEO", "CID1", null);
+        graph.put("CTO", "CID1", "CEO");
+        graph.put("LEAD", "CID1", "CTO");
+        graph.put("DEV1", "CID1", "LEAD");
+        graph.put("DEV2", "CID1", "LEAD");
+        return graph;
+    }
+
+    @Test
+    void answersReportsAndChains() {
+        OrgGraph.Graph graph = graph();
+
+        assertEquals(List.of("DEV1", "DEV2"), graph.directReports("LEAD"));
+        assertEquals(List.of("CTO", "LEAD", "DEV1", "DEV2"), graph.allReports("CEO"));
+        assertEquals(List.of("LEAD", "CTO", "CEO"), graph.chain("DEV1"));
+        assertTrue(graph.ancestors("DEV2").contains("CEO"));
+        assertFalse(graph.ancestors("CTO").contains("LEAD"));
+    }
+
+    @Test
+    void movingAnEmployeeReportsBothManagersAndResetsTheClosure() {
+        OrgGraph.Graph graph = graph();
+        assertTrue(graph.ancestors("DEV1").contains("LEAD"));
+
+        Set<String> affected = graph.put("DEV1", "CID1", "CTO");
+
+        assertEquals(Set.of("LEAD", "CTO"), affected);
+        assertEquals(List.of("DEV2"), graph.directReports("LEAD"));
+        assertFalse(graph.ancestors("DEV1").contains("LEAD"));
+        assertTrue(graph.put("DEV1", "CID1", "CTO").isEmpty());
+    }
+
+    @Test
+    void removingAnEmployeeUpdatesTheirManager() {
+        OrgGraph.Graph graph = graph();
+
+        assertEquals(Set.of("LEAD"), graph.remove("DEV2"));
+        assertEquals(List.of("DEV1"), graph.directReports("LEAD"));
+        assertNull(graph.company("DEV2"));
+    }
+
+    @Test
+    void stopsAtCycles() {
+        OrgGraph.Graph graph = new OrgGraph.Graph(0);
+        graph.put("A", "CID1", "B");
+        graph.put("B", "CID1", "A");
+
+        assertEquals(List.of("B"), graph.chain("A"));
+        assertEquals(List.of("B"), graph.allReports("A"));
+    }
+}
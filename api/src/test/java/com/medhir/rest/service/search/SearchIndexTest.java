@@ -0,0 +1,63 @@
+package com.medhir.rest.service.search;
+
+import com.medhir.rest.dto.search.SearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private static SearchIndex.Shard shard() {
+        SearchIndex.Shard shard = new SearchIndex.Shard(0);
+        put(shard, "EMP1", "Ravi Kumar", "+91 98450 12345");
+        put(shard, "EMP2", "Kumar Swamy", "9845067890");
+        put(shard, "EMP3", "Anjali Rao", "9000000000");
+        put(shard, "EMP4", "Ravindra Kumaraswamy", null);
+        return shard;
+    }
+
+    private static void put(SearchIndex.Shard shard, String id, String name, String phone) {
+        shard.put(new SearchHit("EMPLOYEE", id, name, id), name, id, phone);
+    }
+
+    private static List<String> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getId).toList();
+    }
+
+    @Test
+    void everyTermMustPrefixAWord() {
+        SearchIndex.Shard shard = shard();
+
+        assertEquals(List.of("EMP1", "EMP4"), ids(shard.search(List.of("rav", "kum"), 10)));
+        assertEquals(List.of("EMP3"), ids(shard.search(List.of("emp3"), 10)));
+        assertTrue(shard.search(List.of("ravi", "rao"), 10).isEmpty());
+    }
+
+    @Test
+    void exactWordsAndNameStartsRankFirst() {
+        SearchIndex.Shard shard = shard();
+
+        // EMP1 and EMP2 contain "kumar" as a word and tie on score, so they are ordered by name
+        assertEquals(List.of("EMP2", "EMP1", "EMP4"), ids(shard.search(List.of("kumar"), 10)));
+        assertEquals(List.of("EMP2"), ids(shard.search(List.of("kumar"), 1)));
+        // A prefix of the first word of the name beats a prefix elsewhere
+        assertEquals(List.of("EMP2", "EMP1", "EMP4"), ids(shard.search(List.of("kum"), 10)));
+    }
+
+    @Test
+    void removedDocumentsStopMatching() {
+        SearchIndex.Shard shard = shard();
+        shard.remove("EMP1");
+        put(shard, "EMP4", "Ravindra Kumaraswamy", null);
+
+        assertEquals(List.of("EMP4"), ids(shard.search(List.of("rav"), 10)));
+    }
+
+    @Test
+    void normalizesAccentsCaseAndPunctuation() {
+        assertEquals(List.of("jose", "garcia", "a1"), SearchIndex.tokens("  Jos\u00e9 GARC\u00cdA-a1 "));
+        assertTrue(SearchIndex.tokens(null).isEmpty());
+    }
+}
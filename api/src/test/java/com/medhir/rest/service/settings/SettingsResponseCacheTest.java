@@ -0,0 +1,34 @@
+package com.medhir.rest.service.settings;
+
+import com.medhir.rest.model.settings.SettingsVersion;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettingsResponseCacheTest {
+
+    @Test
+    void etagChangesWithCompanyVersionAndEpoch() {
+        SettingsVersion version = new SettingsVersion("leave-types:CID1", 3, 1_700_000_000_000L);
+        String etag = SettingsResponseCache.etag(SettingsResponseCache.LEAVE_TYPES, "CID1", version);
+
+        assertTrue(etag.startsWith("\"leave-types-CID1-") && etag.endsWith("-3\""));
+        assertNotEquals(etag, SettingsResponseCache.etag(SettingsResponseCache.LEAVE_TYPES, "CID2",
+                new SettingsVersion("leave-types:CID2", 3, 1_700_000_000_000L)));
+        assertNotEquals(etag, SettingsResponseCache.etag(SettingsResponseCache.LEAVE_TYPES, "CID1",
+                new SettingsVersion("leave-types:CID1", 4, 1_700_000_000_000L)));
+        assertNotEquals(etag, SettingsResponseCache.etag(SettingsResponseCache.LEAVE_TYPES, "CID1",
+                new SettingsVersion("leave-types:CID1", 3, 1_700_000_000_001L)));
+    }
+
+    @Test
+    void keepsTheNewerOfTwoVersions() {
+        SettingsVersion older = new SettingsVersion("departments:CID1", 7, 100L);
+        SettingsVersion newer = new SettingsVersion("departments:CID1", 8, 100L);
+        SettingsVersion recreated = new SettingsVersion("departments:CID1", 1, 200L);
+
+        assertSame(newer, SettingsResponseCache.newer(older, newer));
+        assertSame(newer, SettingsResponseCache.newer(newer, older));
+        assertSame(recreated, SettingsResponseCache.newer(newer, recreated));
+    }
+}
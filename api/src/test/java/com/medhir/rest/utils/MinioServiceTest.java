@@ -0,0 +1,26 @@
+package com.medhir.rest.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinioServiceTest {
+
+    @Test
+    void locatesBucketAndObjectName() {
+        assertArrayEquals(new String[]{"documents", "EMP1/abc_pan card.pdf"},
+                MinioService.locate("http://192.168.0.200:9000/documents/EMP1/abc_pan card.pdf"));
+        assertNull(MinioService.locate("http://192.168.0.200:9000/documents/"));
+        assertNull(MinioService.locate(null));
+    }
+
+    @Test
+    void releasesOnlyReferencesThatWereDropped() {
+        assertEquals(List.of("a"), MinioService.replaced(Arrays.asList("a", "b", null), List.of("b", "c")));
+        assertEquals(List.of("a"), MinioService.replaced(List.of("a", "a"), List.of("a")));
+        assertEquals(List.of(), MinioService.replaced(List.of("a"), List.of("a")));
+    }
+}
@@ -0,0 +1,52 @@
+package com.medhir.rest.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void roundsHalfToEven() {
+        assertEquals(2, Money.multiply(5, 1, 2));   // 2.5 -> 2
+        assertEquals(4, Money.multiply(7, 1, 2));   // 3.5 -> 4
+        assertEquals(-2, Money.multiply(-5, 1, 2));
+        assertEquals(-4, Money.multiply(-7, 1, 2));
+        assertEquals(3, Money.multiply(8, 1, 3));   // 2.67 -> 3
+    }
+
+    @Test
+    void proratesByPayableDays() {
+        // 50,000.00 for 26 of 28 days = 46,428.571...
+        assertEquals(4_642_857, Money.prorate(5_000_000, 26, 28));
+        // Half days count
+        assertEquals(2_750_000, Money.prorate(3_000_000, 27.5, 30));
+        assertEquals(0, Money.prorate(3_000_000, 10, 0));
+    }
+
+    @Test
+    void takesPercentages() {
+        assertEquals(557_143, Money.percent(7_428_571, 7.5));
+        assertEquals(742_857, Money.percent(7_428_571, 10));
+    }
+
+    @Test
+    void convertsAtTheEdges() {
+        assertEquals(30, Money.fromRupees(0.1 + 0.2));
+        assertEquals(0, Money.fromRupees((Double) null));
+        assertEquals(12_344, Money.fromBigDecimal(new BigDecimal("123.445")));
+        assertEquals(12_346, Money.fromBigDecimal(new BigDecimal("123.455")));
+        assertEquals(0, Money.fromBigDecimal(null));
+        assertEquals(new BigDecimal("123.45"), Money.toBigDecimal(12_345));
+        assertEquals(123.45, Money.toRupees(12_345));
+    }
+
+    @Test
+    void failsOnOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3, 1));
+        assertThrows(ArithmeticException.class, () -> Money.fromRupees(Double.NaN));
+    }
+}
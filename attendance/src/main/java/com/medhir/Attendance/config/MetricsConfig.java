@@ -0,0 +1,20 @@
+package com.medhir.Attendance.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics Spring Boot does not record on its own. Endpoints, Mongo command latency and pools,
+ * RestTemplates built from the {@code RestTemplateBuilder}, Tomcat threads and {@code @Timed}
+ * services are instrumented by Boot; everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentMetricsCustomizer(MeterRegistry meterRegistry) {
+        return builder -> builder.addCommandListener(new MongoDocumentMetrics(meterRegistry));
+    }
+}
@@ -0,0 +1,99 @@
+package com.medhir.Attendance.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many documents each Mongo command read or wrote, as {@code mongodb.driver.documents}
+ * tagged with the command and collection. Latency per command and collection is already recorded
+ * by Spring Boot as {@code mongodb.driver.commands}; the two together show which queries are slow
+ * because they move too many documents.
+ */
+public class MongoDocumentMetrics implements CommandListener {
+
+    static final String METRIC = "mongodb.driver.documents";
+
+    private static final Set<String> COUNTED = Set.of(
+            "find", "getMore", "aggregate", "insert", "update", "delete", "count", "findAndModify");
+
+    private final MeterRegistry registry;
+
+    // Collection of each counted command in flight, by driver request id
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    public MongoDocumentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (COUNTED.contains(event.getCommandName())) {
+            collections.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collections.remove(event.getRequestId());
+        if (collection == null) {
+            return;
+        }
+        long documents = documentsOf(event.getCommandName(), event.getResponse());
+        if (documents >= 0) {
+            DistributionSummary.builder(METRIC)
+                    .baseUnit("documents")
+                    .tag("command", event.getCommandName())
+                    .tag("collection", collection)
+                    .register(registry)
+                    .record(documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collections.remove(event.getRequestId());
+    }
+
+    static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : "none";
+    }
+
+    /**
+     * Documents returned by a read or affected by a write, or -1 when the reply does not say.
+     */
+    static long documentsOf(String commandName, BsonDocument reply) {
+        if (reply == null) {
+            return -1;
+        }
+        switch (commandName) {
+            case "find", "aggregate", "getMore" -> {
+                BsonDocument cursor = reply.getDocument("cursor", null);
+                if (cursor == null) {
+                    return -1;
+                }
+                BsonArray batch = cursor.getArray("getMore".equals(commandName) ? "nextBatch" : "firstBatch", null);
+                return batch != null ? batch.size() : -1;
+            }
+            case "findAndModify" -> {
+                BsonValue value = reply.get("value");
+                return value != null && !value.isNull() ? 1 : 0;
+            }
+            default -> {
+                BsonValue n = reply.get("n");
+                return n != null && n.isNumber() ? n.asNumber().longValue() : -1;
+            }
+        }
+    }
+}
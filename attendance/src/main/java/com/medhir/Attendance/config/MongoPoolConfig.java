@@ -0,0 +1,19 @@
+package com.medhir.Attendance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps {@code mongodb.pool.min-size} connections open so requests after a restart or a quiet spell
+ * do not wait for connection setup; the startup warm-up opens them before the service reports ready.
+ */
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(@Value("${mongodb.pool.min-size:10}") int minSize) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.minSize(minSize));
+    }
+}
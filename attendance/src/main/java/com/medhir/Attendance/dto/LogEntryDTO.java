@@ -13,4 +13,5 @@ public class LogEntryDTO {
     private String type;
     private String timestamp; // human-readable format
     private String checkinImgUrl;
+    private String checkinDisplayUrl; // recompressed copy of checkinImgUrl
 }
@@ -3,6 +3,7 @@ package com.medhir.Attendance.model;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
@@ -13,4 +14,8 @@ public class RegisteredUser {
     private String empId;
     private String name;
     private String imgUrl;
+
+    // Derived from imgUrl when listing, not stored
+    @Transient
+    private String thumbnailUrl;
 } 
\ No newline at end of file
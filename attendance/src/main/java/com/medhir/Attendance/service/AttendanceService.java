@@ -8,6 +8,7 @@ import com.medhir.Attendance.repository.DailyAttendanceRepository;
 import com.medhir.Attendance.repository.EmployeeAttendanceSummaryRepository;
 import com.medhir.Attendance.util.EpochUtil;
 import com.medhir.Attendance.util.MinIOService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -29,6 +30,7 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "service.method", histogram = true)
 public class AttendanceService {
 
     @Value("${EMPLOYEE_SERVICE_URL}")
@@ -178,7 +180,8 @@ public class AttendanceService {
                 .map(log -> new LogEntryDTO(
                         log.getType(),
                         EpochUtil.fromEpochSeconds(log.getTimestampEpoch(), zone).toString(),
-                        log.getCheckinImgUrl()
+                        log.getCheckinImgUrl(),
+                        MinIOService.toDisplayUrl(log.getCheckinImgUrl())
                 ))
                 .collect(Collectors.toList());
 
@@ -619,11 +622,18 @@ public class AttendanceService {
 
 
     public List<RegisteredUser> getRegisteredUsers() {
-        return registeredUserRepository.findAll();
+        List<RegisteredUser> users = registeredUserRepository.findAll();
+        users.forEach(this::withThumbnail);
+        return users;
     }
 
     public Optional<RegisteredUser> getRegisteredUserByEmpId(String empId) {
-        return registeredUserRepository.findByEmpId(empId);
+        return registeredUserRepository.findByEmpId(empId).map(this::withThumbnail);
+    }
+
+    private RegisteredUser withThumbnail(RegisteredUser user) {
+        user.setThumbnailUrl(MinIOService.toThumbnailUrl(user.getImgUrl()));
+        return user;
     }
 
     public Map<String, Object> getTeamCheckInStatus(String managerId) {
@@ -663,6 +673,9 @@ public class AttendanceService {
             Employee employee = employeeMap.get(empId);
             if (employee == null) continue;
             memberStatus.put("name", employee.getName());
+            if (employee.getEmployeeImgUrl() != null) {
+                memberStatus.put("thumbnailUrl", MinIOService.toThumbnailUrl(employee.getEmployeeImgUrl()));
+            }
 
             // Get attendance logs
             DailyAttendance attendance = attendanceMap.get(empId);
@@ -673,6 +686,9 @@ public class AttendanceService {
                 // Convert timestampEpoch to readable LocalDateTime in IST
                 LocalDateTime lastActionTime = EpochUtil.fromEpochSeconds(lastLog.getTimestampEpoch(), zone);
                 memberStatus.put("lastActionTime", lastActionTime.toString());
+                if (lastLog.getCheckinImgUrl() != null) {
+                    memberStatus.put("checkinThumbnailUrl", MinIOService.toThumbnailUrl(lastLog.getCheckinImgUrl()));
+                }
             } else {
                 memberStatus.put("status", "not_checked_in");
             }
@@ -9,6 +9,7 @@ import com.medhir.Attendance.repository.DailyAttendanceRepository;
 import com.medhir.Attendance.repository.EmployeeRepository;
 import com.medhir.Attendance.repository.LeaveRepository;
 import com.medhir.Attendance.util.EpochUtil;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "service.method", histogram = true)
 public class AttendanceSummaryService {
 
     private static final ZoneId ZONE_ID = ZoneId.of("Asia/Kolkata");
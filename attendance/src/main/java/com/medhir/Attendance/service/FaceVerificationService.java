@@ -4,6 +4,7 @@ import io.minio.*;
 import io.minio.errors.MinioException;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -26,7 +27,11 @@ public class FaceVerificationService {
     @Value("${PYTHON_FACE_RECOGNITION}")
     private String PYTHON_FACE_RECOGNITION;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    public FaceVerificationService(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder.build();
+    }
 
     private File convertMultipartFileToFile(MultipartFile file) throws IOException {
         File tempFile = File.createTempFile("uploaded_", ".jpg");
@@ -0,0 +1,213 @@
+package com.medhir.Attendance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medhir.Attendance.dto.MonthlyAttendanceSummaryDTO;
+import com.medhir.Attendance.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs representative work once before the service reports ready, so the first check-ins after a
+ * restart do not pay for class loading, JIT compilation, Mongo connection setup and Jackson
+ * serializer creation.
+ * <p>
+ * The warm-up runs in an {@link ApplicationReadyEvent} listener, and this indicator is part of the
+ * readiness group and reports {@code OUT_OF_SERVICE} until it is done. Phases:
+ * <ul>
+ *     <li>{@code mongo} - opens {@code warmup.mongo-connections} pooled connections</li>
+ *     <li>{@code summary} - builds the current monthly summary of a stored employee</li>
+ *     <li>{@code json} - serializes a synthetic monthly summary</li>
+ * </ul>
+ * A failing phase is logged and skipped, and phases still pending after {@code warmup.timeout-ms}
+ * are abandoned: phases run on a worker thread, so one stuck at the deadline is cancelled and later
+ * phases are skipped. Warm-up never stops the service from starting.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements HealthIndicator {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:500}")
+    private int iterations;
+
+    @Value("${warmup.mongo-connections:10}")
+    private int mongoConnections;
+
+    @Value("${warmup.timeout-ms:60000}")
+    private long timeoutMillis;
+
+    private final Map<String, Object> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile boolean finished;
+    private volatile long totalMillis;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            finished = true;
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMillis;
+
+        // Phases run on their own thread so the deadline holds even when one of them blocks
+        ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            phase(worker, "mongo", deadline, this::warmMongo);
+            phase(worker, "summary", deadline, this::warmSummary);
+            phase(worker, "json", deadline, this::warmJson);
+        } finally {
+            worker.shutdownNow();
+        }
+
+        totalMillis = System.currentTimeMillis() - start;
+        finished = true;
+        log.info("Startup warm-up finished in {} ms: {}", totalMillis, phases);
+    }
+
+    @Override
+    public Health health() {
+        if (!enabled) {
+            return Health.up().withDetail("warmup", "disabled").build();
+        }
+        Health.Builder health = finished ? Health.up().withDetail("totalMs", totalMillis) : Health.outOfService();
+        synchronized (phases) {
+            return health.withDetail("phases", new LinkedHashMap<>(phases)).build();
+        }
+    }
+
+    private void phase(ExecutorService worker, String name, long deadline, Runnable work) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            phases.put(name, "skipped: timed out");
+            return;
+        }
+        long start = System.nanoTime();
+        Future<?> future = worker.submit(work);
+        try {
+            future.get(remaining, TimeUnit.MILLISECONDS);
+            phases.put(name, (System.nanoTime() - start) / 1_000_000);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Startup warm-up phase {} did not finish within {} ms, abandoning it", name, timeoutMillis);
+            phases.put(name, "timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            log.warn("Startup warm-up phase {} failed: {}", name, cause.getMessage());
+            phases.put(name, "failed: " + cause.getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            phases.put(name, "interrupted");
+        }
+    }
+
+    private void warmMongo() {
+        // Concurrent pings make the driver open one connection per thread
+        ExecutorService executor = Executors.newFixedThreadPool(mongoConnections, runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup-mongo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> pings = new ArrayList<>();
+            for (int i = 0; i < mongoConnections * 4; i++) {
+                pings.add(executor.submit(() -> mongoTemplate.executeCommand("{ ping: 1 }")));
+            }
+            for (Future<?> ping : pings) {
+                ping.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening Mongo connections", e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmSummary() {
+        Employee employee = mongoTemplate.findOne(new Query(), Employee.class);
+        if (employee == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        attendanceSummaryService.getMonthlySummary(employee.getEmployeeId(), today.getYear(), today.getMonthValue());
+    }
+
+    private void warmJson() {
+        MonthlyAttendanceSummaryDTO summary = syntheticSummary();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                objectMapper.writeValueAsBytes(summary);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static MonthlyAttendanceSummaryDTO syntheticSummary() {
+        LocalDate first = LocalDate.now().withDayOfMonth(1);
+        List<LocalDate> present = new ArrayList<>();
+        List<LocalDate> weeklyOffs = new ArrayList<>();
+        List<LocalDate> absent = new ArrayList<>();
+        for (int day = 0; day < first.lengthOfMonth(); day++) {
+            LocalDate date = first.plusDays(day);
+            if (day % 7 == 6) {
+                weeklyOffs.add(date);
+            } else if (day % 11 == 10) {
+                absent.add(date);
+            } else {
+                present.add(date);
+            }
+        }
+        MonthlyAttendanceSummaryDTO summary = new MonthlyAttendanceSummaryDTO();
+        summary.setPresentDates(present);
+        summary.setFullLeaveDates(List.of(first.plusDays(1)));
+        summary.setHalfDayLeaveDates(List.of(first.plusDays(2)));
+        summary.setFullCompoffDates(List.of());
+        summary.setHalfCompoffDates(List.of());
+        summary.setWeeklyOffDates(weeklyOffs);
+        summary.setAbsentDates(absent);
+        return summary;
+    }
+}
@@ -1,6 +1,7 @@
 package com.medhir.Attendance.util;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -14,6 +15,9 @@ import org.springframework.web.multipart.MultipartFile;
 @Service
 public class MinIOService {
 
+    private static final String THUMBNAIL_PREFIX = "thumbnails/";
+    private static final String DISPLAY_PREFIX = "display/";
+
     @Value("${minio.serviceUrl}")
     private String minioServiceUrl;
 
@@ -25,7 +29,11 @@ public class MinIOService {
 
 
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    public MinIOService(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder.build();
+    }
 
     public String generateUUID() {
         return restTemplate.getForObject(minioServiceUrl + "/generate-uuid", String.class);
@@ -57,4 +65,34 @@ public class MinIOService {
         return uploadFile(checkinBucketName, employeeId, file);
     }
 
+    /**
+     * Maps an object URL returned by the MinIO service to its thumbnail derivative,
+     * which the MinIO service stores under {@code {bucket}/thumbnails/{filePath}}.
+     * Returns the input unchanged when it does not look like a bucket/object URL, or when it already
+     * points at a derivative (retention replaces old originals with their thumbnail).
+     */
+    public static String toThumbnailUrl(String objectUrl) {
+        return toDerivativeUrl(objectUrl, THUMBNAIL_PREFIX);
+    }
+
+    public static String toDisplayUrl(String objectUrl) {
+        return toDerivativeUrl(objectUrl, DISPLAY_PREFIX);
+    }
+
+    private static String toDerivativeUrl(String objectUrl, String prefix) {
+        if (objectUrl == null || objectUrl.isEmpty()) {
+            return objectUrl;
+        }
+        int schemeEnd = objectUrl.indexOf("://");
+        int bucketStart = objectUrl.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        int objectStart = bucketStart < 0 ? -1 : objectUrl.indexOf('/', bucketStart + 1);
+        if (objectStart < 0 || objectStart == objectUrl.length() - 1) {
+            return objectUrl;
+        }
+        String objectName = objectUrl.substring(objectStart + 1);
+        if (objectName.startsWith(THUMBNAIL_PREFIX) || objectName.startsWith(DISPLAY_PREFIX)) {
+            return objectUrl;
+        }
+        return objectUrl.substring(0, objectStart + 1) + prefix + objectName;
+    }
 }
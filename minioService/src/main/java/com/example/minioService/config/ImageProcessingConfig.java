@@ -0,0 +1,41 @@
+package com.example.minioService.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ImageProcessingConfig {
+
+    @Value("${image.derivatives.pool-size:2}")
+    private int poolSize;
+
+    @Value("${image.derivatives.queue-capacity:200}")
+    private int queueCapacity;
+
+    // Bounded pool: when the queue is full the uploading thread does the resize itself,
+    // which slows uploads down instead of dropping derivatives or growing memory without limit
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor imageProcessingExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.minioService.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-bucket retention tiers, e.g.
+ * <pre>
+ * retention.buckets.checkin-images.full-resolution-days=30
+ * retention.buckets.checkin-images.reduced-copy=thumbnail
+ * retention.buckets.checkin-images.delete-after-days=365
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "retention")
+public class RetentionProperties {
+
+    private boolean enabled = true;
+
+    // Objects handled per MinIO delete call / Mongo bulk write
+    private int batchSize = 500;
+
+    private Map<String, BucketPolicy> buckets = new HashMap<>();
+
+    @Data
+    public static class BucketPolicy {
+        // Originals older than this are replaced by their reduced copy
+        private int fullResolutionDays = 30;
+
+        // Which derivative survives the original: "thumbnail" or "display"
+        private String reducedCopy = "thumbnail";
+
+        // Everything older than this is deleted; 0 keeps the reduced copy forever
+        private int deleteAfterDays = 0;
+    }
+}
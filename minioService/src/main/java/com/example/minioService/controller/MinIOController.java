@@ -1,7 +1,10 @@
 package com.example.minioService.controller;
 
+import com.example.minioService.model.DerivativeBackfillStatus;
+import com.example.minioService.service.ImageDerivativeService;
 import com.example.minioService.service.MinIOService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,6 +15,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class MinIOController {
 
     private final MinIOService minIOService;
+    private final ImageDerivativeService imageDerivativeService;
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadFile(
@@ -27,5 +31,48 @@ public class MinIOController {
         String generatedId = minIOService.generateUniqueID();
         return ResponseEntity.ok(generatedId);
     }
-}
 
+    // Lookup only; 204 means the content is not stored
+    @GetMapping("/blobs/{bucketName}/{sha256}")
+    public ResponseEntity<String> findExisting(
+            @PathVariable String bucketName,
+            @PathVariable String sha256) {
+        return minIOService.findExisting(bucketName, sha256)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    // Lets callers skip re-sending a document that is already stored by taking a reference on it,
+    // released through DELETE /object; 204 means "upload it"
+    @PostMapping("/blobs/{bucketName}/{sha256}/references")
+    public ResponseEntity<String> acquireExisting(
+            @PathVariable String bucketName,
+            @PathVariable String sha256) {
+        return minIOService.acquireExisting(bucketName, sha256)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("/object")
+    public ResponseEntity<String> releaseFile(
+            @RequestParam("bucketName") String bucketName,
+            @RequestParam("filePath") String filePath) {
+        boolean deleted = minIOService.releaseFile(bucketName, filePath);
+        return ResponseEntity.ok(deleted ? "File deleted" : "Reference released");
+    }
+
+    @PostMapping("/derivatives/backfill")
+    public ResponseEntity<DerivativeBackfillStatus> backfillDerivatives(@RequestParam("bucketName") String bucketName) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(imageDerivativeService.startBackfill(bucketName));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/derivatives/backfill/{jobId}")
+    public ResponseEntity<DerivativeBackfillStatus> getBackfill(@PathVariable String jobId) {
+        DerivativeBackfillStatus status = imageDerivativeService.getBackfill(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.minioService.controller;
+
+import com.example.minioService.model.RetentionRunSummary;
+import com.example.minioService.service.RetentionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/minio/retention")
+@RequiredArgsConstructor
+public class RetentionController {
+
+    private final RetentionService retentionService;
+
+    @PostMapping("/run")
+    public ResponseEntity<List<RetentionRunSummary>> runRetention() {
+        try {
+            return ResponseEntity.ok(retentionService.sweepAll());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, RetentionRunSummary>> getStatus() {
+        return ResponseEntity.ok(retentionService.getLastRuns());
+    }
+}
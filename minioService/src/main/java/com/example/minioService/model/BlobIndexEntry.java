@@ -0,0 +1,35 @@
+package com.example.minioService.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One stored object per (bucket, content hash). Every upload that resolves to the same
+ * content takes a reference; the object is removed from MinIO when the last one is released.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "blob_index")
+@CompoundIndexes({
+        @CompoundIndex(name = "bucket_sha256", def = "{'bucket': 1, 'sha256': 1}", unique = true),
+        @CompoundIndex(name = "bucket_objectName", def = "{'bucket': 1, 'objectName': 1}")
+})
+public class BlobIndexEntry {
+
+    @Id
+    private String id;
+    private String bucket;
+    private String sha256;
+    private String objectName; // key of the first upload with this content, returned to every later caller
+    private long size;
+    private String contentType;
+    private long refCount;
+    private Instant createdAt;
+    private Instant lastReferencedAt;
+}
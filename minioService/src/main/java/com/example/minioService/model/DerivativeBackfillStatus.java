@@ -0,0 +1,21 @@
+package com.example.minioService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DerivativeBackfillStatus {
+    private String jobId;
+    private String bucket;
+    private String status;  // RUNNING, COMPLETED, FAILED
+    private long queued;    // originals without a thumbnail handed to the worker pool
+    private long processed; // originals whose derivatives have been built (or failed to build)
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.example.minioService.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+public class RetentionRunSummary {
+    private String bucket;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long objectsDowngraded; // originals replaced by their reduced copy
+    private long objectsDeleted;    // originals and derivatives removed for good
+    private long bytesReclaimed;
+    private long referencesUpdated; // documents whose stored URL was rewritten or removed
+    private long errors;
+
+    public RetentionRunSummary(String bucket) {
+        this.bucket = bucket;
+        this.startedAt = Instant.now();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.minioService.repository;
+
+import com.example.minioService.model.BlobIndexEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BlobIndexRepository extends MongoRepository<BlobIndexEntry, String> {
+}
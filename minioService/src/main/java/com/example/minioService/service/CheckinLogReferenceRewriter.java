@@ -0,0 +1,76 @@
+package com.example.minioService.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Rewrites {@code daily_attendance.logs[].checkinImgUrl} written by the attendance service.
+ * Check-in objects are stored as {@code {employeeId}/{id}_{name}}, so each update is narrowed
+ * to one employee's attendance days instead of scanning the whole collection.
+ */
+@Component
+@RequiredArgsConstructor
+public class CheckinLogReferenceRewriter implements ObjectReferenceRewriter {
+
+    private static final String DAILY_ATTENDANCE_COLLECTION = "daily_attendance";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${minio.checkinBucketName:checkin-images}")
+    private String checkinBucketName;
+
+    @Value("${minio.url}")
+    private String minioUrl;
+
+    @Override
+    public boolean supports(String bucketName) {
+        return checkinBucketName.equals(bucketName);
+    }
+
+    @Override
+    public long rewrite(String bucketName, Map<String, String> replacements) {
+        if (replacements.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DAILY_ATTENDANCE_COLLECTION);
+        String bucketPrefix = minioUrl + "/" + bucketName + "/";
+
+        for (Map.Entry<String, String> replacement : replacements.entrySet()) {
+            String oldUrl = replacement.getKey();
+            Criteria criteria = Criteria.where("logs.checkinImgUrl").is(oldUrl);
+            String employeeId = employeeIdOf(oldUrl, bucketPrefix);
+            if (employeeId != null) {
+                criteria = Criteria.where("employeeId").is(employeeId).and("logs.checkinImgUrl").is(oldUrl);
+            }
+
+            Update update = replacement.getValue() == null
+                    ? new Update().unset("logs.$[log].checkinImgUrl")
+                    : new Update().set("logs.$[log].checkinImgUrl", replacement.getValue());
+            update.filterArray(Criteria.where("log.checkinImgUrl").is(oldUrl));
+
+            bulkOps.updateMulti(new Query(criteria), update);
+        }
+        return bulkOps.execute().getModifiedCount();
+    }
+
+    private static String employeeIdOf(String url, String bucketPrefix) {
+        if (!url.startsWith(bucketPrefix)) {
+            return null;
+        }
+        String objectName = url.substring(bucketPrefix.length());
+        // Reduced copies live under thumbnails/ or display/ in front of the original path
+        if (ImageDerivativeService.isDerivativePath(objectName)) {
+            objectName = objectName.substring(objectName.indexOf('/') + 1);
+        }
+        int employeeEnd = objectName.indexOf('/');
+        return employeeEnd > 0 ? objectName.substring(0, employeeEnd) : null;
+    }
+}
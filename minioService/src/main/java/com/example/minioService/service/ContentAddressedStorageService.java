@@ -0,0 +1,142 @@
+package com.example.minioService.service;
+
+import com.example.minioService.model.BlobIndexEntry;
+import com.example.minioService.repository.BlobIndexRepository;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reference-counted SHA-256 index over stored objects. Repeat uploads of the same document
+ * (Aadhaar/PAN scans on every update request, re-sent bill attachments) resolve to the object
+ * stored first, so the caller gets back that object's URL and nothing new is written to MinIO.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentAddressedStorageService {
+
+    private final BlobIndexRepository blobIndexRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MinioClient minioClient;
+
+    @Value("${dedup.buckets:documents,bills}")
+    private String buckets;
+
+    private Set<String> dedupBuckets;
+
+    @PostConstruct
+    void init() {
+        dedupBuckets = Arrays.stream(buckets.split(","))
+                .map(String::trim)
+                .filter(b -> !b.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isEnabled(String bucketName) {
+        return dedupBuckets.contains(bucketName);
+    }
+
+    /**
+     * Looks up an already stored blob with this content without taking a reference.
+     *
+     * @return the object name of the stored blob, or empty when the content is new
+     */
+    public Optional<String> find(String bucketName, String sha256) {
+        BlobIndexEntry entry = mongoTemplate.findOne(
+                Query.query(Criteria.where("bucket").is(bucketName).and("sha256").is(sha256).and("refCount").gt(0)),
+                BlobIndexEntry.class);
+        return Optional.ofNullable(entry).map(BlobIndexEntry::getObjectName);
+    }
+
+    /**
+     * Takes a reference on an already stored blob with this content.
+     *
+     * @return the object name of the stored blob, or empty when the content is new
+     */
+    public Optional<String> acquire(String bucketName, String sha256) {
+        BlobIndexEntry entry = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("bucket").is(bucketName).and("sha256").is(sha256)),
+                new Update().inc("refCount", 1).set("lastReferencedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                BlobIndexEntry.class);
+        return Optional.ofNullable(entry).map(BlobIndexEntry::getObjectName);
+    }
+
+    /**
+     * Records a freshly uploaded object as the canonical blob for its content. When another
+     * upload of the same content won the race, a reference on that blob is taken instead and
+     * its object name is returned; the caller should then drop its own copy.
+     */
+    public String register(String bucketName, String sha256, String objectName, long size, String contentType) {
+        BlobIndexEntry entry = new BlobIndexEntry();
+        entry.setBucket(bucketName);
+        entry.setSha256(sha256);
+        entry.setObjectName(objectName);
+        entry.setSize(size);
+        entry.setContentType(contentType);
+        entry.setRefCount(1);
+        entry.setCreatedAt(Instant.now());
+        entry.setLastReferencedAt(entry.getCreatedAt());
+        try {
+            blobIndexRepository.insert(entry);
+            return objectName;
+        } catch (DuplicateKeyException e) {
+            return acquire(bucketName, sha256).orElse(objectName);
+        }
+    }
+
+    /**
+     * Drops one reference to the blob stored under {@code objectName}. The object itself is
+     * removed from MinIO once no reference is left. Objects stored before deduplication was
+     * enabled are not indexed and are left untouched.
+     *
+     * @return true if the object was deleted
+     */
+    public boolean release(String bucketName, String objectName) {
+        BlobIndexEntry entry = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("bucket").is(bucketName)
+                        .and("objectName").is(objectName)
+                        .and("refCount").gt(0)),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                BlobIndexEntry.class);
+        if (entry == null || entry.getRefCount() > 0) {
+            return false;
+        }
+
+        // Only remove the index entry if nobody re-acquired it in the meantime
+        long removed = mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(entry.getId()).and("refCount").is(0)),
+                BlobIndexEntry.class).getDeletedCount();
+        if (removed == 0) {
+            return false;
+        }
+        removeObject(bucketName, objectName);
+        return true;
+    }
+
+    void removeObject(String bucketName, String objectName) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build());
+        } catch (Exception e) {
+            log.error("Failed to remove object {}/{}: {}", bucketName, objectName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.minioService.service;
+
+import com.example.minioService.model.DerivativeBackfillStatus;
+import com.example.minioService.util.ImageResizer;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.Result;
+import io.minio.messages.Item;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds downscaled copies of uploaded photos so that avatar lists do not download
+ * full-resolution kiosk images. Derivatives live in the same bucket as the original,
+ * under a fixed prefix, so their URL can be derived from the original URL alone:
+ * <pre>
+ *   {bucket}/{filePath}                -> original
+ *   {bucket}/thumbnails/{filePath}     -> small avatar (JPEG)
+ *   {bucket}/display/{filePath}        -> recompressed display copy (JPEG)
+ * </pre>
+ * Derivatives carry the original's capture time in their {@value #CAPTURED_AT} metadata, so
+ * retention ages them from when the photo was taken rather than from when the copy was written.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    public static final String THUMBNAIL_PREFIX = "thumbnails/";
+    public static final String DISPLAY_PREFIX = "display/";
+    public static final String CAPTURED_AT = "captured-at";
+
+    private static final String JPEG_CONTENT_TYPE = "image/jpeg";
+    private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+
+    private final MinioClient minioClient;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService backfillCoordinator;
+    private final Map<String, BackfillJob> backfills = new ConcurrentHashMap<>();
+    // Bucket to its running backfill; a job is started only by the caller that claims the bucket here
+    private final Map<String, BackfillJob> runningBackfills = new ConcurrentHashMap<>();
+
+    @Value("${image.derivatives.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image.derivatives.buckets:checkin-images,attendance}")
+    private String buckets;
+
+    @Value("${image.derivatives.thumbnail-size:160}")
+    private int thumbnailSize;
+
+    @Value("${image.derivatives.thumbnail-quality:0.8}")
+    private float thumbnailQuality;
+
+    @Value("${image.derivatives.display-size:1024}")
+    private int displaySize;
+
+    @Value("${image.derivatives.display-quality:0.7}")
+    private float displayQuality;
+
+    public ImageDerivativeService(MinioClient minioClient,
+                                  @Qualifier("imageProcessingExecutor") ThreadPoolExecutor executor) {
+        this.minioClient = minioClient;
+        this.executor = executor;
+        this.backfillCoordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "derivative-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        backfillCoordinator.shutdownNow();
+    }
+
+    public static String thumbnailPath(String filePath) {
+        return THUMBNAIL_PREFIX + filePath;
+    }
+
+    public static String displayPath(String filePath) {
+        return DISPLAY_PREFIX + filePath;
+    }
+
+    public static Map<String, String> capturedAtMetadata(Instant capturedAt) {
+        return Map.of(CAPTURED_AT, capturedAt.toString());
+    }
+
+    /**
+     * Capture time recorded in an object's user metadata (keys may come back prefixed with
+     * {@code X-Amz-Meta-} and in any case), or {@code fallback} when there is none.
+     */
+    public static Instant capturedAt(Map<String, String> userMetadata, Instant fallback) {
+        if (userMetadata != null) {
+            for (Map.Entry<String, String> entry : userMetadata.entrySet()) {
+                if (entry.getKey().toLowerCase(Locale.ROOT).endsWith(CAPTURED_AT)) {
+                    try {
+                        return Instant.parse(entry.getValue());
+                    } catch (DateTimeParseException e) {
+                        return fallback;
+                    }
+                }
+            }
+        }
+        return fallback;
+    }
+
+    public static Instant capturedAt(Item item) {
+        return capturedAt(item.userMetadata(), item.lastModified().toInstant());
+    }
+
+    public static boolean isDerivativePath(String filePath) {
+        return filePath.startsWith(THUMBNAIL_PREFIX) || filePath.startsWith(DISPLAY_PREFIX);
+    }
+
+    public boolean isEligible(String bucketName, String filePath, String contentType) {
+        return enabled
+                && contentType != null
+                && contentType.startsWith("image/")
+                && !isDerivativePath(filePath)
+                && configuredBuckets().contains(bucketName);
+    }
+
+    /**
+     * Queues derivative generation for an already stored original. The byte array is
+     * handed over to the worker pool and must not be modified afterwards.
+     */
+    public void schedule(String bucketName, String filePath, byte[] original, Instant capturedAt) {
+        executor.execute(() -> generate(bucketName, filePath, original, capturedAt));
+    }
+
+    void generate(String bucketName, String filePath, byte[] original, Instant capturedAt) {
+        try {
+            BufferedImage image = ImageResizer.decode(original);
+            if (image == null) {
+                log.warn("Skipping derivatives for {}/{}: unsupported image format", bucketName, filePath);
+                return;
+            }
+
+            byte[] thumbnail = ImageResizer.encodeJpeg(ImageResizer.fitWithin(image, thumbnailSize), thumbnailQuality);
+            put(bucketName, thumbnailPath(filePath), thumbnail, capturedAt);
+
+            byte[] display = ImageResizer.encodeJpeg(ImageResizer.fitWithin(image, displaySize), displayQuality);
+            put(bucketName, displayPath(filePath), display, capturedAt);
+
+            log.debug("Derivatives for {}/{}: original={}B thumbnail={}B display={}B",
+                    bucketName, filePath, original.length, thumbnail.length, display.length);
+        } catch (Exception e) {
+            log.error("Failed to build derivatives for {}/{}: {}", bucketName, filePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Starts building derivatives for every original in the bucket that does not have a thumbnail
+     * yet and returns right away; poll {@link #getBackfill} for progress. Used once after rollout so
+     * that photos uploaded earlier also get avatars. Listing and downloading happen on a background
+     * thread, which also does the resizing itself whenever the worker pool's queue is full. The job
+     * stays RUNNING until every queued original has been processed.
+     *
+     * @throws IllegalStateException if a backfill of the same bucket is already running
+     */
+    public DerivativeBackfillStatus startBackfill(String bucketName) {
+        pruneFinished();
+        BackfillJob job = new BackfillJob("BF" + UUID.randomUUID().toString().replace("-", ""), bucketName);
+        if (runningBackfills.putIfAbsent(bucketName, job) != null) {
+            throw new IllegalStateException("A derivative backfill of " + bucketName + " is already running");
+        }
+        backfills.put(job.id, job);
+        try {
+            backfillCoordinator.execute(() -> backfill(job));
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            taskDone(job);
+            throw e;
+        }
+        return job.status();
+    }
+
+    public DerivativeBackfillStatus getBackfill(String jobId) {
+        BackfillJob job = backfills.get(jobId);
+        return job != null ? job.status() : null;
+    }
+
+    private void backfill(BackfillJob job) {
+        try {
+            Set<String> existingThumbnails = new HashSet<>();
+            for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                    .bucket(job.bucket).prefix(THUMBNAIL_PREFIX).recursive(true).build())) {
+                existingThumbnails.add(result.get().objectName().substring(THUMBNAIL_PREFIX.length()));
+            }
+
+            for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                    .bucket(job.bucket).recursive(true).includeUserMetadata(true).build())) {
+                Item item = result.get();
+                String objectName = item.objectName();
+                if (item.isDir() || isDerivativePath(objectName) || existingThumbnails.contains(objectName)) {
+                    continue;
+                }
+                byte[] original;
+                try (GetObjectResponse response = minioClient.getObject(
+                        GetObjectArgs.builder().bucket(job.bucket).object(objectName).build())) {
+                    original = response.readAllBytes();
+                }
+                Instant capturedAt = capturedAt(item);
+                job.pending.incrementAndGet();
+                job.queued.incrementAndGet();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            generate(job.bucket, objectName, original, capturedAt);
+                        } finally {
+                            job.processed.incrementAndGet();
+                            taskDone(job);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    job.pending.decrementAndGet();
+                    job.queued.decrementAndGet();
+                    throw e;
+                }
+            }
+            log.info("Derivative backfill {} of {} queued {} originals", job.id, job.bucket, job.queued.get());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            log.error("Derivative backfill {} of {} failed: {}", job.id, job.bucket, e.getMessage());
+        } finally {
+            taskDone(job);
+        }
+    }
+
+    // The listing counts as one pending task, so the job cannot finish before everything is queued
+    private void taskDone(BackfillJob job) {
+        if (job.pending.decrementAndGet() == 0) {
+            job.finish(job.error == null ? "COMPLETED" : "FAILED");
+            runningBackfills.remove(job.bucket, job);
+        }
+    }
+
+    private void pruneFinished() {
+        Instant cutoff = Instant.now().minus(STATUS_RETENTION);
+        backfills.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private void put(String bucketName, String objectName, byte[] bytes, Instant capturedAt) throws Exception {
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .stream(new ByteArrayInputStream(bytes), bytes.length, -1)
+                        .contentType(JPEG_CONTENT_TYPE)
+                        .userMetadata(capturedAtMetadata(capturedAt))
+                        .build()
+        );
+    }
+
+    private List<String> configuredBuckets() {
+        return Arrays.stream(buckets.split(",")).map(String::trim).toList();
+    }
+
+    private static final class BackfillJob {
+        private final String id;
+        private final String bucket;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong pending = new AtomicLong(1);
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile Instant completedAt;
+
+        private BackfillJob(String id, String bucket) {
+            this.id = id;
+            this.bucket = bucket;
+        }
+
+        private void finish(String status) {
+            this.completedAt = Instant.now();
+            this.status = status;
+        }
+
+        private DerivativeBackfillStatus status() {
+            return new DerivativeBackfillStatus(id, bucket, status, queued.get(), processed.get(),
+                    startedAt, completedAt, error);
+        }
+    }
+}
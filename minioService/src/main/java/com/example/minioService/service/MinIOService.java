@@ -1,5 +1,6 @@
 package com.example.minioService.service;
 
+import com.example.minioService.util.ContentHash;
 import com.example.minioService.util.SnowflakeIDGenerator;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
@@ -10,6 +11,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 @Service
 @RequiredArgsConstructor
@@ -17,6 +21,8 @@ public class MinIOService {
 
     private final MinioClient minioClient;
     private final SnowflakeIDGenerator snowflakeIDGenerator;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ContentAddressedStorageService contentAddressedStorageService;
 
     @Value("${minio.url}")
     private String minioUrl;
@@ -28,24 +34,91 @@ public class MinIOService {
 
     public String uploadFile(String bucketName, String filePath, MultipartFile file) {
         try {
-            boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
-            if (!found) {
-                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            ensureBucket(bucketName);
+
+            if (!contentAddressedStorageService.isEnabled(bucketName)) {
+                putObject(bucketName, filePath, file);
+                return objectUrl(bucketName, filePath);
             }
 
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(filePath) // 🔥 Using the pre-generated file path
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType(file.getContentType())
-                            .build()
-            );
+            // Hash the spooled upload first so repeat submissions never reach MinIO
+            String sha256 = ContentHash.sha256(file.getInputStream());
+            Optional<String> existing = contentAddressedStorageService.acquire(bucketName, sha256);
+            if (existing.isPresent()) {
+                return objectUrl(bucketName, existing.get());
+            }
 
-            return minioUrl + "/" + bucketName + "/" + filePath;
+            putObject(bucketName, filePath, file);
+            String canonical = contentAddressedStorageService.register(
+                    bucketName, sha256, filePath, file.getSize(), file.getContentType());
+            if (!canonical.equals(filePath)) {
+                // A concurrent upload of the same content was indexed first
+                contentAddressedStorageService.removeObject(bucketName, filePath);
+            }
+            return objectUrl(bucketName, canonical);
         } catch (Exception e) {
             throw new RuntimeException("File upload failed", e);
         }
     }
-}
 
+    /**
+     * Resolves already stored content by its SHA-256. Read-only: no reference is taken.
+     */
+    public Optional<String> findExisting(String bucketName, String sha256) {
+        if (!contentAddressedStorageService.isEnabled(bucketName)) {
+            return Optional.empty();
+        }
+        return contentAddressedStorageService.find(bucketName, sha256.toLowerCase())
+                .map(objectName -> objectUrl(bucketName, objectName));
+    }
+
+    /**
+     * Takes a reference on already stored content so callers can skip sending the file again.
+     * A hit counts as a new reference, exactly like an upload of the same bytes would, and must be
+     * released with {@link #releaseFile} once the caller no longer uses the file.
+     */
+    public Optional<String> acquireExisting(String bucketName, String sha256) {
+        if (!contentAddressedStorageService.isEnabled(bucketName)) {
+            return Optional.empty();
+        }
+        return contentAddressedStorageService.acquire(bucketName, sha256.toLowerCase())
+                .map(objectName -> objectUrl(bucketName, objectName));
+    }
+
+    public boolean releaseFile(String bucketName, String filePath) {
+        return contentAddressedStorageService.release(bucketName, filePath);
+    }
+
+    private void ensureBucket(String bucketName) throws Exception {
+        boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+        if (!found) {
+            minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+        }
+    }
+
+    private void putObject(String bucketName, String filePath, MultipartFile file) throws Exception {
+        boolean buildDerivatives = imageDerivativeService.isEligible(bucketName, filePath, file.getContentType());
+        // Photos are read once into memory so the same bytes can be handed to the resize pool
+        // after the multipart temp file is gone; other uploads keep streaming as before
+        byte[] bytes = buildDerivatives ? file.getBytes() : null;
+        Instant capturedAt = Instant.now();
+
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(filePath) // 🔥 Using the pre-generated file path
+                        .stream(bytes != null ? new ByteArrayInputStream(bytes) : file.getInputStream(), file.getSize(), -1)
+                        .contentType(file.getContentType())
+                        .userMetadata(ImageDerivativeService.capturedAtMetadata(capturedAt))
+                        .build()
+        );
+
+        if (buildDerivatives) {
+            imageDerivativeService.schedule(bucketName, filePath, bytes, capturedAt);
+        }
+    }
+
+    private String objectUrl(String bucketName, String filePath) {
+        return minioUrl + "/" + bucketName + "/" + filePath;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.minioService.service;
+
+import java.util.Map;
+
+/**
+ * Updates documents that store URLs of objects the retention sweeper rewrites or deletes.
+ */
+public interface ObjectReferenceRewriter {
+
+    boolean supports(String bucketName);
+
+    /**
+     * @param replacements old object URL to new object URL; a {@code null} value means the object
+     *                     was deleted and the reference should be removed
+     * @return number of documents modified
+     */
+    long rewrite(String bucketName, Map<String, String> replacements);
+}
@@ -0,0 +1,300 @@
+package com.example.minioService.service;
+
+import com.example.minioService.config.RetentionProperties;
+import com.example.minioService.model.RetentionRunSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves stored photos through their retention tiers: full resolution, then only the reduced copy
+ * built by {@link ImageDerivativeService}, then nothing. Documents that point at a rewritten object
+ * are updated through the matching {@link ObjectReferenceRewriter} before the object is removed,
+ * so stored URLs never point at a deleted object for longer than one batch.
+ * <p>
+ * Every tier is counted from when the photo was captured: the {@code captured-at} metadata carried
+ * by originals and their derivatives, or the object's last-modified time when it has none. A
+ * reduced copy written during a downgrade therefore still expires on the original's schedule.
+ */
+@Slf4j
+@Service
+public class RetentionService {
+
+    private static final String TIER_DOWNGRADE = "downgrade";
+    private static final String TIER_EXPIRE = "expire";
+
+    private final MinioClient minioClient;
+    private final RetentionProperties properties;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+    private final List<ObjectReferenceRewriter> referenceRewriters;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${minio.url}")
+    private String minioUrl;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, RetentionRunSummary> lastRuns = new ConcurrentHashMap<>();
+
+    public RetentionService(MinioClient minioClient,
+                            RetentionProperties properties,
+                            ImageDerivativeService imageDerivativeService,
+                            ContentAddressedStorageService contentAddressedStorageService,
+                            List<ObjectReferenceRewriter> referenceRewriters,
+                            MeterRegistry meterRegistry) {
+        this.minioClient = minioClient;
+        this.properties = properties;
+        this.imageDerivativeService = imageDerivativeService;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+        this.referenceRewriters = referenceRewriters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(cron = "${retention.cron:0 30 2 * * *}", zone = "Asia/Kolkata")
+    public void scheduledSweep() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            sweepAll();
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled retention sweep: {}", e.getMessage());
+        }
+    }
+
+    public List<RetentionRunSummary> sweepAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Retention sweep already running");
+        }
+        try {
+            List<RetentionRunSummary> summaries = new ArrayList<>();
+            properties.getBuckets().forEach((bucket, policy) -> summaries.add(sweep(bucket, policy)));
+            return summaries;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, RetentionRunSummary> getLastRuns() {
+        return lastRuns;
+    }
+
+    RetentionRunSummary sweep(String bucketName, RetentionProperties.BucketPolicy policy) {
+        RetentionRunSummary summary = new RetentionRunSummary(bucketName);
+        if (contentAddressedStorageService.isEnabled(bucketName)) {
+            // Deduplicated objects are shared between callers and are only freed through their refcount
+            log.warn("Retention policy ignored for deduplicated bucket {}", bucketName);
+            return summary;
+        }
+
+        ZonedDateTime now = ZonedDateTime.now();
+        Instant downgradeBefore = now.minusDays(policy.getFullResolutionDays()).toInstant();
+        Instant deleteBefore = policy.getDeleteAfterDays() > 0 ? now.minusDays(policy.getDeleteAfterDays()).toInstant() : null;
+        boolean keepDisplay = "display".equalsIgnoreCase(policy.getReducedCopy());
+        SweepBatch batch = new SweepBatch();
+
+        // Pass 1: originals
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucketName).recursive(true).includeUserMetadata(true).build())) {
+            try {
+                Item item = result.get();
+                String objectName = item.objectName();
+                if (item.isDir() || ImageDerivativeService.isDerivativePath(objectName)) {
+                    continue;
+                }
+                Instant capturedAt = ImageDerivativeService.capturedAt(item);
+                if (deleteBefore != null && capturedAt.isBefore(deleteBefore)) {
+                    batch.remove(objectName, item.size(), TIER_EXPIRE);
+                    batch.replace(objectUrl(bucketName, objectName), null);
+                    summary.setObjectsDeleted(summary.getObjectsDeleted() + 1);
+                } else if (capturedAt.isBefore(downgradeBefore)) {
+                    if (downgrade(bucketName, objectName, item.size(), capturedAt, keepDisplay, batch)) {
+                        summary.setObjectsDowngraded(summary.getObjectsDowngraded() + 1);
+                    }
+                }
+            } catch (Exception e) {
+                summary.setErrors(summary.getErrors() + 1);
+                log.error("Retention failed for an object in {}: {}", bucketName, e.getMessage());
+            }
+            if (batch.size() >= properties.getBatchSize()) {
+                flush(bucketName, batch, summary);
+            }
+        }
+
+        // Pass 2: reduced copies that outlived the bucket's retention
+        if (deleteBefore != null) {
+            for (String prefix : List.of(ImageDerivativeService.THUMBNAIL_PREFIX, ImageDerivativeService.DISPLAY_PREFIX)) {
+                for (Result<Item> result : minioClient.listObjects(
+                        ListObjectsArgs.builder().bucket(bucketName).prefix(prefix).recursive(true)
+                                .includeUserMetadata(true).build())) {
+                    try {
+                        Item item = result.get();
+                        if (!item.isDir() && ImageDerivativeService.capturedAt(item).isBefore(deleteBefore)) {
+                            batch.remove(item.objectName(), item.size(), TIER_EXPIRE);
+                            batch.replace(objectUrl(bucketName, item.objectName()), null);
+                            summary.setObjectsDeleted(summary.getObjectsDeleted() + 1);
+                        }
+                    } catch (Exception e) {
+                        summary.setErrors(summary.getErrors() + 1);
+                        log.error("Retention failed for a derivative in {}: {}", bucketName, e.getMessage());
+                    }
+                    if (batch.size() >= properties.getBatchSize()) {
+                        flush(bucketName, batch, summary);
+                    }
+                }
+            }
+        }
+
+        flush(bucketName, batch, summary);
+        summary.setFinishedAt(Instant.now());
+        lastRuns.put(bucketName, summary);
+        log.info("Retention sweep for {} finished in {} ms: downgraded={} deleted={} reclaimed={}B references={} errors={}",
+                bucketName, Duration.between(summary.getStartedAt(), summary.getFinishedAt()).toMillis(),
+                summary.getObjectsDowngraded(), summary.getObjectsDeleted(), summary.getBytesReclaimed(),
+                summary.getReferencesUpdated(), summary.getErrors());
+        return summary;
+    }
+
+    /**
+     * Queues the original (and the display copy when only the thumbnail is kept) for removal and
+     * points references at the reduced copy. Photos uploaded before derivatives existed get their
+     * reduced copy built here first; objects that are not decodable images are left alone.
+     */
+    private boolean downgrade(String bucketName, String objectName, long size, Instant capturedAt,
+                              boolean keepDisplay, SweepBatch batch) throws Exception {
+        String reducedName = keepDisplay
+                ? ImageDerivativeService.displayPath(objectName)
+                : ImageDerivativeService.thumbnailPath(objectName);
+
+        if (objectSize(bucketName, reducedName) == null) {
+            try (GetObjectResponse response = minioClient.getObject(
+                    GetObjectArgs.builder().bucket(bucketName).object(objectName).build())) {
+                imageDerivativeService.generate(bucketName, objectName, response.readAllBytes(), capturedAt);
+            }
+            if (objectSize(bucketName, reducedName) == null) {
+                return false;
+            }
+        }
+
+        batch.remove(objectName, size, TIER_DOWNGRADE);
+        if (!keepDisplay) {
+            String displayName = ImageDerivativeService.displayPath(objectName);
+            Long displaySize = objectSize(bucketName, displayName);
+            if (displaySize != null) {
+                batch.remove(displayName, displaySize, TIER_DOWNGRADE);
+                batch.replace(objectUrl(bucketName, displayName), objectUrl(bucketName, reducedName));
+            }
+        }
+        batch.replace(objectUrl(bucketName, objectName), objectUrl(bucketName, reducedName));
+        return true;
+    }
+
+    private void flush(String bucketName, SweepBatch batch, RetentionRunSummary summary) {
+        if (batch.size() == 0) {
+            return;
+        }
+
+        // References first: a failed Mongo write must not leave URLs pointing at deleted objects
+        for (ObjectReferenceRewriter rewriter : referenceRewriters) {
+            if (rewriter.supports(bucketName)) {
+                summary.setReferencesUpdated(summary.getReferencesUpdated() + rewriter.rewrite(bucketName, batch.replacements));
+            }
+        }
+
+        List<DeleteObject> objects = batch.removals.keySet().stream().map(DeleteObject::new).toList();
+        Set<String> failed = new HashSet<>();
+        for (Result<DeleteError> result : minioClient.removeObjects(
+                RemoveObjectsArgs.builder().bucket(bucketName).objects(objects).build())) {
+            try {
+                DeleteError error = result.get();
+                failed.add(error.objectName());
+                log.error("Failed to delete {}/{}: {}", bucketName, error.objectName(), error.message());
+            } catch (Exception e) {
+                log.error("Failed to delete objects in {}: {}", bucketName, e.getMessage());
+            }
+        }
+
+        batch.removals.forEach((objectName, removal) -> {
+            if (failed.contains(objectName)) {
+                summary.setErrors(summary.getErrors() + 1);
+                return;
+            }
+            summary.setBytesReclaimed(summary.getBytesReclaimed() + removal.size());
+            reclaimedCounter(bucketName, removal.tier()).increment(removal.size());
+        });
+        batch.clear();
+    }
+
+    private Counter reclaimedCounter(String bucketName, String tier) {
+        return Counter.builder("retention.reclaimed.bytes")
+                .description("Bytes removed from MinIO by the retention sweeper")
+                .baseUnit("bytes")
+                .tag("bucket", bucketName)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    private Long objectSize(String bucketName, String objectName) throws Exception {
+        try {
+            return minioClient.statObject(
+                    StatObjectArgs.builder().bucket(bucketName).object(objectName).build()).size();
+        } catch (ErrorResponseException e) {
+            return null;
+        }
+    }
+
+    private String objectUrl(String bucketName, String objectName) {
+        return minioUrl + "/" + bucketName + "/" + objectName;
+    }
+
+    private record Removal(long size, String tier) {
+    }
+
+    private static class SweepBatch {
+        private final Map<String, Removal> removals = new LinkedHashMap<>();
+        private final Map<String, String> replacements = new LinkedHashMap<>();
+
+        void remove(String objectName, long size, String tier) {
+            removals.put(objectName, new Removal(size, tier));
+        }
+
+        void replace(String oldUrl, String newUrl) {
+            replacements.put(oldUrl, newUrl);
+        }
+
+        int size() {
+            return removals.size();
+        }
+
+        void clear() {
+            removals.clear();
+            replacements.clear();
+        }
+    }
+}
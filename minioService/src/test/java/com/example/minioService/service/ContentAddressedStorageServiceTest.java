@@ -0,0 +1,129 @@
+package com.example.minioService.service;
+
+import com.example.minioService.model.BlobIndexEntry;
+import com.example.minioService.repository.BlobIndexRepository;
+import com.mongodb.client.result.DeleteResult;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentAddressedStorageServiceTest {
+
+    private static final String SHA = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Mock
+    private BlobIndexRepository blobIndexRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MinioClient minioClient;
+
+    @InjectMocks
+    private ContentAddressedStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "buckets", "documents, bills");
+        service.init();
+    }
+
+    @Test
+    void onlyConfiguredBucketsAreDeduplicated() {
+        assertTrue(service.isEnabled("documents"));
+        assertTrue(service.isEnabled("bills"));
+        assertFalse(service.isEnabled("checkin-images"));
+    }
+
+    @Test
+    void firstUploadBecomesCanonicalBlob() {
+        assertEquals("EMP1/pan.pdf", service.register("documents", SHA, "EMP1/pan.pdf", 1024, "application/pdf"));
+
+        ArgumentCaptor<BlobIndexEntry> entry = ArgumentCaptor.forClass(BlobIndexEntry.class);
+        verify(blobIndexRepository).insert(entry.capture());
+        assertEquals(1, entry.getValue().getRefCount());
+        assertEquals(SHA, entry.getValue().getSha256());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void concurrentUploadOfSameContentResolvesToWinner() {
+        when(blobIndexRepository.insert(any(BlobIndexEntry.class))).thenThrow(new DuplicateKeyException("bucket_sha256"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(BlobIndexEntry.class))).thenReturn(entry("EMP2/pan.pdf", 2));
+
+        assertEquals("EMP2/pan.pdf", service.register("documents", SHA, "EMP1/pan.pdf", 1024, "application/pdf"));
+    }
+
+    @Test
+    void findDoesNotTakeReference() {
+        when(mongoTemplate.findOne(any(Query.class), eq(BlobIndexEntry.class))).thenReturn(entry("EMP2/pan.pdf", 1));
+
+        assertEquals(Optional.of("EMP2/pan.pdf"), service.find("documents", SHA));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(BlobIndexEntry.class));
+    }
+
+    @Test
+    void releaseKeepsObjectWhileReferenced() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(BlobIndexEntry.class))).thenReturn(entry("EMP1/pan.pdf", 1));
+
+        assertFalse(service.release("documents", "EMP1/pan.pdf"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(BlobIndexEntry.class));
+        verifyNoInteractions(minioClient);
+    }
+
+    @Test
+    void releaseOfLastReferenceRemovesObject() throws Exception {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(BlobIndexEntry.class))).thenReturn(entry("EMP1/pan.pdf", 0));
+        when(mongoTemplate.remove(any(Query.class), eq(BlobIndexEntry.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        assertTrue(service.release("documents", "EMP1/pan.pdf"));
+        ArgumentCaptor<RemoveObjectArgs> removed = ArgumentCaptor.forClass(RemoveObjectArgs.class);
+        verify(minioClient).removeObject(removed.capture());
+        assertEquals("EMP1/pan.pdf", removed.getValue().object());
+    }
+
+    @Test
+    void releaseLeavesObjectReacquiredInTheMeantime() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(BlobIndexEntry.class))).thenReturn(entry("EMP1/pan.pdf", 0));
+        when(mongoTemplate.remove(any(Query.class), eq(BlobIndexEntry.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        assertFalse(service.release("documents", "EMP1/pan.pdf"));
+        verifyNoInteractions(minioClient);
+    }
+
+    private static BlobIndexEntry entry(String objectName, long refCount) {
+        BlobIndexEntry entry = new BlobIndexEntry();
+        entry.setId("B1");
+        entry.setBucket("documents");
+        entry.setSha256(SHA);
+        entry.setObjectName(objectName);
+        entry.setRefCount(refCount);
+        return entry;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.minioService.service;
+
+import com.example.minioService.model.DerivativeBackfillStatus;
+import com.example.minioService.util.ImageResizer;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.Result;
+import io.minio.messages.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    private static final Instant CAPTURED_AT = Instant.parse("2025-01-02T03:04:05Z");
+
+    @Mock
+    private MinioClient minioClient;
+
+    private DeferredExecutor executor;
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new DeferredExecutor();
+        service = new ImageDerivativeService(minioClient, executor);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "buckets", "checkin-images,attendance");
+        ReflectionTestUtils.setField(service, "thumbnailSize", 160);
+        ReflectionTestUtils.setField(service, "thumbnailQuality", 0.8f);
+        ReflectionTestUtils.setField(service, "displaySize", 1024);
+        ReflectionTestUtils.setField(service, "displayQuality", 0.7f);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void derivativesLiveUnderFixedPrefixes() {
+        assertEquals("thumbnails/EMP1/a.jpg", ImageDerivativeService.thumbnailPath("EMP1/a.jpg"));
+        assertEquals("display/EMP1/a.jpg", ImageDerivativeService.displayPath("EMP1/a.jpg"));
+        assertTrue(ImageDerivativeService.isDerivativePath("thumbnails/EMP1/a.jpg"));
+        assertFalse(ImageDerivativeService.isDerivativePath("EMP1/a.jpg"));
+    }
+
+    @Test
+    void onlyImagesInConfiguredBucketsAreEligible() {
+        assertTrue(service.isEligible("checkin-images", "EMP1/a.jpg", "image/png"));
+        assertFalse(service.isEligible("documents", "EMP1/a.jpg", "image/png"));
+        assertFalse(service.isEligible("checkin-images", "EMP1/a.pdf", "application/pdf"));
+        assertFalse(service.isEligible("checkin-images", "thumbnails/EMP1/a.jpg", "image/jpeg"));
+    }
+
+    @Test
+    void readsCaptureTimeFromPrefixedMetadata() {
+        Instant fallback = Instant.parse("2025-06-01T00:00:00Z");
+        assertEquals(CAPTURED_AT, ImageDerivativeService.capturedAt(
+                Map.of("X-Amz-Meta-Captured-At", CAPTURED_AT.toString()), fallback));
+        assertEquals(fallback, ImageDerivativeService.capturedAt(Map.of("X-Amz-Meta-Captured-At", "yesterday"), fallback));
+        assertEquals(fallback, ImageDerivativeService.capturedAt(null, fallback));
+    }
+
+    @Test
+    void generateWritesThumbnailAndDisplayCopy() throws Exception {
+        byte[] original = ImageResizer.encodeJpeg(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), 0.9f);
+
+        service.generate("checkin-images", "EMP1/a.jpg", original, CAPTURED_AT);
+
+        ArgumentCaptor<PutObjectArgs> puts = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient, times(2)).putObject(puts.capture());
+        assertEquals(List.of("thumbnails/EMP1/a.jpg", "display/EMP1/a.jpg"),
+                puts.getAllValues().stream().map(PutObjectArgs::object).toList());
+        assertEquals("image/jpeg", puts.getValue().contentType());
+    }
+
+    @Test
+    void backfillCompletesOnlyAfterQueuedWorkAndRunsOncePerBucket() throws Exception {
+        Item item = mock(Item.class);
+        when(item.objectName()).thenReturn("EMP1/a.jpg");
+        when(item.isDir()).thenReturn(false);
+        when(item.userMetadata()).thenReturn(Map.of());
+        when(item.lastModified()).thenReturn(ZonedDateTime.now());
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenAnswer(invocation -> {
+            ListObjectsArgs args = invocation.getArgument(0);
+            return ImageDerivativeService.THUMBNAIL_PREFIX.equals(args.prefix())
+                    ? List.<Result<Item>>of() : List.of(new Result<>(item));
+        });
+        GetObjectResponse response = mock(GetObjectResponse.class);
+        when(response.readAllBytes()).thenReturn("not an image".getBytes());
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(response);
+
+        DerivativeBackfillStatus started = service.startBackfill("checkin-images");
+        assertEquals("RUNNING", started.getStatus());
+        executor.awaitQueued(1);
+
+        DerivativeBackfillStatus queued = service.getBackfill(started.getJobId());
+        assertEquals("RUNNING", queued.getStatus());
+        assertEquals(1, queued.getQueued());
+        assertEquals(0, queued.getProcessed());
+        assertThrows(IllegalStateException.class, () -> service.startBackfill("checkin-images"));
+
+        executor.runQueued();
+
+        DerivativeBackfillStatus finished = awaitFinished(started.getJobId());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertEquals(1, finished.getProcessed());
+        assertNotNull(finished.getCompletedAt());
+        assertNotEquals(started.getJobId(), service.startBackfill("checkin-images").getJobId());
+        executor.awaitQueued(1);
+    }
+
+    private DerivativeBackfillStatus awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        DerivativeBackfillStatus status = service.getBackfill(jobId);
+        while ("RUNNING".equals(status.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = service.getBackfill(jobId);
+        }
+        return status;
+    }
+
+    // Holds submitted tasks until the test runs them
+    private static final class DeferredExecutor extends ThreadPoolExecutor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        private DeferredExecutor() {
+            super(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        }
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(command);
+            notifyAll();
+        }
+
+        synchronized void awaitQueued(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (tasks.size() < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            assertEquals(count, tasks.size());
+        }
+
+        void runQueued() {
+            List<Runnable> queued;
+            synchronized (this) {
+                queued = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            queued.forEach(Runnable::run);
+        }
+    }
+}
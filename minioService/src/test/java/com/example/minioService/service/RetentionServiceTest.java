@@ -0,0 +1,137 @@
+package com.example.minioService.service;
+
+import com.example.minioService.config.RetentionProperties;
+import com.example.minioService.model.RetentionRunSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.messages.DeleteError;
+import io.minio.messages.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    private static final String BUCKET = "checkin-images";
+    private static final String URL = "http://minio/" + BUCKET + "/";
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ContentAddressedStorageService contentAddressedStorageService;
+
+    @Mock
+    private ObjectReferenceRewriter rewriter;
+
+    private RetentionService service;
+    private RetentionProperties.BucketPolicy policy;
+    private final Map<String, String> replacements = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        RetentionProperties properties = new RetentionProperties();
+        policy = new RetentionProperties.BucketPolicy();
+        policy.setFullResolutionDays(30);
+        policy.setReducedCopy("thumbnail");
+        policy.setDeleteAfterDays(365);
+        service = new RetentionService(minioClient, properties, imageDerivativeService,
+                contentAddressedStorageService, List.of(rewriter), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "minioUrl", "http://minio");
+    }
+
+    @Test
+    void deduplicatedBucketsAreLeftToTheirRefcount() {
+        when(contentAddressedStorageService.isEnabled("documents")).thenReturn(true);
+
+        RetentionRunSummary summary = service.sweep("documents", policy);
+
+        assertEquals(0, summary.getObjectsDeleted());
+        verifyNoInteractions(minioClient, rewriter);
+    }
+
+    @Test
+    void expiresByCaptureTimeRatherThanUploadTime() {
+        // Re-uploaded yesterday, but captured well past the bucket's retention
+        Item original = item("EMP1/a.jpg", 2048, ZonedDateTime.now().minusDays(400), ZonedDateTime.now().minusDays(1));
+        stubSweep(original);
+
+        RetentionRunSummary summary = service.sweep(BUCKET, policy);
+
+        assertEquals(1, summary.getObjectsDeleted());
+        assertEquals(0, summary.getObjectsDowngraded());
+        assertEquals(2048, summary.getBytesReclaimed());
+        assertEquals(1, summary.getReferencesUpdated());
+        assertTrue(replacements.containsKey(URL + "EMP1/a.jpg"));
+        assertNull(replacements.get(URL + "EMP1/a.jpg"));
+    }
+
+    @Test
+    void downgradePointsReferencesAtThumbnail() throws Exception {
+        Item original = item("EMP1/a.jpg", 2048, ZonedDateTime.now().minusDays(60), ZonedDateTime.now().minusDays(60));
+        stubSweep(original);
+        StatObjectResponse stat = mock(StatObjectResponse.class);
+        when(stat.size()).thenReturn(100L);
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(stat);
+
+        RetentionRunSummary summary = service.sweep(BUCKET, policy);
+
+        assertEquals(1, summary.getObjectsDowngraded());
+        assertEquals(0, summary.getObjectsDeleted());
+        assertEquals(2048 + 100, summary.getBytesReclaimed());
+        assertEquals(URL + "thumbnails/EMP1/a.jpg", replacements.get(URL + "EMP1/a.jpg"));
+        assertEquals(URL + "thumbnails/EMP1/a.jpg", replacements.get(URL + "display/EMP1/a.jpg"));
+        verify(imageDerivativeService, never()).generate(any(), any(), any(), any());
+    }
+
+    private void stubSweep(Item original) {
+        when(contentAddressedStorageService.isEnabled(BUCKET)).thenReturn(false);
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenAnswer(invocation -> {
+            ListObjectsArgs args = invocation.getArgument(0);
+            return args.prefix() == null || args.prefix().isEmpty()
+                    ? List.of(new Result<>(original)) : List.<Result<Item>>of();
+        });
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenReturn(List.<Result<DeleteError>>of());
+        when(rewriter.supports(BUCKET)).thenReturn(true);
+        // The batch is cleared after each flush, so keep a copy of what the rewriter was given
+        when(rewriter.rewrite(eq(BUCKET), anyMap())).thenAnswer(invocation -> {
+            Map<String, String> batch = invocation.getArgument(1);
+            replacements.putAll(batch);
+            return 1L;
+        });
+    }
+
+    private static Item item(String objectName, long size, ZonedDateTime capturedAt, ZonedDateTime lastModified) {
+        Item item = mock(Item.class);
+        when(item.objectName()).thenReturn(objectName);
+        when(item.isDir()).thenReturn(false);
+        when(item.size()).thenReturn(size);
+        when(item.userMetadata()).thenReturn(
+                Map.of("X-Amz-Meta-" + ImageDerivativeService.CAPTURED_AT, capturedAt.toInstant().toString()));
+        when(item.lastModified()).thenReturn(lastModified);
+        return item;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.minioService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageResizerTest {
+
+    @Test
+    void scalesLongestSideDownKeepingAspectRatio() {
+        BufferedImage scaled = ImageResizer.fitWithin(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), 160);
+        assertEquals(160, scaled.getWidth());
+        assertEquals(120, scaled.getHeight());
+    }
+
+    @Test
+    void neverUpscalesSmallImages() {
+        BufferedImage scaled = ImageResizer.fitWithin(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), 160);
+        assertEquals(100, scaled.getWidth());
+        assertEquals(50, scaled.getHeight());
+    }
+
+    @Test
+    void flattensTransparencyOntoWhite() {
+        BufferedImage transparent = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage flattened = ImageResizer.fitWithin(transparent, 160);
+        assertEquals(BufferedImage.TYPE_INT_RGB, flattened.getType());
+        assertEquals(0xFFFFFF, flattened.getRGB(5, 5) & 0xFFFFFF);
+    }
+
+    @Test
+    void encodedJpegDecodesBack() throws Exception {
+        byte[] jpeg = ImageResizer.encodeJpeg(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), 0.7f);
+        BufferedImage decoded = ImageResizer.decode(jpeg);
+        assertNotNull(decoded);
+        assertEquals(40, decoded.getWidth());
+        assertEquals(30, decoded.getHeight());
+    }
+
+    @Test
+    void unsupportedBytesDecodeToNull() throws Exception {
+        assertNull(ImageResizer.decode("not an image".getBytes()));
+    }
+}